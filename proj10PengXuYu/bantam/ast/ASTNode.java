@@ -275,6 +275,16 @@ public abstract class ASTNode {
         return lineNum;
     }
 
+    /**
+     * Move this node up or down some lines in the source, such as when lines
+     * were added above the class it is in
+     *
+     * @param offset number of lines to add to the line number
+     */
+    public void shiftLineNum(int offset) {
+        lineNum += offset;
+    }
+
     /**
      * Visitor method
      *
@@ -55,6 +55,17 @@ public class AssignExpr extends Expr {
      */
     protected Expr expr;
 
+    /**
+     * Where the lefthand variable is kept (set during semantic analysis)
+     */
+    protected Binding binding;
+
+    /**
+     * Where the variable named by the reference name is kept, if it is not
+     * 'this' or 'super' (set during semantic analysis)
+     */
+    protected Binding refBinding;
+
     /**
      * AssignExpr constructor
      *
@@ -97,6 +108,44 @@ public class AssignExpr extends Expr {
         return expr;
     }
 
+    /**
+     * Get the binding of the lefthand variable, which the Resolver sets during
+     * semantic analysis
+     *
+     * @return the binding
+     */
+    public Binding getBinding() {
+        return binding;
+    }
+
+    /**
+     * Set the binding of the lefthand variable
+     *
+     * @param binding where the variable is kept
+     */
+    public void setBinding(Binding binding) {
+        this.binding = binding;
+    }
+
+    /**
+     * Get the binding of the variable named by the reference name
+     *
+     * @return the binding, or null if there is no reference name or it
+     *         is 'this' or 'super'
+     */
+    public Binding getRefBinding() {
+        return refBinding;
+    }
+
+    /**
+     * Set the binding of the variable named by the reference name
+     *
+     * @param refBinding where the variable is kept
+     */
+    public void setRefBinding(Binding refBinding) {
+        this.refBinding = refBinding;
+    }
+
     /**
      * Visitor method
      *
@@ -0,0 +1,155 @@
+/*
+ * File: Binding.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.ast;
+
+/**
+ * The <tt>Binding</tt> class tells where the variable that a name refers to is
+ * kept. The Resolver sets it on every <tt>VarExpr</tt> and <tt>AssignExpr</tt>
+ * that names a local variable, a parameter or a field during semantic analysis,
+ * so the passes after it never need to look the name up in a SymbolTable.
+ *
+ * A local variable or parameter has a (depth, slot): the depth of the scope
+ * that declares it, 0 for the parameters and the outermost statements of the
+ * method, and its slot in the frame of the method. The parameters have the
+ * slots 0, 1, ... in order, and the other variables get the lowest slots not
+ * used by a variable in scope, so variables of scopes that don't overlap
+ * share slots, and every slot is less than <tt>Method.getNumLocals()</tt>.
+ *
+ * A field has a (class, offset): the class that declares it and its offset
+ * in the objects, counting the fields of the superclasses first, so a field
+ * has the same offset in its class and all the subclasses.
+ *
+ * @see VarExpr
+ * @see AssignExpr
+ */
+public final class Binding {
+    /**
+     * The name of the variable
+     */
+    private final String name;
+    /**
+     * The Bantam type of the variable
+     */
+    private final String type;
+    /**
+     * The class that declares the field, or null for a local variable
+     */
+    private final String className;
+    /**
+     * The depth of the scope of a local variable, or -1 for a field
+     */
+    private final int depth;
+    /**
+     * The slot of a local variable, or the offset of a field
+     */
+    private final int index;
+
+    private Binding(String name, String type, String className, int depth, int index) {
+        this.name = name;
+        this.type = type;
+        this.className = className;
+        this.depth = depth;
+        this.index = index;
+    }
+
+    /**
+     * Create the binding of a local variable or parameter
+     *
+     * @param name  the name of the variable
+     * @param type  the type of the variable
+     * @param depth the depth of the scope that declares it
+     * @param slot  its slot in the frame of the method
+     * @return the binding
+     */
+    public static Binding local(String name, String type, int depth, int slot) {
+        return new Binding(name, type, null, depth, slot);
+    }
+
+    /**
+     * Create the binding of a field
+     *
+     * @param name      the name of the field
+     * @param type      the type of the field
+     * @param className the class that declares it
+     * @param offset    its offset in the objects of the class
+     * @return the binding
+     */
+    public static Binding field(String name, String type, String className, int offset) {
+        return new Binding(name, type, className, -1, offset);
+    }
+
+    /**
+     * Get whether the variable is a field
+     *
+     * @return true for a field, false for a local variable or parameter
+     */
+    public boolean isField() {
+        return className != null;
+    }
+
+    /**
+     * Get the name of the variable
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the type of the variable
+     *
+     * @return the Bantam type
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Get the class that declares a field
+     *
+     * @return the name of the class, or null for a local variable
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Get the depth of the scope of a local variable
+     *
+     * @return the depth, or -1 for a field
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Get the slot of a local variable in the frame of its method
+     *
+     * @return the slot
+     */
+    public int getSlot() {
+        return index;
+    }
+
+    /**
+     * Get the offset of a field in the objects of its class
+     *
+     * @return the offset
+     */
+    public int getOffset() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return isField() ? "field " + className + "." + name + "[" + index + "]"
+                : "local " + name + " " + depth + ":" + index;
+    }
+}
@@ -58,6 +58,19 @@ public class Class_ extends ASTNode {
      */
     protected MemberList memberList;
 
+    /**
+     * A hash of the tokens of the class and of their lines relative to the
+     * first line of the class (set by the parser, 0 for a class that was not
+     * parsed)
+     */
+    protected long sourceHash;
+
+    /**
+     * What other classes can see of this class, as a String (set by the
+     * semantic analyzer, null until then)
+     */
+    protected String signature;
+
     /**
      * Class_ constructor
      *
@@ -111,6 +124,46 @@ public class Class_ extends ASTNode {
         return memberList;
     }
 
+    /**
+     * Get the hash of the tokens of the class and of their lines relative to
+     * the first line of the class, which is the same for two classes parsed
+     * from the same source text, even if they start on different lines of
+     * their files
+     *
+     * @return the hash, or 0 if the class was not parsed
+     */
+    public long getSourceHash() {
+        return sourceHash;
+    }
+
+    /**
+     * Set the hash of the tokens of the class
+     *
+     * @param sourceHash the hash
+     */
+    public void setSourceHash(long sourceHash) {
+        this.sourceHash = sourceHash;
+    }
+
+    /**
+     * Get what other classes can see of this class: its superclass, fields
+     * and method signatures, as the semantic analyzer wrote them
+     *
+     * @return the signature, or null if it hasn't been set
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * Set what other classes can see of this class
+     *
+     * @param signature the signature
+     */
+    public void setSignature(String signature) {
+        this.signature = signature;
+    }
+
     /**
      * Visitor method
      *
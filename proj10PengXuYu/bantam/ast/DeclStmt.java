@@ -54,6 +54,11 @@ public class DeclStmt extends Stmt {
      */
     protected Expr init;
 
+    /**
+     * The slot of the variable in the frame of the method (set during semantic analysis)
+     */
+    protected int slot = -1;
+
     /**
      * DeclStmt constructor
      *
@@ -96,6 +101,25 @@ public class DeclStmt extends Stmt {
         return init;
     }
 
+    /**
+     * Get the slot of the variable in the frame of the method, which the
+     * Resolver sets during semantic analysis
+     *
+     * @return the slot
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Set the slot of the variable in the frame of the method
+     *
+     * @param slot the slot
+     */
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
     /**
      * Visitor method
      *
@@ -52,6 +52,11 @@ public class Field extends Member {
      */
     protected Expr init;
 
+    /**
+     * The offset of the field in the objects of its class (set during semantic analysis)
+     */
+    protected int offset = -1;
+
     /**
      * Field constructor
      *
@@ -94,6 +99,26 @@ public class Field extends Member {
         return init;
     }
 
+    /**
+     * Get the offset of the field in the objects of its class, counting the
+     * fields of the superclasses first, which the Resolver sets during
+     * semantic analysis
+     *
+     * @return the offset
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Set the offset of the field
+     *
+     * @param offset the offset
+     */
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
     /**
      * Visitor method
      *
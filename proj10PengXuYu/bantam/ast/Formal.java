@@ -46,6 +46,11 @@ public class Formal extends ASTNode {
      */
     protected String name;
 
+    /**
+     * The slot of the parameter in the frame of the method (set during semantic analysis)
+     */
+    protected int slot = -1;
+
     /**
      * Formal constructor
      *
@@ -77,6 +82,25 @@ public class Formal extends ASTNode {
         return name;
     }
 
+    /**
+     * Get the slot of the parameter in the frame of the method, which the
+     * Resolver sets during semantic analysis
+     *
+     * @return the slot
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Set the slot of the parameter in the frame of the method
+     *
+     * @param slot the slot
+     */
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
     /**
      * Visitor method
      *
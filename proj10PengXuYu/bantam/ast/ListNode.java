@@ -34,6 +34,7 @@ package proj10PengXuYu.bantam.ast;
 
 import proj10PengXuYu.bantam.visitor.Visitor;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Vector;
 
@@ -51,6 +52,11 @@ public abstract class ListNode extends ASTNode
      */
     private Vector<ASTNode> listElements;
 
+    /**
+     * True once the list is read-only (see freeze)
+     */
+    private boolean frozen;
+
     /**
      * ListNode constructor
      *
@@ -68,16 +74,52 @@ public abstract class ListNode extends ASTNode
      * @return the updated list
      */
     public ListNode addElement(ASTNode node) {
+        checkWritable();
         listElements.add(node);
         return this;
     }
 
+    /**
+     * Replace the index-th element of this list
+     *
+     * @param index the index of the element to replace
+     * @param node  the new element
+     * @return the element that was replaced
+     * @throws ArrayIndexOutOfBoundsException if the index is
+     *         too large or too small
+     */
+    public ASTNode set(int index, ASTNode node) {
+        checkWritable();
+        return listElements.set(index, node);
+    }
+
+    /**
+     * Makes this list read-only, so that adding or replacing an element
+     * throws an UnsupportedOperationException, such as for the lists of an
+     * AST that is shared
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Throws an UnsupportedOperationException if the list is frozen
+     */
+    private void checkWritable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("The list is read-only");
+        }
+    }
+
     /**
      * Returns an iterator for this list
      *
      * @return iterator for this list
      */
     public Iterator<ASTNode> iterator() {
+        if (frozen) {
+            return Collections.unmodifiableList(listElements).iterator();
+        }
         return listElements.iterator();
     }
 
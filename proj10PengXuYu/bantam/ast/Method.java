@@ -58,6 +58,12 @@ public class Method extends Member {
      */
     protected StmtList stmtList;
 
+    /**
+     * The number of slots of the frame for the parameters and local variables
+     * (set during semantic analysis)
+     */
+    protected int numLocals;
+
     /**
      * Method constructor
      *
@@ -112,6 +118,25 @@ public class Method extends Member {
         return stmtList;
     }
 
+    /**
+     * Get the number of slots that the parameters and local variables of the
+     * method need, which the Resolver sets during semantic analysis
+     *
+     * @return the number of slots
+     */
+    public int getNumLocals() {
+        return numLocals;
+    }
+
+    /**
+     * Set the number of slots of the frame
+     *
+     * @param numLocals the number of slots
+     */
+    public void setNumLocals(int numLocals) {
+        this.numLocals = numLocals;
+    }
+
     /**
      * Visitor method
      *
@@ -52,6 +52,11 @@ public class VarExpr extends Expr {
      */
     protected String name;
 
+    /**
+     * Where the variable is kept (set during semantic analysis)
+     */
+    protected Binding binding;
+
     /**
      * VarExpr constructor
      *
@@ -85,6 +90,25 @@ public class VarExpr extends Expr {
         return name;
     }
 
+    /**
+     * Get the binding of the variable, which the Resolver sets during
+     * semantic analysis
+     *
+     * @return the binding, or null if the name is 'this', 'super' or 'null'
+     */
+    public Binding getBinding() {
+        return binding;
+    }
+
+    /**
+     * Set the binding of the variable
+     *
+     * @param binding where the variable is kept
+     */
+    public void setBinding(Binding binding) {
+        this.binding = binding;
+    }
+
     /**
      * Visitor method
      *
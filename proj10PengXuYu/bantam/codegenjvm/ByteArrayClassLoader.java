@@ -0,0 +1,43 @@
+/*
+ * File: ByteArrayClassLoader.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.codegenjvm;
+
+import java.util.Map;
+
+/**
+ * Loads the classes generated by the CodeGenerator from their bytes, defining
+ * each one the first time it is loaded. Its parent is the platform class
+ * loader, so the classes can use the Java SE classes but can't see the
+ * classes of the compiler or of the IDE, and each loader gives a fresh set
+ * of classes with fresh static fields.
+ */
+public class ByteArrayClassLoader extends ClassLoader
+{
+    /** the bytes of each class by class name */
+    private final Map<String, byte[]> classes;
+
+    /**
+     * creates a loader for the given classes
+     * @param classes the bytes of each class by class name, as returned by
+     *                CodeGenerator.generate
+     */
+    public ByteArrayClassLoader(Map<String, byte[]> classes) {
+        super("bantam", ClassLoader.getPlatformClassLoader());
+        this.classes = classes;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] bytes = classes.get(name);
+        if (bytes == null) {
+            throw new ClassNotFoundException(name);
+        }
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * File: ClassFileWriter.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.codegenjvm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the bytes of one JVM class file: its constant pool, fields and
+ * methods. The code of each method is written with the CodeWriter that
+ * addMethod returns.
+ *
+ * The class files have version 49 (Java 5), the last version that the JVM
+ * verifies by type inference, so the generated code does not need
+ * StackMapTable attributes. Current JVMs still load and verify it.
+ */
+public class ClassFileWriter
+{
+    /** access flags of classes, fields and methods */
+    public static final int ACC_PUBLIC = 0x0001;
+    public static final int ACC_PRIVATE = 0x0002;
+    public static final int ACC_PROTECTED = 0x0004;
+    public static final int ACC_STATIC = 0x0008;
+    public static final int ACC_FINAL = 0x0010;
+    public static final int ACC_SUPER = 0x0020;
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int MAJOR_VERSION = 49;
+
+    // the tags of the constant pool entries
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private final int access;
+    private final int thisClass;
+    private final int superClass;
+    private int sourceFile;    // the index of the source file name, or 0
+
+    // the constant pool, with the index of each entry by its tag and content
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> poolIndexes = new HashMap<>();
+    private int poolCount = 1;
+
+    private final ByteArrayOutputStream fieldBytes = new ByteArrayOutputStream();
+    private int fieldCount;
+    private final List<Method> methods = new ArrayList<>();
+
+    /**
+     * A method and its code.
+     */
+    private static class Method
+    {
+        private final int access;
+        private final int name;
+        private final int descriptor;
+        private final CodeWriter code;
+
+        Method(int access, int name, int descriptor, CodeWriter code) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.code = code;
+        }
+    }
+
+    /**
+     * creates the writer of a class
+     * @param access the access flags of the class
+     * @param name the internal name of the class, such as Main or java/lang/Object
+     * @param superName the internal name of its superclass
+     */
+    public ClassFileWriter(int access, String name, String superName) {
+        this.access = access | ACC_SUPER;
+        this.thisClass = classConstant(name);
+        this.superClass = classConstant(superName);
+    }
+
+    /**
+     * records the name of the source file the class was compiled from,
+     * which is shown in stack traces
+     * @param filename the name of the file, without its directory
+     */
+    public void setSourceFile(String filename) {
+        sourceFile = utf8Constant(filename);
+    }
+
+    /**
+     * adds a field to the class
+     * @param access the access flags of the field
+     * @param name the name of the field
+     * @param descriptor the descriptor of its type, such as I or LMain;
+     */
+    public void addField(int access, String name, String descriptor) {
+        DataOutputStream out = new DataOutputStream(fieldBytes);
+        try {
+            out.writeShort(access);
+            out.writeShort(utf8Constant(name));
+            out.writeShort(utf8Constant(descriptor));
+            out.writeShort(0);    // no attributes
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fieldCount++;
+    }
+
+    /**
+     * adds a method to the class
+     * @param access the access flags of the method
+     * @param name the name of the method
+     * @param descriptor the descriptor of its parameter and return types,
+     *                   such as (ILjava/lang/String;)V
+     * @return the writer of the code of the method, which must be complete
+     *         when toByteArray is called
+     */
+    public CodeWriter addMethod(int access, String name, String descriptor) {
+        CodeWriter code = new CodeWriter(this, (access & ACC_STATIC) != 0, descriptor);
+        methods.add(new Method(access, utf8Constant(name), utf8Constant(descriptor), code));
+        return code;
+    }
+
+    /**
+     * returns the bytes of the class file
+     * @return the class file
+     */
+    public byte[] toByteArray() {
+        // the names of the attributes must be in the pool before it is written
+        int codeName = utf8Constant("Code");
+        int lineNumbersName = utf8Constant("LineNumberTable");
+        int sourceFileName = (sourceFile != 0) ? utf8Constant("SourceFile") : 0;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            out.writeShort(poolCount);
+            poolBytes.writeTo(out);
+            out.writeShort(access);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);    // no interfaces
+            out.writeShort(fieldCount);
+            fieldBytes.writeTo(out);
+            out.writeShort(methods.size());
+            for (Method method : methods) {
+                out.writeShort(method.access);
+                out.writeShort(method.name);
+                out.writeShort(method.descriptor);
+                out.writeShort(1);
+                method.code.writeAttribute(out, codeName, lineNumbersName);
+            }
+            if (sourceFile != 0) {
+                out.writeShort(1);
+                out.writeShort(sourceFileName);
+                out.writeInt(2);
+                out.writeShort(sourceFile);
+            }
+            else {
+                out.writeShort(0);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    //-----------------------------------------
+    // The constant pool
+
+    /**
+     * Returns the index of a constant, adding the constant to the pool if it is
+     * not there yet.
+     */
+    private int constant(String key, int tag, int size, PoolWriter writer) {
+        Integer index = poolIndexes.get(key);
+        if (index != null) {
+            return index;
+        }
+        if (poolCount + size > 0xFFFF) {
+            throw new IllegalStateException("The constant pool of the class is full.");
+        }
+        try {
+            pool.writeByte(tag);
+            writer.write(pool);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        index = poolCount;
+        poolCount += size;
+        poolIndexes.put(key, index);
+        return index;
+    }
+
+    /**
+     * Writes the content of a constant after its tag.
+     */
+    private interface PoolWriter
+    {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    int utf8Constant(String value) {
+        if (value.length() > 0xFFFF / 3 && modifiedUtf8Length(value) > 0xFFFF) {
+            throw new IllegalStateException("A constant of the class is too long.");
+        }
+        return constant("U" + value, CONSTANT_UTF8, 1, out -> out.writeUTF(value));
+    }
+
+    private static int modifiedUtf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            length += (c >= 1 && c <= 0x7F) ? 1 : (c <= 0x7FF) ? 2 : 3;
+        }
+        return length;
+    }
+
+    int intConstant(int value) {
+        return constant("I" + value, CONSTANT_INTEGER, 1, out -> out.writeInt(value));
+    }
+
+    int longConstant(long value) {
+        // a long takes two entries of the pool
+        return constant("J" + value, CONSTANT_LONG, 2, out -> out.writeLong(value));
+    }
+
+    int classConstant(String internalName) {
+        int name = utf8Constant(internalName);
+        return constant("C" + internalName, CONSTANT_CLASS, 1, out -> out.writeShort(name));
+    }
+
+    int stringConstant(String value) {
+        int utf8 = utf8Constant(value);
+        return constant("S" + value, CONSTANT_STRING, 1, out -> out.writeShort(utf8));
+    }
+
+    private int nameAndTypeConstant(String name, String descriptor) {
+        int nameIndex = utf8Constant(name);
+        int descriptorIndex = utf8Constant(descriptor);
+        return constant("T" + name + ' ' + descriptor, CONSTANT_NAME_AND_TYPE, 1, out -> {
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+    }
+
+    int fieldConstant(String owner, String name, String descriptor) {
+        int ownerIndex = classConstant(owner);
+        int nameAndType = nameAndTypeConstant(name, descriptor);
+        return constant("F" + owner + '.' + name + ' ' + descriptor, CONSTANT_FIELDREF, 1,
+                out -> {
+                    out.writeShort(ownerIndex);
+                    out.writeShort(nameAndType);
+                });
+    }
+
+    int methodConstant(String owner, String name, String descriptor) {
+        int ownerIndex = classConstant(owner);
+        int nameAndType = nameAndTypeConstant(name, descriptor);
+        return constant("M" + owner + '.' + name + descriptor, CONSTANT_METHODREF, 1,
+                out -> {
+                    out.writeShort(ownerIndex);
+                    out.writeShort(nameAndType);
+                });
+    }
+}
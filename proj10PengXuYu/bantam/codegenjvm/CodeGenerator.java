@@ -0,0 +1,838 @@
+/*
+ * File: CodeGenerator.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.codegenjvm;
+
+import proj10PengXuYu.bantam.ast.*;
+import proj10PengXuYu.bantam.parser.Parser;
+import proj10PengXuYu.bantam.semant.SemanticAnalyzer;
+import proj10PengXuYu.bantam.util.ClassTreeNode;
+import proj10PengXuYu.bantam.util.CompilationException;
+import proj10PengXuYu.bantam.util.Error;
+import proj10PengXuYu.bantam.util.ErrorHandler;
+import proj10PengXuYu.bantam.visitor.Visitor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+
+import static proj10PengXuYu.bantam.codegenjvm.ClassFileWriter.*;
+import static proj10PengXuYu.bantam.codegenjvm.CodeWriter.*;
+
+/**
+ * CodeGenerator is a visitor that generates a JVM class file for every class
+ * of a legal Bantam Java program, and for the built-in classes Sys and
+ * TextIO, so the program can be run without being translated to Java and
+ * compiled by javac. It uses the types that the TypeCheckerVisitor sets on
+ * the expressions and the Bindings that the Resolver sets on the names of
+ * the variables to choose the instructions, and the class hierarchy that
+ * SemanticAnalyzer.analyze returns to look up methods.
+ *
+ * The classes are generated the way TranslatorVisitor writes them in Java:
+ * fields are protected, methods are public, and the Main class also gets
+ * a static main(String[]) method that calls main() on a new Main.
+ * The built-in classes Object and String are java.lang.Object and
+ * java.lang.String.
+ */
+public class CodeGenerator extends Visitor
+{
+    /** the class hierarchy of the program being compiled */
+    private ClassTreeNode root;
+    /** the class being generated */
+    private ClassTreeNode currentClass;
+    private ClassFileWriter classFile;
+    /** the code of the method being generated */
+    private CodeWriter code;
+    /** the Bantam return type of the method being generated */
+    private String returnType;
+    /** where the break statements of the enclosing loops jump to */
+    private final Deque<Label> breakLabels = new ArrayDeque<>();
+    /** the class files generated so far, by class name */
+    private Map<String, byte[]> classes;
+
+    /**
+     * Generates the class files of a program.
+     *
+     * @param program the AST of the program, after semantic analysis
+     * @param root the root of the class hierarchy, as returned by
+     *             SemanticAnalyzer.analyze
+     * @return the bytes of each class file by class name, including Sys and TextIO
+     */
+    public Map<String, byte[]> generate(Program program, ClassTreeNode root) {
+        this.root = root;
+        classes = RuntimeClasses.generate();
+        program.accept(this);
+        return Collections.unmodifiableMap(classes);
+    }
+
+    //-----------------------------------------
+    // Classes and members
+
+    @Override
+    public Object visit(Class_ node) {
+        currentClass = root.lookupClass(node.getName());
+        classFile = new ClassFileWriter(0, node.getName(), internalName(node.getParent()));
+        String filename = node.getFilename();
+        if (filename != null) {
+            classFile.setSourceFile(Paths.get(filename).getFileName().toString());
+        }
+
+        for (ASTNode member : node.getMemberList()) {
+            if (member instanceof Field) {
+                Field field = (Field) member;
+                classFile.addField(ACC_PROTECTED, field.getName(),
+                        descriptor(field.getType()));
+            }
+        }
+        generateConstructor(node);
+        for (ASTNode member : node.getMemberList()) {
+            if (member instanceof Method) {
+                member.accept(this);
+            }
+        }
+        if (node.getName().equals("Main")) {
+            generateStaticMain();
+        }
+        classes.put(node.getName(), classFile.toByteArray());
+        return null;
+    }
+
+    /**
+     * Generates the constructor, which initializes the fields in the order they
+     * are declared.
+     */
+    private void generateConstructor(Class_ node) {
+        code = classFile.addMethod(ACC_PUBLIC, "<init>", "()V");
+        code.lineNumber(node.getLineNum());
+        code.varInsn(ALOAD, 0);
+        code.methodInsn(INVOKESPECIAL, internalName(node.getParent()), "<init>", "()V");
+        for (ASTNode member : node.getMemberList()) {
+            if (member instanceof Field && ((Field) member).getInit() != null) {
+                Field field = (Field) member;
+                code.lineNumber(field.getLineNum());
+                code.varInsn(ALOAD, 0);
+                field.getInit().accept(this);
+                code.fieldInsn(PUTFIELD, node.getName(), field.getName(),
+                        descriptor(field.getType()));
+            }
+        }
+        code.insn(RETURN);
+    }
+
+    /**
+     * Generates public static void main(String[] args) { new Main().main(); }
+     */
+    private void generateStaticMain() {
+        code = classFile.addMethod(ACC_PUBLIC | ACC_STATIC, "main",
+                "([Ljava/lang/String;)V");
+        code.typeInsn(NEW, "Main");
+        code.insn(DUP);
+        code.methodInsn(INVOKESPECIAL, "Main", "<init>", "()V");
+        code.methodInsn(INVOKEVIRTUAL, "Main", "main", "()V");
+        code.insn(RETURN);
+    }
+
+    @Override
+    public Object visit(Method node) {
+        code = classFile.addMethod(ACC_PUBLIC, node.getName(), methodDescriptor(node));
+        returnType = node.getReturnType();
+        // the parameters are in the slots after this, and the Resolver
+        // numbered the slots of the local variables after them
+        for (int i = node.getFormalList().getSize(); i < node.getNumLocals(); i++) {
+            code.newLocal();
+        }
+        code.lineNumber(node.getLineNum());
+        node.getStmtList().accept(this);
+        if (code.isReachable()) {
+            // a void method that doesn't end with a return statement
+            code.insn(RETURN);
+        }
+        return null;
+    }
+
+    //-----------------------------------------
+    // Statements
+
+    /**
+     * Returns the JVM slot of a local variable or parameter, which comes
+     * after the slot of this.
+     */
+    private static int localSlot(int slot) {
+        return 1 + slot;
+    }
+
+    @Override
+    public Object visit(DeclStmt node) {
+        code.lineNumber(node.getLineNum());
+        node.getInit().accept(this);
+        code.varInsn(storeOpcode(node.getType()), localSlot(node.getSlot()));
+        return null;
+    }
+
+    @Override
+    public Object visit(ExprStmt node) {
+        code.lineNumber(node.getLineNum());
+        generateDiscarded(node.getExpr());
+        return null;
+    }
+
+    @Override
+    public Object visit(IfStmt node) {
+        code.lineNumber(node.getLineNum());
+        Label elseLabel = new Label();
+        branch(node.getPredExpr(), elseLabel, false);
+        node.getThenStmt().accept(this);
+        if (node.getElseStmt() == null) {
+            code.placeLabel(elseLabel);
+            return null;
+        }
+        Label end = new Label();
+        if (code.isReachable()) {
+            code.jumpInsn(GOTO, end);
+        }
+        code.placeLabel(elseLabel);
+        node.getElseStmt().accept(this);
+        code.placeLabel(end);
+        return null;
+    }
+
+    @Override
+    public Object visit(WhileStmt node) {
+        code.lineNumber(node.getLineNum());
+        Label top = new Label();
+        Label end = new Label();
+        code.placeLabel(top);
+        branch(node.getPredExpr(), end, false);
+        breakLabels.push(end);
+        node.getBodyStmt().accept(this);
+        breakLabels.pop();
+        if (code.isReachable()) {
+            code.jumpInsn(GOTO, top);
+        }
+        code.placeLabel(end);
+        return null;
+    }
+
+    @Override
+    public Object visit(ForStmt node) {
+        code.lineNumber(node.getLineNum());
+        if (node.getInitExpr() != null) {
+            generateDiscarded(node.getInitExpr());
+        }
+        Label top = new Label();
+        Label end = new Label();
+        code.placeLabel(top);
+        if (node.getPredExpr() != null) {
+            branch(node.getPredExpr(), end, false);
+        }
+        breakLabels.push(end);
+        node.getBodyStmt().accept(this);
+        breakLabels.pop();
+        if (code.isReachable()) {
+            if (node.getUpdateExpr() != null) {
+                generateDiscarded(node.getUpdateExpr());
+            }
+            code.jumpInsn(GOTO, top);
+        }
+        code.placeLabel(end);
+        return null;
+    }
+
+    @Override
+    public Object visit(BreakStmt node) {
+        code.lineNumber(node.getLineNum());
+        code.jumpInsn(GOTO, breakLabels.peek());
+        return null;
+    }
+
+    @Override
+    public Object visit(BlockStmt node) {
+        node.getStmtList().accept(this);
+        return null;
+    }
+
+    @Override
+    public Object visit(ReturnStmt node) {
+        code.lineNumber(node.getLineNum());
+        if (node.getExpr() == null) {
+            code.insn(RETURN);
+        }
+        else {
+            node.getExpr().accept(this);
+            code.insn(isPrimitive(returnType) ? IRETURN : ARETURN);
+        }
+        return null;
+    }
+
+    /**
+     * Generates an expression whose value is not used, as in an expression
+     * statement or the init and update expressions of a for statement.
+     * Assignments and increments don't leave their value on the stack to be
+     * popped, and increments of local variables are a single iinc.
+     */
+    private void generateDiscarded(Expr expr) {
+        if (expr instanceof AssignExpr) {
+            generateAssign((AssignExpr) expr, false);
+        }
+        else if (expr instanceof UnaryIncrExpr) {
+            generateIncrement((UnaryExpr) expr, 1, false, false);
+        }
+        else if (expr instanceof UnaryDecrExpr) {
+            generateIncrement((UnaryExpr) expr, -1, false, false);
+        }
+        else {
+            expr.accept(this);
+            if (! "void".equals(expr.getExprType())) {
+                code.insn(POP);
+            }
+        }
+    }
+
+    //-----------------------------------------
+    // Conditions
+
+    /**
+     * Generates a jump to the label if the boolean expression has the given
+     * value. Comparisons and logical operators jump directly, without
+     * computing a boolean value first, and && and || skip their right
+     * operand as in Java.
+     *
+     * @param expr the boolean expression
+     * @param label where to jump
+     * @param jumpIf the value for which to jump
+     */
+    private void branch(Expr expr, Label label, boolean jumpIf) {
+        if (expr instanceof UnaryNotExpr) {
+            branch(((UnaryNotExpr) expr).getExpr(), label, ! jumpIf);
+        }
+        else if (expr instanceof BinaryLogicAndExpr || expr instanceof BinaryLogicOrExpr) {
+            BinaryExpr binary = (BinaryExpr) expr;
+            // a && b jumps if false as soon as a is false, a || b jumps if true
+            // as soon as a is true
+            boolean shortCircuit = expr instanceof BinaryLogicOrExpr;
+            if (jumpIf == shortCircuit) {
+                branch(binary.getLeftExpr(), label, jumpIf);
+                branch(binary.getRightExpr(), label, jumpIf);
+            }
+            else {
+                Label skip = new Label();
+                branch(binary.getLeftExpr(), skip, ! jumpIf);
+                branch(binary.getRightExpr(), label, jumpIf);
+                code.placeLabel(skip);
+            }
+        }
+        else if (expr instanceof BinaryCompExpr) {
+            BinaryExpr binary = (BinaryExpr) expr;
+            binary.getLeftExpr().accept(this);
+            binary.getRightExpr().accept(this);
+            int opcode = comparisonOpcode(binary);
+            code.jumpInsn(jumpIf ? opcode : negate(opcode), label);
+        }
+        else if (expr instanceof ConstBooleanExpr) {
+            if (((ConstBooleanExpr) expr).getConstant().equals("true") == jumpIf) {
+                code.jumpInsn(GOTO, label);
+            }
+        }
+        else {
+            expr.accept(this);
+            code.jumpInsn(jumpIf ? IFNE : IFEQ, label);
+        }
+    }
+
+    /**
+     * Returns the opcode of the jump taken if the comparison is true.
+     */
+    private static int comparisonOpcode(BinaryExpr node) {
+        boolean references = ! isPrimitive(node.getLeftExpr().getExprType());
+        if (node instanceof BinaryCompEqExpr) {
+            return references ? IF_ACMPEQ : IF_ICMPEQ;
+        }
+        if (node instanceof BinaryCompNeExpr) {
+            return references ? IF_ACMPNE : IF_ICMPNE;
+        }
+        if (node instanceof BinaryCompLtExpr) {
+            return IF_ICMPLT;
+        }
+        if (node instanceof BinaryCompLeqExpr) {
+            return IF_ICMPLE;
+        }
+        if (node instanceof BinaryCompGtExpr) {
+            return IF_ICMPGT;
+        }
+        return IF_ICMPGE;
+    }
+
+    /**
+     * Returns the opposite of a conditional jump: IF_ICMPLT for IF_ICMPGE etc.
+     */
+    private static int negate(int opcode) {
+        // the opcodes of the conditional jumps come in pairs of opposites,
+        // starting with IFEQ and IFNE
+        return ((opcode - IFEQ) % 2 == 0) ? opcode + 1 : opcode - 1;
+    }
+
+    /**
+     * Computes the boolean value of a comparison or logical expression.
+     */
+    private void generateBoolean(Expr expr) {
+        Label isTrue = new Label();
+        Label end = new Label();
+        branch(expr, isTrue, true);
+        code.pushInt(0);
+        code.jumpInsn(GOTO, end);
+        code.placeLabel(isTrue);
+        code.pushInt(1);
+        code.placeLabel(end);
+    }
+
+    //-----------------------------------------
+    // Expressions
+
+    @Override
+    public Object visit(DispatchExpr node) {
+        Expr ref = node.getRefExpr();
+        String refType;
+        int opcode = INVOKEVIRTUAL;
+        if (ref == null) {
+            code.varInsn(ALOAD, 0);
+            refType = currentClass.getName();
+        }
+        else if (isSuper(ref)) {
+            // call the method of the superclass, without dynamic dispatch
+            code.varInsn(ALOAD, 0);
+            refType = currentClass.getParent().getName();
+            opcode = INVOKESPECIAL;
+        }
+        else {
+            ref.accept(this);
+            refType = ref.getExprType();
+        }
+        node.getActualList().accept(this);
+        Method method = root.lookupClass(refType).lookupMethod(node.getMethodName());
+        code.methodInsn(opcode, internalName(refType), node.getMethodName(),
+                methodDescriptor(method));
+        return null;
+    }
+
+    @Override
+    public Object visit(ExprList node) {
+        for (ASTNode expr : node) {
+            expr.accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Object visit(NewExpr node) {
+        String type = internalName(node.getType());
+        code.typeInsn(NEW, type);
+        code.insn(DUP);
+        code.methodInsn(INVOKESPECIAL, type, "<init>", "()V");
+        return null;
+    }
+
+    @Override
+    public Object visit(InstanceofExpr node) {
+        node.getExpr().accept(this);
+        code.typeInsn(INSTANCEOF, internalName(node.getType()));
+        return null;
+    }
+
+    @Override
+    public Object visit(CastExpr node) {
+        node.getExpr().accept(this);
+        if (! node.getUpCast()) {
+            code.typeInsn(CHECKCAST, internalName(node.getType()));
+        }
+        return null;
+    }
+
+    @Override
+    public Object visit(AssignExpr node) {
+        generateAssign(node, true);
+        return null;
+    }
+
+    /**
+     * Generates an assignment to a local variable or a field.
+     *
+     * @param node the assignment
+     * @param valueNeeded true to leave the assigned value on the stack
+     */
+    private void generateAssign(AssignExpr node, boolean valueNeeded) {
+        Binding variable = node.getBinding();
+        if (! variable.isField()) {
+            node.getExpr().accept(this);
+            if (valueNeeded) {
+                code.insn(DUP);
+            }
+            code.varInsn(storeOpcode(variable.getType()), localSlot(variable.getSlot()));
+            return;
+        }
+        // the object is this, or the one a variable named by refName refers to
+        if (node.getRefBinding() == null) {
+            code.varInsn(ALOAD, 0);
+        }
+        else {
+            loadBinding(node.getRefBinding());
+        }
+        node.getExpr().accept(this);
+        if (valueNeeded) {
+            code.insn(DUP_X1);
+        }
+        code.fieldInsn(PUTFIELD, variable.getClassName(), node.getName(),
+                descriptor(variable.getType()));
+    }
+
+    /**
+     * Pushes the value of a local variable, a parameter or a field of this.
+     */
+    private void loadBinding(Binding variable) {
+        if (variable.isField()) {
+            code.varInsn(ALOAD, 0);
+            code.fieldInsn(GETFIELD, variable.getClassName(), variable.getName(),
+                    descriptor(variable.getType()));
+        }
+        else {
+            code.varInsn(loadOpcode(variable.getType()), localSlot(variable.getSlot()));
+        }
+    }
+
+    @Override
+    public Object visit(VarExpr node) {
+        Expr ref = node.getRef();
+        if (ref == null) {
+            loadVariable(node);
+            return null;
+        }
+        // a field of this, of super or of another object
+        if (isThis(ref) || isSuper(ref)) {
+            code.varInsn(ALOAD, 0);
+        }
+        else {
+            ref.accept(this);
+        }
+        Binding field = node.getBinding();
+        code.fieldInsn(GETFIELD, field.getClassName(), field.getName(),
+                descriptor(field.getType()));
+        return null;
+    }
+
+    /**
+     * Pushes the value of a name without a reference: this, super, null, a
+     * local variable or a field of this.
+     */
+    private void loadVariable(VarExpr node) {
+        switch (node.getName()) {
+            case "this":
+            case "super":
+                code.varInsn(ALOAD, 0);
+                break;
+            case "null":
+                code.insn(ACONST_NULL);
+                break;
+            default:
+                loadBinding(node.getBinding());
+                break;
+        }
+    }
+
+    @Override
+    public Object visit(BinaryCompEqExpr node) {
+        generateBoolean(node);
+        return null;
+    }
+
+    @Override
+    public Object visit(BinaryCompNeExpr node) {
+        generateBoolean(node);
+        return null;
+    }
+
+    @Override
+    public Object visit(BinaryCompLtExpr node) {
+        generateBoolean(node);
+        return null;
+    }
+
+    @Override
+    public Object visit(BinaryCompLeqExpr node) {
+        generateBoolean(node);
+        return null;
+    }
+
+    @Override
+    public Object visit(BinaryCompGtExpr node) {
+        generateBoolean(node);
+        return null;
+    }
+
+    @Override
+    public Object visit(BinaryCompGeqExpr node) {
+        generateBoolean(node);
+        return null;
+    }
+
+    @Override
+    public Object visit(BinaryLogicAndExpr node) {
+        generateBoolean(node);
+        return null;
+    }
+
+    @Override
+    public Object visit(BinaryLogicOrExpr node) {
+        generateBoolean(node);
+        return null;
+    }
+
+    @Override
+    public Object visit(BinaryArithPlusExpr node) {
+        generateArithmetic(node, IADD);
+        return null;
+    }
+
+    @Override
+    public Object visit(BinaryArithMinusExpr node) {
+        generateArithmetic(node, ISUB);
+        return null;
+    }
+
+    @Override
+    public Object visit(BinaryArithTimesExpr node) {
+        generateArithmetic(node, IMUL);
+        return null;
+    }
+
+    @Override
+    public Object visit(BinaryArithDivideExpr node) {
+        generateArithmetic(node, IDIV);
+        return null;
+    }
+
+    @Override
+    public Object visit(BinaryArithModulusExpr node) {
+        generateArithmetic(node, IREM);
+        return null;
+    }
+
+    private void generateArithmetic(BinaryExpr node, int opcode) {
+        node.getLeftExpr().accept(this);
+        node.getRightExpr().accept(this);
+        code.insn(opcode);
+    }
+
+    @Override
+    public Object visit(UnaryNegExpr node) {
+        node.getExpr().accept(this);
+        code.insn(INEG);
+        return null;
+    }
+
+    @Override
+    public Object visit(UnaryNotExpr node) {
+        node.getExpr().accept(this);
+        code.pushInt(1);
+        code.insn(IXOR);
+        return null;
+    }
+
+    @Override
+    public Object visit(UnaryIncrExpr node) {
+        generateIncrement(node, 1, node.isPostfix(), true);
+        return null;
+    }
+
+    @Override
+    public Object visit(UnaryDecrExpr node) {
+        generateIncrement(node, -1, node.isPostfix(), true);
+        return null;
+    }
+
+    /**
+     * Generates ++ or -- of a local variable or a field.
+     *
+     * @param node the increment or decrement expression, whose operand is a VarExpr
+     * @param increment 1 or -1
+     * @param postfix true if the value is the one before the increment
+     * @param valueNeeded true to leave the value on the stack
+     */
+    private void generateIncrement(UnaryExpr node, int increment, boolean postfix,
+                                   boolean valueNeeded) {
+        VarExpr var = (VarExpr) node.getExpr();
+        Binding variable = var.getBinding();
+        if (! variable.isField()) {
+            int slot = localSlot(variable.getSlot());
+            if (valueNeeded && postfix) {
+                code.varInsn(ILOAD, slot);
+            }
+            code.iinc(slot, increment);
+            if (valueNeeded && ! postfix) {
+                code.varInsn(ILOAD, slot);
+            }
+            return;
+        }
+        if (var.getRef() == null || isThis(var.getRef()) || isSuper(var.getRef())) {
+            code.varInsn(ALOAD, 0);
+        }
+        else {
+            var.getRef().accept(this);
+        }
+        String owner = variable.getClassName();
+        code.insn(DUP);
+        code.fieldInsn(GETFIELD, owner, var.getName(), "I");
+        if (valueNeeded && postfix) {
+            code.insn(DUP_X1);
+        }
+        code.pushInt(increment);
+        code.insn(IADD);
+        if (valueNeeded && ! postfix) {
+            code.insn(DUP_X1);
+        }
+        code.fieldInsn(PUTFIELD, owner, var.getName(), "I");
+    }
+
+    @Override
+    public Object visit(ConstIntExpr node) {
+        code.pushInt(node.getIntConstant());
+        return null;
+    }
+
+    @Override
+    public Object visit(ConstBooleanExpr node) {
+        code.pushInt(node.getConstant().equals("true") ? 1 : 0);
+        return null;
+    }
+
+    @Override
+    public Object visit(ConstStringExpr node) {
+        code.pushString(unescape(node.getConstant()));
+        return null;
+    }
+
+    /**
+     * Returns the value of a string constant as the scanner returns it, with
+     * its quotes and the escape sequences \n, \t, \f, \" and \\.
+     */
+    public static String unescape(String constant) {
+        StringBuilder value = new StringBuilder(constant.length());
+        for (int i = 1; i < constant.length() - 1; i++) {
+            char c = constant.charAt(i);
+            if (c == '\\' && i + 1 < constant.length() - 1) {
+                c = constant.charAt(++i);
+                switch (c) {
+                    case 'n': c = '\n'; break;
+                    case 't': c = '\t'; break;
+                    case 'f': c = '\f'; break;
+                    default: break;    // \" and \\
+                }
+            }
+            value.append(c);
+        }
+        return value.toString();
+    }
+
+    //-----------------------------------------
+    // Types
+
+    private static boolean isThis(Expr expr) {
+        return expr instanceof VarExpr && ((VarExpr) expr).getRef() == null
+                && ((VarExpr) expr).getName().equals("this");
+    }
+
+    private static boolean isSuper(Expr expr) {
+        return expr instanceof VarExpr && ((VarExpr) expr).getRef() == null
+                && ((VarExpr) expr).getName().equals("super");
+    }
+
+    private static boolean isPrimitive(String type) {
+        return type.equals("int") || type.equals("boolean");
+    }
+
+    /**
+     * Returns the internal name of the JVM class of a Bantam class.
+     */
+    static String internalName(String className) {
+        switch (className) {
+            case "Object":
+            case "null":
+                return "java/lang/Object";
+            case "String":
+                return "java/lang/String";
+            default:
+                return className;
+        }
+    }
+
+    /**
+     * Returns the JVM descriptor of a Bantam type.
+     */
+    static String descriptor(String type) {
+        switch (type) {
+            case "int":
+                return "I";
+            case "boolean":
+                return "Z";
+            case "void":
+                return "V";
+            default:
+                return "L" + internalName(type) + ";";
+        }
+    }
+
+    private static String methodDescriptor(Method method) {
+        StringBuilder descriptor = new StringBuilder("(");
+        for (ASTNode formal : method.getFormalList()) {
+            descriptor.append(descriptor(((Formal) formal).getType()));
+        }
+        return descriptor.append(')').append(descriptor(method.getReturnType())).toString();
+    }
+
+    private static int loadOpcode(String type) {
+        return isPrimitive(type) ? ILOAD : ALOAD;
+    }
+
+    private static int storeOpcode(String type) {
+        return isPrimitive(type) ? ISTORE : ASTORE;
+    }
+
+
+    /**
+     * compiles Bantam Java programs to class files, written to a directory
+     * named after each program in the current directory
+     * @param args the pathnames of the programs
+     */
+    public static void main(String[] args) throws IOException {
+        for (String filename : args) {
+            ErrorHandler errorHandler = new ErrorHandler();
+            try {
+                Program program = new Parser(errorHandler).parse(filename);
+                ClassTreeNode root = new SemanticAnalyzer(errorHandler).analyze(program);
+                Map<String, byte[]> classes = new CodeGenerator().generate(program, root);
+                String name = Paths.get(filename).getFileName().toString()
+                        .replaceFirst("\\.btm$", "");
+                Path directory = Files.createDirectories(Paths.get(name));
+                for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                    Files.write(directory.resolve(entry.getKey() + ".class"),
+                            entry.getValue());
+                }
+                System.out.println(filename + ": wrote " + classes.size()
+                        + " classes to " + directory);
+            } catch (CompilationException ex) {
+                System.out.println("Illegal Bantam Java program: " + filename);
+                for (Error error : errorHandler.getErrorList()) {
+                    System.out.println(error.toString());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,579 @@
+/*
+ * File: CodeWriter.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.codegenjvm;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes the bytecode of one method of a ClassFileWriter. Besides the
+ * instructions, it keeps track of the depth of the operand stack and the
+ * number of local variables, which go into the Code attribute as max_stack
+ * and max_locals, and of the line numbers of the source.
+ *
+ * The instructions are written with the methods named after their kind,
+ * such as insn for the ones without operands and jumpInsn for the jumps,
+ * which take the opcode constants of this class.
+ */
+public class CodeWriter
+{
+    // the opcodes the code generator uses
+    public static final int ACONST_NULL = 0x01;
+    public static final int ILOAD = 0x15;
+    public static final int ALOAD = 0x19;
+    public static final int ISTORE = 0x36;
+    public static final int ASTORE = 0x3A;
+    public static final int POP = 0x57;
+    public static final int DUP = 0x59;
+    public static final int DUP_X1 = 0x5A;
+    public static final int IADD = 0x60;
+    public static final int ISUB = 0x64;
+    public static final int IMUL = 0x68;
+    public static final int IDIV = 0x6C;
+    public static final int LDIV = 0x6D;
+    public static final int IREM = 0x70;
+    public static final int INEG = 0x74;
+    public static final int IXOR = 0x82;
+    public static final int L2I = 0x88;
+    public static final int IFEQ = 0x99;
+    public static final int IFNE = 0x9A;
+    public static final int IFLT = 0x9B;
+    public static final int IFGE = 0x9C;
+    public static final int IFGT = 0x9D;
+    public static final int IFLE = 0x9E;
+    public static final int IF_ICMPEQ = 0x9F;
+    public static final int IF_ICMPNE = 0xA0;
+    public static final int IF_ICMPLT = 0xA1;
+    public static final int IF_ICMPGE = 0xA2;
+    public static final int IF_ICMPGT = 0xA3;
+    public static final int IF_ICMPLE = 0xA4;
+    public static final int IF_ACMPEQ = 0xA5;
+    public static final int IF_ACMPNE = 0xA6;
+    public static final int GOTO = 0xA7;
+    public static final int IRETURN = 0xAC;
+    public static final int ARETURN = 0xB0;
+    public static final int RETURN = 0xB1;
+    public static final int GETSTATIC = 0xB2;
+    public static final int PUTSTATIC = 0xB3;
+    public static final int GETFIELD = 0xB4;
+    public static final int PUTFIELD = 0xB5;
+    public static final int INVOKEVIRTUAL = 0xB6;
+    public static final int INVOKESPECIAL = 0xB7;
+    public static final int INVOKESTATIC = 0xB8;
+    public static final int NEW = 0xBB;
+    public static final int CHECKCAST = 0xC0;
+    public static final int INSTANCEOF = 0xC1;
+
+    // opcodes that are only written by the methods of this class
+    private static final int ICONST_0 = 0x03;
+    private static final int LCONST_0 = 0x09;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC = 0x12;
+    private static final int LDC_W = 0x13;
+    private static final int LDC2_W = 0x14;
+    private static final int IINC = 0x84;
+    private static final int WIDE = 0xC4;
+
+    /** the largest number of bytes of code a method can have */
+    private static final int MAX_CODE_LENGTH = 0xFFFF;
+
+    /**
+     * A position in the code that jumps go to. A label can be used by jumps
+     * before it is placed; their offsets are filled in when it is placed.
+     */
+    public static class Label
+    {
+        private int position = -1;     // the offset of the label in the code
+        private int stackDepth = -1;   // the stack depth there, once known
+        // the offsets of the jumps and of their offsets to fill in
+        private int[] fixups = new int[0];
+    }
+
+    /**
+     * An exception handler. The offsets of its labels are only known once
+     * they are placed, so they are looked up when the attribute is written.
+     */
+    private static class Handler
+    {
+        private final Label start;
+        private final Label end;
+        private final Label handler;
+        private final int type;    // the index of the class of the exceptions
+
+        Handler(Label start, Label end, Label handler, int type) {
+            this.start = start;
+            this.end = end;
+            this.handler = handler;
+            this.type = type;
+        }
+    }
+
+    private final ClassFileWriter classFile;
+
+    private byte[] code = new byte[64];
+    private int length;
+
+    private int stackDepth;
+    private int maxStack;
+    private int nextLocal;
+    private int maxLocals;
+    // false after a jump or return, until a label that is jumped to is placed
+    private boolean reachable = true;
+
+    private final List<Handler> handlers = new ArrayList<>();
+    // pairs of code offsets and line numbers
+    private int[] lineNumbers = new int[16];
+    private int lineNumberCount;
+    private int lastLine = -1;
+
+    /**
+     * creates the writer of a method; use ClassFileWriter.addMethod
+     */
+    CodeWriter(ClassFileWriter classFile, boolean isStatic, String descriptor) {
+        this.classFile = classFile;
+        // the parameters, after this if the method is not static
+        nextLocal = (isStatic ? 0 : 1) + argumentSlots(descriptor);
+        maxLocals = nextLocal;
+    }
+
+    //-----------------------------------------
+    // Local variables
+
+    /**
+     * allocates the slot of a new local variable of type int, boolean or a
+     * reference
+     * @return the index of the slot
+     */
+    public int newLocal() {
+        int local = nextLocal++;
+        maxLocals = Math.max(maxLocals, nextLocal);
+        if (maxLocals > 0xFFFF) {
+            throw new IllegalStateException("The method has too many local variables.");
+        }
+        return local;
+    }
+
+    /**
+     * returns the index of the next slot newLocal will allocate, which can be
+     * given to freeLocals when the variables allocated after now go out of scope
+     * @return the index of the next slot
+     */
+    public int getNextLocal() {
+        return nextLocal;
+    }
+
+    /**
+     * frees the slots from the given index on, so that they can be allocated
+     * again to other variables
+     * @param nextLocal the value returned by getNextLocal before the variables
+     *                  were allocated
+     */
+    public void freeLocals(int nextLocal) {
+        this.nextLocal = nextLocal;
+    }
+
+    //-----------------------------------------
+    // Instructions
+
+    /**
+     * writes an instruction without operands
+     * @param opcode the opcode, such as IADD, DUP or IRETURN
+     */
+    public void insn(int opcode) {
+        writeByte(opcode);
+        adjustStack(stackEffect(opcode));
+        if (opcode >= IRETURN && opcode <= RETURN) {
+            reachable = false;
+        }
+    }
+
+    /**
+     * writes an instruction that loads or stores a local variable
+     * @param opcode ILOAD, ALOAD, ISTORE or ASTORE
+     * @param local the index of the slot of the variable
+     */
+    public void varInsn(int opcode, int local) {
+        if (local <= 3) {
+            // iload_0 ... aload_3 and istore_0 ... astore_3
+            int base = (opcode < ISTORE) ? 0x1A : 0x3B;
+            int kind = (opcode == ILOAD || opcode == ISTORE) ? 0 : 4;
+            writeByte(base + kind * 4 + local);
+        }
+        else if (local <= 0xFF) {
+            writeByte(opcode);
+            writeByte(local);
+        }
+        else {
+            writeByte(WIDE);
+            writeByte(opcode);
+            writeShort(local);
+        }
+        adjustStack(opcode < ISTORE ? 1 : -1);
+    }
+
+    /**
+     * writes an instruction that adds a constant to an int local variable
+     * @param local the index of the slot of the variable
+     * @param increment the constant to add
+     */
+    public void iinc(int local, int increment) {
+        if (local <= 0xFF && increment >= Byte.MIN_VALUE && increment <= Byte.MAX_VALUE) {
+            writeByte(IINC);
+            writeByte(local);
+            writeByte(increment);
+        }
+        else {
+            writeByte(WIDE);
+            writeByte(IINC);
+            writeShort(local);
+            writeShort(increment);
+        }
+    }
+
+    /**
+     * writes the shortest instruction that pushes an int constant
+     * @param value the constant
+     */
+    public void pushInt(int value) {
+        if (value >= -1 && value <= 5) {
+            writeByte(ICONST_0 + value);
+        }
+        else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            writeByte(BIPUSH);
+            writeByte(value);
+        }
+        else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            writeByte(SIPUSH);
+            writeShort(value);
+        }
+        else {
+            writeLdc(classFile.intConstant(value));
+        }
+        adjustStack(1);
+    }
+
+    /**
+     * writes the shortest instruction that pushes a long constant
+     * @param value the constant
+     */
+    public void pushLong(long value) {
+        if (value == 0 || value == 1) {
+            writeByte(LCONST_0 + (int) value);
+        }
+        else {
+            writeByte(LDC2_W);
+            writeShort(classFile.longConstant(value));
+        }
+        adjustStack(2);
+    }
+
+    /**
+     * writes an instruction that pushes a String constant
+     * @param value the constant
+     */
+    public void pushString(String value) {
+        writeLdc(classFile.stringConstant(value));
+        adjustStack(1);
+    }
+
+    private void writeLdc(int index) {
+        if (index <= 0xFF) {
+            writeByte(LDC);
+            writeByte(index);
+        }
+        else {
+            writeByte(LDC_W);
+            writeShort(index);
+        }
+    }
+
+    /**
+     * writes an instruction that takes a class as its operand
+     * @param opcode NEW, CHECKCAST or INSTANCEOF
+     * @param internalName the internal name of the class
+     */
+    public void typeInsn(int opcode, String internalName) {
+        writeByte(opcode);
+        writeShort(classFile.classConstant(internalName));
+        adjustStack(opcode == NEW ? 1 : 0);
+    }
+
+    /**
+     * writes an instruction that reads or writes a field
+     * @param opcode GETFIELD, PUTFIELD, GETSTATIC or PUTSTATIC
+     * @param owner the internal name of the class the field is looked up in
+     * @param name the name of the field
+     * @param descriptor the descriptor of its type
+     */
+    public void fieldInsn(int opcode, String owner, String name, String descriptor) {
+        writeByte(opcode);
+        writeShort(classFile.fieldConstant(owner, name, descriptor));
+        int size = typeSlots(descriptor, 0);
+        switch (opcode) {
+            case GETSTATIC: adjustStack(size); break;
+            case PUTSTATIC: adjustStack(-size); break;
+            case GETFIELD: adjustStack(size - 1); break;
+            default: adjustStack(-size - 1); break;
+        }
+    }
+
+    /**
+     * writes an instruction that calls a method
+     * @param opcode INVOKEVIRTUAL, INVOKESPECIAL or INVOKESTATIC
+     * @param owner the internal name of the class the method is looked up in
+     * @param name the name of the method
+     * @param descriptor the descriptor of its parameter and return types
+     */
+    public void methodInsn(int opcode, String owner, String name, String descriptor) {
+        writeByte(opcode);
+        writeShort(classFile.methodConstant(owner, name, descriptor));
+        int returnSlots = typeSlots(descriptor, descriptor.indexOf(')') + 1);
+        adjustStack(returnSlots - argumentSlots(descriptor)
+                - (opcode == INVOKESTATIC ? 0 : 1));
+    }
+
+    /**
+     * writes a jump to a label
+     * @param opcode GOTO, or a conditional jump such as IFEQ or IF_ICMPLT
+     * @param label where to jump
+     */
+    public void jumpInsn(int opcode, Label label) {
+        int position = length;
+        writeByte(opcode);
+        adjustStack(jumpStackEffect(opcode));
+        if (label.position >= 0) {
+            writeShort(branchOffset(position, label.position));
+        }
+        else {
+            label.fixups = Arrays.copyOf(label.fixups, label.fixups.length + 1);
+            label.fixups[label.fixups.length - 1] = position;
+            writeShort(0);
+        }
+        if (label.stackDepth < 0) {
+            label.stackDepth = stackDepth;
+        }
+        if (opcode == GOTO) {
+            reachable = false;
+        }
+    }
+
+    /**
+     * places a label at the current position, filling in the offsets of the
+     * jumps to it that were already written
+     * @param label the label, which must not have been placed before
+     */
+    public void placeLabel(Label label) {
+        label.position = length;
+        for (int fixup : label.fixups) {
+            int offset = branchOffset(fixup, length);
+            code[fixup + 1] = (byte) (offset >> 8);
+            code[fixup + 2] = (byte) offset;
+        }
+        if (! reachable && label.stackDepth >= 0) {
+            // only reached by the jumps, so the stack is as deep as at them
+            stackDepth = label.stackDepth;
+        }
+        else {
+            label.stackDepth = stackDepth;
+        }
+        reachable = true;
+    }
+
+    /**
+     * returns false if the next instruction can't be reached because it
+     * follows a jump or return and no label was placed since
+     * @return true if the current position can be reached
+     */
+    public boolean isReachable() {
+        return reachable;
+    }
+
+    /**
+     * adds an exception handler
+     * @param start the start of the code the handler covers
+     * @param end the end of that code, exclusive
+     * @param handler the start of the handler, which finds the exception on
+     *                the stack
+     * @param exceptionType the internal name of the class of the exceptions
+     *                      it handles
+     */
+    public void tryCatch(Label start, Label end, Label handler, String exceptionType) {
+        handler.stackDepth = 1;
+        handlers.add(new Handler(start, end, handler,
+                classFile.classConstant(exceptionType)));
+    }
+
+    /**
+     * records that the following instructions were compiled from a line of the
+     * source
+     * @param line the line number, or a number less than 1 if it is unknown
+     */
+    public void lineNumber(int line) {
+        if (line < 1 || line == lastLine) {
+            return;
+        }
+        lastLine = line;
+        if (lineNumberCount > 0 && lineNumbers[2 * lineNumberCount - 2] == length) {
+            // no instructions were written for the previous line
+            lineNumberCount--;
+        }
+        if (2 * lineNumberCount == lineNumbers.length) {
+            lineNumbers = Arrays.copyOf(lineNumbers, lineNumbers.length * 2);
+        }
+        lineNumbers[2 * lineNumberCount] = length;
+        lineNumbers[2 * lineNumberCount + 1] = line;
+        lineNumberCount++;
+    }
+
+    //-----------------------------------------
+    // Writing the Code attribute
+
+    /**
+     * Writes the Code attribute of the method, with its LineNumberTable.
+     */
+    void writeAttribute(DataOutputStream out, int codeName, int lineNumbersName)
+            throws IOException {
+        if (length > MAX_CODE_LENGTH) {
+            throw new IllegalStateException("The code of a method is too large.");
+        }
+        boolean hasLineNumbers = lineNumberCount > 0;
+        int lineNumbersLength = 2 + 4 * lineNumberCount;
+        out.writeShort(codeName);
+        out.writeInt(12 + length + 8 * handlers.size()
+                + (hasLineNumbers ? 6 + lineNumbersLength : 0));
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(length);
+        out.write(code, 0, length);
+        out.writeShort(handlers.size());
+        for (Handler handler : handlers) {
+            out.writeShort(handler.start.position);
+            out.writeShort(handler.end.position);
+            out.writeShort(handler.handler.position);
+            out.writeShort(handler.type);
+        }
+        if (hasLineNumbers) {
+            out.writeShort(1);
+            out.writeShort(lineNumbersName);
+            out.writeInt(lineNumbersLength);
+            out.writeShort(lineNumberCount);
+            for (int i = 0; i < 2 * lineNumberCount; i++) {
+                out.writeShort(lineNumbers[i]);
+            }
+        }
+        else {
+            out.writeShort(0);
+        }
+    }
+
+    //-----------------------------------------
+    // Helpers
+
+    private void writeByte(int value) {
+        if (length == code.length) {
+            code = Arrays.copyOf(code, code.length * 2);
+        }
+        code[length++] = (byte) value;
+    }
+
+    private void writeShort(int value) {
+        writeByte(value >> 8);
+        writeByte(value);
+    }
+
+    private static int branchOffset(int from, int to) {
+        int offset = to - from;
+        if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+            throw new IllegalStateException("The code of a method is too large.");
+        }
+        return offset;
+    }
+
+    private void adjustStack(int delta) {
+        stackDepth += delta;
+        maxStack = Math.max(maxStack, stackDepth);
+    }
+
+    /**
+     * Returns the number of stack slots an instruction without operands pushes,
+     * minus the number it pops.
+     */
+    private static int stackEffect(int opcode) {
+        switch (opcode) {
+            case ACONST_NULL:
+            case DUP:
+            case DUP_X1:
+                return 1;
+            case INEG:
+            case RETURN:
+                return 0;
+            case POP:
+            case IADD:
+            case ISUB:
+            case IMUL:
+            case IDIV:
+            case IREM:
+            case IXOR:
+            case L2I:
+            case IRETURN:
+            case ARETURN:
+                return -1;
+            case LDIV:
+                return -2;
+            default:
+                throw new IllegalArgumentException("Not an instruction without "
+                        + "operands: " + opcode);
+        }
+    }
+
+    private static int jumpStackEffect(int opcode) {
+        if (opcode == GOTO) {
+            return 0;
+        }
+        return (opcode >= IF_ICMPEQ) ? -2 : -1;
+    }
+
+    /**
+     * Returns the number of slots the arguments of a method descriptor take.
+     */
+    private static int argumentSlots(String descriptor) {
+        int slots = 0;
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            slots += typeSlots(descriptor, i);
+            i = endOfType(descriptor, i);
+        }
+        return slots;
+    }
+
+    /**
+     * Returns the number of slots of the type at the index of a descriptor.
+     */
+    private static int typeSlots(String descriptor, int index) {
+        char c = descriptor.charAt(index);
+        return (c == 'V') ? 0 : (c == 'J' || c == 'D') ? 2 : 1;
+    }
+
+    /**
+     * Returns the index after the type at the index of a descriptor.
+     */
+    private static int endOfType(String descriptor, int index) {
+        while (descriptor.charAt(index) == '[') {
+            index++;
+        }
+        if (descriptor.charAt(index) == 'L') {
+            return descriptor.indexOf(';', index) + 1;
+        }
+        return index + 1;
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * File: RuntimeClasses.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.codegenjvm;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static proj10PengXuYu.bantam.codegenjvm.ClassFileWriter.*;
+import static proj10PengXuYu.bantam.codegenjvm.CodeWriter.*;
+
+/**
+ * Generates the class files of the built-in classes Sys and TextIO, with the
+ * methods SemanticAnalyzer declares for them. Like the ones TranslatorVisitor
+ * writes in Java, putString and putInt print a line to System.out, unless the
+ * output was redirected with writeStderr or writeFile. Unlike those, each
+ * TextIO keeps its own input and output, and also has readFile, getString and
+ * getInt: getString reads a line, or returns null at the end of the input,
+ * and getInt reads a line and returns 0 if it is not a number.
+ */
+class RuntimeClasses
+{
+    private static final String TEXT_IO = "TextIO";
+    private static final String SYS = "Sys";
+    private static final String IN = "in";
+    private static final String OUT = "out";
+    private static final String INPUT_STREAM = "java/io/InputStream";
+    private static final String PRINT_STREAM = "java/io/PrintStream";
+    private static final String INPUT_STREAM_TYPE = "Ljava/io/InputStream;";
+    private static final String PRINT_STREAM_TYPE = "Ljava/io/PrintStream;";
+
+    /**
+     * returns the class files of Sys and TextIO
+     * @return the bytes of each class file by class name
+     */
+    static Map<String, byte[]> generate() {
+        Map<String, byte[]> classes = new HashMap<>();
+        classes.put(SYS, generateSys());
+        classes.put(TEXT_IO, generateTextIO());
+        return classes;
+    }
+
+    private static byte[] generateSys() {
+        ClassFileWriter sys = new ClassFileWriter(ACC_FINAL, SYS, "java/lang/Object");
+        addConstructor(sys);
+
+        CodeWriter code = sys.addMethod(ACC_PUBLIC, "exit", "(I)V");
+        code.varInsn(ILOAD, 1);
+        code.methodInsn(INVOKESTATIC, "java/lang/System", "exit", "(I)V");
+        code.insn(RETURN);
+
+        // the time in seconds
+        code = sys.addMethod(ACC_PUBLIC, "time", "()I");
+        code.methodInsn(INVOKESTATIC, "java/lang/System", "currentTimeMillis", "()J");
+        code.pushLong(1000);
+        code.insn(LDIV);
+        code.insn(L2I);
+        code.insn(IRETURN);
+
+        code = sys.addMethod(ACC_PUBLIC, "random", "()I");
+        code.typeInsn(NEW, "java/util/Random");
+        code.insn(DUP);
+        code.methodInsn(INVOKESPECIAL, "java/util/Random", "<init>", "()V");
+        code.methodInsn(INVOKEVIRTUAL, "java/util/Random", "nextInt", "()I");
+        code.insn(IRETURN);
+        return sys.toByteArray();
+    }
+
+    private static byte[] generateTextIO() {
+        ClassFileWriter textIO = new ClassFileWriter(ACC_FINAL, TEXT_IO, "java/lang/Object");
+        textIO.addField(ACC_PRIVATE, IN, INPUT_STREAM_TYPE);
+        textIO.addField(ACC_PRIVATE, OUT, PRINT_STREAM_TYPE);
+
+        // TextIO() { in = System.in; out = System.out; }
+        CodeWriter code = textIO.addMethod(ACC_PUBLIC, "<init>", "()V");
+        code.varInsn(ALOAD, 0);
+        code.methodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V");
+        setStream(code, IN, "in");
+        setStream(code, OUT, "out");
+        code.insn(RETURN);
+
+        code = textIO.addMethod(ACC_PUBLIC, "readStdin", "()V");
+        setStream(code, IN, "in");
+        code.insn(RETURN);
+
+        code = textIO.addMethod(ACC_PUBLIC, "writeStdout", "()V");
+        setStream(code, OUT, "out");
+        code.insn(RETURN);
+
+        code = textIO.addMethod(ACC_PUBLIC, "writeStderr", "()V");
+        setStream(code, OUT, "err");
+        code.insn(RETURN);
+
+        // in = new FileInputStream(filename), or an error message
+        code = textIO.addMethod(ACC_PUBLIC, "readFile", "(Ljava/lang/String;)V");
+        Label start = new Label();
+        Label end = new Label();
+        Label notFound = new Label();
+        code.placeLabel(start);
+        code.varInsn(ALOAD, 0);
+        code.typeInsn(NEW, "java/io/FileInputStream");
+        code.insn(DUP);
+        code.varInsn(ALOAD, 1);
+        code.methodInsn(INVOKESPECIAL, "java/io/FileInputStream", "<init>",
+                "(Ljava/lang/String;)V");
+        code.fieldInsn(PUTFIELD, TEXT_IO, IN, INPUT_STREAM_TYPE);
+        code.placeLabel(end);
+        code.insn(RETURN);
+        code.tryCatch(start, end, notFound, "java/io/FileNotFoundException");
+        code.placeLabel(notFound);
+        printFileNotFound(code);
+
+        // out = new PrintStream(new FileOutputStream(filename), true), or an
+        // error message
+        code = textIO.addMethod(ACC_PUBLIC, "writeFile", "(Ljava/lang/String;)V");
+        start = new Label();
+        end = new Label();
+        notFound = new Label();
+        code.placeLabel(start);
+        code.varInsn(ALOAD, 0);
+        code.typeInsn(NEW, PRINT_STREAM);
+        code.insn(DUP);
+        code.typeInsn(NEW, "java/io/FileOutputStream");
+        code.insn(DUP);
+        code.varInsn(ALOAD, 1);
+        code.methodInsn(INVOKESPECIAL, "java/io/FileOutputStream", "<init>",
+                "(Ljava/lang/String;)V");
+        code.pushInt(1);
+        code.methodInsn(INVOKESPECIAL, PRINT_STREAM, "<init>", "(Ljava/io/OutputStream;Z)V");
+        code.fieldInsn(PUTFIELD, TEXT_IO, OUT, PRINT_STREAM_TYPE);
+        code.placeLabel(end);
+        code.insn(RETURN);
+        code.tryCatch(start, end, notFound, "java/io/FileNotFoundException");
+        code.placeLabel(notFound);
+        printFileNotFound(code);
+
+        addGetString(textIO);
+
+        // try { return Integer.parseInt(getString().trim()); }
+        // catch (RuntimeException e) { return 0; }
+        code = textIO.addMethod(ACC_PUBLIC, "getInt", "()I");
+        start = new Label();
+        end = new Label();
+        Label notANumber = new Label();
+        code.placeLabel(start);
+        code.varInsn(ALOAD, 0);
+        code.methodInsn(INVOKEVIRTUAL, TEXT_IO, "getString", "()Ljava/lang/String;");
+        code.methodInsn(INVOKEVIRTUAL, "java/lang/String", "trim", "()Ljava/lang/String;");
+        code.methodInsn(INVOKESTATIC, "java/lang/Integer", "parseInt",
+                "(Ljava/lang/String;)I");
+        code.placeLabel(end);
+        code.insn(IRETURN);
+        code.tryCatch(start, end, notANumber, "java/lang/RuntimeException");
+        code.placeLabel(notANumber);
+        code.insn(POP);
+        code.pushInt(0);
+        code.insn(IRETURN);
+
+        // out.println(str); return this;
+        code = textIO.addMethod(ACC_PUBLIC, "putString", "(Ljava/lang/String;)LTextIO;");
+        code.varInsn(ALOAD, 0);
+        code.fieldInsn(GETFIELD, TEXT_IO, OUT, PRINT_STREAM_TYPE);
+        code.varInsn(ALOAD, 1);
+        code.methodInsn(INVOKEVIRTUAL, PRINT_STREAM, "println", "(Ljava/lang/String;)V");
+        code.varInsn(ALOAD, 0);
+        code.insn(ARETURN);
+
+        // out.println(n); return this;
+        code = textIO.addMethod(ACC_PUBLIC, "putInt", "(I)LTextIO;");
+        code.varInsn(ALOAD, 0);
+        code.fieldInsn(GETFIELD, TEXT_IO, OUT, PRINT_STREAM_TYPE);
+        code.varInsn(ILOAD, 1);
+        code.methodInsn(INVOKEVIRTUAL, PRINT_STREAM, "println", "(I)V");
+        code.varInsn(ALOAD, 0);
+        code.insn(ARETURN);
+        return textIO.toByteArray();
+    }
+
+    /**
+     * Adds getString, which reads the bytes of a line one at a time, so that
+     * nothing after the line is taken from the input, and drops the line
+     * terminator.
+     */
+    private static void addGetString(ClassFileWriter textIO) {
+        CodeWriter code = textIO.addMethod(ACC_PUBLIC, "getString", "()Ljava/lang/String;");
+        int line = code.newLocal();
+        int c = code.newLocal();
+        code.typeInsn(NEW, "java/io/ByteArrayOutputStream");
+        code.insn(DUP);
+        code.methodInsn(INVOKESPECIAL, "java/io/ByteArrayOutputStream", "<init>", "()V");
+        code.varInsn(ASTORE, line);
+
+        // while ((c = in.read()) >= 0 && c != '\n') { if (c != '\r') line.write(c); }
+        Label loop = new Label();
+        Label endOfLine = new Label();
+        code.placeLabel(loop);
+        code.varInsn(ALOAD, 0);
+        code.fieldInsn(GETFIELD, TEXT_IO, IN, INPUT_STREAM_TYPE);
+        code.methodInsn(INVOKEVIRTUAL, INPUT_STREAM, "read", "()I");
+        code.insn(DUP);
+        code.varInsn(ISTORE, c);
+        code.jumpInsn(IFLT, endOfLine);
+        code.varInsn(ILOAD, c);
+        code.pushInt('\n');
+        code.jumpInsn(IF_ICMPEQ, endOfLine);
+        code.varInsn(ILOAD, c);
+        code.pushInt('\r');
+        code.jumpInsn(IF_ICMPEQ, loop);
+        code.varInsn(ALOAD, line);
+        code.varInsn(ILOAD, c);
+        code.methodInsn(INVOKEVIRTUAL, "java/io/ByteArrayOutputStream", "write", "(I)V");
+        code.jumpInsn(GOTO, loop);
+
+        // if (c < 0 && line.size() == 0) return null;
+        Label notAtEnd = new Label();
+        code.placeLabel(endOfLine);
+        code.varInsn(ILOAD, c);
+        code.jumpInsn(IFGE, notAtEnd);
+        code.varInsn(ALOAD, line);
+        code.methodInsn(INVOKEVIRTUAL, "java/io/ByteArrayOutputStream", "size", "()I");
+        code.jumpInsn(IFNE, notAtEnd);
+        code.insn(ACONST_NULL);
+        code.insn(ARETURN);
+
+        // return line.toString();
+        code.placeLabel(notAtEnd);
+        code.varInsn(ALOAD, line);
+        code.methodInsn(INVOKEVIRTUAL, "java/io/ByteArrayOutputStream", "toString",
+                "()Ljava/lang/String;");
+        code.insn(ARETURN);
+    }
+
+    /**
+     * Adds the constructor that only calls the one of Object.
+     */
+    static void addConstructor(ClassFileWriter classFile) {
+        CodeWriter code = classFile.addMethod(ACC_PUBLIC, "<init>", "()V");
+        code.varInsn(ALOAD, 0);
+        code.methodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V");
+        code.insn(RETURN);
+    }
+
+    /**
+     * Writes this.field = System.stream.
+     */
+    private static void setStream(CodeWriter code, String field, String stream) {
+        String type = field.equals(IN) ? INPUT_STREAM_TYPE : PRINT_STREAM_TYPE;
+        code.varInsn(ALOAD, 0);
+        code.fieldInsn(GETSTATIC, "java/lang/System", stream, type);
+        code.fieldInsn(PUTFIELD, TEXT_IO, field, type);
+    }
+
+    /**
+     * Writes the handler of a FileNotFoundException in readFile or writeFile,
+     * which prints the same message as the TextIO of TranslatorVisitor.
+     */
+    private static void printFileNotFound(CodeWriter code) {
+        code.insn(POP);
+        code.fieldInsn(GETSTATIC, "java/lang/System", "out", PRINT_STREAM_TYPE);
+        code.pushString("Error: file ");
+        code.varInsn(ALOAD, 1);
+        code.methodInsn(INVOKEVIRTUAL, "java/lang/String", "concat",
+                "(Ljava/lang/String;)Ljava/lang/String;");
+        code.pushString(" is not found.");
+        code.methodInsn(INVOKEVIRTUAL, "java/lang/String", "concat",
+                "(Ljava/lang/String;)Ljava/lang/String;");
+        code.methodInsn(INVOKEVIRTUAL, PRINT_STREAM, "println", "(Ljava/lang/String;)V");
+        code.insn(RETURN);
+    }
+}
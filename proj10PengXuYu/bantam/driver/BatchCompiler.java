@@ -0,0 +1,372 @@
+/*
+ * File: BatchCompiler.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.driver;
+
+import proj10PengXuYu.bantam.ast.Program;
+import proj10PengXuYu.bantam.codegenjvm.CodeGenerator;
+import proj10PengXuYu.bantam.parser.Parser;
+import proj10PengXuYu.bantam.semant.SemanticAnalyzer;
+import proj10PengXuYu.bantam.util.ClassTreeNode;
+import proj10PengXuYu.bantam.util.CompilationException;
+import proj10PengXuYu.bantam.util.Error;
+import proj10PengXuYu.bantam.util.ErrorHandler;
+import proj10PengXuYu.bantam.visitor.TranslatorVisitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * bantamc, the batch compiler. It compiles every Bantam Java program it is
+ * given, and every .btm file in the directories it is given, to Java, or
+ * with -c to class files. The programs are independent, so each one is
+ * compiled on a ForkJoinPool by its own Parser, SemanticAnalyzer and
+ * ErrorHandler, and its own TranslatorVisitor, or CodeGenerator with -c.
+ * The results are printed in the order of the files (the directories are
+ * listed in sorted order), so the output is the same no matter how many
+ * threads are used. A throughput report, with the time spent in each
+ * phase, is printed to the error stream.
+ *
+ * Usage: java proj10PengXuYu.bantam.driver.BatchCompiler
+ *                 [-c] [-d outputDir] [-j threads] (file | directory) ...
+ * With -d, the translation of each program is written to
+ * outputDir/name/Main.java, or its class files to outputDir/name/*.class,
+ * where name is the path of the program, without the .btm extension,
+ * relative to the directory it was found in (with a suffix if another
+ * program was already given that name).
+ */
+public class BatchCompiler
+{
+    /** the phases of the compilation of a program, in order */
+    private static final String[] PHASES = {"parse", "analyze", "generate", "write"};
+
+    /**
+     * A program to be compiled.
+     */
+    private static class Source
+    {
+        private final Path path;       // the Bantam Java file
+        private final String name;     // the name of its output directory
+
+        Source(Path path, String name) {
+            this.path = path;
+            this.name = name;
+        }
+    }
+
+    /**
+     * The outcome of compiling one program.
+     */
+    private static class Result
+    {
+        private final Source source;
+        private final long[] phaseNanos = new long[PHASES.length];
+        private List<Error> errors = new ArrayList<>();
+        private String failure;    // the message of a failure that isn't an Error
+
+        Result(Source source) {
+            this.source = source;
+        }
+
+        boolean succeeded() {
+            return errors.isEmpty() && failure == null;
+        }
+    }
+
+    private final Path outputDir;      // where to write the translations, or null
+    private final int threads;         // the parallelism of the pool
+    private final boolean classFiles;  // generate class files instead of Java
+
+    /**
+     * creates a batch compiler
+     * @param outputDir the directory to write the Java programs to, or null to
+     *                  translate them without writing them anywhere
+     * @param threads the number of programs to compile at the same time
+     * @param classFiles true to generate class files instead of Java programs
+     */
+    public BatchCompiler(Path outputDir, int threads, boolean classFiles) {
+        this.outputDir = outputDir;
+        this.threads = threads;
+        this.classFiles = classFiles;
+    }
+
+    /**
+     * compiles all the programs and prints the results
+     * @param paths the Bantam Java files and the directories of Bantam Java files
+     * @return true if all the programs compiled without errors
+     * @throws IOException if a directory cannot be listed
+     */
+    public boolean compileAll(List<String> paths) throws IOException {
+        List<Source> sources = new ArrayList<>();
+        for (String pathname : paths) {
+            addSources(Paths.get(pathname), sources);
+        }
+        makeNamesUnique(sources);
+
+        long start = System.nanoTime();
+        List<Result> results = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<Callable<Result>> tasks = new ArrayList<>();
+            for (Source source : sources) {
+                tasks.add(() -> compile(source));
+            }
+            // invokeAll returns the futures in the order of the tasks
+            List<Future<Result>> futures = pool.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(getResult(futures.get(i), sources.get(i)));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        boolean allSucceeded = true;
+        for (Result result : results) {
+            printResult(result);
+            allSucceeded &= result.succeeded();
+        }
+        printReport(results, elapsed);
+        return allSucceeded;
+    }
+
+    /**
+     * Adds the file, or the .btm files in the directory and its subdirectories
+     * in sorted order, to the list of programs to be compiled.
+     */
+    private static void addSources(Path path, List<Source> sources) throws IOException {
+        if (!Files.isDirectory(path)) {
+            sources.add(new Source(path, withoutExtension(path.getFileName().toString())));
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(path)) {
+            files = walk.filter(file -> Files.isRegularFile(file)
+                            && file.getFileName().toString().endsWith(".btm"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            String name = withoutExtension(path.relativize(file).toString());
+            sources.add(new Source(file, name.replace(File.separatorChar, '/')));
+        }
+    }
+
+    /**
+     * Renames the output directories of programs that would be written to the
+     * same directory as an earlier program, by adding _2, _3, ... to the name.
+     */
+    private static void makeNamesUnique(List<Source> sources) {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < sources.size(); i++) {
+            Source source = sources.get(i);
+            String name = source.name;
+            for (int n = 2; !names.add(name); n++) {
+                name = source.name + "_" + n;
+            }
+            if (!name.equals(source.name)) {
+                sources.set(i, new Source(source.path, name));
+            }
+        }
+    }
+
+    private static String withoutExtension(String filename) {
+        return filename.endsWith(".btm")
+                ? filename.substring(0, filename.length() - ".btm".length()) : filename;
+    }
+
+    /**
+     * Compiles one program. It is run on the pool, so it only touches
+     * the objects it creates itself.
+     */
+    private Result compile(Source source) {
+        Result result = new Result(source);
+        ErrorHandler errorHandler = new ErrorHandler();
+        String filename = source.path.toString();
+        int phase = 0; // the index in PHASES of the current phase
+        long phaseStart = System.nanoTime();
+        try {
+            Program program = new Parser(errorHandler).parse(filename);
+            phase = endPhase(result, phase, phaseStart);
+            phaseStart = System.nanoTime();
+
+            ClassTreeNode root = new SemanticAnalyzer(errorHandler).analyze(program);
+            phase = endPhase(result, phase, phaseStart);
+            phaseStart = System.nanoTime();
+
+            Map<String, byte[]> classes = null;
+            if (classFiles) {
+                classes = new CodeGenerator().generate(program, root);
+            }
+            else if (outputDir == null) {
+                new TranslatorVisitor().print(program, Writer.nullWriter());
+            }
+            else {
+                // the Java code is written to the file in chunks while it is
+                // generated, so this phase includes writing it
+                Path directory = outputDir.resolve(source.name);
+                Files.createDirectories(directory);
+                try (FileChannel channel = FileChannel.open(directory.resolve("Main.java"),
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE)) {
+                    new TranslatorVisitor().print(program, channel);
+                }
+            }
+            phase = endPhase(result, phase, phaseStart);
+            phaseStart = System.nanoTime();
+
+            if (outputDir != null && classFiles) {
+                Path directory = outputDir.resolve(source.name);
+                Files.createDirectories(directory);
+                for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                    Files.write(directory.resolve(entry.getKey() + ".class"),
+                            entry.getValue());
+                }
+            }
+            endPhase(result, phase, phaseStart);
+        } catch (CompilationException ex) {
+            endPhase(result, phase, phaseStart);
+            if (ex.getMessage() != null) {
+                // the file could not be read
+                result.failure = ex.getMessage();
+            }
+        } catch (IOException ex) {
+            endPhase(result, phase, phaseStart);
+            result.failure = "Could not write the translation: " + ex.getMessage();
+        } catch (RuntimeException | StackOverflowError ex) {
+            // a bug in the compiler should not stop the other programs
+            endPhase(result, phase, phaseStart);
+            result.failure = "Internal compiler error in the " + PHASES[phase]
+                    + " phase: " + ex;
+        }
+        result.errors = errorHandler.getErrorList();
+        return result;
+    }
+
+    /**
+     * Adds the time since phaseStart to the phase and returns the next phase.
+     */
+    private static int endPhase(Result result, int phase, long phaseStart) {
+        result.phaseNanos[phase] += System.nanoTime() - phaseStart;
+        return phase + 1;
+    }
+
+    /**
+     * Waits for the result of a program. compile catches everything a
+     * program can make the compiler throw, so the future only fails if the
+     * JVM itself is in trouble.
+     */
+    private static Result getResult(Future<Result> future, Source source) {
+        try {
+            return future.get();
+        } catch (InterruptedException | ExecutionException ex) {
+            Result result = new Result(source);
+            result.failure = "Compilation did not finish: " + ex;
+            return result;
+        }
+    }
+
+    /**
+     * Prints the errors of a program, the same way SemanticAnalyzer.main does.
+     */
+    private static void printResult(Result result) {
+        System.out.println("\n========== Results for " + result.source.path
+                + " =============");
+        if (result.succeeded()) {
+            System.out.println("  Compilation was successful.");
+            return;
+        }
+        if (result.failure != null) {
+            System.out.println(result.failure);
+        }
+        if (!result.errors.isEmpty()) {
+            System.out.println("  There were errors:");
+            for (Error error : result.errors) {
+                System.out.println("\t" + error.toString());
+            }
+        }
+    }
+
+    /**
+     * Prints the throughput and the time spent in each phase. The phase
+     * times are added up over all the threads, so with more than one thread
+     * they add up to more than the elapsed time.
+     */
+    private void printReport(List<Result> results, long elapsedNanos) {
+        int succeeded = 0;
+        long[] phaseNanos = new long[PHASES.length];
+        for (Result result : results) {
+            if (result.succeeded()) {
+                succeeded++;
+            }
+            for (int i = 0; i < PHASES.length; i++) {
+                phaseNanos[i] += result.phaseNanos[i];
+            }
+        }
+        double seconds = elapsedNanos / 1e9;
+        System.err.println(String.format(
+                "%nCompiled %d files (%d succeeded, %d failed) in %.1f ms "
+                        + "with %d threads: %.1f files/sec",
+                results.size(), succeeded, results.size() - succeeded,
+                elapsedNanos / 1e6, threads, results.size() / seconds));
+        for (int i = 0; i < PHASES.length; i++) {
+            System.err.println(String.format("  %-10s %10.1f ms", PHASES[i],
+                    phaseNanos[i] / 1e6));
+        }
+    }
+
+    /**
+     * runs bantamc
+     * @param args the options, then the files and directories to compile
+     */
+    public static void main(String[] args) throws IOException {
+        Path outputDir = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean classFiles = false;
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-c")) {
+                classFiles = true;
+            }
+            else if (args[i].equals("-d") && i + 1 < args.length) {
+                outputDir = Paths.get(args[++i]);
+            }
+            else if (args[i].equals("-j") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            }
+            else {
+                paths.add(args[i]);
+            }
+        }
+        if (paths.isEmpty() || threads < 1) {
+            System.err.println("Usage: java proj10PengXuYu.bantam.driver.BatchCompiler "
+                    + "[-c] [-d outputDir] [-j threads] (file | directory) ...");
+            System.exit(2);
+        }
+        boolean allSucceeded = new BatchCompiler(outputDir, threads, classFiles)
+                .compileAll(paths);
+        System.exit(allSucceeded ? 0 : 1);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * File: BantamObject.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.interp;
+
+/**
+ * An object of a class of the program, or of Object, TextIO or Sys. Its
+ * int and boolean fields are in ints and its reference fields in refs, at the
+ * offsets its RuntimeClass assigns, with the fields of the superclasses first.
+ * Strings are java.lang.Strings rather than BantamObjects.
+ */
+final class BantamObject
+{
+    final RuntimeClass type;
+    final int[] ints;
+    final Object[] refs;
+
+    BantamObject(RuntimeClass type) {
+        this.type = type;
+        this.ints = new int[type.intFields];
+        this.refs = new Object[type.refFields];
+    }
+
+    private BantamObject(BantamObject original) {
+        this.type = original.type;
+        this.ints = original.ints.clone();
+        this.refs = original.refs.clone();
+    }
+
+    /**
+     * returns a shallow copy of the object, for Object.clone()
+     * @return an object of the same class with the same field values
+     */
+    BantamObject copy() {
+        return new BantamObject(this);
+    }
+
+    @Override
+    public String toString() {
+        return type.name + "@" + Integer.toHexString(hashCode());
+    }
+}
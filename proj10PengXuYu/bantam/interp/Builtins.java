@@ -0,0 +1,228 @@
+/*
+ * File: Builtins.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.interp;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static proj10PengXuYu.bantam.interp.StmtNode.NORMAL;
+import static proj10PengXuYu.bantam.interp.StmtNode.RETURN;
+
+/**
+ * The methods of the built-in classes Object, String, TextIO and Sys, written
+ * in Java. They behave like the classes that the CodeGenerator generates for
+ * Compile & Run: putString and putInt print a line, getString reads a line or
+ * returns null at the end of the input, and each TextIO keeps its own input
+ * and output, which start as those of the run.
+ */
+final class Builtins
+{
+    /** the slots of the input and output streams in the refs of a TextIO */
+    private static final int IN = 0;
+    private static final int OUT = 1;
+
+    /**
+     * Ends the program when it calls Sys.exit. It only unwinds the program,
+     * so filling in a stack trace would be wasted.
+     */
+    static final class ProgramExit extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ProgramExit(int status) {
+            super(null, null, false, false);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Sets the bodies of the methods of the built-in classes, whose vtables
+     * the NodeCompiler has already built from their ClassTreeNodes, and gives
+     * TextIO the fields for its streams.
+     *
+     * @param classes the classes of the program, by name
+     * @param interpreter the interpreter that runs them
+     */
+    static void install(Map<String, RuntimeClass> classes, Interpreter interpreter) {
+        installObject(classes.get("Object"));
+        installString(classes.get("String"));
+        installTextIO(classes.get("TextIO"), interpreter);
+        installSys(classes.get("Sys"));
+    }
+
+    private static void installObject(RuntimeClass object) {
+        define(object, "clone", 0, 0, frame -> {
+            frame.refResult = (frame.self instanceof BantamObject)
+                    ? ((BantamObject) frame.self).copy() : frame.self;
+            return RETURN;
+        });
+        define(object, "equals", 0, 1, frame -> {
+            frame.intResult = (frame.self == frame.refs[0]) ? 1 : 0;
+            return RETURN;
+        });
+        define(object, "toString", 0, 0, frame -> {
+            frame.refResult = frame.self.toString();
+            return RETURN;
+        });
+    }
+
+    private static void installString(RuntimeClass string) {
+        define(string, "length", 0, 0, frame -> {
+            frame.intResult = ((String) frame.self).length();
+            return RETURN;
+        });
+        define(string, "equals", 0, 1, frame -> {
+            frame.intResult = frame.self.equals(frame.refs[0]) ? 1 : 0;
+            return RETURN;
+        });
+        define(string, "toString", 0, 0, frame -> {
+            frame.refResult = frame.self;
+            return RETURN;
+        });
+        define(string, "substring", 2, 0, frame -> {
+            frame.refResult = ((String) frame.self).substring(frame.ints[0], frame.ints[1]);
+            return RETURN;
+        });
+        define(string, "concat", 0, 1, frame -> {
+            frame.refResult = ((String) frame.self).concat((String) frame.refs[0]);
+            return RETURN;
+        });
+    }
+
+    private static void installTextIO(RuntimeClass textIO, Interpreter interpreter) {
+        // the fields of the AST of TextIO are not used
+        textIO.refFields = 2;
+        textIO.ownInitializers.add(frame -> {
+            BantamObject self = (BantamObject) frame.self;
+            self.refs[IN] = interpreter.getInput();
+            self.refs[OUT] = interpreter.getOutput();
+            return NORMAL;
+        });
+
+        define(textIO, "readStdin", 0, 0, frame -> {
+            ((BantamObject) frame.self).refs[IN] = interpreter.getInput();
+            return RETURN;
+        });
+        define(textIO, "writeStdout", 0, 0, frame -> {
+            ((BantamObject) frame.self).refs[OUT] = interpreter.getOutput();
+            return RETURN;
+        });
+        define(textIO, "writeStderr", 0, 0, frame -> {
+            ((BantamObject) frame.self).refs[OUT] = interpreter.getError();
+            return RETURN;
+        });
+        define(textIO, "readFile", 0, 1, frame -> {
+            String filename = (String) frame.refs[0];
+            try {
+                ((BantamObject) frame.self).refs[IN] =
+                        new BufferedInputStream(new FileInputStream(filename));
+            } catch (FileNotFoundException e) {
+                interpreter.getOutput().println("Error: file " + filename + " is not found.");
+            }
+            return RETURN;
+        });
+        define(textIO, "writeFile", 0, 1, frame -> {
+            String filename = (String) frame.refs[0];
+            try {
+                ((BantamObject) frame.self).refs[OUT] =
+                        new PrintStream(new FileOutputStream(filename), true);
+            } catch (FileNotFoundException e) {
+                interpreter.getOutput().println("Error: file " + filename + " is not found.");
+            }
+            return RETURN;
+        });
+        define(textIO, "getString", 0, 0, frame -> {
+            frame.refResult = readLine((InputStream) ((BantamObject) frame.self).refs[IN]);
+            return RETURN;
+        });
+        define(textIO, "getInt", 0, 0, frame -> {
+            try {
+                String line = readLine((InputStream) ((BantamObject) frame.self).refs[IN]);
+                frame.intResult = Integer.parseInt(line.trim());
+            } catch (NullPointerException | NumberFormatException e) {
+                frame.intResult = 0;
+            }
+            return RETURN;
+        });
+        define(textIO, "putString", 0, 1, frame -> {
+            ((PrintStream) ((BantamObject) frame.self).refs[OUT]).println((String) frame.refs[0]);
+            frame.refResult = frame.self;
+            return RETURN;
+        });
+        define(textIO, "putInt", 1, 0, frame -> {
+            ((PrintStream) ((BantamObject) frame.self).refs[OUT]).println(frame.ints[0]);
+            frame.refResult = frame.self;
+            return RETURN;
+        });
+    }
+
+    /**
+     * Reads the bytes of a line one at a time, so that nothing after the line
+     * is taken from the input, and drops the line terminator.
+     *
+     * @return the line, or null at the end of the input
+     */
+    private static String readLine(InputStream in) {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int c;
+        try {
+            while ((c = in.read()) >= 0 && c != '\n') {
+                if (c != '\r') {
+                    line.write(c);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (c < 0 && line.size() == 0) {
+            return null;
+        }
+        return line.toString();
+    }
+
+    private static void installSys(RuntimeClass sys) {
+        define(sys, "exit", 1, 0, frame -> {
+            throw new ProgramExit(frame.ints[0]);
+        });
+        // the time in seconds
+        define(sys, "time", 0, 0, frame -> {
+            frame.intResult = (int) (System.currentTimeMillis() / 1000);
+            return RETURN;
+        });
+        define(sys, "random", 0, 0, frame -> {
+            frame.intResult = ThreadLocalRandom.current().nextInt();
+            return RETURN;
+        });
+    }
+
+    /**
+     * Sets the body of a method of a built-in class.
+     *
+     * @param intParams the number of int and boolean parameters
+     * @param refParams the number of other parameters
+     */
+    private static void define(RuntimeClass type, String name, int intParams, int refParams,
+                               StmtNode body) {
+        MethodCode method = type.lookupMethod(name);
+        method.intSlots = intParams;
+        method.refSlots = refParams;
+        method.body = body;
+    }
+}
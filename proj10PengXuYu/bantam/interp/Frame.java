@@ -0,0 +1,35 @@
+/*
+ * File: Frame.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.interp;
+
+/**
+ * The frame of a running method: its parameters and local variables, and the
+ * object it was called on. The slots of int and boolean variables are indexes
+ * in ints and those of references are indexes in refs, assigned when the
+ * method is compiled, so variables are never looked up by name.
+ */
+final class Frame
+{
+    private static final int[] NO_INTS = new int[0];
+    private static final Object[] NO_REFS = new Object[0];
+
+    final int[] ints;
+    final Object[] refs;
+    /** the object the method was called on */
+    final Object self;
+    /** the value of the return statement that ended the method */
+    int intResult;
+    Object refResult;
+
+    Frame(int intSlots, int refSlots, Object self) {
+        this.ints = (intSlots == 0) ? NO_INTS : new int[intSlots];
+        this.refs = (refSlots == 0) ? NO_REFS : new Object[refSlots];
+        this.self = self;
+    }
+}
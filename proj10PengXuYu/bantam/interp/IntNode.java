@@ -0,0 +1,18 @@
+/*
+ * File: IntNode.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.interp;
+
+/**
+ * A node of the executable tree that computes an int or boolean value.
+ * Booleans are 1 for true and 0 for false.
+ */
+interface IntNode
+{
+    int eval(Frame frame);
+}
@@ -0,0 +1,190 @@
+/*
+ * File: Interpreter.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.interp;
+
+import proj10PengXuYu.bantam.ast.Program;
+import proj10PengXuYu.bantam.parser.Parser;
+import proj10PengXuYu.bantam.semant.SemanticAnalyzer;
+import proj10PengXuYu.bantam.util.ClassTreeNode;
+import proj10PengXuYu.bantam.util.CompilationException;
+import proj10PengXuYu.bantam.util.Error;
+import proj10PengXuYu.bantam.util.ErrorHandler;
+
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Interpreter runs a legal Bantam Java program without generating any code.
+ * The constructor converts the AST to a tree of executable nodes in which
+ * every variable, field and method is already resolved to an index, and run
+ * calls main() on a new Main.
+ *
+ * A run can be stopped from another thread with cancel. The running program
+ * checks for it at every method call and every iteration of a loop, and then
+ * run throws a CancellationException.
+ *
+ * Every method call of the program takes several frames of the Java stack, so
+ * programs with deep recursion should be run in a thread with a large stack,
+ * such as one of STACK_SIZE bytes.
+ */
+public class Interpreter
+{
+    /** a size of the stack of a thread that runs programs, in bytes */
+    public static final long STACK_SIZE = 256L * 1024 * 1024;
+
+    private final RuntimeClass mainClass;
+    private final RuntimeClass stringClass;
+    /** true when the run is to stop */
+    private volatile boolean cancelled;
+
+    // the standard input and outputs of the run
+    private InputStream input = System.in;
+    private PrintStream output = System.out;
+    private PrintStream error = System.err;
+
+    /**
+     * Compiles a program to be run.
+     *
+     * @param program the AST of the program, after semantic analysis
+     * @param root the root of the class hierarchy, as returned by
+     *             SemanticAnalyzer.analyze
+     */
+    public Interpreter(Program program, ClassTreeNode root) {
+        Map<String, RuntimeClass> classes = new NodeCompiler(this).compile(program, root);
+        mainClass = classes.get("Main");
+        stringClass = classes.get("String");
+    }
+
+    /**
+     * Runs the program with the standard input and outputs of the JVM.
+     *
+     * @return the exit status of the program
+     */
+    public int run() {
+        return run(System.in, System.out, System.err);
+    }
+
+    /**
+     * Runs the program. A runtime error ends it with exit status 1 and is
+     * printed to the error output, like an uncaught exception in Java.
+     * Runs of the same Interpreter must not overlap.
+     *
+     * @param in the standard input of the program
+     * @param out the standard output
+     * @param err the standard error output
+     * @return the exit status of the program: 0, the status given to
+     *         Sys.exit, or 1 after a runtime error
+     * @throws CancellationException if the run was cancelled
+     */
+    public int run(InputStream in, PrintStream out, PrintStream err) {
+        input = in;
+        output = out;
+        error = err;
+        try {
+            checkCancelled();
+            BantamObject main = mainClass.instantiate();
+            MethodCode method = mainClass.lookupMethod("main");
+            method.body.exec(new Frame(method.intSlots, method.refSlots, main));
+            return 0;
+        } catch (Builtins.ProgramExit exit) {
+            return exit.status;
+        } catch (CancellationException ex) {
+            throw ex;
+        } catch (RuntimeException | StackOverflowError ex) {
+            if (cancelled) {
+                // an error caused by the cancellation, such as an interrupted read
+                throw new CancellationException("The program was stopped.");
+            }
+            String message = (ex instanceof StackOverflowError)
+                    ? "the recursion is too deep" : ex.toString();
+            err.println("Exception in thread \"main\" " + message);
+            return 1;
+        } finally {
+            out.flush();
+            err.flush();
+        }
+    }
+
+    /**
+     * Stops the run of the program, now or as soon as it starts. Can be called
+     * from any thread. An Interpreter cannot run again after it was cancelled.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Returns whether the run was cancelled.
+     *
+     * @return true if cancel was called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Throws a CancellationException if the run was cancelled.
+     */
+    void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("The program was stopped.");
+        }
+    }
+
+    /**
+     * Returns the class of a value of the program: its RuntimeClass, or
+     * String for a java.lang.String.
+     */
+    RuntimeClass classOf(Object value) {
+        return (value instanceof BantamObject) ? ((BantamObject) value).type : stringClass;
+    }
+
+    InputStream getInput() {
+        return input;
+    }
+
+    PrintStream getOutput() {
+        return output;
+    }
+
+    PrintStream getError() {
+        return error;
+    }
+
+
+    /**
+     * runs Bantam Java programs with the standard input and outputs, and
+     * exits with the exit status of the last one
+     * @param args the pathnames of the programs
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int[] status = new int[1];
+        for (String filename : args) {
+            ErrorHandler errorHandler = new ErrorHandler();
+            try {
+                Program program = new Parser(errorHandler).parse(filename);
+                ClassTreeNode root = new SemanticAnalyzer(errorHandler).analyze(program);
+                Interpreter interpreter = new Interpreter(program, root);
+                Thread thread = new Thread(null, () -> status[0] = interpreter.run(),
+                        filename, STACK_SIZE);
+                thread.start();
+                thread.join();
+            } catch (CompilationException ex) {
+                System.out.println("Illegal Bantam Java program: " + filename);
+                for (Error error : errorHandler.getErrorList()) {
+                    System.out.println(error.toString());
+                }
+                status[0] = 1;
+            }
+        }
+        System.exit(status[0]);
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * File: InterpreterBenchmark.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.interp;
+
+import proj10PengXuYu.bantam.ast.Program;
+import proj10PengXuYu.bantam.codegenjvm.ByteArrayClassLoader;
+import proj10PengXuYu.bantam.codegenjvm.CodeGenerator;
+import proj10PengXuYu.bantam.parser.Parser;
+import proj10PengXuYu.bantam.semant.SemanticAnalyzer;
+import proj10PengXuYu.bantam.util.Benchmarks;
+import proj10PengXuYu.bantam.util.ClassTreeNode;
+import proj10PengXuYu.bantam.util.ErrorHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A timing harness for the Interpreter on CPU-heavy Bantam Java programs:
+ * recursive calls, arithmetic loops, virtual calls along a linked list of
+ * objects, and allocation with field updates. For each program it times
+ * compiling the AST to the executable tree and running it, and generating
+ * the class files with the CodeGenerator, loading them and running them, and
+ * checks that both print the same output.
+ *
+ * Usage: java proj10PengXuYu.bantam.interp.InterpreterBenchmark [file ...]
+ * If no files are given, the built-in programs are run instead.
+ */
+public class InterpreterBenchmark
+{
+    private static final String FIBONACCI = "class Main {\n"
+            + "    int fib(int n) {\n"
+            + "        if (n < 2) return n;\n"
+            + "        return fib(n - 1) + fib(n - 2);\n"
+            + "    }\n"
+            + "    void main() {\n"
+            + "        var io = new TextIO();\n"
+            + "        io.putInt(fib(25));\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String PRIMES = "class Main {\n"
+            + "    boolean isPrime(int n) {\n"
+            + "        var d = 2;\n"
+            + "        while (d * d <= n) {\n"
+            + "            if (n % d == 0) return false;\n"
+            + "            d++;\n"
+            + "        }\n"
+            + "        return true;\n"
+            + "    }\n"
+            + "    void main() {\n"
+            + "        var io = new TextIO();\n"
+            + "        var count = 0;\n"
+            + "        var n = 0;\n"
+            + "        for (n = 2; n < 100000; n++) {\n"
+            + "            if (isPrime(n)) count++;\n"
+            + "        }\n"
+            + "        io.putInt(count);\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String DISPATCH = "class Node {\n"
+            + "    int v = 0;\n"
+            + "    Node next = null;\n"
+            + "    void init(int value, Node rest) { v = value; next = rest; }\n"
+            + "    Node getNext() { return next; }\n"
+            + "    int value() { return v; }\n"
+            + "}\n"
+            + "class Twice extends Node {\n"
+            + "    int value() { return v * 2; }\n"
+            + "}\n"
+            + "class Negated extends Twice {\n"
+            + "    int value() { return 0 - super.value(); }\n"
+            + "}\n"
+            + "class Main {\n"
+            + "    Node head = null;\n"
+            + "    void add(int i) {\n"
+            + "        var node = new Node();\n"
+            + "        if (i % 3 == 1) { var twice = new Twice(); node = twice; }\n"
+            + "        if (i % 3 == 2) { var negated = new Negated(); node = negated; }\n"
+            + "        node.init(i, head);\n"
+            + "        head = node;\n"
+            + "    }\n"
+            + "    void main() {\n"
+            + "        var io = new TextIO();\n"
+            + "        var i = 0;\n"
+            + "        for (i = 0; i < 1000; i++) add(i);\n"
+            + "        var sum = 0;\n"
+            + "        for (i = 0; i < 1000; i++) {\n"
+            + "            var p = head;\n"
+            + "            while (p != null) {\n"
+            + "                sum = (sum + p.value()) % 1000007;\n"
+            + "                p = p.getNext();\n"
+            + "            }\n"
+            + "        }\n"
+            + "        io.putInt(sum);\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String OBJECTS = "class Counter {\n"
+            + "    int count = 0;\n"
+            + "    int total = 0;\n"
+            + "    void add(int n) { count++; total = total + n; }\n"
+            + "    int average() { return total / count; }\n"
+            + "}\n"
+            + "class Main {\n"
+            + "    void main() {\n"
+            + "        var io = new TextIO();\n"
+            + "        var sum = 0;\n"
+            + "        var i = 0;\n"
+            + "        for (i = 0; i < 200000; i++) {\n"
+            + "            var counter = new Counter();\n"
+            + "            var j = 0;\n"
+            + "            for (j = 0; j < 10; j++) counter.add(i + j);\n"
+            + "            sum = (sum + counter.average()) % 1000007;\n"
+            + "        }\n"
+            + "        io.putInt(sum);\n"
+            + "    }\n"
+            + "}\n";
+
+    /** an output that discards what the programs print while they are timed */
+    private static final PrintStream DISCARD = new PrintStream(OutputStream.nullOutputStream());
+
+    /**
+     * Compiles the program to the executable tree and runs it.
+     */
+    private static void interpret(Program program, ClassTreeNode root, PrintStream out) {
+        new Interpreter(program, root).run(InputStream.nullInputStream(), out, out);
+    }
+
+    /**
+     * Generates the class files of the program, loads them and runs Main.
+     * The generated TextIO prints to System.out.
+     */
+    private static void runClassFiles(Program program, ClassTreeNode root, PrintStream out) {
+        Map<String, byte[]> classes = new CodeGenerator().generate(program, root);
+        PrintStream systemOut = System.out;
+        System.setOut(out);
+        try {
+            Method main = new ByteArrayClassLoader(classes).loadClass("Main")
+                    .getMethod("main", String[].class);
+            // the generated classes are not public
+            main.setAccessible(true);
+            main.invoke(null, (Object) new String[0]);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            System.setOut(systemOut);
+        }
+    }
+
+    /**
+     * Runs a program once and returns what it prints.
+     */
+    private static String output(Runner runner) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true);
+        runner.run(out);
+        return bytes.toString();
+    }
+
+    /**
+     * Runs a program, printing to the given output.
+     */
+    private interface Runner
+    {
+        void run(PrintStream out);
+    }
+
+    /**
+     * Times one way of running a program and prints the result.
+     *
+     * @param label the name of the way of running
+     * @param runner runs the program once
+     * @return the average time of a run in ms
+     */
+    private static double measure(String label, Runner runner) {
+        double millis = Benchmarks.time(() -> runner.run(DISCARD));
+        System.out.println(String.format("  %-24s %10.1f ms", label, millis));
+        return millis;
+    }
+
+    /**
+     * runs the benchmark
+     *
+     * @param args the pathnames of the Bantam Java programs to run (optional)
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> programs = new LinkedHashMap<>();
+        for (String filename : args) {
+            programs.put(filename, Files.readString(Path.of(filename)));
+        }
+        if (programs.isEmpty()) {
+            programs.put("fibonacci", FIBONACCI);
+            programs.put("primes", PRIMES);
+            programs.put("virtual calls", DISPATCH);
+            programs.put("objects", OBJECTS);
+        }
+
+        for (Map.Entry<String, String> source : programs.entrySet()) {
+            ErrorHandler errorHandler = new ErrorHandler();
+            Program program = new Parser(errorHandler).parse(source.getValue(),
+                    source.getKey());
+            ClassTreeNode root = new SemanticAnalyzer(errorHandler).analyze(program);
+            Runner interpreter = out -> interpret(program, root, out);
+            Runner classFiles = out -> runClassFiles(program, root, out);
+
+            String output = output(interpreter);
+            System.out.println(String.format("%s (prints %s)", source.getKey(),
+                    output.trim().replace('\n', ' ')));
+            if (! output.equals(output(classFiles))) {
+                System.out.println("  the class files print something else");
+            }
+            double interpreted = measure("interpreter", interpreter);
+            double compiled = measure("bytecode generator", classFiles);
+            System.out.println(String.format("  the interpreter takes %.1f times as long",
+                    interpreted / compiled));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * File: InterpreterException.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.interp;
+
+/**
+ * This class represents an error in a running Bantam Java program, such as a
+ * method called on null or a division by zero. The interpreter throws it with
+ * the line of the expression that failed.
+ */
+public class InterpreterException extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    private final String filename;
+    private final int lineNum;
+
+    /**
+     * creates an exception for an error at a line of the program
+     * @param filename the name of the source file, or null
+     * @param lineNum the line of the expression that failed
+     * @param message the description of the error
+     */
+    public InterpreterException(String filename, int lineNum, String message) {
+        super(message);
+        this.filename = filename;
+        this.lineNum = lineNum;
+    }
+
+    public String getFilename() { return filename; }
+
+    public int getLineNum() { return lineNum; }
+
+    @Override
+    public String toString() {
+        String where = (filename == null) ? "line " + lineNum : filename + ":" + lineNum;
+        return where + ": " + getMessage();
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * File: MethodCode.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.interp;
+
+/**
+ * A method in the vtables of the classes: the executable tree of its body and
+ * the size of its frame. The parameters are the first slots of the frame, the
+ * int and boolean ones in ints and the others in refs, in the order they are
+ * declared, so they are at the same slots in all the methods that override
+ * each other. The methods of the built-in classes have bodies written in Java.
+ */
+final class MethodCode
+{
+    final String className;
+    final String name;
+    /** the number of int and of reference slots of the frame */
+    int intSlots;
+    int refSlots;
+    /** the body, which leaves the return value in the frame */
+    StmtNode body;
+
+    MethodCode(String className, String name) {
+        this.className = className;
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return className + "." + name;
+    }
+}
@@ -0,0 +1,859 @@
+/*
+ * File: NodeCompiler.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.interp;
+
+import proj10PengXuYu.bantam.ast.*;
+import proj10PengXuYu.bantam.codegenjvm.CodeGenerator;
+import proj10PengXuYu.bantam.util.ClassTreeNode;
+import proj10PengXuYu.bantam.visitor.Visitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static proj10PengXuYu.bantam.interp.StmtNode.BREAK;
+import static proj10PengXuYu.bantam.interp.StmtNode.NORMAL;
+import static proj10PengXuYu.bantam.interp.StmtNode.RETURN;
+
+/**
+ * NodeCompiler is a visitor that converts the AST of a legal Bantam Java
+ * program to the tree of executable nodes that the Interpreter runs. The
+ * local variables and fields are kept at the slots and offsets of the
+ * Bindings that the Resolver set on the AST, and methods become indexes in
+ * the vtables of the RuntimeClasses built from the class hierarchy, so the
+ * nodes never look up a name while the program runs.
+ *
+ * A variable of type int or boolean is kept in the ints of the frame or the
+ * object, and any other variable in the refs, at the index of its slot for a
+ * local variable or of its offset in the fields of the RuntimeClass for a
+ * field.
+ *
+ * Each visit method returns the node of the AST node it visits: an IntNode
+ * for int and boolean expressions, a RefNode for the other expressions, and
+ * a StmtNode for statements.
+ */
+class NodeCompiler extends Visitor
+{
+    /** evaluates to the object the method was called on */
+    private static final RefNode SELF = frame -> frame.self;
+    /** a statement that does nothing */
+    private static final StmtNode NOTHING = frame -> NORMAL;
+
+    private final Interpreter interpreter;
+    /** the classes of the program and the built-in classes, by name */
+    private final Map<String, RuntimeClass> classes = new HashMap<>();
+    /** the class being compiled */
+    private RuntimeClass currentClass;
+    /** the source file of the class being compiled, for the runtime errors */
+    private String filename;
+    /** the Bantam return type of the method being compiled */
+    private String returnType;
+    /** the next numbers of the preorder and postorder walks of the classes */
+    private int nextPreorder;
+    private int nextPostorder;
+
+    /** the size of the frame of the method being compiled */
+    private int maxInts;
+    private int maxRefs;
+
+    /**
+     * Stores an argument of a call in the frame of the method called.
+     */
+    private interface ArgNode
+    {
+        void store(Frame caller, Frame callee);
+    }
+
+    NodeCompiler(Interpreter interpreter) {
+        this.interpreter = interpreter;
+    }
+
+    /**
+     * Compiles a program.
+     *
+     * @param program the AST of the program, after semantic analysis
+     * @param root the root of the class hierarchy, as returned by
+     *             SemanticAnalyzer.analyze
+     * @return the classes, ready to be run, by name
+     */
+    Map<String, RuntimeClass> compile(Program program, ClassTreeNode root) {
+        createClasses(root, null);
+        Builtins.install(classes, interpreter);
+        program.accept(this);
+        linkInitializers(root);
+        return classes;
+    }
+
+    /**
+     * Creates the RuntimeClasses of a class and its subclasses, with their field
+     * layouts and vtables, before any method is compiled, so that every call
+     * can be resolved, and numbers them for RuntimeClass.isSubclassOf.
+     */
+    private void createClasses(ClassTreeNode node, RuntimeClass parent) {
+        RuntimeClass type = new RuntimeClass(node, parent);
+        type.hasSubclasses = node.getNumChildren() > 0;
+        type.preorder = nextPreorder++;
+        classes.put(type.name, type);
+        for (ASTNode member : node.getASTNode().getMemberList()) {
+            if (member instanceof Field && ! node.isBuiltIn()) {
+                type.addField(((Field) member).getType());
+            }
+        }
+        for (Iterator<ClassTreeNode> it = node.getChildrenList(); it.hasNext(); ) {
+            createClasses(it.next(), type);
+        }
+        type.postorder = nextPostorder++;
+    }
+
+    private void linkInitializers(ClassTreeNode node) {
+        classes.get(node.getName()).linkInitializers();
+        for (Iterator<ClassTreeNode> it = node.getChildrenList(); it.hasNext(); ) {
+            linkInitializers(it.next());
+        }
+    }
+
+    //-----------------------------------------
+    // Classes and members
+
+    @Override
+    public Object visit(Class_ node) {
+        currentClass = classes.get(node.getName());
+        filename = node.getFilename();
+        for (ASTNode member : node.getMemberList()) {
+            if (member instanceof Field && ((Field) member).getInit() != null) {
+                currentClass.ownInitializers.add(compileInitializer((Field) member));
+            }
+        }
+        for (ASTNode member : node.getMemberList()) {
+            if (member instanceof Method) {
+                member.accept(this);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compiles the initializer of a field, which runs with a frame that has
+     * no slots and the new object as self.
+     */
+    private StmtNode compileInitializer(Field field) {
+        int index = currentClass.fields[field.getOffset()].index;
+        if (Slot.isPrimitive(field.getType())) {
+            IntNode value = compileInt(field.getInit());
+            return frame -> {
+                ((BantamObject) frame.self).ints[index] = value.eval(frame);
+                return NORMAL;
+            };
+        }
+        RefNode value = compileRef(field.getInit());
+        return frame -> {
+            ((BantamObject) frame.self).refs[index] = value.eval(frame);
+            return NORMAL;
+        };
+    }
+
+    @Override
+    public Object visit(Method node) {
+        MethodCode method = currentClass.lookupMethod(node.getName());
+        returnType = node.getReturnType();
+        maxInts = maxRefs = 0;
+        for (ASTNode formal : node.getFormalList()) {
+            useSlot(((Formal) formal).getType(), ((Formal) formal).getSlot());
+        }
+        method.body = compileStmts(node.getStmtList());
+        method.intSlots = maxInts;
+        method.refSlots = maxRefs;
+        return null;
+    }
+
+    //-----------------------------------------
+    // Local variables
+
+    /**
+     * Makes the frame of the method big enough for a local variable or
+     * parameter. Only the ints or only the refs need its slot, so a method
+     * whose variables are all of one kind gets an empty array for the other.
+     */
+    private void useSlot(String type, int slot) {
+        if (Slot.isPrimitive(type)) {
+            maxInts = Math.max(maxInts, slot + 1);
+        }
+        else {
+            maxRefs = Math.max(maxRefs, slot + 1);
+        }
+    }
+
+    /**
+     * Returns where a field is kept in the objects of its class.
+     */
+    private Slot fieldSlot(Binding field) {
+        return classes.get(field.getClassName()).fields[field.getOffset()];
+    }
+
+    //-----------------------------------------
+    // Statements
+
+    private StmtNode compileStmt(Stmt stmt) {
+        return (StmtNode) stmt.accept(this);
+    }
+
+    /**
+     * Compiles a list of statements to a node that runs them in order until
+     * one of them breaks or returns.
+     */
+    private StmtNode compileStmts(StmtList list) {
+        List<StmtNode> nodes = new ArrayList<>();
+        for (ASTNode stmt : list) {
+            nodes.add(compileStmt((Stmt) stmt));
+        }
+        if (nodes.isEmpty()) {
+            return NOTHING;
+        }
+        if (nodes.size() == 1) {
+            return nodes.get(0);
+        }
+        StmtNode[] stmts = nodes.toArray(new StmtNode[0]);
+        return frame -> {
+            for (StmtNode stmt : stmts) {
+                int status = stmt.exec(frame);
+                if (status != NORMAL) {
+                    return status;
+                }
+            }
+            return NORMAL;
+        };
+    }
+
+    @Override
+    public Object visit(DeclStmt node) {
+        int index = node.getSlot();
+        useSlot(node.getType(), index);
+        if (Slot.isPrimitive(node.getType())) {
+            IntNode init = compileInt(node.getInit());
+            return (StmtNode) frame -> {
+                frame.ints[index] = init.eval(frame);
+                return NORMAL;
+            };
+        }
+        RefNode init = compileRef(node.getInit());
+        return (StmtNode) frame -> {
+            frame.refs[index] = init.eval(frame);
+            return NORMAL;
+        };
+    }
+
+    @Override
+    public Object visit(ExprStmt node) {
+        return compileDiscarded(node.getExpr());
+    }
+
+    /**
+     * Compiles an expression whose value is not used, as in an expression
+     * statement or the init and update expressions of a for statement.
+     */
+    private StmtNode compileDiscarded(Expr expr) {
+        if (isPrimitive(expr)) {
+            IntNode value = compileInt(expr);
+            return frame -> {
+                value.eval(frame);
+                return NORMAL;
+            };
+        }
+        RefNode value = compileRef(expr);
+        return frame -> {
+            value.eval(frame);
+            return NORMAL;
+        };
+    }
+
+    @Override
+    public Object visit(IfStmt node) {
+        IntNode pred = compileInt(node.getPredExpr());
+        StmtNode thenStmt = compileStmt(node.getThenStmt());
+        if (node.getElseStmt() == null) {
+            return (StmtNode) frame -> (pred.eval(frame) != 0) ? thenStmt.exec(frame) : NORMAL;
+        }
+        StmtNode elseStmt = compileStmt(node.getElseStmt());
+        return (StmtNode) frame ->
+                (pred.eval(frame) != 0) ? thenStmt.exec(frame) : elseStmt.exec(frame);
+    }
+
+    @Override
+    public Object visit(WhileStmt node) {
+        IntNode pred = compileInt(node.getPredExpr());
+        StmtNode body = compileStmt(node.getBodyStmt());
+        Interpreter interpreter = this.interpreter;
+        return (StmtNode) frame -> {
+            while (pred.eval(frame) != 0) {
+                int status = body.exec(frame);
+                if (status == BREAK) {
+                    break;
+                }
+                if (status == RETURN) {
+                    return RETURN;
+                }
+                interpreter.checkCancelled();
+            }
+            return NORMAL;
+        };
+    }
+
+    @Override
+    public Object visit(ForStmt node) {
+        StmtNode init = (node.getInitExpr() == null)
+                ? NOTHING : compileDiscarded(node.getInitExpr());
+        IntNode pred = (node.getPredExpr() == null)
+                ? frame -> 1 : compileInt(node.getPredExpr());
+        StmtNode update = (node.getUpdateExpr() == null)
+                ? NOTHING : compileDiscarded(node.getUpdateExpr());
+        StmtNode body = compileStmt(node.getBodyStmt());
+        Interpreter interpreter = this.interpreter;
+        return (StmtNode) frame -> {
+            for (init.exec(frame); pred.eval(frame) != 0; update.exec(frame)) {
+                int status = body.exec(frame);
+                if (status == BREAK) {
+                    break;
+                }
+                if (status == RETURN) {
+                    return RETURN;
+                }
+                interpreter.checkCancelled();
+            }
+            return NORMAL;
+        };
+    }
+
+    @Override
+    public Object visit(BreakStmt node) {
+        return (StmtNode) frame -> BREAK;
+    }
+
+    @Override
+    public Object visit(BlockStmt node) {
+        return compileStmts(node.getStmtList());
+    }
+
+    @Override
+    public Object visit(ReturnStmt node) {
+        if (node.getExpr() == null) {
+            return (StmtNode) frame -> RETURN;
+        }
+        if (Slot.isPrimitive(returnType)) {
+            IntNode value = compileInt(node.getExpr());
+            return (StmtNode) frame -> {
+                frame.intResult = value.eval(frame);
+                return RETURN;
+            };
+        }
+        RefNode value = compileRef(node.getExpr());
+        return (StmtNode) frame -> {
+            frame.refResult = value.eval(frame);
+            return RETURN;
+        };
+    }
+
+    //-----------------------------------------
+    // Expressions
+
+    private IntNode compileInt(Expr expr) {
+        return (IntNode) expr.accept(this);
+    }
+
+    private RefNode compileRef(Expr expr) {
+        return (RefNode) expr.accept(this);
+    }
+
+    @Override
+    public Object visit(DispatchExpr node) {
+        Expr ref = node.getRefExpr();
+        RuntimeClass refType;
+        RefNode receiver;
+        boolean dispatched = true;
+        if (ref == null || isThis(ref)) {
+            refType = currentClass;
+            receiver = SELF;
+        }
+        else if (isSuper(ref)) {
+            // call the method of the superclass, without dynamic dispatch
+            refType = currentClass.parent;
+            receiver = SELF;
+            dispatched = false;
+        }
+        else {
+            refType = lookupClass(ref.getExprType());
+            receiver = compileRef(ref);
+        }
+        int index = refType.node.getMethodIndex(node.getMethodName());
+        // a class without subclasses only has one method to call
+        MethodCode method = (dispatched && refType.hasSubclasses) ? null : refType.vtable[index];
+
+        // the parameters are stored at the slots of the frame in order
+        Method declaration = refType.node.lookupMethod(node.getMethodName());
+        List<ArgNode> args = new ArrayList<>();
+        int position = 0;
+        Iterator<ASTNode> formals = declaration.getFormalList().iterator();
+        for (ASTNode actual : node.getActualList()) {
+            int slot = position++;
+            if (Slot.isPrimitive(((Formal) formals.next()).getType())) {
+                IntNode value = compileInt((Expr) actual);
+                args.add((caller, callee) -> callee.ints[slot] = value.eval(caller));
+            }
+            else {
+                RefNode value = compileRef((Expr) actual);
+                args.add((caller, callee) -> callee.refs[slot] = value.eval(caller));
+            }
+        }
+        Call call = new Call(interpreter, receiver, method, index,
+                args.toArray(new ArgNode[0]), node.getMethodName(), filename, node.getLineNum());
+        if (isPrimitive(node)) {
+            return (IntNode) frame -> call.invoke(frame).intResult;
+        }
+        return (RefNode) frame -> call.invoke(frame).refResult;
+    }
+
+    /**
+     * A method call: finds the method in the vtable of the class of the object
+     * unless it is known when compiling, stores the arguments in a new frame
+     * and runs the body.
+     */
+    private static final class Call
+    {
+        private final Interpreter interpreter;
+        private final RefNode receiver;
+        /** the method called, or null to look it up in the vtable */
+        private final MethodCode method;
+        private final int index;
+        private final ArgNode[] args;
+        private final String methodName;
+        private final String filename;
+        private final int lineNum;
+
+        Call(Interpreter interpreter, RefNode receiver, MethodCode method, int index,
+             ArgNode[] args, String methodName, String filename, int lineNum) {
+            this.interpreter = interpreter;
+            this.receiver = receiver;
+            this.method = method;
+            this.index = index;
+            this.args = args;
+            this.methodName = methodName;
+            this.filename = filename;
+            this.lineNum = lineNum;
+        }
+
+        /**
+         * calls the method
+         * @param caller the frame of the calling method
+         * @return the frame of the method called, with its return value
+         */
+        Frame invoke(Frame caller) {
+            Object self = receiver.eval(caller);
+            if (self == null) {
+                throw new InterpreterException(filename, lineNum,
+                        "the method " + methodName + " was called on null");
+            }
+            MethodCode code = (method != null) ? method : interpreter.classOf(self).vtable[index];
+            Frame callee = new Frame(code.intSlots, code.refSlots, self);
+            for (ArgNode arg : args) {
+                arg.store(caller, callee);
+            }
+            interpreter.checkCancelled();
+            code.body.exec(callee);
+            return callee;
+        }
+    }
+
+    @Override
+    public Object visit(NewExpr node) {
+        if (node.getType().equals("String")) {
+            return (RefNode) frame -> "";
+        }
+        RuntimeClass type = lookupClass(node.getType());
+        return (RefNode) frame -> type.instantiate();
+    }
+
+    @Override
+    public Object visit(InstanceofExpr node) {
+        RefNode value = compileRef(node.getExpr());
+        RuntimeClass type = lookupClass(node.getType());
+        Interpreter interpreter = this.interpreter;
+        return (IntNode) frame -> {
+            Object object = value.eval(frame);
+            return (object != null && interpreter.classOf(object).isSubclassOf(type)) ? 1 : 0;
+        };
+    }
+
+    @Override
+    public Object visit(CastExpr node) {
+        RefNode value = compileRef(node.getExpr());
+        if (node.getUpCast()) {
+            return value;
+        }
+        RuntimeClass type = lookupClass(node.getType());
+        Interpreter interpreter = this.interpreter;
+        String filename = this.filename;
+        int lineNum = node.getLineNum();
+        return (RefNode) frame -> {
+            Object object = value.eval(frame);
+            if (object != null && ! interpreter.classOf(object).isSubclassOf(type)) {
+                throw new InterpreterException(filename, lineNum,
+                        interpreter.classOf(object).name + " cannot be cast to " + type.name);
+            }
+            return object;
+        };
+    }
+
+    @Override
+    public Object visit(AssignExpr node) {
+        Binding variable = node.getBinding();
+        if (! variable.isField()) {
+            int index = variable.getSlot();
+            if (Slot.isPrimitive(variable.getType())) {
+                IntNode value = compileInt(node.getExpr());
+                return (IntNode) frame -> frame.ints[index] = value.eval(frame);
+            }
+            RefNode value = compileRef(node.getExpr());
+            return (RefNode) frame -> frame.refs[index] = value.eval(frame);
+        }
+
+        // a field of this, of super or of the object a variable refers to
+        Slot field = fieldSlot(variable);
+        int index = field.index;
+        if (node.getRefBinding() == null) {
+            if (field.primitive) {
+                IntNode value = compileInt(node.getExpr());
+                return (IntNode) frame ->
+                        ((BantamObject) frame.self).ints[index] = value.eval(frame);
+            }
+            RefNode value = compileRef(node.getExpr());
+            return (RefNode) frame ->
+                    ((BantamObject) frame.self).refs[index] = value.eval(frame);
+        }
+        RefNode checked = checkNotNull(compileBinding(node.getRefBinding()), node);
+        if (field.primitive) {
+            IntNode value = compileInt(node.getExpr());
+            return (IntNode) frame -> {
+                BantamObject target = (BantamObject) checked.eval(frame);
+                return target.ints[index] = value.eval(frame);
+            };
+        }
+        RefNode value = compileRef(node.getExpr());
+        return (RefNode) frame -> {
+            BantamObject target = (BantamObject) checked.eval(frame);
+            return target.refs[index] = value.eval(frame);
+        };
+    }
+
+    @Override
+    public Object visit(VarExpr node) {
+        Expr ref = node.getRef();
+        if (ref == null) {
+            switch (node.getName()) {
+                case "this":
+                case "super":
+                    return SELF;
+                case "null":
+                    return (RefNode) frame -> null;
+                default:
+                    return compileBinding(node.getBinding());
+            }
+        }
+        // a field of this, of super or of another object
+        Slot field = fieldSlot(node.getBinding());
+        int index = field.index;
+        if (isThis(ref) || isSuper(ref)) {
+            if (field.primitive) {
+                return (IntNode) frame -> ((BantamObject) frame.self).ints[index];
+            }
+            return (RefNode) frame -> ((BantamObject) frame.self).refs[index];
+        }
+        RefNode object = checkNotNull(compileRef(ref), node);
+        if (field.primitive) {
+            return (IntNode) frame -> ((BantamObject) object.eval(frame)).ints[index];
+        }
+        return (RefNode) frame -> ((BantamObject) object.eval(frame)).refs[index];
+    }
+
+    /**
+     * Compiles the value of a local variable, a parameter or a field of this.
+     *
+     * @return an IntNode or a RefNode, depending on the type of the variable
+     */
+    private Object compileBinding(Binding variable) {
+        if (variable.isField()) {
+            Slot field = fieldSlot(variable);
+            int index = field.index;
+            if (field.primitive) {
+                return (IntNode) frame -> ((BantamObject) frame.self).ints[index];
+            }
+            return (RefNode) frame -> ((BantamObject) frame.self).refs[index];
+        }
+        int index = variable.getSlot();
+        if (Slot.isPrimitive(variable.getType())) {
+            return (IntNode) frame -> frame.ints[index];
+        }
+        return (RefNode) frame -> frame.refs[index];
+    }
+
+    /**
+     * Returns a node with the value of another one, which reports an error at
+     * the line of the AST node if the value is null.
+     */
+    private RefNode checkNotNull(Object object, ASTNode node) {
+        RefNode value = (RefNode) object;
+        String filename = this.filename;
+        int lineNum = node.getLineNum();
+        return frame -> {
+            Object result = value.eval(frame);
+            if (result == null) {
+                throw new InterpreterException(filename, lineNum,
+                        "a field of null was used");
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public Object visit(BinaryCompEqExpr node) {
+        if (isPrimitive(node.getLeftExpr())) {
+            IntNode left = compileInt(node.getLeftExpr());
+            IntNode right = compileInt(node.getRightExpr());
+            return (IntNode) frame -> (left.eval(frame) == right.eval(frame)) ? 1 : 0;
+        }
+        RefNode left = compileRef(node.getLeftExpr());
+        RefNode right = compileRef(node.getRightExpr());
+        return (IntNode) frame -> (left.eval(frame) == right.eval(frame)) ? 1 : 0;
+    }
+
+    @Override
+    public Object visit(BinaryCompNeExpr node) {
+        if (isPrimitive(node.getLeftExpr())) {
+            IntNode left = compileInt(node.getLeftExpr());
+            IntNode right = compileInt(node.getRightExpr());
+            return (IntNode) frame -> (left.eval(frame) != right.eval(frame)) ? 1 : 0;
+        }
+        RefNode left = compileRef(node.getLeftExpr());
+        RefNode right = compileRef(node.getRightExpr());
+        return (IntNode) frame -> (left.eval(frame) != right.eval(frame)) ? 1 : 0;
+    }
+
+    @Override
+    public Object visit(BinaryCompLtExpr node) {
+        IntNode left = compileInt(node.getLeftExpr());
+        if (node.getRightExpr() instanceof ConstIntExpr) {
+            int right = ((ConstIntExpr) node.getRightExpr()).getIntConstant();
+            return (IntNode) frame -> (left.eval(frame) < right) ? 1 : 0;
+        }
+        IntNode right = compileInt(node.getRightExpr());
+        return (IntNode) frame -> (left.eval(frame) < right.eval(frame)) ? 1 : 0;
+    }
+
+    @Override
+    public Object visit(BinaryCompLeqExpr node) {
+        IntNode left = compileInt(node.getLeftExpr());
+        IntNode right = compileInt(node.getRightExpr());
+        return (IntNode) frame -> (left.eval(frame) <= right.eval(frame)) ? 1 : 0;
+    }
+
+    @Override
+    public Object visit(BinaryCompGtExpr node) {
+        IntNode left = compileInt(node.getLeftExpr());
+        IntNode right = compileInt(node.getRightExpr());
+        return (IntNode) frame -> (left.eval(frame) > right.eval(frame)) ? 1 : 0;
+    }
+
+    @Override
+    public Object visit(BinaryCompGeqExpr node) {
+        IntNode left = compileInt(node.getLeftExpr());
+        IntNode right = compileInt(node.getRightExpr());
+        return (IntNode) frame -> (left.eval(frame) >= right.eval(frame)) ? 1 : 0;
+    }
+
+    @Override
+    public Object visit(BinaryLogicAndExpr node) {
+        IntNode left = compileInt(node.getLeftExpr());
+        IntNode right = compileInt(node.getRightExpr());
+        return (IntNode) frame -> (left.eval(frame) != 0 && right.eval(frame) != 0) ? 1 : 0;
+    }
+
+    @Override
+    public Object visit(BinaryLogicOrExpr node) {
+        IntNode left = compileInt(node.getLeftExpr());
+        IntNode right = compileInt(node.getRightExpr());
+        return (IntNode) frame -> (left.eval(frame) != 0 || right.eval(frame) != 0) ? 1 : 0;
+    }
+
+    @Override
+    public Object visit(BinaryArithPlusExpr node) {
+        IntNode left = compileInt(node.getLeftExpr());
+        if (node.getRightExpr() instanceof ConstIntExpr) {
+            int right = ((ConstIntExpr) node.getRightExpr()).getIntConstant();
+            return (IntNode) frame -> left.eval(frame) + right;
+        }
+        IntNode right = compileInt(node.getRightExpr());
+        return (IntNode) frame -> left.eval(frame) + right.eval(frame);
+    }
+
+    @Override
+    public Object visit(BinaryArithMinusExpr node) {
+        IntNode left = compileInt(node.getLeftExpr());
+        if (node.getRightExpr() instanceof ConstIntExpr) {
+            int right = ((ConstIntExpr) node.getRightExpr()).getIntConstant();
+            return (IntNode) frame -> left.eval(frame) - right;
+        }
+        IntNode right = compileInt(node.getRightExpr());
+        return (IntNode) frame -> left.eval(frame) - right.eval(frame);
+    }
+
+    @Override
+    public Object visit(BinaryArithTimesExpr node) {
+        IntNode left = compileInt(node.getLeftExpr());
+        IntNode right = compileInt(node.getRightExpr());
+        return (IntNode) frame -> left.eval(frame) * right.eval(frame);
+    }
+
+    @Override
+    public Object visit(BinaryArithDivideExpr node) {
+        IntNode left = compileInt(node.getLeftExpr());
+        IntNode right = compileInt(node.getRightExpr());
+        String filename = this.filename;
+        int lineNum = node.getLineNum();
+        return (IntNode) frame -> {
+            int dividend = left.eval(frame);
+            int divisor = right.eval(frame);
+            if (divisor == 0) {
+                throw new InterpreterException(filename, lineNum, "division by zero");
+            }
+            return dividend / divisor;
+        };
+    }
+
+    @Override
+    public Object visit(BinaryArithModulusExpr node) {
+        IntNode left = compileInt(node.getLeftExpr());
+        IntNode right = compileInt(node.getRightExpr());
+        String filename = this.filename;
+        int lineNum = node.getLineNum();
+        return (IntNode) frame -> {
+            int dividend = left.eval(frame);
+            int divisor = right.eval(frame);
+            if (divisor == 0) {
+                throw new InterpreterException(filename, lineNum, "division by zero");
+            }
+            return dividend % divisor;
+        };
+    }
+
+    @Override
+    public Object visit(UnaryNegExpr node) {
+        IntNode value = compileInt(node.getExpr());
+        return (IntNode) frame -> - value.eval(frame);
+    }
+
+    @Override
+    public Object visit(UnaryNotExpr node) {
+        IntNode value = compileInt(node.getExpr());
+        return (IntNode) frame -> (value.eval(frame) == 0) ? 1 : 0;
+    }
+
+    @Override
+    public Object visit(UnaryIncrExpr node) {
+        return compileIncrement(node, 1, node.isPostfix());
+    }
+
+    @Override
+    public Object visit(UnaryDecrExpr node) {
+        return compileIncrement(node, -1, node.isPostfix());
+    }
+
+    /**
+     * Compiles ++ or -- of a local variable or a field.
+     *
+     * @param node the increment or decrement expression, whose operand is a VarExpr
+     * @param increment 1 or -1
+     * @param postfix true if the value is the one before the increment
+     */
+    private IntNode compileIncrement(UnaryExpr node, int increment, boolean postfix) {
+        VarExpr var = (VarExpr) node.getExpr();
+        Binding variable = var.getBinding();
+        if (! variable.isField()) {
+            int index = variable.getSlot();
+            if (postfix) {
+                return frame -> {
+                    int value = frame.ints[index];
+                    frame.ints[index] = value + increment;
+                    return value;
+                };
+            }
+            return frame -> frame.ints[index] += increment;
+        }
+        RefNode object;
+        if (var.getRef() == null || isThis(var.getRef()) || isSuper(var.getRef())) {
+            object = SELF;
+        }
+        else {
+            object = checkNotNull(compileRef(var.getRef()), var);
+        }
+        int index = fieldSlot(variable).index;
+        return frame -> {
+            int[] fields = ((BantamObject) object.eval(frame)).ints;
+            int value = fields[index];
+            fields[index] = value + increment;
+            return postfix ? value : value + increment;
+        };
+    }
+
+    @Override
+    public Object visit(ConstIntExpr node) {
+        int value = node.getIntConstant();
+        return (IntNode) frame -> value;
+    }
+
+    @Override
+    public Object visit(ConstBooleanExpr node) {
+        int value = node.getConstant().equals("true") ? 1 : 0;
+        return (IntNode) frame -> value;
+    }
+
+    @Override
+    public Object visit(ConstStringExpr node) {
+        // the same constant is the same object, as in Java
+        String value = CodeGenerator.unescape(node.getConstant()).intern();
+        return (RefNode) frame -> value;
+    }
+
+    //-----------------------------------------
+    // Types
+
+    private static boolean isThis(Expr expr) {
+        return expr instanceof VarExpr && ((VarExpr) expr).getRef() == null
+                && ((VarExpr) expr).getName().equals("this");
+    }
+
+    private static boolean isSuper(Expr expr) {
+        return expr instanceof VarExpr && ((VarExpr) expr).getRef() == null
+                && ((VarExpr) expr).getName().equals("super");
+    }
+
+    /**
+     * Returns whether an expression is compiled to an IntNode.
+     */
+    private static boolean isPrimitive(Expr expr) {
+        return Slot.isPrimitive(expr.getExprType());
+    }
+
+    /**
+     * Returns the class of a type, which is Object for the type of null.
+     */
+    private RuntimeClass lookupClass(String type) {
+        RuntimeClass runtimeClass = classes.get(type);
+        return (runtimeClass != null) ? runtimeClass : classes.get("Object");
+    }
+}
@@ -0,0 +1,19 @@
+/*
+ * File: RefNode.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.interp;
+
+/**
+ * A node of the executable tree that computes a reference: a BantamObject,
+ * a java.lang.String, or null. Calls of void methods are RefNodes whose value
+ * is null.
+ */
+interface RefNode
+{
+    Object eval(Frame frame);
+}
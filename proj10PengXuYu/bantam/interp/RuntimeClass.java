@@ -0,0 +1,138 @@
+/*
+ * File: RuntimeClass.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.interp;
+
+import proj10PengXuYu.bantam.ast.Method;
+import proj10PengXuYu.bantam.util.ClassTreeNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A class as the interpreter runs it: the layout of its fields, the code of
+ * its field initializers, and its vtable, in which each method has the same
+ * index as in the vtable of the superclass, so a call only needs the class of
+ * the object it is made on to find the method. The vtable is laid out like
+ * the one of its ClassTreeNode, which is only used while the program is
+ * compiled to the executable tree.
+ */
+final class RuntimeClass
+{
+    final String name;
+    final RuntimeClass parent;
+    /** the class in the class hierarchy */
+    final ClassTreeNode node;
+    /** true if other classes extend this one, so calls must be dispatched */
+    boolean hasSubclasses;
+    /**
+     * the positions of the class in a preorder and a postorder walk of the
+     * class hierarchy, so that isSubclassOf is two comparisons
+     */
+    int preorder;
+    int postorder;
+
+    /** the fields of the class and its superclasses, by offset (see Binding) */
+    Slot[] fields;
+    int intFields;
+    int refFields;
+
+    /** the methods, at the indexes of the vtable of the ClassTreeNode */
+    final MethodCode[] vtable;
+
+    /** the initializers of the fields declared in this class */
+    final List<StmtNode> ownInitializers = new ArrayList<>();
+    /** the initializers of the fields of the superclasses and then this class */
+    StmtNode[] initializers;
+
+    /**
+     * creates a class that inherits the fields and methods of its superclass,
+     * with a new MethodCode, whose body is compiled later, for each method
+     * declared in the class
+     * @param node the class in the class hierarchy, with its flattened tables
+     * @param parent the superclass, or null for Object
+     */
+    RuntimeClass(ClassTreeNode node, RuntimeClass parent) {
+        this.name = node.getName();
+        this.parent = parent;
+        this.node = node;
+        if (parent == null) {
+            fields = new Slot[0];
+        }
+        else {
+            fields = parent.fields.clone();
+            intFields = parent.intFields;
+            refFields = parent.refFields;
+        }
+        List<Method> methods = node.getVtable();
+        vtable = new MethodCode[methods.size()];
+        for (int i = 0; i < vtable.length; i++) {
+            boolean inherited = parent != null && i < parent.vtable.length
+                    && parent.node.getVtable().get(i) == methods.get(i);
+            vtable[i] = inherited ? parent.vtable[i]
+                    : new MethodCode(name, methods.get(i).getName());
+        }
+    }
+
+    /**
+     * adds a field after those of the superclasses, at the next offset
+     * @param type its Bantam type
+     */
+    void addField(String type) {
+        boolean primitive = Slot.isPrimitive(type);
+        fields = Arrays.copyOf(fields, fields.length + 1);
+        fields[fields.length - 1] = new Slot(type, primitive ? intFields++ : refFields++);
+    }
+
+    /**
+     * returns the method with the given name
+     * @param methodName the name of a method of the class
+     * @return its code
+     */
+    MethodCode lookupMethod(String methodName) {
+        return vtable[node.getMethodIndex(methodName)];
+    }
+
+    /**
+     * collects the initializers of the superclasses and of this class in the
+     * order the constructors run them
+     */
+    void linkInitializers() {
+        List<StmtNode> all = new ArrayList<>();
+        if (parent != null) {
+            all.addAll(Arrays.asList(parent.initializers));
+        }
+        all.addAll(ownInitializers);
+        initializers = all.toArray(new StmtNode[0]);
+    }
+
+    /**
+     * creates an object of the class and initializes its fields
+     * @return the new object
+     */
+    BantamObject instantiate() {
+        BantamObject object = new BantamObject(this);
+        if (initializers.length > 0) {
+            Frame frame = new Frame(0, 0, object);
+            for (StmtNode initializer : initializers) {
+                initializer.exec(frame);
+            }
+        }
+        return object;
+    }
+
+    /**
+     * returns whether this class is the given class or one of its subclasses
+     * @param other the other class
+     * @return true if the objects of this class are instances of the other
+     */
+    boolean isSubclassOf(RuntimeClass other) {
+        return other.preorder <= preorder && postorder <= other.postorder;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * File: Slot.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.interp;
+
+/**
+ * Where a field is kept: its index in the ints or the refs of a
+ * BantamObject, depending on its type.
+ */
+final class Slot
+{
+    /** the Bantam type of the variable */
+    final String type;
+    /** true for int and boolean variables, which are kept in ints */
+    final boolean primitive;
+    final int index;
+
+    Slot(String type, int index) {
+        this.type = type;
+        this.primitive = isPrimitive(type);
+        this.index = index;
+    }
+
+    static boolean isPrimitive(String type) {
+        return type.equals("int") || type.equals("boolean");
+    }
+}
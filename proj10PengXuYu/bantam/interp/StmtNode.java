@@ -0,0 +1,30 @@
+/*
+ * File: StmtNode.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.interp;
+
+/**
+ * A node of the executable tree that runs a statement and tells the enclosing
+ * statements how it completed.
+ */
+interface StmtNode
+{
+    /** the statement completed normally */
+    int NORMAL = 0;
+    /** a break statement leaves the enclosing loop */
+    int BREAK = 1;
+    /** a return statement leaves the method, with its value in the frame */
+    int RETURN = 2;
+
+    /**
+     * runs the statement
+     * @param frame the frame of the method running it
+     * @return NORMAL, BREAK or RETURN
+     */
+    int exec(Frame frame);
+}
@@ -0,0 +1,541 @@
+/*
+ * File: DfaScanner.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.lexer;
+
+import proj10PengXuYu.bantam.util.Error;
+import proj10PengXuYu.bantam.util.ErrorHandler;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A table-driven version of the Scanner. Every character is first mapped to
+ * a character class with a precomputed table, and then the next state is
+ * looked up in a DFA transition table indexed by the current state and the
+ * character class. When the DFA reaches an accepting state, the token is built
+ * from the characters between the start of the token and the current offset.
+ *
+ * It returns exactly the same Tokens (including ERROR tokens, line numbers and
+ * registered errors) as the hand-written Scanner.scan(), and since it builds
+ * them with the same newToken methods, scanInto() works for it too.
+ */
+class DfaScanner extends Scanner
+{
+    // character classes
+    private static final int C_WHITESPACE = 0;
+    private static final int C_NEWLINE = 1;
+    private static final int C_LETTER = 2;
+    private static final int C_DIGIT = 3;
+    private static final int C_UNDERSCORE = 4;
+    private static final int C_QUOTE = 5;
+    private static final int C_BACKSLASH = 6;
+    private static final int C_SLASH = 7;
+    private static final int C_STAR = 8;
+    private static final int C_AMP = 9;
+    private static final int C_BAR = 10;
+    private static final int C_PLUS = 11;
+    private static final int C_MINUS = 12;
+    private static final int C_LT = 13;
+    private static final int C_GT = 14;
+    private static final int C_EQ = 15;
+    private static final int C_BANG = 16;
+    private static final int C_PERCENT = 17;
+    private static final int C_LCURLY = 18;
+    private static final int C_RCURLY = 19;
+    private static final int C_LPAREN = 20;
+    private static final int C_RPAREN = 21;
+    private static final int C_DOT = 22;
+    private static final int C_COLON = 23;
+    private static final int C_SEMICOLON = 24;
+    private static final int C_COMMA = 25;
+    private static final int C_EOF = 26;
+    private static final int C_OTHER = 27;
+    private static final int NUM_CLASSES = 28;
+
+    // states in which the DFA keeps reading characters
+    private static final int S_START = 0;
+    private static final int S_IDENTIFIER = 1;
+    private static final int S_INTCONST = 2;
+    private static final int S_AMP = 3;
+    private static final int S_BAR = 4;
+    private static final int S_PLUS = 5;
+    private static final int S_MINUS = 6;
+    private static final int S_LT = 7;
+    private static final int S_GT = 8;
+    private static final int S_EQ = 9;
+    private static final int S_BANG = 10;
+    private static final int S_SLASH = 11;
+    private static final int S_LINE_COMMENT = 12;
+    private static final int S_BLOCK_COMMENT = 13;
+    private static final int S_BLOCK_COMMENT_STAR = 14;
+    private static final int S_STRING = 15;
+    private static final int S_STRING_ESCAPE = 16;
+    private static final int NUM_STATES = 17;
+
+    // accepting states; they are numbered after the other states
+    private static final int A_EOF = NUM_STATES;
+    private static final int A_IDENTIFIER = NUM_STATES + 1;
+    private static final int A_INTCONST = NUM_STATES + 2;
+    private static final int A_STRCONST = NUM_STATES + 3;
+    private static final int A_UNTERMINATED_STRING = NUM_STATES + 4;
+    private static final int A_UNTERMINATED_COMMENT = NUM_STATES + 5;
+    private static final int A_AMP_ERROR = NUM_STATES + 6;
+    private static final int A_BAR_ERROR = NUM_STATES + 7;
+    private static final int A_UNSUPPORTED = NUM_STATES + 8;
+    // the remaining accepting states are tokens with a fixed spelling
+    private static final int A_LCURLY = NUM_STATES + 9;
+    private static final int A_RCURLY = NUM_STATES + 10;
+    private static final int A_LPAREN = NUM_STATES + 11;
+    private static final int A_RPAREN = NUM_STATES + 12;
+    private static final int A_DOT = NUM_STATES + 13;
+    private static final int A_COLON = NUM_STATES + 14;
+    private static final int A_SEMICOLON = NUM_STATES + 15;
+    private static final int A_COMMA = NUM_STATES + 16;
+    private static final int A_TIMES = NUM_STATES + 17;
+    private static final int A_MOD = NUM_STATES + 18;
+    private static final int A_DIVIDE = NUM_STATES + 19;
+    private static final int A_AND = NUM_STATES + 20;
+    private static final int A_OR = NUM_STATES + 21;
+    private static final int A_PLUS = NUM_STATES + 22;
+    private static final int A_INCR = NUM_STATES + 23;
+    private static final int A_MINUS = NUM_STATES + 24;
+    private static final int A_DECR = NUM_STATES + 25;
+    private static final int A_LT = NUM_STATES + 26;
+    private static final int A_LEQ = NUM_STATES + 27;
+    private static final int A_GT = NUM_STATES + 28;
+    private static final int A_GEQ = NUM_STATES + 29;
+    private static final int A_ASSIGN = NUM_STATES + 30;
+    private static final int A_EQUALS = NUM_STATES + 31;
+    private static final int A_NOT = NUM_STATES + 32;
+    private static final int A_NOT_EQUALS = NUM_STATES + 33;
+    private static final int NUM_ACCEPTING = 34;
+
+    // what happens to the character that moved the DFA into an accepting state
+    /** the character is the last character of the token */
+    private static final byte INCLUDE = 0;
+    /** the character is not part of the token and starts the next token */
+    private static final byte KEEP = 1;
+    /** the character is not part of the token and is thrown away */
+    private static final byte DROP = 2;
+
+    /** the class of every char value */
+    private static final byte[] CHAR_CLASSES = new byte[Character.MAX_VALUE + 1];
+    /** the next state for each state and character class */
+    private static final byte[][] TRANSITIONS = new byte[NUM_STATES][NUM_CLASSES];
+
+    /** the Kind of the token of each accepting state */
+    private static final Token.Kind[] ACCEPTED_KINDS = new Token.Kind[NUM_ACCEPTING];
+    /** the spelling of the token of each accepting state with a fixed spelling */
+    private static final String[] ACCEPTED_SPELLINGS = new String[NUM_ACCEPTING];
+    /** what happens to the last character read in each accepting state */
+    private static final byte[] ACCEPTED_LAST_CHARS = new byte[NUM_ACCEPTING];
+
+    static {
+        buildCharClasses();
+        buildTransitions();
+        buildAcceptingStates();
+    }
+
+    /** the character that was read but not used by the last token */
+    private char lookahead;
+    /** true if the lookahead character hasn't been scanned yet */
+    private boolean hasLookahead;
+
+    /**
+     * creates a new table-driven scanner for the given file
+     * @param filename the name of the file to be scanned
+     * @param handler the ErrorHandler that collects all the errors found
+     */
+    DfaScanner(String filename, ErrorHandler handler) {
+        super(filename, handler);
+    }
+
+    /**
+     * creates a new table-driven scanner for the given Reader
+     * @param reader the Reader object for the file to be scanned
+     * @param handler the ErrorHandler that collects all the errors found
+     */
+    DfaScanner(Reader reader, ErrorHandler handler) {
+        super(reader, handler);
+    }
+
+    /**
+     * creates a new table-driven scanner for the given SourceFile
+     * @param sourceFile the source of the characters to be scanned
+     * @param handler the ErrorHandler that collects all the errors found
+     */
+    DfaScanner(SourceFile sourceFile, ErrorHandler handler) {
+        super(sourceFile, handler);
+    }
+
+    /**
+     * read characters and collect them into a Token by running the DFA
+     * until it reaches an accepting state.
+     * @return the Token containing the characters read
+     */
+    @Override
+    public Token scan() {
+        try {
+            int state = S_START;
+            // line of the opening quote of a string constant or of a comment
+            int startLine = 0;
+            while (true) {
+                char c;
+                if (hasLookahead) {
+                    c = lookahead;
+                    hasLookahead = false;
+                } else {
+                    c = sourceFile.getNextChar();
+                }
+                if (state == S_START) {
+                    tokenStart = sourceFile.getCharOffset();
+                }
+                int nextState = TRANSITIONS[state][CHAR_CLASSES[c]];
+                if (nextState < NUM_STATES) {
+                    if ((nextState == S_STRING && state == S_START) || state == S_SLASH) {
+                        startLine = sourceFile.getCurrentLineNumber();
+                    }
+                    else if (nextState == S_START && state != S_START && keepComments) {
+                        // the end of a comment; a line comment doesn't include
+                        // the line break, a block comment does include the slash
+                        int end = sourceFile.getCharOffset();
+                        return newToken(Token.Kind.COMMENT,
+                                state == S_LINE_COMMENT ? end : end + 1, startLine);
+                    }
+                    state = nextState;
+                } else {
+                    return accept(nextState, c, startLine);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null; // in case of IOException and to satisfy the java compiler
+    }
+
+    /**
+     * Builds the token for an accepting state of the DFA
+     * @param acceptingState the state that was reached
+     * @param lastChar the character that moved the DFA into the state
+     * @param startLine the line of the opening quote, for string constants
+     * @return the new Token
+     */
+    private Token accept(int acceptingState, char lastChar, int startLine)
+            throws IOException {
+        int index = acceptingState - NUM_STATES;
+        int end = sourceFile.getCharOffset();
+        if (ACCEPTED_LAST_CHARS[index] == INCLUDE) {
+            end++;
+        } else if (ACCEPTED_LAST_CHARS[index] == KEEP) {
+            lookahead = lastChar;
+            hasLookahead = true;
+        }
+        int line = sourceFile.getCurrentLineNumber();
+
+        switch (acceptingState) {
+            case A_EOF:
+                return newToken(Token.Kind.EOF, "", line);
+            case A_IDENTIFIER:
+                if (lastChar == '\n' || lastChar == '\r') {
+                    line--;
+                }
+                return newIdentifier(end, line);
+            case A_INTCONST:
+                return acceptIntConst(end, line);
+            case A_STRCONST:
+                return acceptStrConst(end, line, startLine);
+            case A_UNTERMINATED_STRING:
+                return error("Unterminated string constants!", end, line, line);
+            case A_UNTERMINATED_COMMENT:
+                // the block comment is only found to be unterminated
+                // after one more character has been read
+                sourceFile.getNextChar();
+                line = sourceFile.getCurrentLineNumber();
+                if (keepComments) {
+                    errorHandler.register(Error.Kind.LEX_ERROR, sourceFile.getFilename(),
+                            line, "Unterminated block comment!");
+                    return newToken(Token.Kind.COMMENT, end, line);
+                }
+                return error("Unterminated block comment!", end, line, line);
+            case A_AMP_ERROR:
+                return error("Unsupported character!", end, line, line - 1);
+            case A_BAR_ERROR:
+            case A_UNSUPPORTED:
+                return error("Unsupported character!", end, line, line);
+            default:
+                return newToken(ACCEPTED_KINDS[index], ACCEPTED_SPELLINGS[index], line);
+        }
+    }
+
+    /**
+     * Builds the token for an integer constant, checking that it isn't too long
+     * @param end the offset in the source after the last digit
+     * @param line the current line number
+     * @return the new Token
+     */
+    private Token acceptIntConst(int end, int line) {
+        char[] chars = sourceFile.getChars();
+        // keep track of the value (up to just past the largest int)
+        long value = 0;
+        for (int i = tokenStart; i < end && value <= Integer.MAX_VALUE; i++) {
+            value = value * 10 + Character.digit(chars[i], 10);
+        }
+        if (value > Integer.MAX_VALUE) {
+            // the character after the constant is thrown away
+            hasLookahead = false;
+            return error("Integer constant is too long!", end, line, line);
+        }
+        return newToken(Token.Kind.INTCONST, end, line);
+    }
+
+    /**
+     * Builds the token for a string constant, checking its escape characters,
+     * its length and that it stays on one line
+     * @param end the offset in the source after the closing quote
+     * @param line the current line number
+     * @param startLine the line number of the opening quote
+     * @return the new Token
+     */
+    private Token acceptStrConst(int end, int line, int startLine) {
+        char[] chars = sourceFile.getChars();
+        for (int i = tokenStart; i < end; i++) {
+            if (chars[i] == '\\') {
+                char nextChar = chars[i + 1];
+                if (nextChar != 'n' && nextChar != 't' && nextChar != '"'
+                        && nextChar != '\\' && nextChar != 'f') {
+                    return error("Unsupported escape characters within a string.",
+                            end, line, line);
+                }
+            }
+        }
+        if (end - tokenStart > 5000) {
+            return error("String constant cannot exceed 5000 characters!",
+                    end, line, line);
+        }
+        if (line != startLine) {
+            return error("String cannot span multiple lines!", end, line, line);
+        }
+        return newToken(Token.Kind.STRCONST, end, line);
+    }
+
+    /**
+     * Registers a lex error and builds the ERROR token for it
+     * @param message the error message
+     * @param end the offset in the source after the last character of the token
+     * @param errorLine the line number of the registered error
+     * @param tokenLine the line number of the ERROR token
+     * @return the new ERROR Token
+     */
+    private Token error(String message, int end, int errorLine, int tokenLine) {
+        errorHandler.register(Error.Kind.LEX_ERROR, sourceFile.getFilename(),
+                errorLine, message);
+        return newToken(Token.Kind.ERROR, end, tokenLine);
+    }
+
+    /**
+     * fills in CHAR_CLASSES, using the same Character tests as Scanner.scan()
+     */
+    private static void buildCharClasses() {
+        for (int i = 0; i <= Character.MAX_VALUE; i++) {
+            char c = (char) i;
+            int charClass;
+            if (c == SourceFile.EOL) {
+                charClass = C_NEWLINE;
+            } else if (Character.isWhitespace(c)) {
+                charClass = C_WHITESPACE;
+            } else if (c == SourceFile.EOF) {
+                charClass = C_EOF;
+            } else if (Character.isDigit(c)) {
+                charClass = C_DIGIT;
+            } else if (Character.isLetter(c)) {
+                charClass = C_LETTER;
+            } else {
+                charClass = punctuationClass(c);
+            }
+            CHAR_CLASSES[i] = (byte) charClass;
+        }
+    }
+
+    /**
+     * @return the character class of a character that isn't a letter,
+     * a digit or white space
+     */
+    private static int punctuationClass(char c) {
+        switch (c) {
+            case '_': return C_UNDERSCORE;
+            case '"': return C_QUOTE;
+            case '\\': return C_BACKSLASH;
+            case '/': return C_SLASH;
+            case '*': return C_STAR;
+            case '&': return C_AMP;
+            case '|': return C_BAR;
+            case '+': return C_PLUS;
+            case '-': return C_MINUS;
+            case '<': return C_LT;
+            case '>': return C_GT;
+            case '=': return C_EQ;
+            case '!': return C_BANG;
+            case '%': return C_PERCENT;
+            case '{': return C_LCURLY;
+            case '}': return C_RCURLY;
+            case '(': return C_LPAREN;
+            case ')': return C_RPAREN;
+            case '.': return C_DOT;
+            case ':': return C_COLON;
+            case ';': return C_SEMICOLON;
+            case ',': return C_COMMA;
+            default: return C_OTHER;
+        }
+    }
+
+    /**
+     * fills in TRANSITIONS
+     */
+    private static void buildTransitions() {
+        // start of a token
+        setAll(S_START, A_UNSUPPORTED);
+        set(S_START, C_WHITESPACE, S_START);
+        set(S_START, C_NEWLINE, S_START);
+        set(S_START, C_EOF, A_EOF);
+        set(S_START, C_LETTER, S_IDENTIFIER);
+        set(S_START, C_DIGIT, S_INTCONST);
+        set(S_START, C_QUOTE, S_STRING);
+        set(S_START, C_SLASH, S_SLASH);
+        set(S_START, C_AMP, S_AMP);
+        set(S_START, C_BAR, S_BAR);
+        set(S_START, C_PLUS, S_PLUS);
+        set(S_START, C_MINUS, S_MINUS);
+        set(S_START, C_LT, S_LT);
+        set(S_START, C_GT, S_GT);
+        set(S_START, C_EQ, S_EQ);
+        set(S_START, C_BANG, S_BANG);
+        set(S_START, C_STAR, A_TIMES);
+        set(S_START, C_PERCENT, A_MOD);
+        set(S_START, C_LCURLY, A_LCURLY);
+        set(S_START, C_RCURLY, A_RCURLY);
+        set(S_START, C_LPAREN, A_LPAREN);
+        set(S_START, C_RPAREN, A_RPAREN);
+        set(S_START, C_DOT, A_DOT);
+        set(S_START, C_COLON, A_COLON);
+        set(S_START, C_SEMICOLON, A_SEMICOLON);
+        set(S_START, C_COMMA, A_COMMA);
+
+        // identifiers and integer constants
+        setAll(S_IDENTIFIER, A_IDENTIFIER);
+        set(S_IDENTIFIER, C_LETTER, S_IDENTIFIER);
+        set(S_IDENTIFIER, C_DIGIT, S_IDENTIFIER);
+        set(S_IDENTIFIER, C_UNDERSCORE, S_IDENTIFIER);
+        setAll(S_INTCONST, A_INTCONST);
+        set(S_INTCONST, C_DIGIT, S_INTCONST);
+
+        // operators that may have a second character
+        setAll(S_AMP, A_AMP_ERROR);
+        set(S_AMP, C_AMP, A_AND);
+        setAll(S_BAR, A_BAR_ERROR);
+        set(S_BAR, C_BAR, A_OR);
+        setAll(S_PLUS, A_PLUS);
+        set(S_PLUS, C_PLUS, A_INCR);
+        setAll(S_MINUS, A_MINUS);
+        set(S_MINUS, C_MINUS, A_DECR);
+        setAll(S_LT, A_LT);
+        set(S_LT, C_EQ, A_LEQ);
+        setAll(S_GT, A_GT);
+        set(S_GT, C_EQ, A_GEQ);
+        setAll(S_EQ, A_ASSIGN);
+        set(S_EQ, C_EQ, A_EQUALS);
+        setAll(S_BANG, A_NOT);
+        set(S_BANG, C_EQ, A_NOT_EQUALS);
+
+        // division operator and comments; a comment goes back to the start
+        setAll(S_SLASH, A_DIVIDE);
+        set(S_SLASH, C_SLASH, S_LINE_COMMENT);
+        set(S_SLASH, C_STAR, S_BLOCK_COMMENT);
+        setAll(S_LINE_COMMENT, S_LINE_COMMENT);
+        set(S_LINE_COMMENT, C_NEWLINE, S_START);
+        set(S_LINE_COMMENT, C_EOF, S_START);
+        setAll(S_BLOCK_COMMENT, S_BLOCK_COMMENT);
+        set(S_BLOCK_COMMENT, C_STAR, S_BLOCK_COMMENT_STAR);
+        set(S_BLOCK_COMMENT, C_EOF, A_UNTERMINATED_COMMENT);
+        setAll(S_BLOCK_COMMENT_STAR, S_BLOCK_COMMENT);
+        set(S_BLOCK_COMMENT_STAR, C_STAR, S_BLOCK_COMMENT_STAR);
+        set(S_BLOCK_COMMENT_STAR, C_SLASH, S_START);
+        set(S_BLOCK_COMMENT_STAR, C_EOF, A_UNTERMINATED_COMMENT);
+
+        // string constants; a quote after a backslash doesn't end the string
+        setAll(S_STRING, S_STRING);
+        set(S_STRING, C_QUOTE, A_STRCONST);
+        set(S_STRING, C_BACKSLASH, S_STRING_ESCAPE);
+        set(S_STRING, C_EOF, A_UNTERMINATED_STRING);
+        setAll(S_STRING_ESCAPE, S_STRING);
+        set(S_STRING_ESCAPE, C_BACKSLASH, S_STRING_ESCAPE);
+        set(S_STRING_ESCAPE, C_EOF, A_UNTERMINATED_STRING);
+    }
+
+    /**
+     * fills in the Kind, spelling and last character handling of
+     * every accepting state
+     */
+    private static void buildAcceptingStates() {
+        accepting(A_EOF, Token.Kind.EOF, "", INCLUDE);
+        accepting(A_IDENTIFIER, Token.Kind.IDENTIFIER, null, KEEP);
+        accepting(A_INTCONST, Token.Kind.INTCONST, null, KEEP);
+        accepting(A_STRCONST, Token.Kind.STRCONST, null, INCLUDE);
+        accepting(A_UNTERMINATED_STRING, Token.Kind.ERROR, null, DROP);
+        accepting(A_UNTERMINATED_COMMENT, Token.Kind.ERROR, null, DROP);
+        accepting(A_AMP_ERROR, Token.Kind.ERROR, "&", DROP);
+        accepting(A_BAR_ERROR, Token.Kind.ERROR, "|", KEEP);
+        accepting(A_UNSUPPORTED, Token.Kind.ERROR, null, INCLUDE);
+        accepting(A_LCURLY, Token.Kind.LCURLY, "{", INCLUDE);
+        accepting(A_RCURLY, Token.Kind.RCURLY, "}", INCLUDE);
+        accepting(A_LPAREN, Token.Kind.LPAREN, "(", INCLUDE);
+        accepting(A_RPAREN, Token.Kind.RPAREN, ")", INCLUDE);
+        accepting(A_DOT, Token.Kind.DOT, ".", INCLUDE);
+        accepting(A_COLON, Token.Kind.COLON, ":", INCLUDE);
+        accepting(A_SEMICOLON, Token.Kind.SEMICOLON, ";", INCLUDE);
+        accepting(A_COMMA, Token.Kind.COMMA, ",", INCLUDE);
+        accepting(A_TIMES, Token.Kind.MULDIV, "*", INCLUDE);
+        accepting(A_MOD, Token.Kind.MULDIV, "%", INCLUDE);
+        // the character after a division operator is thrown away, as in Scanner
+        accepting(A_DIVIDE, Token.Kind.MULDIV, "/", DROP);
+        accepting(A_AND, Token.Kind.BINARYLOGIC, "&&", INCLUDE);
+        accepting(A_OR, Token.Kind.BINARYLOGIC, "||", INCLUDE);
+        accepting(A_PLUS, Token.Kind.PLUSMINUS, "+", KEEP);
+        accepting(A_INCR, Token.Kind.UNARYINCR, "++", INCLUDE);
+        accepting(A_MINUS, Token.Kind.PLUSMINUS, "-", KEEP);
+        accepting(A_DECR, Token.Kind.UNARYDECR, "--", INCLUDE);
+        accepting(A_LT, Token.Kind.COMPARE, "<", KEEP);
+        accepting(A_LEQ, Token.Kind.COMPARE, "<=", INCLUDE);
+        accepting(A_GT, Token.Kind.COMPARE, ">", KEEP);
+        accepting(A_GEQ, Token.Kind.COMPARE, ">=", INCLUDE);
+        accepting(A_ASSIGN, Token.Kind.ASSIGN, "=", KEEP);
+        accepting(A_EQUALS, Token.Kind.COMPARE, "==", INCLUDE);
+        accepting(A_NOT, Token.Kind.UNARYNOT, "!", KEEP);
+        accepting(A_NOT_EQUALS, Token.Kind.COMPARE, "!=", INCLUDE);
+    }
+
+    /** sets the next state of the given state for all character classes */
+    private static void setAll(int state, int nextState) {
+        for (int charClass = 0; charClass < NUM_CLASSES; charClass++) {
+            TRANSITIONS[state][charClass] = (byte) nextState;
+        }
+    }
+
+    /** sets the next state of the given state for one character class */
+    private static void set(int state, int charClass, int nextState) {
+        TRANSITIONS[state][charClass] = (byte) nextState;
+    }
+
+    /** describes the token built by an accepting state */
+    private static void accepting(int state, Token.Kind kind, String spelling,
+                                  byte lastChar) {
+        ACCEPTED_KINDS[state - NUM_STATES] = kind;
+        ACCEPTED_SPELLINGS[state - NUM_STATES] = spelling;
+        ACCEPTED_LAST_CHARS[state - NUM_STATES] = lastChar;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * File: KeywordBenchmark.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.lexer;
+
+import proj10PengXuYu.bantam.util.Benchmarks;
+
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A microbenchmark of keyword recognition. It classifies a keyword-heavy and
+ * an identifier-heavy list of words, once with the length-and-first-character
+ * switch of Keywords and once with the String comparisons, Set lookup and
+ * Enum.valueOf that Token used before, and prints the time and the number of
+ * bytes allocated per word of each.
+ *
+ * Usage: java proj10PengXuYu.bantam.lexer.KeywordBenchmark
+ */
+public class KeywordBenchmark
+{
+    /** number of words in each input */
+    private static final int NUM_WORDS = 1_000_000;
+
+    /** the words that are not identifiers */
+    private static final String[] KEYWORDS = {
+            "break", "cast", "class", "var", "else", "extends", "for", "if",
+            "instanceof", "new", "return", "while", "true", "false"
+    };
+
+    /** some identifiers, several of them spelled almost like keywords */
+    private static final String[] IDENTIFIERS = {
+            "x", "i", "count", "total", "Main", "main", "String", "Object", "TextIO",
+            "Sys", "this", "null", "super", "int", "boolean", "value", "getValue",
+            "iff", "cases", "classes", "variable", "newNode", "returned", "whilst",
+            "truth", "falsehood", "elsewhere", "format", "instanceOfA", "broken"
+    };
+
+    /** the reserved words, as Token used to keep them */
+    private static final Set<String> RESERVED_WORDS = Set.of("break", "cast", "class",
+            "var", "else", "extends", "for", "if", "instanceof", "new", "return", "while");
+
+    /**
+     * a list of words stored one after another in a char array,
+     * the way they are in the scanner's buffer
+     */
+    private static class Words
+    {
+        final char[] chars;
+        final int[] starts = new int[NUM_WORDS + 1];
+        final String[] strings = new String[NUM_WORDS];
+
+        /**
+         * creates a random list of words
+         * @param keywordPercent the percentage of the words that are keywords
+         * @param random the source of randomness
+         */
+        Words(int keywordPercent, Random random) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < NUM_WORDS; i++) {
+                String word = random.nextInt(100) < keywordPercent
+                        ? KEYWORDS[random.nextInt(KEYWORDS.length)]
+                        : IDENTIFIERS[random.nextInt(IDENTIFIERS.length)];
+                starts[i] = text.length();
+                strings[i] = word;
+                text.append(word);
+            }
+            starts[NUM_WORDS] = text.length();
+            chars = text.toString().toCharArray();
+        }
+    }
+
+    /**
+     * classifies a word the way the Token constructor used to
+     */
+    private static Token.Kind classifyWithSet(String spelling) {
+        if (spelling.equals("true") || spelling.equals("false")) {
+            return Token.Kind.BOOLEAN;
+        } else if (RESERVED_WORDS.contains(spelling)) {
+            return Enum.valueOf(Token.Kind.class, spelling.toUpperCase());
+        }
+        return Token.Kind.IDENTIFIER;
+    }
+
+    /**
+     * classifies all the words with the Set lookup
+     * @return a number depending on the result, so the work isn't optimized away
+     */
+    private static int runSet(Words words) {
+        int sum = 0;
+        for (String word : words.strings) {
+            sum += classifyWithSet(word).ordinal();
+        }
+        return sum;
+    }
+
+    /**
+     * classifies all the words with Keywords, straight from the char array
+     * @return a number depending on the result, so the work isn't optimized away
+     */
+    private static int runSwitch(Words words) {
+        int sum = 0;
+        for (int i = 0; i < NUM_WORDS; i++) {
+            sum += Keywords.classify(words.chars, words.starts[i],
+                    words.starts[i + 1]).ordinal();
+        }
+        return sum;
+    }
+
+    /**
+     * Times one way of classifying the words and prints the result.
+     * @param label the name of the classifier
+     * @param words the words to classify
+     * @param useSwitch true to use Keywords, false to use the Set lookup
+     * @return the checksum of the classification
+     */
+    private static int measure(String label, Words words, boolean useSwitch) {
+        Runnable run = useSwitch ? () -> runSwitch(words) : () -> runSet(words);
+        double millis = Benchmarks.time(run);
+        long allocated = Benchmarks.allocatedBytes(run);
+        System.out.println(String.format("  %-12s %8.2f ns/word %8.2f B/word",
+                label, millis * 1e6 / NUM_WORDS, (double) allocated / NUM_WORDS));
+        return useSwitch ? runSwitch(words) : runSet(words);
+    }
+
+    /**
+     * runs the benchmark
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        Random random = new Random(361);
+        String[] labels = {"keyword-heavy (80% keywords)", "identifier-heavy (10% keywords)"};
+        Words[] inputs = {new Words(80, random), new Words(10, random)};
+        for (int i = 0; i < inputs.length; i++) {
+            System.out.println(labels[i]);
+            int expected = measure("set lookup", inputs[i], false);
+            int actual = measure("switch", inputs[i], true);
+            if (expected != actual) {
+                System.out.println("  the classifiers disagree!");
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * File: Keywords.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.lexer;
+
+/**
+ * Recognizes the reserved words of Bantam Java without any hashing or
+ * allocation. A word is first narrowed down by its length and its first
+ * character, so at most one candidate has to be compared character by character.
+ */
+public final class Keywords
+{
+    /**
+     * no instances of this class are needed
+     */
+    private Keywords() {
+    }
+
+    /**
+     * Returns the Kind of the token made of the characters chars[start..end-1],
+     * which are assumed to be spelled like an identifier.
+     * @param chars the array holding the characters
+     * @param start the index of the first character
+     * @param end the index after the last character
+     * @return the Kind of the keyword, BOOLEAN for true and false,
+     *         or IDENTIFIER for any other word
+     */
+    static Token.Kind classify(char[] chars, int start, int end) {
+        switch (end - start) {
+            case 2:
+                if (matches(chars, start, "if")) return Token.Kind.IF;
+                break;
+            case 3:
+                switch (chars[start]) {
+                    case 'v': if (matches(chars, start, "var")) return Token.Kind.VAR; break;
+                    case 'f': if (matches(chars, start, "for")) return Token.Kind.FOR; break;
+                    case 'n': if (matches(chars, start, "new")) return Token.Kind.NEW; break;
+                }
+                break;
+            case 4:
+                switch (chars[start]) {
+                    case 'c': if (matches(chars, start, "cast")) return Token.Kind.CAST; break;
+                    case 'e': if (matches(chars, start, "else")) return Token.Kind.ELSE; break;
+                    case 't': if (matches(chars, start, "true")) return Token.Kind.BOOLEAN; break;
+                }
+                break;
+            case 5:
+                switch (chars[start]) {
+                    case 'b': if (matches(chars, start, "break")) return Token.Kind.BREAK; break;
+                    case 'c': if (matches(chars, start, "class")) return Token.Kind.CLASS; break;
+                    case 'w': if (matches(chars, start, "while")) return Token.Kind.WHILE; break;
+                    case 'f': if (matches(chars, start, "false")) return Token.Kind.BOOLEAN; break;
+                }
+                break;
+            case 6:
+                if (matches(chars, start, "return")) return Token.Kind.RETURN;
+                break;
+            case 7:
+                if (matches(chars, start, "extends")) return Token.Kind.EXTENDS;
+                break;
+            case 10:
+                if (matches(chars, start, "instanceof")) return Token.Kind.INSTANCEOF;
+                break;
+        }
+        return Token.Kind.IDENTIFIER;
+    }
+
+    /**
+     * Returns the Kind of the token with the given spelling, which is
+     * assumed to be spelled like an identifier.
+     * @param spelling the characters making up the token
+     * @return the Kind of the keyword, BOOLEAN for true and false,
+     *         or IDENTIFIER for any other word
+     */
+    static Token.Kind classify(String spelling) {
+        return classify(spelling.toCharArray(), 0, spelling.length());
+    }
+
+    /**
+     * Returns true if the name is one of the reserved words that are tokens of
+     * kind IDENTIFIER but cannot be declared as the names of classes, methods,
+     * fields or variables: null, this, super, void, int and boolean.
+     * @param name the name to check
+     * @return true if the name is reserved
+     */
+    public static boolean isReservedIdentifier(String name) {
+        switch (name.length()) {
+            case 3:
+                return name.equals("int");
+            case 4:
+                switch (name.charAt(0)) {
+                    case 'n': return name.equals("null");
+                    case 't': return name.equals("this");
+                    case 'v': return name.equals("void");
+                    default: return false;
+                }
+            case 5:
+                return name.equals("super");
+            case 7:
+                return name.equals("boolean");
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * returns true if the characters starting at chars[start] are those of
+     * the word; the caller has already checked the length
+     */
+    private static boolean matches(char[] chars, int start, String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (chars[start + i] != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
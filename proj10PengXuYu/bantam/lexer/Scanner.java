@@ -23,11 +23,19 @@ import java.io.Reader;
 public class Scanner
 {
     /** the source of the characters to be broken into tokens */
-    private SourceFile sourceFile;
+    SourceFile sourceFile;
     /** collector of all errors that occur */
-    private ErrorHandler errorHandler;
+    ErrorHandler errorHandler;
     /** previous character that was not returned as token */
     private char prevChar = ' ';
+    /** the offset in the source of the first character of the current token */
+    int tokenStart;
+    /** the pool of identifier and keyword spellings */
+    final SpellingPool spellingPool = new SpellingPool();
+    /** true if comments are returned as COMMENT tokens instead of being skipped */
+    boolean keepComments;
+    /** the buffer that scanInto() is adding a token to, or null while scan() is used */
+    private TokenBuffer buffer;
 
     /**
      * creates a new scanner for the given file
@@ -49,6 +57,68 @@ public class Scanner
         sourceFile = new SourceFile(reader);
     }
 
+    /**
+     * creates a new scanner for characters that are already in memory
+     * @param text the characters to be scanned
+     * @param filename the name to use for the source in error messages
+     * @param handler the ErrorHandler that collects all the errors found
+     */
+    public Scanner(CharSequence text, String filename, ErrorHandler handler) {
+        errorHandler = handler;
+        sourceFile = new SourceFile(text, filename);
+    }
+
+    /**
+     * creates a new scanner for the given SourceFile
+     * @param sourceFile the source of the characters to be scanned
+     * @param handler the ErrorHandler that collects all the errors found
+     */
+    Scanner(SourceFile sourceFile, ErrorHandler handler) {
+        errorHandler = handler;
+        this.sourceFile = sourceFile;
+    }
+
+    /**
+     * Sets whether comments are returned as COMMENT tokens, like the IDE needs
+     * for highlighting, or skipped, like the parser needs. An unterminated block
+     * comment is still registered as an error, but returned as a COMMENT token.
+     * @param keepComments true to return comments as tokens
+     */
+    public void setKeepComments(boolean keepComments) {
+        this.keepComments = keepComments;
+    }
+
+    /**
+     * Starts scanning the characters text[start..end-1] from the beginning, as
+     * a new Scanner for them would, but keeping the pool of spellings and the
+     * ErrorHandler, so that a Scanner can be reused for many short texts. The
+     * offsets of the tokens are from start. The Tokens returned before must
+     * not be used afterwards, since they refer to the characters of the
+     * source, which are overwritten.
+     * @param text the characters to be scanned
+     * @param start the index of the first character
+     * @param end the index after the last character
+     */
+    public void reset(CharSequence text, int start, int end) {
+        sourceFile.reset(text, start, end);
+        prevChar = ' ';
+    }
+
+    /**
+     * Scans the next token like scan(), but adds its Kind, offsets and line
+     * number straight to the end of a TokenBuffer instead of creating a Token,
+     * so that scanning a whole source allocates almost nothing per token.
+     * @param buffer the buffer getting the token
+     */
+    void scanInto(TokenBuffer buffer) {
+        this.buffer = buffer;
+        try {
+            scan();
+        } finally {
+            this.buffer = null;
+        }
+    }
+
     /**
      * read characters and collect them into a Token.
      * It ignores white space unless it is inside a string or a comment.
@@ -70,70 +140,72 @@ public class Scanner
             while (Character.isWhitespace(firstChar)) {
                 firstChar = sourceFile.getNextChar();
             }
+            tokenStart = sourceFile.getCharOffset();
             // EOF
             if (firstChar == SourceFile.EOF) {
-                return new Token(Token.Kind.EOF,
+                return newToken(Token.Kind.EOF,
                         "", sourceFile.getCurrentLineNumber());
             }
             // int constant
             else if (Character.isDigit(firstChar)) {
-                String spelling = "" + firstChar;
+                // keep track of the value (up to just past the largest int)
+                // to find integer constants that are too long
+                long value = Character.digit(firstChar, 10);
                 // repetitively get the next int
                 char nextChar = sourceFile.getNextChar();
                 while (Character.isDigit(nextChar)) {
-                    spelling += nextChar;
+                    if (value <= Integer.MAX_VALUE) {
+                        value = value * 10 + Character.digit(nextChar, 10);
+                    }
                     nextChar = sourceFile.getNextChar();
                 }
+                int end = sourceFile.getCharOffset();
                 // check error: integer const that are too long
-                try {
-                    Integer.parseInt(spelling);
-                } catch (NumberFormatException ex) {
+                if (value > Integer.MAX_VALUE) {
                     errorHandler.register(Error.Kind.LEX_ERROR,
                             sourceFile.getFilename(),
                             sourceFile.getCurrentLineNumber(),
                             "Integer constant is too long!");
-                    return new Token(Token.Kind.ERROR,
-                            spelling, sourceFile.getCurrentLineNumber());
+                    return newToken(Token.Kind.ERROR,
+                            end, sourceFile.getCurrentLineNumber());
                 }
                 prevChar = nextChar;
-                return new Token(Token.Kind.INTCONST,
-                        spelling, sourceFile.getCurrentLineNumber());
+                return newToken(Token.Kind.INTCONST,
+                        end, sourceFile.getCurrentLineNumber());
             }
             // brackets
             else if (firstChar == '{') {
-                return new Token(Token.Kind.LCURLY,
+                return newToken(Token.Kind.LCURLY,
                         "{", sourceFile.getCurrentLineNumber());
             } else if (firstChar == '}') {
-                return new Token(Token.Kind.RCURLY,
+                return newToken(Token.Kind.RCURLY,
                         "}", sourceFile.getCurrentLineNumber());
             } else if (firstChar == '(') {
-                return new Token(Token.Kind.LPAREN,
+                return newToken(Token.Kind.LPAREN,
                         "(", sourceFile.getCurrentLineNumber());
             } else if (firstChar == ')') {
-                return new Token(Token.Kind.RPAREN,
+                return newToken(Token.Kind.RPAREN,
                         ")", sourceFile.getCurrentLineNumber());
             }
             // punctuation
             else if (firstChar == '.') {
-                return new Token(Token.Kind.DOT,
+                return newToken(Token.Kind.DOT,
                         ".", sourceFile.getCurrentLineNumber());
             } else if (firstChar == ':'){
-                return new Token(Token.Kind.COLON,
+                return newToken(Token.Kind.COLON,
                         ":", sourceFile.getCurrentLineNumber());
             } else if (firstChar == ';') {
-                return new Token(Token.Kind.SEMICOLON,
+                return newToken(Token.Kind.SEMICOLON,
                         ";", sourceFile.getCurrentLineNumber());
             } else if (firstChar == ',') {
-                return new Token(Token.Kind.COMMA,
+                return newToken(Token.Kind.COMMA,
                         ",", sourceFile.getCurrentLineNumber());
             }
             // identifier
             else if (Character.isLetter(firstChar)) {
-                String spelling = Character.toString(firstChar);
                 char nextChar = sourceFile.getNextChar();
                 while (Character.isLetter(nextChar)
                         || Character.isDigit(nextChar) || nextChar == '_') {
-                    spelling += nextChar;
                     nextChar = sourceFile.getNextChar();
                 }
                 prevChar = nextChar;
@@ -141,7 +213,7 @@ public class Scanner
                 if (nextChar == '\n' || nextChar == '\r') {
                     lineNum--;
                 }
-                return new Token(Token.Kind.IDENTIFIER, spelling, lineNum);
+                return newIdentifier(sourceFile.getCharOffset(), lineNum);
             }
             // string constant
             else if (firstChar == '"'){
@@ -152,7 +224,7 @@ public class Scanner
                 prevChar = sourceFile.getNextChar();
                 if (prevChar == '&'){
                     prevChar = ' ';
-                    return new Token(Token.Kind.BINARYLOGIC,
+                    return newToken(Token.Kind.BINARYLOGIC,
                             "&&", sourceFile.getCurrentLineNumber());
                 }
                 else {
@@ -162,7 +234,7 @@ public class Scanner
                             sourceFile.getFilename(),
                             sourceFile.getCurrentLineNumber(),
                             "Unsupported character!");
-                    return new Token(Token.Kind.ERROR,
+                    return newToken(Token.Kind.ERROR,
                             "&", sourceFile.getCurrentLineNumber()-1);
                 }
             }
@@ -171,14 +243,14 @@ public class Scanner
                 prevChar = sourceFile.getNextChar();
                 if (prevChar == '|'){
                     prevChar = ' ';
-                    return new Token(Token.Kind.BINARYLOGIC,
+                    return newToken(Token.Kind.BINARYLOGIC,
                             "||", sourceFile.getCurrentLineNumber());
                 }
                 else {
                     errorHandler.register(Error.Kind.LEX_ERROR,
                             sourceFile.getFilename(),
                             sourceFile.getCurrentLineNumber(), "Unsupported character!");
-                    return new Token(Token.Kind.ERROR,
+                    return newToken(Token.Kind.ERROR,
                             "|", sourceFile.getCurrentLineNumber());
                 }
             }
@@ -188,11 +260,11 @@ public class Scanner
                 prevChar = sourceFile.getNextChar();
                 if (prevChar == '+'){
                     prevChar = ' ';
-                    return new Token(Token.Kind.UNARYINCR,
+                    return newToken(Token.Kind.UNARYINCR,
                             "++", sourceFile.getCurrentLineNumber());
                 }
                 else {
-                    return new Token(Token.Kind.PLUSMINUS,
+                    return newToken(Token.Kind.PLUSMINUS,
                             "+", sourceFile.getCurrentLineNumber());
                 }
             }
@@ -202,24 +274,24 @@ public class Scanner
                 prevChar = sourceFile.getNextChar();
                 if (prevChar == '-'){
                     prevChar = ' ';
-                    return new Token(Token.Kind.UNARYDECR,
+                    return newToken(Token.Kind.UNARYDECR,
                             "--", sourceFile.getCurrentLineNumber());
                 }
                 else {
-                    return new Token(Token.Kind.PLUSMINUS,
+                    return newToken(Token.Kind.PLUSMINUS,
                             "-", sourceFile.getCurrentLineNumber());
                 }
             }
 
             // multiply operator
             else if (firstChar == '*'){
-                return new Token(Token.Kind.MULDIV,
+                return newToken(Token.Kind.MULDIV,
                         "*", sourceFile.getCurrentLineNumber());
             }
 
             // mod operator
             else if (firstChar == '%'){
-                return new Token(Token.Kind.MULDIV,
+                return newToken(Token.Kind.MULDIV,
                         "%", sourceFile.getCurrentLineNumber());
             }
 
@@ -228,11 +300,11 @@ public class Scanner
                 prevChar = sourceFile.getNextChar();
                 if (prevChar == '='){
                     prevChar = ' ';
-                    return new Token(Token.Kind.COMPARE,
+                    return newToken(Token.Kind.COMPARE,
                             "<=", sourceFile.getCurrentLineNumber());
                 }
                 else {
-                    return new Token(Token.Kind.COMPARE,
+                    return newToken(Token.Kind.COMPARE,
                             "<", sourceFile.getCurrentLineNumber());
                 }
             }
@@ -240,11 +312,11 @@ public class Scanner
                 prevChar = sourceFile.getNextChar();
                 if (prevChar == '='){
                     prevChar = ' ';
-                    return new Token(Token.Kind.COMPARE,
+                    return newToken(Token.Kind.COMPARE,
                             ">=", sourceFile.getCurrentLineNumber());
                 }
                 else {
-                    return new Token(Token.Kind.COMPARE,
+                    return newToken(Token.Kind.COMPARE,
                             ">", sourceFile.getCurrentLineNumber());
                 }
             }
@@ -253,11 +325,11 @@ public class Scanner
                 prevChar = sourceFile.getNextChar();
                 if (prevChar == '='){
                     prevChar = ' ';
-                    return new Token(Token.Kind.COMPARE,
+                    return newToken(Token.Kind.COMPARE,
                             "==", sourceFile.getCurrentLineNumber());
                 }
                 else {
-                    return new Token(Token.Kind.ASSIGN,
+                    return newToken(Token.Kind.ASSIGN,
                             "=", sourceFile.getCurrentLineNumber());
                 }
             }
@@ -266,11 +338,11 @@ public class Scanner
                 prevChar = sourceFile.getNextChar();
                 if (prevChar == '='){
                     prevChar = ' ';
-                    return new Token(Token.Kind.COMPARE,
+                    return newToken(Token.Kind.COMPARE,
                             "!=", sourceFile.getCurrentLineNumber());
                 }
                 else {
-                    return new Token(Token.Kind.UNARYNOT,
+                    return newToken(Token.Kind.UNARYNOT,
                             "!", sourceFile.getCurrentLineNumber());
                 }
             }
@@ -282,7 +354,7 @@ public class Scanner
                 // catch all the edge cases
                 errorHandler.register(Error.Kind.LEX_ERROR, sourceFile.getFilename(),
                         sourceFile.getCurrentLineNumber(), "Unsupported character!");
-                return new Token(Token.Kind.ERROR, Character.toString(firstChar),
+                return newToken(Token.Kind.ERROR, tokenStart + 1,
                         sourceFile.getCurrentLineNumber());
             }
         } catch (IOException e) {
@@ -298,12 +370,10 @@ public class Scanner
      */
     public Token scanString(char firstChar){
         try {
-            String string = Character.toString(firstChar);
             // record the starting point
             int start = sourceFile.getCurrentLineNumber();
             char nextChar = sourceFile.getNextChar();
-            string += nextChar;
-            char prev = '"'; // store the prev character for looping
+            char prev = firstChar; // store the prev character for looping
             // read in until closing double quotation is read in
             while (prev == '\\' || nextChar != '"'){
                 // handles unterminated string constants
@@ -312,20 +382,21 @@ public class Scanner
                             sourceFile.getFilename(),
                             sourceFile.getCurrentLineNumber(),
                             "Unterminated string constants!");
-                    return new Token(Token.Kind.ERROR,
-                            string.substring(0, string.length()-1),
+                    return newToken(Token.Kind.ERROR,
+                            sourceFile.getCharOffset(),
                             sourceFile.getCurrentLineNumber());
                 }
                 prev = nextChar;
                 nextChar = sourceFile.getNextChar();
-                string += nextChar;
             }
+            // the string includes both double quotation marks
+            int end = sourceFile.getCharOffset() + 1;
+            char[] chars = sourceFile.getChars();
             // check for escape character
-            for (int i = 0; i < string.length(); i++) {
-                char c = string.charAt(i);
-                if (c == '\\') {
+            for (int i = tokenStart; i < end; i++) {
+                if (chars[i] == '\\') {
                     // get one more character
-                    nextChar = string.charAt(i + 1);
+                    nextChar = chars[i + 1];
                     if (nextChar != 'n' && nextChar != 't'
                             && nextChar != '"' && nextChar != '\\'
                             && nextChar != 'f') {
@@ -333,19 +404,19 @@ public class Scanner
                                 sourceFile.getFilename(),
                                 sourceFile.getCurrentLineNumber(),
                                 "Unsupported escape characters within a string.");
-                        return new Token(Token.Kind.ERROR,
-                                string, sourceFile.getCurrentLineNumber());
+                        return newToken(Token.Kind.ERROR,
+                                end, sourceFile.getCurrentLineNumber());
                     }
                 }
             }
             // check if string constant exceeds 5000 characters
-            if (string.length() > 5000) {
+            if (end - tokenStart > 5000) {
                 errorHandler.register(Error.Kind.LEX_ERROR,
                         sourceFile.getFilename(),
                         sourceFile.getCurrentLineNumber(),
                         "String constant cannot exceed 5000 characters!");
-                return new Token(Token.Kind.ERROR,
-                        string, sourceFile.getCurrentLineNumber());
+                return newToken(Token.Kind.ERROR,
+                        end, sourceFile.getCurrentLineNumber());
             }
             // check if string spans multiple lines
             if (sourceFile.getCurrentLineNumber() != start){
@@ -353,11 +424,11 @@ public class Scanner
                         sourceFile.getFilename(),
                         sourceFile.getCurrentLineNumber(),
                         "String cannot span multiple lines!");
-                return new Token(Token.Kind.ERROR,
-                        string, sourceFile.getCurrentLineNumber());
+                return newToken(Token.Kind.ERROR,
+                        end, sourceFile.getCurrentLineNumber());
             }
-            return new Token(Token.Kind.STRCONST,
-                    string, sourceFile.getCurrentLineNumber());
+            return newToken(Token.Kind.STRCONST,
+                    end, sourceFile.getCurrentLineNumber());
         } catch(IOException e){
             e.printStackTrace();
         }
@@ -371,19 +442,24 @@ public class Scanner
     public Token scanCommentDiv(){
         try {
             char secondChar = sourceFile.getNextChar();
+            int startLine = sourceFile.getCurrentLineNumber();
             // if it is a line comment, ignores it
             if (secondChar == '/'){
-                // keep reading until end of line
+                // keep reading until end of line (or end of file)
                 char nextChar = sourceFile.getNextChar();
-                while (nextChar != sourceFile.EOL){
+                while (nextChar != sourceFile.EOL && nextChar != SourceFile.EOF){
                     nextChar = sourceFile.getNextChar();
                 }
+                if (keepComments) {
+                    return newToken(Token.Kind.COMMENT,
+                            sourceFile.getCharOffset(), startLine);
+                }
                 return scan();
             }
             // check if it's a block comment
             else if (secondChar == '*'){
-                String comment = "/*";
                 char nextChar = sourceFile.getNextChar(); // look for asterisk
+                int nextCharOffset = sourceFile.getCharOffset();
                 char nextNextChar = sourceFile.getNextChar(); //look for closing slash
                 // check for the closing asterisk and slash
                 while (nextChar != '*' || nextNextChar != '/'){
@@ -393,17 +469,22 @@ public class Scanner
                                 sourceFile.getFilename(),
                                 sourceFile.getCurrentLineNumber(),
                                 "Unterminated block comment!");
-                        return new Token(Token.Kind.ERROR,
-                                comment, sourceFile.getCurrentLineNumber());
+                        return newToken(keepComments ? Token.Kind.COMMENT
+                                        : Token.Kind.ERROR,
+                                nextCharOffset, sourceFile.getCurrentLineNumber());
                     }
-                    comment += nextChar;
                     nextChar = nextNextChar;
+                    nextCharOffset = sourceFile.getCharOffset();
                     nextNextChar = sourceFile.getNextChar();
                 }
+                if (keepComments) {
+                    return newToken(Token.Kind.COMMENT,
+                            sourceFile.getCharOffset() + 1, startLine);
+                }
                 return scan();
             }
             else {
-                return new Token(Token.Kind.MULDIV,
+                return newToken(Token.Kind.MULDIV,
                         "/", sourceFile.getCurrentLineNumber());
             }
         } catch(IOException e){
@@ -412,6 +493,55 @@ public class Scanner
         return null; // in case of IOException and to satisfy the java compiler
     }
 
+    /**
+     * creates a token that starts at the beginning of the current token
+     * @param kind the Kind of token to be created
+     * @param spelling the characters making up the token
+     * @param position the line number in the source file containing the token
+     * @return the new Token
+     */
+    Token newToken(Token.Kind kind, String spelling, int position) {
+        if (buffer != null) {
+            buffer.add(kind, tokenStart, tokenStart + spelling.length(), position);
+            return null;
+        }
+        return new Token(kind, spelling, sourceFile.getChars(),
+                tokenStart, tokenStart + spelling.length(), position);
+    }
+
+    /**
+     * creates a token that starts at the beginning of the current token and
+     * whose spelling is only taken from the source when someone asks for it
+     * @param kind the Kind of token to be created
+     * @param end the offset in the source after the last character of the token
+     * @param position the line number in the source file containing the token
+     * @return the new Token
+     */
+    Token newToken(Token.Kind kind, int end, int position) {
+        if (buffer != null) {
+            buffer.add(kind, tokenStart, end, position);
+            return null;
+        }
+        return new Token(kind, null, sourceFile.getChars(), tokenStart, end, position);
+    }
+
+    /**
+     * creates an identifier or keyword token that starts at the beginning of
+     * the current token
+     * @param end the offset in the source after the last character of the token
+     * @param position the line number in the source file containing the token
+     * @return the new Token
+     */
+    Token newIdentifier(int end, int position) {
+        if (buffer != null) {
+            // the buffer only looks up the spelling when someone asks for it
+            return newToken(Token.Kind.IDENTIFIER, end, position);
+        }
+        // identical identifiers and keywords share one String
+        String spelling = spellingPool.intern(sourceFile.getChars(), tokenStart, end);
+        return newToken(Token.Kind.IDENTIFIER, spelling, position);
+    }
+
     /**
      * Main method created for testing purposes.
      */
@@ -0,0 +1,135 @@
+/*
+ * File: ScannerBenchmark.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.lexer;
+
+import proj10PengXuYu.bantam.util.Benchmarks;
+import proj10PengXuYu.bantam.util.ErrorHandler;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * A small timing harness for the lexer. It scans each input file to the end
+ * with every scanner configuration (including both scanner engines, see
+ * ScannerFactory) and prints the average time, the throughput and the
+ * number of bytes allocated per token of each one.
+ *
+ * Usage: java proj10PengXuYu.bantam.lexer.ScannerBenchmark [file ...]
+ * If no files are given, synthetic Bantam Java programs of 1 MB and 50 MB
+ * are generated in the temp directory and scanned instead.
+ */
+public class ScannerBenchmark
+{
+    /**
+     * Scans all the tokens of one source and returns the number of tokens.
+     * @param scanner the scanner to drain
+     * @return the number of tokens scanned, including the EOF token
+     */
+    private static int scanAll(Scanner scanner) {
+        int count = 1;
+        while (scanner.scan().kind != Token.Kind.EOF) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Times one scanner configuration on one file and prints the result.
+     * @param label the name of the configuration
+     * @param file the file being scanned
+     * @param run scans the whole file once and returns the number of tokens
+     */
+    private static void measure(String label, File file, IntSupplier run) {
+        int tokens = run.getAsInt();
+        double millis = Benchmarks.time(run::getAsInt);
+        long allocated = Benchmarks.allocatedBytes(run::getAsInt);
+        double megabytes = file.length() / (1024.0 * 1024.0);
+        double bytesPerToken = (double) allocated / tokens;
+        System.out.println(String.format(
+                "  %-12s %10.1f ms %10.1f MB/s %10d tokens %8.1f B/token",
+                label, millis, megabytes / (millis / 1000), tokens, bytesPerToken));
+    }
+
+    /**
+     * Writes a syntactically legal Bantam Java program of about the given size.
+     * @param size the minimum number of characters to write
+     * @return the generated file, which is deleted when the JVM exits
+     */
+    public static File generateSource(long size) throws IOException {
+        File file = File.createTempFile("bench", ".btm");
+        file.deleteOnExit();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            long written = 0;
+            for (int n = 0; written < size; n++) {
+                String text = "/* class number " + n + " */\n"
+                        + "class C" + n + " extends Object {\n"
+                        + "    int count" + n + " = " + n + ";\n"
+                        + "    String name = \"class \\t" + n + "\";\n"
+                        + "    int step(int x, boolean flag) {\n"
+                        + "        var i = 0; // loop counter\n"
+                        + "        for (i = 0; i < x; i++) {\n"
+                        + "            if (flag && i % 2 == 0 || !flag) { count" + n
+                        + " = count" + n + " + i * 3 - 1; }\n"
+                        + "            else { break; }\n"
+                        + "        }\n"
+                        + "        while (x >= 10) { x--; }\n"
+                        + "        return count" + n + ";\n"
+                        + "    }\n"
+                        + "}\n";
+                writer.write(text);
+                written += text.length();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * runs the benchmark
+     * @param args the pathnames of the files to be scanned (optional)
+     */
+    public static void main(String[] args) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (String filename : args) {
+            files.add(new File(filename));
+        }
+        if (files.isEmpty()) {
+            files.add(generateSource(1L << 20));
+            files.add(generateSource(50L << 20));
+        }
+
+        for (File file : files) {
+            System.out.println(String.format("%s (%.1f MB)", file.getName(),
+                    file.length() / (1024.0 * 1024.0)));
+            String path = file.getPath();
+            measure("streaming", file, () -> {
+                try {
+                    return scanAll(new Scanner(new SourceFile(new FileReader(path), false),
+                            new ErrorHandler()));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            measure("buffered", file, () -> scanAll(new Scanner(path, new ErrorHandler())));
+            measure("table-driven", file, () -> scanAll(ScannerFactory.createScanner(path,
+                    new ErrorHandler(), ScannerFactory.Engine.TABLE_DRIVEN)));
+            // keeps all the tokens, packed into arrays, as the Parser does
+            measure("token buffer", file, () -> TokenBuffer.scanAll(
+                    new Scanner(path, new ErrorHandler())).size());
+            measure("table buffer", file, () -> TokenBuffer.scanAll(
+                    ScannerFactory.createScanner(path, new ErrorHandler(),
+                            ScannerFactory.Engine.TABLE_DRIVEN)).size());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * File: ScannerFactory.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.lexer;
+
+import proj10PengXuYu.bantam.util.ErrorHandler;
+
+import java.io.Reader;
+
+/**
+ * Creates Scanners that use one of the scanner engines. Both engines return
+ * the same Tokens for the same source, so they can be used interchangeably.
+ */
+public class ScannerFactory
+{
+    /**
+     * the available scanner engines
+     */
+    public enum Engine {
+        /** the hand-written Scanner */
+        HAND_WRITTEN,
+        /** the DfaScanner, driven by a character class table and a transition table */
+        TABLE_DRIVEN
+    }
+
+    /**
+     * creates a new scanner for the given file
+     * @param filename the name of the file to be scanned
+     * @param handler the ErrorHandler that collects all the errors found
+     * @param engine the scanner engine to use
+     * @return the new Scanner
+     */
+    public static Scanner createScanner(String filename, ErrorHandler handler,
+                                        Engine engine) {
+        return createScanner(new SourceFile(filename), handler, engine);
+    }
+
+    /**
+     * creates a new scanner for the given Reader
+     * @param reader the Reader object for the file to be scanned
+     * @param handler the ErrorHandler that collects all the errors found
+     * @param engine the scanner engine to use
+     * @return the new Scanner
+     */
+    public static Scanner createScanner(Reader reader, ErrorHandler handler,
+                                        Engine engine) {
+        return createScanner(new SourceFile(reader), handler, engine);
+    }
+
+    /**
+     * creates a new scanner for characters that are already in memory
+     * @param text the characters to be scanned
+     * @param filename the name to use for the source in error messages
+     * @param handler the ErrorHandler that collects all the errors found
+     * @param engine the scanner engine to use
+     * @return the new Scanner
+     */
+    public static Scanner createScanner(CharSequence text, String filename,
+                                        ErrorHandler handler, Engine engine) {
+        return createScanner(new SourceFile(text, filename), handler, engine);
+    }
+
+    /**
+     * creates a new scanner for the given SourceFile
+     * @param sourceFile the source of the characters to be scanned
+     * @param handler the ErrorHandler that collects all the errors found
+     * @param engine the scanner engine to use
+     * @return the new Scanner
+     */
+    static Scanner createScanner(SourceFile sourceFile, ErrorHandler handler,
+                                 Engine engine) {
+        if (engine == Engine.TABLE_DRIVEN) {
+            return new DfaScanner(sourceFile, handler);
+        }
+        return new Scanner(sourceFile, handler);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * File: ScannerFuzzer.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.lexer;
+
+import proj10PengXuYu.bantam.util.ErrorHandler;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A differential fuzz test of the scanner engines. It generates random
+ * sources out of pieces of Bantam Java (and some characters that are not
+ * legal at all), scans each one with every engine and checks that they all
+ * return the same Tokens and register the same errors.
+ *
+ * Usage: java proj10PengXuYu.bantam.lexer.ScannerFuzzer [numSources [seed]]
+ */
+public class ScannerFuzzer
+{
+    /** pieces of source the random sources are made of */
+    private static final String[] PIECES = {
+            "class", "extends", "var", "if", "else", "while", "for", "break",
+            "return", "new", "instanceof", "cast", "true", "false", "null",
+            "Main", "main", "x", "count_2", "\u00e9t\u00e9", "_x",
+            "0", "42", "2147483647", "2147483648", "99999999999999",
+            "{", "}", "(", ")", "[", "]", ".", ",", ":", ";",
+            "+", "++", "-", "--", "*", "/", "%", "=", "==", "!", "!=",
+            "<", "<=", ">", ">=", "&", "&&", "|", "||", "#", "@", "\\",
+            "\"", "\"hello\"", "\"a\\tb\\n\"", "\"\\\"\"", "\"\\\\\"", "\"\\q\"",
+            "//", "// comment", "/*", "*/", "/* block */", "/** doc **/",
+            " ", "  ", "\t", "\n", "\r", "\r\n", "\f", "\u0000", "\u2028", "\u0663"
+    };
+
+    /**
+     * Scans the source with both engines and compares the results
+     * @param source the characters to be scanned
+     * @param keepComments true to have the engines return comments as tokens
+     * @return a description of the first difference, or null if there is none
+     */
+    static String compareEngines(String source, boolean keepComments) {
+        ErrorHandler handWrittenErrors = new ErrorHandler();
+        ErrorHandler tableDrivenErrors = new ErrorHandler();
+        Scanner handWritten = ScannerFactory.createScanner(new StringReader(source),
+                handWrittenErrors, ScannerFactory.Engine.HAND_WRITTEN);
+        Scanner tableDriven = ScannerFactory.createScanner(new StringReader(source),
+                tableDrivenErrors, ScannerFactory.Engine.TABLE_DRIVEN);
+        handWritten.setKeepComments(keepComments);
+        tableDriven.setKeepComments(keepComments);
+        // a source can have at most one token per character, plus the EOF token
+        for (int i = 0; i <= source.length() + 1; i++) {
+            Token expected = handWritten.scan();
+            Token actual = tableDriven.scan();
+            if (expected.kind != actual.kind
+                    || !expected.getSpelling().equals(actual.getSpelling())
+                    || expected.position != actual.position
+                    || expected.getStart() != actual.getStart()
+                    || expected.getEnd() != actual.getEnd()) {
+                return String.format("token %d: expected %s [%d,%d) but got %s [%d,%d)",
+                        i, expected, expected.getStart(), expected.getEnd(),
+                        actual, actual.getStart(), actual.getEnd());
+            }
+            if (expected.kind == Token.Kind.EOF) {
+                break;
+            }
+        }
+        List<proj10PengXuYu.bantam.util.Error> expectedErrors =
+                handWrittenErrors.getErrorList();
+        List<proj10PengXuYu.bantam.util.Error> actualErrors =
+                tableDrivenErrors.getErrorList();
+        if (!expectedErrors.toString().equals(actualErrors.toString())) {
+            return "expected errors " + expectedErrors + " but got " + actualErrors;
+        }
+        return null;
+    }
+
+    /**
+     * @return a random source made of up to 60 pieces
+     */
+    private static String randomSource(Random random) {
+        StringBuilder source = new StringBuilder();
+        int numPieces = random.nextInt(60);
+        for (int i = 0; i < numPieces; i++) {
+            if (random.nextInt(10) == 0) {
+                // once in a while, any character at all
+                source.append((char) random.nextInt(128));
+            } else {
+                source.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+        }
+        return source.toString();
+    }
+
+    /**
+     * runs the fuzz test
+     * @param args the number of sources to try and the random seed (both optional)
+     */
+    public static void main(String[] args) {
+        int numSources = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        Random random = new Random(seed);
+        System.out.println("Comparing the scanner engines on " + numSources
+                + " sources with seed " + seed);
+        for (int i = 0; i < numSources; i++) {
+            String source = randomSource(random);
+            boolean keepComments = random.nextBoolean();
+            String difference = compareEngines(source, keepComments);
+            if (difference != null) {
+                System.out.println("The engines differ on the source"
+                        + (keepComments ? " (keeping comments):" : ":"));
+                System.out.println(source.replace("\u0000", "\\u0000"));
+                System.out.println(difference);
+                System.exit(1);
+            }
+        }
+        System.out.println("The engines returned the same tokens for all sources.");
+    }
+}
@@ -18,13 +18,25 @@ package proj10PengXuYu.bantam.lexer;
 
 import proj10PengXuYu.bantam.util.CompilationException;
 
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 /**
  * A class for extracting the characters, one at a time, from a text file or a Reader.
+ * By default the whole source is loaded into a char array up front (through a
+ * memory-mapped FileChannel for files, or through bulk reads for Readers) and
+ * getNextChar() just walks that array by index. The original streaming mode, which
+ * calls Reader.read() once per character, is still available for Readers; it
+ * keeps the characters it has read in the same kind of array, so that tokens
+ * can refer to their characters by offset in either mode.
  */
 class SourceFile
 {
@@ -32,22 +44,35 @@ class SourceFile
     public static final char CR = '\r';  // carriage return character
     public static final char EOF = '\u0000';     // end of file character
 
-    private Reader sourceReader;   // the reader of the data
+    private Reader sourceReader;   // the reader of the data (streaming mode only)
+    private char[] buffer;         // the characters of the source read so far
+    private int length;            // the number of valid characters in the buffer
+    private int offset;            // the index of the next character to be read
+    private int charOffset;        // the index of the character read last
     private int currentLineNumber; // for bantam error messages
     private int prevChar;          // the previous character read
     private String filename;       // the file currently being scanned.
 
     /**
-     * creates a new SourceFile object for the file with the given name
+     * creates a new SourceFile object for the file with the given name.
+     * The whole file is mapped into memory and decoded into a char array.
      *
      * @param filename the name of the file to be read.
-     * @throws CompilationException if the file is not found
+     * @throws CompilationException if the file is not found or cannot be read
      */
     SourceFile(String filename) {
-        try {
-            sourceReader = new FileReader(filename);
-        } catch (FileNotFoundException e) {
-            throw new CompilationException("File " + filename + "not found.", e);
+        try (FileChannel channel = FileChannel.open(Paths.get(filename),
+                StandardOpenOption.READ)) {
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+            // decode with the default charset, just like a FileReader would
+            CharBuffer chars = Charset.defaultCharset().decode(bytes);
+            buffer = chars.array();
+            length = chars.limit();
+        } catch (NoSuchFileException e) {
+            throw new CompilationException("File " + filename + " not found.", e);
+        } catch (IOException e) {
+            throw new CompilationException("File " + filename + " could not be read.", e);
         }
         currentLineNumber = 1;
         prevChar = -1;
@@ -55,12 +80,88 @@ class SourceFile
     }
 
     /**
-     * creates a new SourceFile object for the given Reader
+     * creates a new SourceFile object for characters that are already in memory,
+     * such as the contents of an editor
+     *
+     * @param text the characters to be processed
+     * @param filename the name to use for the source in error messages
+     */
+    SourceFile(CharSequence text, String filename) {
+        length = text.length();
+        buffer = new char[length];
+        text.toString().getChars(0, length, buffer, 0);
+        currentLineNumber = 1;
+        prevChar = -1;
+        this.filename = filename;
+    }
+
+    /**
+     * creates a new SourceFile object for the given Reader.
+     * All the characters of the Reader are read into memory in bulk.
      *
      * @param in the Reader that provides the characters to be processes
      */
     SourceFile(Reader in) {
-        sourceReader = in;
+        this(in, true);
+    }
+
+    /**
+     * creates a new SourceFile object for the given Reader
+     *
+     * @param in the Reader that provides the characters to be processes
+     * @param buffered true if all the characters should be read into memory up front,
+     *                 false if they should be read from the Reader one at a time
+     * @throws CompilationException if the Reader cannot be read
+     */
+    SourceFile(Reader in, boolean buffered) {
+        if (buffered) {
+            try {
+                buffer = new char[8192];
+                for (int numRead; (numRead = in.read(buffer, length,
+                        buffer.length - length)) != -1; ) {
+                    length += numRead;
+                    if (length == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                }
+            } catch (IOException e) {
+                throw new CompilationException("Unable to read the source.", e);
+            }
+        }
+        else {
+            sourceReader = in;
+            buffer = new char[8192];
+        }
+        currentLineNumber = 1;
+        prevChar = -1;
+    }
+
+    /**
+     * Starts over with the characters text[start..end-1], as if this were a new
+     * SourceFile for them, copying them into the array it already has if they
+     * fit, so that many short texts, such as the lines of an editor, can be read
+     * one after another without allocating.
+     *
+     * @param text the characters to be processed
+     * @param start the index of the first character
+     * @param end the index after the last character
+     */
+    void reset(CharSequence text, int start, int end) {
+        length = end - start;
+        if (buffer.length < length) {
+            buffer = new char[Math.max(length, buffer.length * 2)];
+        }
+        if (text instanceof String) {
+            ((String) text).getChars(start, end, buffer, 0);
+        }
+        else {
+            for (int i = 0; i < length; i++) {
+                buffer[i] = text.charAt(start + i);
+            }
+        }
+        sourceReader = null;
+        offset = 0;
+        charOffset = 0;
         currentLineNumber = 1;
         prevChar = -1;
     }
@@ -71,6 +172,29 @@ class SourceFile
 
     String getFilename() { return filename; }
 
+    /**
+     * Returns the array holding the characters read so far (in buffered mode, all
+     * the characters of the source). Only the first getLength() chars are valid.
+     * In streaming mode the array is replaced as it grows, but a previously returned
+     * array still holds all the characters that had been read when it was returned.
+     *
+     * @return the characters of the source
+     */
+    char[] getChars() { return buffer; }
+
+    /**
+     * @return the number of valid characters in the array returned by getChars()
+     */
+    int getLength() { return length; }
+
+    /**
+     * Returns the offset of the character most recently returned by getNextChar(),
+     * or the length of the source if that character was the EOF character.
+     *
+     * @return the offset of the last character read
+     */
+    int getCharOffset() { return charOffset; }
+
     /**
      * Finds and returns the next character in the source file.
      * The current line number is incremented if the end of a line is reached
@@ -78,16 +202,33 @@ class SourceFile
      * @return the next character in the source file
      */
     char getNextChar() throws IOException {
-        int c = sourceReader.read();
+        int c;
+        if (sourceReader == null) {
+            c = (offset < length ? buffer[offset++] : -1);
+        }
+        else {
+            c = sourceReader.read();
+            if (c != -1) {
+                // remember the character so that tokens can refer to it
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                buffer[length++] = (char) c;
+                offset++;
+            }
+        }
 
         if (c == -1) {
             c = EOF;
+            charOffset = length;
         }
-        else if (c == CR || (c == EOL && prevChar != CR)) {
-            currentLineNumber++;
+        else {
+            charOffset = offset - 1;
+            if (c == CR || (c == EOL && prevChar != CR)) {
+                currentLineNumber++;
+            }
         }
         prevChar = c;
         return (char) c;
     }
 }
-
@@ -0,0 +1,120 @@
+/*
+ * File: SpellingPool.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.lexer;
+
+/**
+ * A pool of token spellings. The Scanner uses it to turn a range of characters
+ * of the source into a String without allocating anything when the same
+ * identifier or keyword has been seen before, so all the occurrences of a
+ * name share a single String object.
+ * The pool is an open-addressing hash table keyed by the characters themselves.
+ */
+class SpellingPool
+{
+    /** words that are put in the pool up front, so they never need to be allocated */
+    private static final String[] PRESET_WORDS = {
+            "break", "cast", "class", "var", "else", "extends", "for", "if",
+            "instanceof", "new", "return", "while", "true", "false",
+            "null", "this", "super", "void", "int", "boolean",
+            "Object", "String", "TextIO", "Sys", "Main", "main"
+    };
+
+    /** the hash table of spellings; its length is always a power of two */
+    private String[] table;
+    /** the number of spellings in the table */
+    private int size;
+
+    /**
+     * creates a new pool containing the Bantam Java keywords and built-in names
+     */
+    SpellingPool() {
+        table = new String[256];
+        for (String word : PRESET_WORDS) {
+            intern(word.toCharArray(), 0, word.length());
+        }
+    }
+
+    /**
+     * Returns the pooled String whose characters are chars[start..end-1],
+     * adding a new String to the pool if there isn't one yet.
+     *
+     * @param chars the array holding the characters
+     * @param start the index of the first character
+     * @param end the index after the last character
+     * @return the pooled String with those characters
+     */
+    String intern(char[] chars, int start, int end) {
+        // same hash function as String.hashCode(), so that growing can reuse it
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int mask = table.length - 1;
+        int index = spread(hash) & mask;
+        for (String s = table[index]; s != null; s = table[index]) {
+            if (s.hashCode() == hash && matches(s, chars, start, end)) {
+                return s;
+            }
+            index = (index + 1) & mask;
+        }
+        String spelling = new String(chars, start, end - start);
+        table[index] = spelling;
+        if (++size * 2 > table.length) {
+            grow();
+        }
+        return spelling;
+    }
+
+    /**
+     * @return the number of distinct spellings in the pool
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * returns true if s consists exactly of the characters chars[start..end-1]
+     */
+    private static boolean matches(String s, char[] chars, int start, int end) {
+        if (s.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i - start) != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * mixes the high bits of the hash into the low bits used for indexing
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * doubles the size of the table and reinserts all the spellings
+     */
+    private void grow() {
+        String[] oldTable = table;
+        table = new String[oldTable.length * 2];
+        int mask = table.length - 1;
+        for (String s : oldTable) {
+            if (s != null) {
+                int index = spread(s.hashCode()) & mask;
+                while (table[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = s;
+            }
+        }
+    }
+}
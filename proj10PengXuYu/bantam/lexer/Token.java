@@ -15,8 +15,6 @@
 
  package proj10PengXuYu.bantam.lexer;
 
- import java.util.Set;
-
  /**
   * This class represents a meaningful sequence of characters in the
   * source code.
@@ -25,15 +23,46 @@
  {
      /** the kind of token this is */
      public Kind kind;
-     /** the string of characters making up the token */
-     public String spelling;
+     /** the string of characters making up the token (created on demand) */
+     private String spelling;
      /** the line number where the token was found in the source code */
      public int position;
+     /** the characters of the source code containing the token */
+     private char[] source;
+     /** the offset in the source of the first character of the token */
+     private int start;
+     /** the offset in the source after the last character of the token */
+     private int end;
 
+     /**
+      * Returns the string of characters making up the token.  For tokens whose
+      * spelling was not given when they were created, the String is created
+      * from the source the first time it is asked for.
+      * @return the spelling of the token
+      */
      public String getSpelling() {
+         if (spelling == null) {
+             spelling = new String(source, start, end - start);
+         }
          return spelling;
      }
 
+     /**
+      * @return the offset in the source of the first character of the token,
+      *         or -1 if the token was not created from a source buffer
+      */
+     public int getStart() {
+         return start;
+     }
+
+     /**
+      * @return the offset in the source after the last character of the token,
+      *         or -1 if the token was not created from a source buffer
+      */
+     public int getEnd() {
+         return end;
+     }
+
 
      /**
       * constructor
@@ -42,16 +71,31 @@
       * @param position the line number in the source file containing the token
       */
      Token(Kind kind, String spelling, int position) {
+         this(kind, spelling, null, -1, -1, position);
+     }
+
+     /**
+      * constructor for a token whose characters are in a source buffer
+      * @param kind the Kind of token to be created
+      * @param spelling the characters making up the token, or null if
+      *                 they should be taken from the source when needed
+      * @param source the characters of the source code
+      * @param start the offset in the source of the first character of the token
+      * @param end the offset in the source after the last character of the token
+      * @param position the line number in the source file containing the token
+      */
+     Token(Kind kind, String spelling, char[] source, int start, int end, int position) {
          this.spelling = spelling;
+         this.source = source;
+         this.start = start;
+         this.end = end;
          this.position = position;
 
          // patch the kind field in the cases of boolean constants and keywords,
          // which are not of kind IDENTIFIER
-         if (kind == Kind.IDENTIFIER && (spelling.equals("true") || spelling.equals("false"))) {
-             this.kind = Kind.BOOLEAN;
-         }
-         else if (kind == Kind.IDENTIFIER && reservedWords.contains(spelling)) {
-             this.kind = Enum.valueOf(Kind.class, spelling.toUpperCase());
+         if (kind == Kind.IDENTIFIER) {
+             this.kind = (source != null) ? Keywords.classify(source, start, end)
+                                          : Keywords.classify(spelling);
          }
          else {
              this.kind = kind;
@@ -62,7 +106,7 @@
       * @return  information about this token
       */
      public String toString() {
-         return "Token: Kind=" + kind.name() + ", spelling=" + spelling + ", " +
+         return "Token: Kind=" + kind.name() + ", spelling=" + getSpelling() + ", " +
                  "position=" + position;
      }
 
@@ -92,10 +136,6 @@
          RETURN, WHILE
      }
 
-     /** a set of all the reserved words of Bantam Java */
-     private static Set<String> reservedWords = Set.of("break", "cast", "class", "var",
-             "else", "extends", "for", "if", "instanceof", "new", "return", "while");
-
  }
 
 	
@@ -0,0 +1,261 @@
+/*
+ * File: TokenBuffer.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.lexer;
+
+import java.util.Arrays;
+
+/**
+ * The tokens of one source, stored in parallel arrays of primitives instead of
+ * one Token object per token: the ordinal of the Kind, the start and end offsets
+ * of the characters in the source and the line number of every token.
+ * Tokens are looked up by their index; index 0 is the first token of the source.
+ *
+ * The Scanner writes the tokens straight into the arrays, without creating a
+ * Token for them. The buffer is filled from the Scanner on demand, so a client
+ * that stops early (like the Parser after a syntax error) has only scanned, and
+ * registered the lex errors of, the tokens it looked at. Once the EOF token has been stored,
+ * asking for any later index returns the EOF token again, just like scan() does.
+ */
+public class TokenBuffer
+{
+    /** all the Kinds, indexed by their ordinal */
+    private static final Token.Kind[] KINDS = Token.Kind.values();
+
+    /** the scanner providing the tokens */
+    private final Scanner scanner;
+    /** true once the EOF token has been stored */
+    private boolean complete;
+    /** the source that the start and end offsets refer to */
+    private final SourceFile sourceFile;
+    /** the pool used for the spellings of the tokens */
+    private final SpellingPool spellingPool;
+
+    /** the ordinal of the Kind of each token */
+    private byte[] kinds;
+    /** the offset in the source of the first character of each token */
+    private int[] starts;
+    /** the offset in the source after the last character of each token */
+    private int[] ends;
+    /** the line number of each token */
+    private int[] lines;
+    /** the number of tokens in the buffer */
+    private int size;
+
+    /**
+     * creates a new, empty buffer that is filled from the given scanner as
+     * tokens are asked for
+     * @param scanner the Scanner providing the tokens
+     */
+    public TokenBuffer(Scanner scanner) {
+        this.scanner = scanner;
+        sourceFile = scanner.sourceFile;
+        spellingPool = scanner.spellingPool;
+        // most sources have fewer tokens than a quarter of their characters
+        int capacity = Math.max(256, sourceFile.getLength() / 4);
+        kinds = new byte[capacity];
+        starts = new int[capacity];
+        ends = new int[capacity];
+        lines = new int[capacity];
+    }
+
+    /**
+     * creates a buffer holding all the tokens of a source, up to and
+     * including the EOF token
+     * @param scanner the Scanner providing the tokens
+     * @return the filled buffer
+     */
+    public static TokenBuffer scanAll(Scanner scanner) {
+        TokenBuffer buffer = new TokenBuffer(scanner);
+        buffer.fill(Integer.MAX_VALUE);
+        return buffer;
+    }
+
+    /**
+     * @return the number of tokens scanned so far
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the buffer holds all the tokens up to the EOF token
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Empties the buffer, keeping its arrays, so that it is filled again from
+     * the scanner, such as after the scanner was reset to new characters.
+     */
+    public void clear() {
+        size = 0;
+        complete = false;
+    }
+
+    /**
+     * @param index the index of a token
+     * @return the Kind of the token
+     */
+    public Token.Kind getKind(int index) {
+        int i = find(index);
+        return KINDS[kinds[i]];
+    }
+
+    /**
+     * @param index the index of a token
+     * @return the line number of the token in the source
+     */
+    public int getLine(int index) {
+        int i = find(index);
+        return lines[i];
+    }
+
+    /**
+     * @param index the index of a token
+     * @return the offset in the source of the first character of the token
+     */
+    public int getStart(int index) {
+        int i = find(index);
+        return starts[i];
+    }
+
+    /**
+     * @param index the index of a token
+     * @return the offset in the source after the last character of the token
+     */
+    public int getEnd(int index) {
+        int i = find(index);
+        return ends[i];
+    }
+
+    /**
+     * Returns the characters making up a token. Identifiers, keywords and
+     * other short tokens share their String with every other token spelled
+     * the same way.
+     * @param index the index of a token
+     * @return the spelling of the token
+     */
+    public String getSpelling(int index) {
+        int i = find(index);
+        if (kinds[i] == Token.Kind.STRCONST.ordinal()) {
+            return new String(sourceFile.getChars(), starts[i], ends[i] - starts[i]);
+        }
+        return spellingPool.intern(sourceFile.getChars(), starts[i], ends[i]);
+    }
+
+    /**
+     * creates a Token object for one token, for clients that need one
+     * @param index the index of a token
+     * @return a new Token with the same Kind, spelling and position
+     */
+    public Token getToken(int index) {
+        int i = find(index);
+        return new Token(getKind(i), getSpelling(i), sourceFile.getChars(),
+                starts[i], ends[i], lines[i]);
+    }
+
+    /**
+     * Returns a 64-bit FNV-1a hash of a range of tokens: of the Kind, the line
+     * number relative to the first token of the range and the characters of
+     * each. Two ranges with the same tokens and the same line breaks between
+     * them have the same hash, whatever the other white space and the comments
+     * between the tokens, and wherever the ranges start in their sources.
+     * @param from the index of the first token of the range
+     * @param to the index after the last token of the range
+     * @return the hash
+     */
+    public long hash(int from, int to) {
+        find(to - 1);
+        char[] chars = sourceFile.getChars();
+        long hash = 0xcbf29ce484222325L;
+        int firstLine = lines[Math.min(from, size - 1)];
+        for (int i = from; i < to && i < size; i++) {
+            hash = (hash ^ kinds[i]) * 0x100000001b3L;
+            hash = (hash ^ (lines[i] - firstLine)) * 0x100000001b3L;
+            // the length keeps the characters of neighbouring tokens apart
+            hash = (hash ^ (ends[i] - starts[i])) * 0x100000001b3L;
+            for (int c = starts[i]; c < ends[i]; c++) {
+                hash = (hash ^ chars[c]) * 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the index in the arrays of the given token, scanning more
+     * tokens if it hasn't been scanned yet. Since scanning may replace the
+     * arrays, they must only be read after calling this method.
+     * @param index the index of a token
+     * @return the index in the arrays, which is that of the EOF token
+     *         if the index is past the end of the source
+     */
+    private int find(int index) {
+        if (index >= size) {
+            fill(index);
+            if (index >= size) {
+                return size - 1;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * scans tokens until the given index is in the buffer or the
+     * EOF token has been scanned
+     * @param index the index of the last token needed
+     */
+    private void fill(int index) {
+        while (!complete && size <= index) {
+            int oldSize = size;
+            scanner.scanInto(this);
+            if (size == oldSize) {
+                // the source could not be read, so it ends here
+                add(Token.Kind.EOF, scanner.tokenStart, scanner.tokenStart,
+                        sourceFile.getCurrentLineNumber());
+            }
+        }
+    }
+
+    /**
+     * Adds a token at the end of the buffer; called by the Scanner
+     * instead of creating a Token.
+     * @param kind the Kind of the token, IDENTIFIER for keywords too
+     * @param start the offset in the source of the first character of the token
+     * @param end the offset in the source after the last character of the token
+     * @param line the line number of the token
+     */
+    void add(Token.Kind kind, int start, int end, int line) {
+        if (kind == Token.Kind.IDENTIFIER) {
+            kind = Keywords.classify(sourceFile.getChars(), start, end);
+        }
+        else if (kind == Token.Kind.EOF) {
+            complete = true;
+        }
+        if (size == kinds.length) {
+            grow();
+        }
+        kinds[size] = (byte) kind.ordinal();
+        starts[size] = start;
+        ends[size] = end;
+        lines[size] = line;
+        size++;
+    }
+
+    /**
+     * doubles the length of all the arrays
+     */
+    private void grow() {
+        int length = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, length);
+        starts = Arrays.copyOf(starts, length);
+        ends = Arrays.copyOf(ends, length);
+        lines = Arrays.copyOf(lines, length);
+    }
+}
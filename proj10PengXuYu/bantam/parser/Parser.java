@@ -17,8 +17,9 @@
 package proj10PengXuYu.bantam.parser;
 
 import proj10PengXuYu.bantam.ast.*;
-import proj10PengXuYu.bantam.lexer.Scanner;
+import proj10PengXuYu.bantam.lexer.ScannerFactory;
 import proj10PengXuYu.bantam.lexer.Token;
+import proj10PengXuYu.bantam.lexer.TokenBuffer;
 import proj10PengXuYu.bantam.treedrawer.Drawer;
 import proj10PengXuYu.bantam.util.CompilationException;
 import proj10PengXuYu.bantam.util.Error;
@@ -28,15 +29,38 @@ import proj10PengXuYu.bantam.util.ErrorHandler;
 public class Parser
 {
     // instance variables
-    private Scanner scanner; // provides the tokens
-    private Token currentToken; // the lookahead token
+    private TokenBuffer tokens; // provides the tokens
+    private int current; // the index in tokens of the lookahead token
+    private String spelling; // the spelling of the lookahead token, once asked for
     private ErrorHandler errorHandler; // collects & organizes the error messages
+    private ScannerFactory.Engine engine; // the scanner engine that provides the tokens
+    private boolean recoverFromErrors; // whether to go on parsing after a syntax error
 
     private String filename; // the filename of the Bantam Java file to be parsed.
 
     // constructor
     public Parser(ErrorHandler errorHandler) {
+        this(errorHandler, ScannerFactory.Engine.HAND_WRITTEN);
+    }
+
+    // constructor that selects the scanner engine
+    public Parser(ErrorHandler errorHandler, ScannerFactory.Engine engine) {
         this.errorHandler = errorHandler;
+        this.engine = engine;
+    }
+
+    /**
+     * turns the error recovery mode on or off. By default it is off, and
+     * parse throws a CompilationException at the first syntax error. When it
+     * is on, the parser registers the error, skips to the next semicolon,
+     * right curly brace or "class" keyword and goes on parsing from there, so
+     * all the syntax errors are found in one pass. parse then returns the
+     * partial AST, and it is up to the caller to check the ErrorHandler for
+     * errors before using it.
+     * @param recoverFromErrors true to recover from syntax errors
+     */
+    public void setRecoverFromErrors(boolean recoverFromErrors) {
+        this.recoverFromErrors = recoverFromErrors;
     }
 
     /**
@@ -46,21 +70,49 @@ public class Parser
      */
     public Program parse(String filename) {
         this.filename = filename;
-        scanner = new Scanner(filename, errorHandler);
-        currentToken = scanner.scan();
+        tokens = new TokenBuffer(
+                ScannerFactory.createScanner(filename, errorHandler, engine));
+        current = 0;
+        spelling = null;
         Program root = parseProgram();
         return root;
     }
 
+    /**
+     * parse the given source text and return the root node of the AST.
+     * The text is scanned straight from memory, so it doesn't need to be
+     * saved to a file first, e.g. the contents of an editor.
+     * @param source The Bantam Java source code to be parsed
+     * @param logicalName The name used for the source in error messages,
+     *                    such as the path of the file it will be saved to
+     * @return The Program node forming the root of the AST generated by the parser
+     */
+    public Program parse(CharSequence source, String logicalName) {
+        this.filename = logicalName;
+        tokens = new TokenBuffer(ScannerFactory.createScanner(source, logicalName,
+                errorHandler, engine));
+        current = 0;
+        spelling = null;
+        return parseProgram();
+    }
+
 
     // <Program> ::= <Class> | <Class> <Program>
     private Program parseProgram() {
-        int position = currentToken.position;
+        int position = currentPosition();
         ClassList clist = new ClassList(position);
 
-        while (currentToken.kind != Token.Kind.EOF) {
-            Class_ aClass = parseClass();
-            clist.addElement(aClass);
+        while (currentKind() != Token.Kind.EOF) {
+            try {
+                Class_ aClass = parseClass();
+                clist.addElement(aClass);
+            } catch (SyncException ex) {
+                // skip to the next class
+                while (currentKind() != Token.Kind.CLASS
+                        && currentKind() != Token.Kind.EOF) {
+                    advance();
+                }
+            }
         }
 
         return new Program(position, clist);
@@ -72,46 +124,46 @@ public class Parser
     // <MemberList> ::= EMPTY | <Member> <MemberList>
     private Class_ parseClass() {
 
-        int position = currentToken.position;
+        int position = currentPosition();
+        int first = current;
         String className;
         String parent = null;
         MemberList memberList = new MemberList(position);
 
-        if (currentToken.kind != Token.Kind.CLASS) {
-            errorHandler.register(Error.Kind.PARSE_ERROR,
-                    filename,
-                    position,
-                    "Class should start with a \"class\" keyword.");
-            throw new CompilationException(errorHandler);
+        if (currentKind() != Token.Kind.CLASS) {
+            throw syntaxError(position, "Class should start with a \"class\" keyword.");
         }
         else {
-            currentToken = scanner.scan();
+            advance();
             className = parseIdentifier();
             // <ExtendsClause>
-            if (currentToken.kind == Token.Kind.EXTENDS) {
-                currentToken = scanner.scan();
+            if (currentKind() == Token.Kind.EXTENDS) {
+                advance();
                 parent = parseIdentifier();
             }
             else {
                 parent = "Object";
             }
             // { <MemberList> }
-            if (currentToken.kind == Token.Kind.LCURLY) {
-                currentToken = scanner.scan();
-                while (currentToken.kind != Token.Kind.RCURLY) {
-                    Member member = parseMember();
-                    memberList.addElement(member);
+            if (currentKind() == Token.Kind.LCURLY) {
+                advance();
+                while (!atEndOfBody()) {
+                    try {
+                        Member member = parseMember();
+                        memberList.addElement(member);
+                    } catch (SyncException ex) {
+                        synchronize();
+                    }
                 }
             } else {
-                errorHandler.register(Error.Kind.PARSE_ERROR,
-                        filename,
-                        position,
+                throw syntaxError(position,
                         "Missing curly brace after the class name.");
-                throw new CompilationException(errorHandler);
             }
         }
-        currentToken = scanner.scan();
-        return new Class_(position, filename, className, parent, memberList);
+        expectEndOfBody(position, "Missing right curly brace at the end of the class.");
+        Class_ aClass = new Class_(position, filename, className, parent, memberList);
+        aClass.setSourceHash(tokens.hash(first, current));
+        return aClass;
     }
 
 
@@ -121,27 +173,19 @@ public class Parser
     // <Field> ::= <Type> <Identifier> <InitialValue> ;
     // <InitialValue> ::= EMPTY | = <Expression>
     private Member parseMember() {
-        int position = currentToken.position;
+        int position = currentPosition();
         String type  = parseType();
         String identifier = parseIdentifier();
         // methods
-        if (currentToken.kind == Token.Kind.LPAREN) {
-            currentToken = scanner.scan();
+        if (currentKind() == Token.Kind.LPAREN) {
+            advance();
             FormalList pars = parseParameters();
-            if (currentToken.kind != Token.Kind.RPAREN) {
-                errorHandler.register(Error.Kind.PARSE_ERROR,
-                        filename,
-                        position,
-                        "Missing right parenthesis.");
-                throw new CompilationException(errorHandler);
+            if (currentKind() != Token.Kind.RPAREN) {
+                throw syntaxError(position, "Missing right parenthesis.");
             }
-            currentToken = scanner.scan();
-            if (currentToken.kind != Token.Kind.LCURLY) {
-                errorHandler.register(Error.Kind.PARSE_ERROR,
-                        filename,
-                        position,
-                        "Missing left curly braces.");
-                throw new CompilationException(errorHandler);
+            advance();
+            if (currentKind() != Token.Kind.LCURLY) {
+                throw syntaxError(position, "Missing left curly braces.");
             }
             BlockStmt stmt = (BlockStmt) parseBlock();
             StmtList stmtList = stmt.getStmtList();
@@ -151,26 +195,19 @@ public class Parser
         else {
             Expr expr = null;
             // no initial value
-            if (currentToken.kind != Token.Kind.SEMICOLON) {
-                if (currentToken.kind != Token.Kind.ASSIGN) {
-                    errorHandler.register(Error.Kind.PARSE_ERROR,
-                            filename,
-                            position,
-                            "Invalid field declaration.");
-                    throw new CompilationException(errorHandler);
+            if (currentKind() != Token.Kind.SEMICOLON) {
+                if (currentKind() != Token.Kind.ASSIGN) {
+                    throw syntaxError(position, "Invalid field declaration.");
                 } else {
-                    currentToken = scanner.scan();
+                    advance();
                     expr = parseExpression();
-                    if (currentToken.kind != Token.Kind.SEMICOLON) {
-                        errorHandler.register(Error.Kind.PARSE_ERROR,
-                                filename,
-                                position,
+                    if (currentKind() != Token.Kind.SEMICOLON) {
+                        throw syntaxError(position,
                                 "Missing semicolon at the end of field declaration.");
-                        throw new CompilationException(errorHandler);
                     }
                 }
             }
-            currentToken = scanner.scan();
+            advance();
             return new Field(position, type, identifier, expr);
         }
     }
@@ -183,7 +220,7 @@ public class Parser
     private Stmt parseStatement() {
         Stmt stmt;
 
-        switch (currentToken.kind) {
+        switch (currentKind()) {
             case IF:
                 stmt = parseIf();
                 break;
@@ -215,25 +252,19 @@ public class Parser
 
     // <WhileStmt> ::= WHILE ( <Expression> ) <Stmt>
     private Stmt parseWhile() {
-        int position = currentToken.position;
-        currentToken = scanner.scan();
-        if (currentToken.kind != Token.Kind.LPAREN) {
-            errorHandler.register(Error.Kind.PARSE_ERROR,
-                    filename,
-                    position,
+        int position = currentPosition();
+        advance();
+        if (currentKind() != Token.Kind.LPAREN) {
+            throw syntaxError(position,
                     "Missing left parenthesis before the while condition.");
-            throw new CompilationException(errorHandler);
         }
-        currentToken = scanner.scan();
+        advance();
         Expr expr = parseExpression();
-        if (currentToken.kind != Token.Kind.RPAREN) {
-            errorHandler.register(Error.Kind.PARSE_ERROR,
-                    filename,
-                    position,
+        if (currentKind() != Token.Kind.RPAREN) {
+            throw syntaxError(position,
                     "Missing right parenthesis after the while condition.");
-            throw new CompilationException(errorHandler);
         }
-        currentToken = scanner.scan();
+        advance();
         Stmt bodyStmt = parseStatement();
         return new WhileStmt(position, expr, bodyStmt);
     }
@@ -241,52 +272,40 @@ public class Parser
 
     // <ReturnStmt> ::= RETURN <Expression> ; | RETURN ;
     private Stmt parseReturn() {
-        int position = currentToken.position;
-        currentToken = scanner.scan();
+        int position = currentPosition();
+        advance();
         Expr expr = null;
-        if (currentToken.kind != Token.Kind.SEMICOLON) {
+        if (currentKind() != Token.Kind.SEMICOLON) {
             expr = parseExpression();
-            if (currentToken.kind != Token.Kind.SEMICOLON) {
-                errorHandler.register(Error.Kind.PARSE_ERROR,
-                        filename,
-                        position,
-                        "Invalid return statement.");
-                throw new CompilationException(errorHandler);
+            if (currentKind() != Token.Kind.SEMICOLON) {
+                throw syntaxError(position, "Invalid return statement.");
             }
         }
-        currentToken = scanner.scan();
+        advance();
         return new ReturnStmt(position, expr);
     }
 
 
     // <BreakStmt> ::= BREAK ;
     private Stmt parseBreak() {
-        int position = currentToken.position;
-        currentToken = scanner.scan();
-        if (currentToken.kind != Token.Kind.SEMICOLON) {
-            errorHandler.register(Error.Kind.PARSE_ERROR,
-                    filename,
-                    position,
-                    "Invalid break statement.");
-            throw new CompilationException(errorHandler);
-        }
-        currentToken = scanner.scan();
+        int position = currentPosition();
+        advance();
+        if (currentKind() != Token.Kind.SEMICOLON) {
+            throw syntaxError(position, "Invalid break statement.");
+        }
+        advance();
         return new BreakStmt(position);
     }
 
 
     // <ExpressionStmt> ::= <Expression> ;
     private ExprStmt parseExpressionStmt() {
-        int position = currentToken.position;
+        int position = currentPosition();
         Expr expr = parseExpression();
-        if (currentToken.kind != Token.Kind.SEMICOLON) {
-            errorHandler.register(Error.Kind.PARSE_ERROR,
-                    filename,
-                    position,
-                    "Invalid expression statement.");
-            throw new CompilationException(errorHandler);
-        }
-        currentToken = scanner.scan();
+        if (currentKind() != Token.Kind.SEMICOLON) {
+            throw syntaxError(position, "Invalid expression statement.");
+        }
+        advance();
         return new ExprStmt(position, expr);
     }
 
@@ -294,30 +313,24 @@ public class Parser
     // <VarDeclaration> ::= VAR <Id> = <Expression> ;
     // Every local variable must be initialized
     private Stmt parseVarDeclaration() {
-        int position = currentToken.position;
+        int position = currentPosition();
         // parse <Id>
-        currentToken = scanner.scan();
+        advance();
         String identifier = parseIdentifier();
         // parse "="
-        if (currentToken.kind != Token.Kind.ASSIGN) {
-            errorHandler.register(Error.Kind.PARSE_ERROR,
-                    filename,
-                    position,
+        if (currentKind() != Token.Kind.ASSIGN) {
+            throw syntaxError(position,
                     "Invalid variable declaration: Assignment symbol missing.");
-            throw new CompilationException(errorHandler);
         }
         // parse <Expression>
-        currentToken = scanner.scan();
+        advance();
         Expr expression = parseExpression();
         // parse ";"
-        if (currentToken.kind != Token.Kind.SEMICOLON) {
-            errorHandler.register(Error.Kind.PARSE_ERROR,
-                    filename,
-                    position,
+        if (currentKind() != Token.Kind.SEMICOLON) {
+            throw syntaxError(position,
                     "Invalid variable declaration: Semicolon missing.");
-            throw new CompilationException(errorHandler);
         }
-        currentToken = scanner.scan();
+        advance();
         return new DeclStmt(position, identifier, expression);
     }
 
@@ -327,56 +340,43 @@ public class Parser
     // <Terminate> ::= EMPTY | <Expression>
     // <Increment> ::= EMPTY | <Expression>
     private Stmt parseFor() {
-        int position = currentToken.position;
-        currentToken = scanner.scan();
-        if (currentToken.kind != Token.Kind.LPAREN) {
-            errorHandler.register(Error.Kind.PARSE_ERROR,
-                    filename,
-                    position,
-                    "Missing parenthesis after keyword \"for\".");
-            throw new CompilationException(errorHandler);
+        int position = currentPosition();
+        advance();
+        if (currentKind() != Token.Kind.LPAREN) {
+            throw syntaxError(position, "Missing parenthesis after keyword \"for\".");
         }
         Expr start = null;
         Expr terminate = null;
         Expr increment = null;
         // parse <Start>;
-        currentToken = scanner.scan();
-        if (currentToken.kind != Token.Kind.SEMICOLON) {
+        advance();
+        if (currentKind() != Token.Kind.SEMICOLON) {
             start = parseExpression();
-            if (currentToken.kind != Token.Kind.SEMICOLON) {
-                errorHandler.register(Error.Kind.PARSE_ERROR,
-                        filename,
-                        position,
+            if (currentKind() != Token.Kind.SEMICOLON) {
+                throw syntaxError(position,
                         "Invalid for loop start condition expression.");
-                throw new CompilationException(errorHandler);
             }
         }
         // parse <Terminate>;
-        currentToken = scanner.scan();
-        if (currentToken.kind != Token.Kind.SEMICOLON) {
+        advance();
+        if (currentKind() != Token.Kind.SEMICOLON) {
             terminate = parseExpression();
-            if (currentToken.kind != Token.Kind.SEMICOLON) {
-                errorHandler.register(Error.Kind.PARSE_ERROR,
-                        filename,
-                        position,
+            if (currentKind() != Token.Kind.SEMICOLON) {
+                throw syntaxError(position,
                         "Invalid for loop terminate condition expression.");
-                throw new CompilationException(errorHandler);
             }
         }
         // parse <Increment> )
-        currentToken = scanner.scan();
-        if (currentToken.kind != Token.Kind.RPAREN) {
+        advance();
+        if (currentKind() != Token.Kind.RPAREN) {
             increment = parseExpression();
-            if (currentToken.kind != Token.Kind.RPAREN) {
-                errorHandler.register(Error.Kind.PARSE_ERROR,
-                        filename,
-                        position,
+            if (currentKind() != Token.Kind.RPAREN) {
+                throw syntaxError(position,
                         "Invalid for loop condition expression: Missing right parenthesis.");
-                throw new CompilationException(errorHandler);
             }
         }
         // parse <Stmt>
-        currentToken = scanner.scan();
+        advance();
         Stmt bodyStmt = parseStatement();
         return new ForStmt(position, start, terminate, increment, bodyStmt);
     }
@@ -385,43 +385,41 @@ public class Parser
     // <BlockStmt> ::= { <Body> }
     // <Body> ::= EMPTY | <Stmt> <Body>
     private Stmt parseBlock() {
-        int position = currentToken.position;
-        currentToken = scanner.scan();
-        StmtList list = new StmtList(currentToken.position);
-        while (currentToken.kind != Token.Kind.RCURLY) {
-            Stmt stmt = parseStatement();
-            list.addElement(stmt);
-        }
-        currentToken = scanner.scan();
+        int position = currentPosition();
+        advance();
+        StmtList list = new StmtList(currentPosition());
+        while (!atEndOfBody()) {
+            try {
+                Stmt stmt = parseStatement();
+                list.addElement(stmt);
+            } catch (SyncException ex) {
+                synchronize();
+            }
+        }
+        expectEndOfBody(position, "Missing right curly brace at the end of the block.");
         return new BlockStmt(position, list);
     }
 
 
     // <IfStmt> ::= IF ( <Expr> ) <Stmt> | IF ( <Expr> ) <Stmt> ELSE <Stmt>
     private Stmt parseIf() {
-        int position = currentToken.position;
-        currentToken = scanner.scan();
-        if (currentToken.kind != Token.Kind.LPAREN) {
-            errorHandler.register(Error.Kind.PARSE_ERROR,
-                    filename,
-                    position,
+        int position = currentPosition();
+        advance();
+        if (currentKind() != Token.Kind.LPAREN) {
+            throw syntaxError(position,
                     "Missing left parenthesis after keyword \"if\".");
-            throw new CompilationException(errorHandler);
         }
-        currentToken = scanner.scan();
+        advance();
         Expr predExpr = parseExpression();
-        if (currentToken.kind != Token.Kind.RPAREN) {
-            errorHandler.register(Error.Kind.PARSE_ERROR,
-                    filename,
-                    position,
+        if (currentKind() != Token.Kind.RPAREN) {
+            throw syntaxError(position,
                     "Missing right parenthesis after keyword \"if\".");
-            throw new CompilationException(errorHandler);
         }
-        currentToken = scanner.scan();
+        advance();
         Stmt thenStmt = parseStatement();
         Stmt elseStmt = null;
-        if (currentToken.kind == Token.Kind.ELSE) {
-            currentToken = scanner.scan();
+        if (currentKind() == Token.Kind.ELSE) {
+            advance();
             elseStmt = parseStatement();
         }
         return new IfStmt(position, predExpr, thenStmt, elseStmt);
@@ -436,10 +434,10 @@ public class Parser
     // <Expression> ::= <LogicalORExpr> <OptionalAssignment>
     // <OptionalAssignment> ::= EMPTY | = <Expression>
     private Expr parseExpression() {
-        int position = currentToken.position;
+        int position = currentPosition();
         Expr expr = parseOrExpr();
-        if (currentToken.kind == Token.Kind.ASSIGN && expr instanceof VarExpr) {
-            currentToken = scanner.scan();
+        if (currentKind() == Token.Kind.ASSIGN && expr instanceof VarExpr) {
+            advance();
             Expr right = parseExpression();
             return new AssignExpr(position, null, ((VarExpr) expr).getName(), right);
         } else {
@@ -451,14 +449,14 @@ public class Parser
     // <LogicalOR> ::= <logicalAND> <LogicalORRest>
     // <LogicalORRest> ::= EMPTY |  || <LogicalAND> <LogicalORRest>
     private Expr parseOrExpr() {
-        int position = currentToken.position;
+        int position = currentPosition();
         Expr left;
 
         left = parseAndExpr();
-        while (currentToken.spelling.equals("||")) {
+        while (currentSpelling().equals("||")) {
             //...advance to the next token...
             // ? I think we need scanner.scan() here
-            currentToken = scanner.scan();
+            advance();
             Expr right = parseAndExpr();
             left = new BinaryLogicOrExpr(position, left, right);
         }
@@ -470,12 +468,12 @@ public class Parser
     // <LogicalAND> ::= <ComparisonExpr> <LogicalANDRest>
     // <LogicalANDRest> ::= EMPTY |  && <ComparisonExpr> <LogicalANDRest>
     private Expr parseAndExpr() {
-        int position = currentToken.position;
+        int position = currentPosition();
         Expr left;
 
         left = parseEqualityExpr();
-        while (currentToken.spelling.equals("&&")) {
-            currentToken = scanner.scan();
+        while (currentSpelling().equals("&&")) {
+            advance();
             Expr right = parseEqualityExpr();
             left = new BinaryLogicAndExpr(position, left, right);
         }
@@ -488,15 +486,15 @@ public class Parser
     //                      <RelationalExpr>
     // <equalOrNotEqual> ::=  == | !=
     private Expr parseEqualityExpr() {
-        int position = currentToken.position;
+        int position = currentPosition();
         Expr left = parseRelationalExpr();
-        if (currentToken.spelling.equals("==")) {
-            currentToken = scanner.scan();
+        if (currentSpelling().equals("==")) {
+            advance();
             Expr right = parseRelationalExpr();
             return new BinaryCompEqExpr(position, left, right);
         }
-        else if (currentToken.spelling.equals("!=")) {
-            currentToken = scanner.scan();
+        else if (currentSpelling().equals("!=")) {
+            advance();
             Expr right = parseRelationalExpr();
             return new BinaryCompNeExpr(position, left, right);
         }
@@ -510,31 +508,31 @@ public class Parser
     // <ComparisonOp> ::= < | > | <= | >=
     // <ComparisonOp> ::= instanceof
     private Expr parseRelationalExpr() {
-        int position = currentToken.position;
+        int position = currentPosition();
         Expr left = parseAddExpr();
         Expr right;
-        if (currentToken.spelling.equals("<")) {
-            currentToken = scanner.scan();
+        if (currentSpelling().equals("<")) {
+            advance();
             right = parseAddExpr();
             return new BinaryCompLtExpr(position, left, right);
         }
-        else if (currentToken.spelling.equals(">")) {
-            currentToken = scanner.scan();
+        else if (currentSpelling().equals(">")) {
+            advance();
             right = parseAddExpr();
             return new BinaryCompGtExpr(position, left, right);
         }
-        else if (currentToken.spelling.equals("<=")) {
-            currentToken = scanner.scan();
+        else if (currentSpelling().equals("<=")) {
+            advance();
             right = parseAddExpr();
             return new BinaryCompLeqExpr(position, left, right);
         }
-        else if (currentToken.spelling.equals(">=")) {
-            currentToken = scanner.scan();
+        else if (currentSpelling().equals(">=")) {
+            advance();
             right = parseAddExpr();
             return new BinaryCompGeqExpr(position, left, right);
         }
-        else if (currentToken.spelling.equals("instanceof")) {
-            currentToken = scanner.scan();
+        else if (currentSpelling().equals("instanceof")) {
+            advance();
             return new InstanceofExpr(position, left, parseType());
         }
         else {
@@ -546,17 +544,17 @@ public class Parser
     // <AddExpr>::＝ <MultExpr> <MoreMultExpr>
     // <MoreMultExpr> ::= EMPTY | + <MultExpr> <MoreMultExpr> | - <MultExpr> <MoreMultExpr>
     private Expr parseAddExpr() {
-        int position = currentToken.position;
+        int position = currentPosition();
         Expr left = parseMultExpr();
         Expr right;
-        while (currentToken.spelling.equals("+") || currentToken.spelling.equals("-")) {
+        while (currentSpelling().equals("+") || currentSpelling().equals("-")) {
             boolean isPlus;
-            if (currentToken.spelling.equals("+")) {
+            if (currentSpelling().equals("+")) {
                 isPlus = true;
             } else {
                 isPlus = false;
             }
-            currentToken = scanner.scan();
+            advance();
             right = parseMultExpr();
             if (isPlus) {
                 left = new BinaryArithPlusExpr(position, left, right);
@@ -564,7 +562,7 @@ public class Parser
                 left = new BinaryArithMinusExpr(position, left, right);
             }
         }
-//        currentToken = scanner.scan();
+//        advance();
         return left;
     }
 
@@ -575,19 +573,19 @@ public class Parser
     //               % <NewCastOrUnary> <MoreNCU> |
     //               EMPTY
     private Expr parseMultExpr() {
-        int position = currentToken.position;
+        int position = currentPosition();
         Expr left = parseNewCastOrUnary();
         Expr right;
-        while (currentToken.spelling.equals("*") || currentToken.spelling.equals("/")
-                || currentToken.spelling.equals("%")) {
+        while (currentSpelling().equals("*") || currentSpelling().equals("/")
+                || currentSpelling().equals("%")) {
             boolean isMult = false;
             boolean isDiv = false;
-            if (currentToken.spelling.equals("*")) {
+            if (currentSpelling().equals("*")) {
                 isMult = true;
-            } else if (currentToken.spelling.equals("/")) {
+            } else if (currentSpelling().equals("/")) {
                 isDiv = true;
             }
-            currentToken = scanner.scan();
+            advance();
             right = parseNewCastOrUnary();
             if (isMult) {
                 left = new BinaryArithTimesExpr(position, left, right);
@@ -604,7 +602,7 @@ public class Parser
     private Expr parseNewCastOrUnary() {
         Expr expr;
 
-        switch (currentToken.kind) {
+        switch (currentKind()) {
             case NEW:
                 expr = parseNew();
                 break;
@@ -621,59 +619,42 @@ public class Parser
 
     // <NewExpression> ::= NEW <Identifier> ( )
     private Expr parseNew() {
-        int position = currentToken.position;
-        currentToken = scanner.scan();
+        int position = currentPosition();
+        advance();
         String type = parseIdentifier();
-        if (currentToken.kind != Token.Kind.LPAREN) {
-            errorHandler.register(Error.Kind.PARSE_ERROR,
-                    filename,
-                    position,
+        if (currentKind() != Token.Kind.LPAREN) {
+            throw syntaxError(position,
                     "Invalid New Expression: Missing left parenthesis.");
-            throw new CompilationException(errorHandler);
         }
-        currentToken = scanner.scan();
-        if (currentToken.kind != Token.Kind.RPAREN) {
-            errorHandler.register(Error.Kind.PARSE_ERROR,
-                    filename,
-                    position,
-                    "Invalid New Expression.");
-            throw new CompilationException(errorHandler);
+        advance();
+        if (currentKind() != Token.Kind.RPAREN) {
+            throw syntaxError(position, "Invalid New Expression.");
         }
-        currentToken = scanner.scan();
+        advance();
         return new NewExpr(position, type);
     }
 
 
     // <CastExpression> ::= CAST ( <Type> , <Expression> )
     private Expr parseCast() {
-        int position = currentToken.position;
-        currentToken = scanner.scan();
-        if (currentToken.kind != Token.Kind.LPAREN) {
-            errorHandler.register(Error.Kind.PARSE_ERROR,
-                    filename,
-                    position,
+        int position = currentPosition();
+        advance();
+        if (currentKind() != Token.Kind.LPAREN) {
+            throw syntaxError(position,
                     "Invalid Cast Expression: Missing left parenthesis.");
-            throw new CompilationException(errorHandler);
         }
-        currentToken = scanner.scan();
+        advance();
         String type = parseType();
-        if (currentToken.kind != Token.Kind.COMMA) {
-            errorHandler.register(Error.Kind.PARSE_ERROR,
-                    filename,
-                    position,
-                    "Invalid Cast Expression: Missing comma");
-            throw new CompilationException(errorHandler);
-        }
-        currentToken = scanner.scan();
+        if (currentKind() != Token.Kind.COMMA) {
+            throw syntaxError(position, "Invalid Cast Expression: Missing comma");
+        }
+        advance();
         Expr expr = parseExpression();
-        if (currentToken.kind != Token.Kind.RPAREN) {
-            errorHandler.register(Error.Kind.PARSE_ERROR,
-                    filename,
-                    position,
+        if (currentKind() != Token.Kind.RPAREN) {
+            throw syntaxError(position,
                     "Invalid Cast Expression: Missing right parenthesis.");
-            throw new CompilationException(errorHandler);
         }
-        currentToken = scanner.scan();
+        advance();
         return new CastExpr(position, type, expr);
     }
 
@@ -681,27 +662,27 @@ public class Parser
     // <UnaryPrefix> ::= <PrefixOp> <UnaryPreFix> | <UnaryPostfix>
     // <PrefixOp> ::= - | ! | ++ | --
     private Expr parseUnaryPrefix() {
-        int position = currentToken.position;
+        int position = currentPosition();
         Expr expr;
         Expr right;
-        switch (currentToken.spelling) {
+        switch (currentSpelling()) {
             case "-":
-                currentToken = scanner.scan();
+                advance();
                 right = parseUnaryPrefix();
                 expr = new UnaryNegExpr(position, right);
                 break;
             case "!":
-                currentToken = scanner.scan();
+                advance();
                 right = parseUnaryPrefix();
                 expr = new UnaryNotExpr(position, right);
                 break;
             case "++":
-                currentToken = scanner.scan();
+                advance();
                 right = parseUnaryPrefix();
                 expr = new UnaryIncrExpr(position, right, false);
                 break;
             case "--":
-                currentToken = scanner.scan();
+                advance();
                 right = parseUnaryPrefix();
                 expr = new UnaryDecrExpr(position, right, false);
                 break;
@@ -715,13 +696,13 @@ public class Parser
     // <UnaryPostfix> ::= <Primary> <PostfixOp>
     // <PostfixOp> ::= ++ | -- | EMPTY
     private Expr parseUnaryPostfix() {
-        int position = currentToken.position;
+        int position = currentPosition();
         Expr primary = parsePrimary();
-        if (currentToken.spelling.equals("++")) {
-            currentToken = scanner.scan();
+        if (currentSpelling().equals("++")) {
+            advance();
             return new UnaryIncrExpr(position, primary, true);
-        } else if (currentToken.spelling.equals("--")) {
-            currentToken = scanner.scan();
+        } else if (currentSpelling().equals("--")) {
+            advance();
             return new UnaryDecrExpr(position, primary, true);
         } else {
             return primary;
@@ -735,20 +716,18 @@ public class Parser
     // <VarExprPrefix> ::= SUPER . | THIS . | EMPTY
     // <VarExprSuffix> ::= . <Identifier> ( <Arguments> ) | ( <Arguments>) | EMPTY
     private Expr parsePrimary() {
-        int position = currentToken.position;
+        int position = currentPosition();
         Expr expr;
 
-        switch (currentToken.kind) {
+        switch (currentKind()) {
             case LPAREN:
-                currentToken = scanner.scan();
+                advance();
                 expr = parseExpression();
-                if (currentToken.kind != Token.Kind.RPAREN) {
-                    errorHandler.register(Error.Kind.PARSE_ERROR,
-                            filename, position,
+                if (currentKind() != Token.Kind.RPAREN) {
+                    throw syntaxError(position,
                             "Missing right parenthesis for the expression.");
-                    throw new CompilationException(errorHandler);
                 }
-                currentToken = scanner.scan();
+                advance();
                 break;
             case INTCONST:
                 expr = parseIntConst();
@@ -764,13 +743,13 @@ public class Parser
                 Expr ref = null;
                 String identifier;
                 // "this"/"super" can either be the prefix or identifier
-                if (currentToken.spelling.equals("super") ||
-                        currentToken.spelling.equals("this")) {
-                    identifier = currentToken.spelling;
-                    currentToken = scanner.scan();
-                    if (currentToken.kind == Token.Kind.DOT) {
+                if (currentSpelling().equals("super") ||
+                        currentSpelling().equals("this")) {
+                    identifier = currentSpelling();
+                    advance();
+                    if (currentKind() == Token.Kind.DOT) {
                         ref = new VarExpr(position, null, identifier);
-                        currentToken = scanner.scan();
+                        advance();
                         identifier = parseIdentifier();
                     }
                 } else {
@@ -778,40 +757,31 @@ public class Parser
                     identifier = parseIdentifier();
                 }
                 // handles suffix
-                if (currentToken.kind == Token.Kind.LPAREN) {
-                    currentToken = scanner.scan();
+                if (currentKind() == Token.Kind.LPAREN) {
+                    advance();
                     ExprList actualList = parseArguments();
-                    if (currentToken.kind != Token.Kind.RPAREN) {
-                        errorHandler.register(Error.Kind.PARSE_ERROR,
-                                filename, position,
-                                "Invalid dispatch expression: " +
-                                        "missing right parenthesis.");
-                        throw new CompilationException(errorHandler);
+                    if (currentKind() != Token.Kind.RPAREN) {
+                        throw syntaxError(position, "Invalid dispatch expression: " +
+                                "missing right parenthesis.");
                     }
                     expr = new DispatchExpr(position, ref, identifier, actualList);
-                    currentToken = scanner.scan();
-                } else if (currentToken.kind == Token.Kind.DOT) {
+                    advance();
+                } else if (currentKind() == Token.Kind.DOT) {
                     ref = new VarExpr(position, null, identifier);
-                    currentToken = scanner.scan();
+                    advance();
                     identifier = parseIdentifier();
-                    if (currentToken.kind == Token.Kind.LPAREN) {
-                        currentToken = scanner.scan();
+                    if (currentKind() == Token.Kind.LPAREN) {
+                        advance();
                         ExprList actualList = parseArguments();
-                        if (currentToken.kind != Token.Kind.RPAREN) {
-                            errorHandler.register(Error.Kind.PARSE_ERROR,
-                                    filename, position,
-                                    "Invalid dispatch expression: " +
-                                            "missing right parenthesis.");
-                            throw new CompilationException(errorHandler);
+                        if (currentKind() != Token.Kind.RPAREN) {
+                            throw syntaxError(position, "Invalid dispatch expression: " +
+                                    "missing right parenthesis.");
                         }
                         expr = new DispatchExpr(position, ref, identifier, actualList);
-                        currentToken = scanner.scan();
+                        advance();
                     } else {
-                        errorHandler.register(Error.Kind.PARSE_ERROR,
-                                filename, position,
-                                "Invalid dispatch expression: " +
-                                        "missing left parentheses.");
-                        throw new CompilationException(errorHandler);
+                        throw syntaxError(position, "Invalid dispatch expression: " +
+                                "missing left parentheses.");
                     }
                 } else {
                     // this means no suffix
@@ -826,19 +796,15 @@ public class Parser
     // <Arguments> ::= EMPTY | <Expression> <MoreArgs>
     // <MoreArgs>  ::= EMPTY | , <Expression> <MoreArgs>
     private ExprList parseArguments() {
-        int position = currentToken.position;
+        int position = currentPosition();
         ExprList exprs = new ExprList(position);
-        while (currentToken.kind != Token.Kind.RPAREN) {
+        while (currentKind() != Token.Kind.RPAREN) {
             Expr expr = parseExpression();
             exprs.addElement(expr);
-            if (currentToken.kind == Token.Kind.COMMA) {
-                currentToken = scanner.scan();
-            } else if (currentToken.kind != Token.Kind.RPAREN) {
-                errorHandler.register(Error.Kind.PARSE_ERROR,
-                        filename,
-                        position,
-                        "Invalid arguments list.");
-                throw new CompilationException(errorHandler);
+            if (currentKind() == Token.Kind.COMMA) {
+                advance();
+            } else if (currentKind() != Token.Kind.RPAREN) {
+                throw syntaxError(position, "Invalid arguments list.");
             }
         }
         return exprs;
@@ -848,19 +814,15 @@ public class Parser
     // <Parameters> ::=  EMPTY | <Formal> <MoreFormals>
     // <MoreFormals> ::= EMPTY | , <Formal> <MoreFormals
     private FormalList parseParameters() {
-        int position = currentToken.position;
+        int position = currentPosition();
         FormalList pars = new FormalList(position);
-        while (currentToken.kind != Token.Kind.RPAREN) {
+        while (currentKind() != Token.Kind.RPAREN) {
             Formal formal = parseFormal();
             pars.addElement(formal);
-            if (currentToken.kind == Token.Kind.COMMA) {
-                currentToken = scanner.scan();
-            } else if (currentToken.kind != Token.Kind.RPAREN) {
-                errorHandler.register(Error.Kind.PARSE_ERROR,
-                        filename,
-                        position,
-                        "Invalid parameters list.");
-                throw new CompilationException(errorHandler);
+            if (currentKind() == Token.Kind.COMMA) {
+                advance();
+            } else if (currentKind() != Token.Kind.RPAREN) {
+                throw syntaxError(position, "Invalid parameters list.");
             }
         }
         return pars;
@@ -868,7 +830,7 @@ public class Parser
 
     // <Formal> ::= <Type> <Identifier>
     private Formal parseFormal() {
-        int position = currentToken.position;
+        int position = currentPosition();
         String type = parseType();
         String name = parseIdentifier();
         return new Formal(position, type, name);
@@ -881,19 +843,126 @@ public class Parser
     }
 
 
+    //----------------------------------------
+    //Error recovery
+
+    // thrown in the error recovery mode to abandon the construct being parsed
+    // and go back to the enclosing class or block, which synchronizes. It is
+    // thrown for every error, so it has no stack trace.
+    private static class SyncException extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        SyncException() {
+            super(null, null, false, false);
+        }
+    }
+
+    // registers a syntax error and returns the exception to throw: a
+    // CompilationException, or a SyncException in the error recovery mode
+    private RuntimeException syntaxError(int position, String message) {
+        errorHandler.register(Error.Kind.PARSE_ERROR, filename, position, message);
+        if (recoverFromErrors) {
+            return new SyncException();
+        }
+        return new CompilationException(errorHandler);
+    }
+
+    // skips the rest of a member or statement with a syntax error: the tokens
+    // up to the next semicolon, or up to the right curly brace of a block that
+    // starts among the skipped tokens, are skipped along with it. Skipping stops
+    // before a right curly brace that closes the enclosing class or block, a
+    // "class" keyword or the end of the file.
+    private void synchronize() {
+        int depth = 0; // the number of skipped blocks that are still open
+        while (currentKind() != Token.Kind.CLASS && currentKind() != Token.Kind.EOF) {
+            Token.Kind kind = currentKind();
+            if (kind == Token.Kind.RCURLY && depth == 0) {
+                return;
+            }
+            advance();
+            if (kind == Token.Kind.LCURLY) {
+                depth++;
+            }
+            else if (kind == Token.Kind.RCURLY) {
+                depth--;
+                if (depth == 0) {
+                    return;
+                }
+            }
+            else if (kind == Token.Kind.SEMICOLON && depth == 0) {
+                return;
+            }
+        }
+    }
+
+    // returns true if the lookahead token ends the members of a class or the
+    // statements of a block. Neither can contain a "class" keyword, so one
+    // means the right curly brace is missing.
+    private boolean atEndOfBody() {
+        return currentKind() == Token.Kind.RCURLY || currentKind() == Token.Kind.CLASS
+                || currentKind() == Token.Kind.EOF;
+    }
+
+    // skips the right curly brace at the end of a class or block. If it is
+    // missing, the error recovery mode keeps what was parsed of the body.
+    private void expectEndOfBody(int position, String message) {
+        if (currentKind() == Token.Kind.RCURLY) {
+            advance();
+        }
+        else {
+            RuntimeException ex = syntaxError(position, message);
+            if (!recoverFromErrors) {
+                throw ex;
+            }
+        }
+    }
+
+
+    //----------------------------------------
+    //Tokens
+
+    // moves on to the next token
+    private void advance() {
+        current++;
+        spelling = null;
+    }
+
+
+    private Token.Kind currentKind() {
+        return tokens.getKind(current);
+    }
+
+
+    private int currentPosition() {
+        return tokens.getLine(current);
+    }
+
+
+    // the spelling is kept until the parser moves on, since the operator
+    // tests ask for it several times, and a string constant is copied out of
+    // the source each time it is made
+    private String currentSpelling() {
+        if (spelling == null) {
+            spelling = tokens.getSpelling(current);
+        }
+        return spelling;
+    }
+
+
     //----------------------------------------
     //Terminals
 
     private String parseOperator() {
-        String operator = currentToken.spelling;
-        currentToken = scanner.scan();
+        String operator = currentSpelling();
+        advance();
         return operator;
     }
 
 
     private String parseIdentifier() {
-        String identifier = currentToken.spelling;
-        currentToken = scanner.scan();
+        String identifier = currentSpelling();
+        advance();
         return identifier;
     }
 
@@ -902,25 +971,25 @@ public class Parser
         //...save the currentToken's string to a local variable...
         //...advance to the next token...
         //...return a new ConstStringExpr containing the string...
-        int position = currentToken.position;
-        String constant = currentToken.spelling;
-        currentToken = scanner.scan();
+        int position = currentPosition();
+        String constant = currentSpelling();
+        advance();
         return new ConstStringExpr(position, constant);
     }
 
 
     private ConstIntExpr parseIntConst() {
-        int position = currentToken.position;
-        String constant = currentToken.spelling;
-        currentToken = scanner.scan();
+        int position = currentPosition();
+        String constant = currentSpelling();
+        advance();
         return new ConstIntExpr(position, constant);
     }
 
 
     private ConstBooleanExpr parseBoolean() {
-        int position = currentToken.position;
-        String constant = currentToken.spelling;
-        currentToken = scanner.scan();
+        int position = currentPosition();
+        String constant = currentSpelling();
+        advance();
         return new ConstBooleanExpr(position, constant);
     }
 
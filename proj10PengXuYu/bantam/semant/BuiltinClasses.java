@@ -0,0 +1,210 @@
+/*
+ * File: BuiltinClasses.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.semant;
+
+import proj10PengXuYu.bantam.ast.*;
+import proj10PengXuYu.bantam.util.ClassTreeNode;
+import proj10PengXuYu.bantam.util.SymbolTable;
+import proj10PengXuYu.bantam.visitor.Visitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The built-in classes Object, String, TextIO and Sys, built once: their ASTs,
+ * and a class hierarchy tree of them, with the symbol tables, the flattened
+ * member tables and the field offsets of each class.  All of it is read-only
+ * (the lists of the ASTs and the symbol tables are frozen), so it is shared
+ * by every analysis, including ones running at the same time.  An analysis
+ * adds to its class map a node of its own for each built-in class (see
+ * addTo), which shares the tables of the built-in node but has its own
+ * parent and subclasses, so the user-defined classes hang below it.
+ */
+final class BuiltinClasses
+{
+    /** the names of the built-in classes, superclasses first */
+    private static final List<String> NAMES = List.of("Object", "String", "TextIO", "Sys");
+
+    /** the tree of the built-in classes, by name */
+    private static final Hashtable<String, ClassTreeNode> SNAPSHOT = buildSnapshot();
+
+    private BuiltinClasses() {
+    }
+
+    /**
+     * Adds a node for each built-in class to the class map of an analysis,
+     * sharing the tables of the snapshot.  The parents of the nodes are not
+     * set, like the ones of the user-defined classes, so that they are set
+     * with the others when the inheritance tree is built.
+     *
+     * @param classMap the class map of the analysis
+     * @return the node of the Object class, the root of the tree
+     */
+    static ClassTreeNode addTo(Hashtable<String, ClassTreeNode> classMap) {
+        for (String name : NAMES) {
+            classMap.put(name, new ClassTreeNode(SNAPSHOT.get(name), classMap));
+        }
+        return classMap.get("Object");
+    }
+
+    /**
+     * Returns true if the class of the given name is a built-in class
+     */
+    static boolean isBuiltin(String name) {
+        return NAMES.contains(name);
+    }
+
+    /**
+     * Builds the tree of the built-in classes and its tables, the same way
+     * SemanticAnalyzer builds the ones of the user-defined classes, and then
+     * freezes them.
+     */
+    private static Hashtable<String, ClassTreeNode> buildSnapshot() {
+        Hashtable<String, ClassTreeNode> classMap = new Hashtable<>();
+        createClasses(classMap);
+        ClassTreeNode object = classMap.get("Object");
+        Map<String, Integer> numFields = new HashMap<>();
+        for (String name : NAMES) {
+            ClassTreeNode treeNode = classMap.get(name);
+            if (treeNode != object) {
+                treeNode.setParent(object);
+            }
+            ClassTreeNode parent = treeNode.getParent();
+            SymbolTable fields = treeNode.getVarSymbolTable();
+            SymbolTable methods = treeNode.getMethodSymbolTable();
+            fields.enterScope();
+            fields.add("this", name);
+            fields.add("super", (parent == null ? "" : parent.getName()));
+            methods.enterScope();
+            List<Method> ownMethods = new ArrayList<>();
+            List<Field> ownFields = new ArrayList<>();
+            int offset = (parent == null ? 0 : numFields.get(parent.getName()));
+            for (ASTNode member : treeNode.getASTNode().getMemberList()) {
+                if (member instanceof Field) {
+                    Field field = (Field) member;
+                    fields.add(field.getName(), field.getType());
+                    field.setOffset(offset++);
+                    ownFields.add(field);
+                }
+                else {
+                    methods.add(((Method) member).getName(), member);
+                    ownMethods.add((Method) member);
+                }
+            }
+            numFields.put(name, offset);
+            // the parent comes first in NAMES, so it is already flattened
+            treeNode.flattenMembers(ownMethods, ownFields);
+        }
+        Visitor freezer = new Freezer();
+        for (ClassTreeNode treeNode : classMap.values()) {
+            treeNode.getVarSymbolTable().freeze();
+            treeNode.getMethodSymbolTable().freeze();
+            treeNode.getASTNode().accept(freezer);
+        }
+        return classMap;
+    }
+
+    /**
+     * Freezes the lists of an AST
+     */
+    private static final class Freezer extends Visitor
+    {
+        @Override
+        public Object visit(MemberList node) {
+            node.freeze();
+            return super.visit(node);
+        }
+
+        @Override
+        public Object visit(FormalList node) {
+            node.freeze();
+            return super.visit(node);
+        }
+
+        @Override
+        public Object visit(StmtList node) {
+            node.freeze();
+            return super.visit(node);
+        }
+
+        @Override
+        public Object visit(ExprList node) {
+            node.freeze();
+            return super.visit(node);
+        }
+    }
+
+    /**
+     * Adds the built-in classes to a class map and creates ASTNodes for each
+     * of them.
+     *
+     * @param classMap the class map
+     */
+    private static void createClasses(Hashtable<String, ClassTreeNode> classMap) {
+        // create AST node for the Object class
+        Class_ astNode = new Class_(-1, "<built-in class>", "Object", null,
+                (MemberList) (new MemberList(-1)).addElement(new Method(-1, "Object",
+                        "clone", new FormalList(-1),
+                        (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1,
+                                new VarExpr(-1, null, "null"))))).addElement(new Method(-1, "boolean", "equals", (FormalList) (new FormalList(-1)).addElement(new Formal(-1, "Object", "o")), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new ConstBooleanExpr(-1, "false"))))).addElement(new Method(-1, "String", "toString", new FormalList(-1), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new VarExpr(-1, null, "null"))))));
+        // create a class tree node for object, add it to the mapping
+        classMap.put("Object", new ClassTreeNode(astNode, /*built-in?*/true,
+                /*extendable?*/true, classMap));
+
+        // note: String, TextIO, and Sys all have fields that are not shown below.
+        // Because these classes cannot be extended and fields are protected, these
+        // fields cannot be accessed by other classes, so these fields do not have to be
+        // included in the AST.
+
+        // create AST node for String
+        astNode = new Class_(-1, "<built-in class>", "String", "Object",
+                (MemberList) (new MemberList(-1)).addElement(new Field(-1, "int",
+                        "length", /*0 by default*/null))
+                /* note: str is the character sequence -- no applicable type for a
+               character sequence so it is just made an int.  it's OK to
+               do this since this field is only accessed (directly) within
+               the runtime system */.addElement(new Method(-1, "int", "length",
+                                new FormalList(-1),
+                                (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new ConstIntExpr(-1, "0"))))).addElement(new Method(-1, "boolean", "equals", (FormalList) (new FormalList(-1)).addElement(new Formal(-1, "Object", "str")), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new ConstBooleanExpr(-1, "false"))))).addElement(new Method(-1, "String", "toString", new FormalList(-1), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new VarExpr(-1, null, "null"))))).addElement(new Method(-1, "String", "substring", (FormalList) (new FormalList(-1)).addElement(new Formal(-1, "int", "beginIndex")).addElement(new Formal(-1, "int", "endIndex")), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new VarExpr(-1, null, "null"))))).addElement(new Method(-1, "String", "concat", (FormalList) (new FormalList(-1)).addElement(new Formal(-1, "String", "str")), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new VarExpr(-1, null, "null"))))));
+        // create class tree node for String, add it to the mapping
+        classMap.put("String", new ClassTreeNode(astNode, /*built-in?*/true,
+                /*extendable?*/false, classMap));
+
+        // create AST node for TextIO
+        astNode = new Class_(-1, "<built-in class>", "TextIO", "Object",
+                (MemberList) (new MemberList(-1)).addElement(new Field(-1, "int",
+                        "readFD", /*0 by default*/null)).addElement(new Field(-1, "int"
+                        , "writeFD", new ConstIntExpr(-1, "1"))).addElement(new Method(-1, "void", "readStdin", new FormalList(-1), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, null)))).addElement(new Method(-1, "void", "readFile", (FormalList) (new FormalList(-1)).addElement(new Formal(-1, "String", "readFile")), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, null)))).addElement(new Method(-1, "void", "writeStdout", new FormalList(-1), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, null)))).addElement(new Method(-1, "void", "writeStderr", new FormalList(-1), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, null)))).addElement(new Method(-1, "void", "writeFile", (FormalList) (new FormalList(-1)).addElement(new Formal(-1, "String", "writeFile")), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, null)))).addElement(new Method(-1, "String", "getString", new FormalList(-1), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new VarExpr(-1, null, "null"))))).addElement(new Method(-1, "int", "getInt", new FormalList(-1), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new ConstIntExpr(-1, "0"))))).addElement(new Method(-1, "TextIO", "putString", (FormalList) (new FormalList(-1)).addElement(new Formal(-1, "String", "str")), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new VarExpr(-1, null, "null"))))).addElement(new Method(-1, "TextIO", "putInt", (FormalList) (new FormalList(-1)).addElement(new Formal(-1, "int", "n")), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new VarExpr(-1, null, "null"))))));
+        // create class tree node for TextIO, add it to the mapping
+        classMap.put("TextIO", new ClassTreeNode(astNode, /*built-in?*/true,
+                /*extendable?*/false, classMap));
+
+        // create AST node for Sys
+        astNode = new Class_(-1, "<built-in class>", "Sys", "Object",
+                (MemberList) (new MemberList(-1)).addElement(new Method(-1, "void",
+                        "exit",
+                        (FormalList) (new FormalList(-1)).addElement(new Formal(-1,
+                                "int", "status")),
+                        (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1,
+                                null))))
+                /* MC: time() and random() requires modifying SPIM to add a time system
+                 call
+               (note: random() does not need its own system call although it uses the time
+               system call).  We have a version of SPIM with this system call available,
+               otherwise, just comment out. (For x86 and jvm there are no issues.)
+               */.addElement(new Method(-1, "int", "time", new FormalList(-1),
+                                (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new ConstIntExpr(-1, "0"))))).addElement(new Method(-1, "int", "random", new FormalList(-1), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new ConstIntExpr(-1, "0"))))));
+        // create class tree node for Sys, add it to the mapping
+        classMap.put("Sys", new ClassTreeNode(astNode, /*built-in?*/true, /*extendable
+        ?*/false, classMap));
+    }
+}
@@ -39,7 +39,7 @@ public class ClassMapBuilderVisitor extends Visitor {
             errorHandler.register(Error.Kind.SEMANT_ERROR,node.getFilename(),
                     node.getLineNum(),"Two classes declared with the same name; " +
                             node.getName());
-        else if(SemanticAnalyzer.reservedIdentifiers.contains(node.getName()))
+        else if(SemanticAnalyzer.isReservedIdentifier(node.getName()))
             errorHandler.register(Error.Kind.SEMANT_ERROR,node.getFilename(),
                     node.getLineNum(),"A class cannot be named 'this', 'super'," +
                             "'void', 'int', 'boolean', or 'null'; " +
@@ -0,0 +1,124 @@
+/*
+ * File: IncrementalAnalysisBenchmark.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.semant;
+
+import proj10PengXuYu.bantam.ast.Program;
+import proj10PengXuYu.bantam.parser.Parser;
+import proj10PengXuYu.bantam.util.Benchmarks;
+import proj10PengXuYu.bantam.util.ErrorHandler;
+import proj10PengXuYu.bantam.util.ProgramGenerator;
+
+/**
+ * A timing harness for incremental semantic analysis (see
+ * SemanticAnalyzer.setIncremental) on a program of many classes, after
+ * edits like the ones made in the IDE: a change in the body of a method
+ * that keeps the lines of the file, a change that adds a line, so that the
+ * classes after it move down, and a change of the signature of a method
+ * that many classes call. For each edit it prints the time of a full
+ * analysis and of an incremental one, and the number of classes that the
+ * incremental analysis did not check again.
+ *
+ * Usage: java proj10PengXuYu.bantam.semant.IncrementalAnalysisBenchmark
+ */
+public class IncrementalAnalysisBenchmark
+{
+    /** number of classes of the program, besides Main */
+    private static final int NUM_CLASSES = 800;
+    /** number of classes in each inheritance chain */
+    private static final int CHAIN_LENGTH = 8;
+    /** number of methods of each class */
+    private static final int METHODS_PER_CLASS = 6;
+    /** the class that is edited */
+    private static final int EDITED_CLASS = NUM_CLASSES / 2;
+
+    /**
+     * Generates the program.
+     *
+     * @param edit       the statement added to a method of EDITED_CLASS, or null
+     * @param helperType the return type of the helper method of C0, which
+     *                   every class calls
+     */
+    private static String generate(String edit, String helperType) {
+        ProgramGenerator generator = new ProgramGenerator(NUM_CLASSES);
+        generator.setChainLength(CHAIN_LENGTH);
+        generator.setMethodsPerClass(METHODS_PER_CLASS);
+        generator.setHelperType(helperType);
+        if (edit != null) {
+            generator.setEdit(EDITED_CLASS, edit);
+        }
+        return generator.generate();
+    }
+
+    /**
+     * Parses a program. It is parsed again for each analysis, like the IDE
+     * does, since the analysis sets the types on the AST.
+     */
+    private static Program parse(String source) {
+        return new Parser(new ErrorHandler()).parse(source, "Benchmark.btm");
+    }
+
+    /**
+     * Analyzes a program, after clearing the errors of the last analysis.
+     */
+    private static void analyze(SemanticAnalyzer analyzer, Program program) {
+        analyzer.getErrorHandler().clear();
+        analyzer.analyze(program);
+    }
+
+    /**
+     * Times the analysis of the edited program, after the original one.
+     *
+     * @param incremental whether the analyzer is in incremental mode
+     * @return the average time of an analysis in ms
+     */
+    private static double measure(String original, String edited, boolean incremental) {
+        SemanticAnalyzer analyzer = new SemanticAnalyzer(new ErrorHandler());
+        analyzer.setIncremental(incremental);
+        return Benchmarks.time(() -> {
+            analyze(analyzer, parse(original));
+            Program program = parse(edited);
+            analyzer.getErrorHandler().clear();
+            return program;
+        }, analyzer::analyze);
+    }
+
+    /**
+     * Times one edit and prints the results.
+     */
+    private static void measureEdit(String label, String original, String edited) {
+        SemanticAnalyzer analyzer = new SemanticAnalyzer(new ErrorHandler());
+        analyzer.setIncremental(true);
+        analyze(analyzer, parse(original));
+        analyze(analyzer, parse(edited));
+        int reused = analyzer.getReusedClasses().size();
+        double full = measure(original, edited, false);
+        double incremental = measure(original, edited, true);
+        System.out.println(String.format("  %-22s full %8.1f ms  incremental %8.1f ms"
+                + "  (%d of %d classes reused)", label, full, incremental, reused,
+                NUM_CLASSES + 1));
+    }
+
+    /**
+     * runs the benchmark
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        String original = generate(null, "int");
+        System.out.println(String.format("%d classes of %d methods", NUM_CLASSES,
+                METHODS_PER_CLASS));
+        measureEdit("edit in a line", original,
+                generate(null, "int").replace("var sum = f" + EDITED_CLASS + ";",
+                        "var sum = f" + EDITED_CLASS + " + 1;"));
+        measureEdit("added line", original,
+                generate("sum = sum + 1;", "int"));
+        measureEdit("signature of helper", original,
+                generate(null, "boolean"));
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * File: LineShifter.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.semant;
+
+import proj10PengXuYu.bantam.ast.*;
+import proj10PengXuYu.bantam.visitor.Visitor;
+
+/**
+ * This visitor adds the same number to the line number of every node of a
+ * class. The SemanticAnalyzer uses it on a class it reuses from the last
+ * analysis when lines were added or removed above the class, so that the
+ * nodes have the line numbers of the new source without the class being
+ * analyzed again.
+ */
+class LineShifter extends Visitor
+{
+    /** the number added to each line number */
+    private final int offset;
+
+    /**
+     * Creates a visitor moving the nodes it visits by some lines.
+     *
+     * @param offset the number of lines, negative to move the nodes up
+     */
+    LineShifter(int offset) {
+        this.offset = offset;
+    }
+
+    @Override
+    public Object visit(Class_ node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(MemberList node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(Field node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(Method node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(FormalList node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(Formal node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(StmtList node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(DeclStmt node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(ExprStmt node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(IfStmt node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(WhileStmt node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(ForStmt node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(BreakStmt node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(BlockStmt node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(ReturnStmt node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(ExprList node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(DispatchExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(NewExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(InstanceofExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(CastExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(AssignExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(BinaryCompEqExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(BinaryCompNeExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(BinaryCompLtExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(BinaryCompLeqExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(BinaryCompGtExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(BinaryCompGeqExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(BinaryArithPlusExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(BinaryArithMinusExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(BinaryArithTimesExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(BinaryArithDivideExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(BinaryArithModulusExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(BinaryLogicAndExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(BinaryLogicOrExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(UnaryNegExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(UnaryNotExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(UnaryIncrExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(UnaryDecrExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(VarExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(ConstIntExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(ConstBooleanExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+
+    @Override
+    public Object visit(ConstStringExpr node) {
+        node.shiftLineNum(offset);
+        return super.visit(node);
+    }
+}
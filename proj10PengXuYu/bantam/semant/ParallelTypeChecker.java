@@ -0,0 +1,121 @@
+/*
+ * File: ParallelTypeChecker.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.semant;
+
+import proj10PengXuYu.bantam.ast.ASTNode;
+import proj10PengXuYu.bantam.ast.Class_;
+import proj10PengXuYu.bantam.ast.Program;
+import proj10PengXuYu.bantam.util.ClassTreeNode;
+import proj10PengXuYu.bantam.util.Error;
+import proj10PengXuYu.bantam.util.ErrorHandler;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Type checks the classes of a program at the same time, on a work-stealing
+ * ForkJoinPool. Once the class hierarchy and the symbol tables of the classes
+ * are built, they are only read while checking, so each class is checked by
+ * a TypeCheckerVisitor of its own, which keeps the scopes of the methods in
+ * its own SymbolTable and sets the types of the nodes of its class only.
+ *
+ * The errors of each class are recorded by the task that checks it, and then
+ * registered with the ErrorHandler in the order of the classes in the
+ * program, so the list of errors is the same as after a sequential check.
+ */
+public class ParallelTypeChecker
+{
+    /** the root of the class hierarchy */
+    private final ClassTreeNode root;
+    /** the number of threads checking classes */
+    private final int parallelism;
+
+    /**
+     * Creates a type checker for the classes of a program.
+     *
+     * @param root        the root of the class hierarchy, with the symbol
+     *                    tables and flattened member tables of all classes
+     * @param parallelism the number of threads to use
+     */
+    public ParallelTypeChecker(ClassTreeNode root, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.root = root;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Type checks all the classes of a program.
+     *
+     * @param program      the AST of the program
+     * @param errorHandler the ErrorHandler to register the errors with
+     */
+    public void check(Program program, ErrorHandler errorHandler) {
+        List<Class_> classes = new ArrayList<>();
+        for (ASTNode node : program.getClassList()) {
+            classes.add((Class_) node);
+        }
+        check(classes, errorHandler, null);
+    }
+
+    /**
+     * Type checks some of the classes of a program.
+     *
+     * @param classes      the classes to check, in the order of the program
+     * @param errorHandler the ErrorHandler to register the errors with
+     * @param dependencies if not null, gets the names of the classes that
+     *                     each class looked up (see TypeCheckerVisitor), by
+     *                     the name of the class
+     */
+    public void check(List<Class_> classes, ErrorHandler errorHandler,
+                      Map<String, Set<String>> dependencies) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<ErrorHandler>> tasks = new ArrayList<>();
+            for (Class_ classNode : classes) {
+                Set<String> names = null;
+                if (dependencies != null) {
+                    names = new HashSet<>();
+                    dependencies.put(classNode.getName(), names);
+                }
+                Set<String> classDependencies = names;
+                tasks.add(pool.submit(() -> checkClass(classNode, classDependencies)));
+            }
+            for (ForkJoinTask<ErrorHandler> task : tasks) {
+                for (Error error : task.join().getErrorList()) {
+                    errorHandler.register(error.getKind(), error.getFilename(),
+                            error.getLineNum(), error.getMessage());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Type checks one class.
+     *
+     * @param dependencies the set to add the names of the classes looked up
+     *                     to, or null
+     * @return the errors found in the class, all of them, in the order they
+     *         were found
+     */
+    private ErrorHandler checkClass(Class_ classNode, Set<String> dependencies) {
+        ErrorHandler errors = new ErrorHandler(Integer.MAX_VALUE,
+                ErrorHandler.Order.BY_REGISTRATION);
+        classNode.accept(new TypeCheckerVisitor(errors, root, dependencies));
+        return errors;
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * File: Resolver.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.semant;
+
+import proj10PengXuYu.bantam.ast.*;
+import proj10PengXuYu.bantam.util.ClassTreeNode;
+import proj10PengXuYu.bantam.visitor.Visitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This visitor resolves every name of a variable in a program that passed type
+ * checking to the variable it refers to, and stores a Binding on each VarExpr
+ * and AssignExpr, so the passes after semantic analysis never need to look a
+ * name up in a SymbolTable.
+ *
+ * Local variables and parameters get a slot in the frame of their method,
+ * which is also stored on the DeclStmt or Formal, and each Method gets the
+ * number of slots its frame needs. Fields get an offset in the objects of
+ * their class, which is also stored on the Field. See Binding for how the
+ * slots and offsets are numbered.
+ *
+ * The scopes are the ones of the TypeCheckerVisitor, so a name refers here
+ * to the variable that the type checker found for it.
+ */
+public class Resolver extends Visitor
+{
+    /** the root of the class hierarchy */
+    private final ClassTreeNode root;
+    /** the fields declared by each class (not the inherited ones), by name */
+    private final Map<String, Map<String, Binding>> classFields = new HashMap<>();
+    /** the class being visited */
+    private ClassTreeNode currentClass;
+
+    /** the local variables and parameters in scope, by name */
+    private final Map<String, Binding> locals = new HashMap<>();
+    /** the names of the local variables in scope, in declaration order */
+    private final List<String> localNames = new ArrayList<>();
+    /** the depth of the current scope */
+    private int depth;
+    /** the slot the next local variable gets */
+    private int nextSlot;
+    /** the number of slots the current method needs so far */
+    private int maxSlots;
+
+    /**
+     * Creates a resolver for the classes of a program.
+     *
+     * @param root the root of the class hierarchy
+     */
+    public Resolver(ClassTreeNode root) {
+        this.root = root;
+    }
+
+    /**
+     * Resolves the names of the variables in the program.
+     * The program must have passed type checking.
+     *
+     * @param program the AST of the program
+     */
+    public void resolve(Program program) {
+        numberFields(root, 0);
+        program.accept(this);
+    }
+
+    /**
+     * Resolves the names of the variables in some of the classes of a
+     * program. The offsets of the fields of all the classes are set.
+     *
+     * @param classes the classes, which must have passed type checking
+     */
+    public void resolve(List<Class_> classes) {
+        numberFields(root, 0);
+        for (Class_ classNode : classes) {
+            classNode.accept(this);
+        }
+    }
+
+    /**
+     * Gives the fields of a class and of its subclasses their offsets.
+     *
+     * @param node the class
+     * @param firstOffset the number of fields of its superclasses
+     */
+    private void numberFields(ClassTreeNode node, int firstOffset) {
+        Map<String, Binding> fields = new HashMap<>();
+        int offset = firstOffset;
+        for (ASTNode member : node.getASTNode().getMemberList()) {
+            if (member instanceof Field) {
+                Field field = (Field) member;
+                if (! node.isBuiltIn()) {
+                    // the fields of the built-in classes have their offsets
+                    field.setOffset(offset);
+                }
+                fields.put(field.getName(), Binding.field(field.getName(),
+                        field.getType(), node.getName(), offset++));
+            }
+        }
+        classFields.put(node.getName(), fields);
+        for (Iterator<ClassTreeNode> it = node.getChildrenList(); it.hasNext(); ) {
+            numberFields(it.next(), offset);
+        }
+    }
+
+    /**
+     * Returns the binding of a field of a class or of one of its superclasses.
+     */
+    private Binding lookupField(String className, String name) {
+        for (ClassTreeNode node = root.lookupClass(className); node != null;
+             node = node.getParent()) {
+            Binding field = classFields.get(node.getName()).get(name);
+            if (field != null) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the binding of a local variable, parameter or field of this.
+     */
+    private Binding lookupVariable(String name) {
+        Binding local = locals.get(name);
+        return (local != null) ? local : lookupField(currentClass.getName(), name);
+    }
+
+    //-----------------------------------------
+    // Classes and members
+
+    /**
+     * Visit a class node
+     *
+     * @param node the class node
+     * @return null
+     */
+    public Object visit(Class_ node) {
+        currentClass = root.lookupClass(node.getName());
+        node.getMemberList().accept(this);
+        return null;
+    }
+
+    /**
+     * Visit a field node. Its initializer can only use fields.
+     *
+     * @param node the field node
+     * @return null
+     */
+    public Object visit(Field node) {
+        locals.clear();
+        localNames.clear();
+        return super.visit(node);
+    }
+
+    /**
+     * Visit a method node, numbering the slots of its frame
+     *
+     * @param node the method node
+     * @return null
+     */
+    public Object visit(Method node) {
+        locals.clear();
+        localNames.clear();
+        depth = 0;
+        nextSlot = 0;
+        maxSlots = 0;
+        node.getFormalList().accept(this);
+        node.getStmtList().accept(this);
+        node.setNumLocals(maxSlots);
+        return null;
+    }
+
+    /**
+     * Visit a formal node
+     *
+     * @param node the formal node
+     * @return null
+     */
+    public Object visit(Formal node) {
+        node.setSlot(declareLocal(node.getName(), node.getType()));
+        return null;
+    }
+
+    //-----------------------------------------
+    // Scopes
+
+    /**
+     * Declares a local variable or parameter in the current scope.
+     *
+     * @return its slot
+     */
+    private int declareLocal(String name, String type) {
+        int slot = nextSlot++;
+        maxSlots = Math.max(maxSlots, nextSlot);
+        locals.put(name, Binding.local(name, type, depth, slot));
+        localNames.add(name);
+        return slot;
+    }
+
+    /**
+     * Visits a statement in a scope of its own, and frees the slots of the
+     * variables declared in it.
+     */
+    private void resolveInScope(ASTNode stmt) {
+        int numNames = localNames.size();
+        int firstSlot = nextSlot;
+        depth++;
+        stmt.accept(this);
+        depth--;
+        while (localNames.size() > numNames) {
+            locals.remove(localNames.remove(localNames.size() - 1));
+        }
+        nextSlot = firstSlot;
+    }
+
+    /**
+     * Visit a declaration statement node
+     *
+     * @param node the declaration statement node
+     * @return null
+     */
+    public Object visit(DeclStmt node) {
+        // the variable is not in scope in its own initializer
+        node.getInit().accept(this);
+        node.setSlot(declareLocal(node.getName(), node.getType()));
+        return null;
+    }
+
+    /**
+     * Visit an if statement node
+     *
+     * @param node the if statement node
+     * @return null
+     */
+    public Object visit(IfStmt node) {
+        node.getPredExpr().accept(this);
+        resolveInScope(node.getThenStmt());
+        if (node.getElseStmt() != null) {
+            resolveInScope(node.getElseStmt());
+        }
+        return null;
+    }
+
+    /**
+     * Visit a while statement node
+     *
+     * @param node the while statement node
+     * @return null
+     */
+    public Object visit(WhileStmt node) {
+        node.getPredExpr().accept(this);
+        resolveInScope(node.getBodyStmt());
+        return null;
+    }
+
+    /**
+     * Visit a for statement node
+     *
+     * @param node the for statement node
+     * @return null
+     */
+    public Object visit(ForStmt node) {
+        if (node.getInitExpr() != null) {
+            node.getInitExpr().accept(this);
+        }
+        if (node.getPredExpr() != null) {
+            node.getPredExpr().accept(this);
+        }
+        if (node.getUpdateExpr() != null) {
+            node.getUpdateExpr().accept(this);
+        }
+        resolveInScope(node.getBodyStmt());
+        return null;
+    }
+
+    /**
+     * Visit a block statement node
+     *
+     * @param node the block statement node
+     * @return null
+     */
+    public Object visit(BlockStmt node) {
+        resolveInScope(node.getStmtList());
+        return null;
+    }
+
+    //-----------------------------------------
+    // Names
+
+    /**
+     * Visit an assignment expression node
+     *
+     * @param node the assignment expression node
+     * @return null
+     */
+    public Object visit(AssignExpr node) {
+        String refName = node.getRefName();
+        if (refName == null) {
+            node.setBinding(lookupVariable(node.getName()));
+        }
+        else if (refName.equals("this")) {
+            node.setBinding(lookupField(currentClass.getName(), node.getName()));
+        }
+        else if (refName.equals("super")) {
+            node.setBinding(lookupField(currentClass.getParent().getName(),
+                    node.getName()));
+        }
+        else {
+            Binding ref = lookupVariable(refName);
+            node.setRefBinding(ref);
+            node.setBinding(lookupField(ref.getType(), node.getName()));
+        }
+        node.getExpr().accept(this);
+        return null;
+    }
+
+    /**
+     * Visit a variable expression node
+     *
+     * @param node the variable expression node
+     * @return null
+     */
+    public Object visit(VarExpr node) {
+        Expr ref = node.getRef();
+        if (ref != null) {
+            ref.accept(this);
+            node.setBinding(lookupField(ref.getExprType(), node.getName()));
+        }
+        else if (! node.getName().equals("this") && ! node.getName().equals("super")
+                && ! node.getName().equals("null")) {
+            node.setBinding(lookupVariable(node.getName()));
+        }
+        return null;
+    }
+}
@@ -30,6 +30,7 @@
 package proj10PengXuYu.bantam.semant;
 
 import proj10PengXuYu.bantam.ast.*;
+import proj10PengXuYu.bantam.lexer.Keywords;
 import proj10PengXuYu.bantam.parser.Parser;
 import proj10PengXuYu.bantam.util.Error;
 import proj10PengXuYu.bantam.util.*;
@@ -58,6 +59,16 @@ public class SemanticAnalyzer
     public static final Set<String> reservedIdentifiers = new HashSet<>(Arrays.asList(
             "null", "this", "super", "void", "int", "boolean"));
 
+    /**
+     * Returns true if the name is one of the reservedIdentifiers. The check
+     * is done by Keywords without hashing the name.
+     * @param name the name of a class, method, field or variable
+     * @return true if the name is reserved
+     */
+    public static boolean isReservedIdentifier(String name) {
+        return Keywords.isReservedIdentifier(name);
+    }
+
     /**
      * Root of the AST
      */
@@ -86,6 +97,44 @@ public class SemanticAnalyzer
      */
     private final int MAX_NUM_FIELDS = 1500;
 
+    /**
+     * Number of threads that type check the classes (1 checks them in order
+     * in the calling thread)
+     */
+    private int parallelism = 1;
+
+    /**
+     * True if each analysis is remembered, so that the next one only type
+     * checks the classes that changed and the classes depending on them
+     */
+    private boolean incremental = false;
+
+    /**
+     * The last program analyzed without errors in incremental mode, or null
+     */
+    private AnalyzedProgram analyzed;
+
+    /**
+     * The names of the classes that the last analysis did not check again
+     */
+    private Set<String> reusedClasses = Collections.emptySet();
+
+    /**
+     * What an analysis in incremental mode keeps for the next one: the classes
+     * of the program, whose nodes have their types, bindings and signatures
+     * set, and the classes each of them depends on.
+     */
+    private static final class AnalyzedProgram
+    {
+        /** the classes, including the built-in ones, by name */
+        final Map<String, Class_> classes = new HashMap<>();
+        /**
+         * the names of the classes each class looked up, by class name; a
+         * class checked without recording them is not in the map
+         */
+        final Map<String, Set<String>> dependencies = new HashMap<>();
+    }
+
     /**
      * SemanticAnalyzer constructor
      *
@@ -97,6 +146,57 @@ public class SemanticAnalyzer
 
     public ErrorHandler getErrorHandler() { return errorHandler; }
 
+    /**
+     * Sets the number of threads that type check the classes of the program.
+     * With more than one, the classes are checked at the same time by a
+     * ParallelTypeChecker, and the errors are the same, in the same order.
+     *
+     * @param parallelism the number of threads, at least 1 (the default)
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Turns incremental analysis on or off. When it is on, the analyzer keeps
+     * the AST of the last program it analyzed without errors, and the names
+     * of the classes that the type checker looked up in each class of it.
+     * The next analysis, such as of the same file after an edit, puts back in
+     * the new program each class whose tokens are the same, with the same line
+     * breaks between them, and for which each class it looked up, and each
+     * superclass of those, still has the same superclass, fields and method
+     * signatures. A class that moved up or down in the file is reused too,
+     * and its nodes get their new line numbers. It then only type checks and
+     * resolves the other classes. When no class can be reused, such as in the
+     * first analysis or after a change to a class every other class uses, the
+     * program is checked like in a full analysis, without recording the
+     * classes looked up; its classes are then only reused by an analysis in
+     * which no class changed its signature. The class hierarchy
+     * and the member tables are built again every time, since they are cheap
+     * to build and the ones of the last program may still be in use. The
+     * errors are the same as those of a full analysis, since a class is only
+     * reused if it had none and nothing it depends on has changed.
+     *
+     * @param incremental true to reuse the classes of the last analysis
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+        this.analyzed = null;
+    }
+
+    /**
+     * Returns the names of the classes that the last analysis took from the
+     * one before it instead of checking them again (see setIncremental).
+     *
+     * @return the names, empty if incremental analysis is off
+     */
+    public Set<String> getReusedClasses() {
+        return reusedClasses;
+    }
+
     /**
      * Analyze the AST, checking for semantic errors and annotating the tree
      * Also builds an auxiliary class hierarchy tree
@@ -105,12 +205,17 @@ public class SemanticAnalyzer
      * @return root of the class hierarchy tree (for use in Proj 10)
      * <p>
      * This method:
+     * 0 - in incremental mode, puts back in the program the classes of the last
+     *     analysis that can be reused, which steps 5 and 6 skip (see
+     *     setIncremental)
      * 1 - adds built-in classes in classMap
      * 2 - adds user-defined classes and builds the inheritance tree of ClassTreeNodes
      * 3 - builds the environment for each class (adding class members only) and
-     *     checks that members are declared properly
+     *     checks that members are declared properly, and then the flattened
+     *     method and field tables of each class (with the inherited members)
      * 4 - checks that the Main class and main method are declared properly
      * 5 - type checks everything
+     * 6 - resolves the names of the variables to slots and field offsets
      * All errors are registered with the ErrorHandler.
      * STEPS 1-3 HAVE BEEN COMPLETED FOR YOU. YOU MUST COMPLETE STEPS 4 AND 5.
      * See the lab manual for more details on these steps.
@@ -118,9 +223,16 @@ public class SemanticAnalyzer
     public ClassTreeNode analyze(Program program) {
         this.program = program;
         this.classMap.clear();
+        this.reusedClasses = Collections.emptySet();
 
-        // step 1:  add built-in classes to classMap
-        addBuiltins();
+        // step 0: in incremental mode, put back the classes of the last
+        //         analysis that are the same and still type check the same
+        Set<Class_> reused = (incremental && analyzed != null)
+                ? reuseUnchangedClasses() : Collections.<Class_>emptySet();
+
+        // step 1:  add built-in classes to classMap, sharing the tables built
+        //          once for all analyses (see BuiltinClasses)
+        root = BuiltinClasses.addTo(classMap);
 
         //step 2:  add user-defined classes to classMap and build the
         // inheritance tree of ClassTreeNodes
@@ -131,6 +243,9 @@ public class SemanticAnalyzer
         //        inherited ones since the SymbolTable's lookup method checks
         //        the superclasses for you.
         buildFieldAndMethodTables();
+        //        Then flatten them, so that a method or field, declared in the
+        //        class or inherited, is found with a single lookup.
+        buildFlattenedMemberTables();
 
         //step 4: check whether there is a Main class with a main method.
         checkForMainClassWithMainMethod();
@@ -143,17 +258,254 @@ public class SemanticAnalyzer
         //         3. calling a non-existent method
         //         4. method calls with the wrong number of arguments
         //         5. use of a non-existent variable
-        doTypeChecking();
+        Map<String, Set<String>> dependencies = new HashMap<>();
+        if (reused.isEmpty()) {
+            doTypeChecking();
+        }
+        else {
+            doTypeChecking(reused, dependencies);
+        }
 
         // if errors were found, throw an exception, indicating failure
         if (errorHandler.errorsFound()) {
             throw new CompilationException(errorHandler);
         }
 
+        //step 6: store on the AST where each variable is kept, so that the
+        //        passes after this one don't need the symbol tables
+        if (reused.isEmpty()) {
+            resolveNames();
+        }
+        else {
+            new Resolver(root).resolve(classesExcept(reused));
+        }
+        if (incremental) {
+            rememberAnalysis(reused, dependencies);
+        }
 
         return root;
     }
 
+    /**
+     * Replaces each class of the program that can be reused (see
+     * setIncremental) with the class of the last analysis.
+     *
+     * @return the classes put back in the program
+     */
+    private Set<Class_> reuseUnchangedClasses() {
+        ClassList classList = program.getClassList();
+        Map<String, Class_> classes = new HashMap<>();
+        for (ASTNode node : classList) {
+            Class_ classNode = (Class_) node;
+            if (classes.put(classNode.getName(), classNode) != null) {
+                // with two classes of the same name, which class a name
+                // refers to is not known before the hierarchy is built
+                return Collections.emptySet();
+            }
+        }
+        Set<Class_> reused = new HashSet<>();
+        Map<String, Boolean> unchanged = new HashMap<>();
+        // whether no class changed its signature, found if a class needs it
+        Boolean allUnchanged = null;
+        for (int i = 0; i < classList.getSize(); i++) {
+            Class_ classNode = (Class_) classList.get(i);
+            Class_ previous = analyzed.classes.get(classNode.getName());
+            if (previous == null || previous == classNode
+                    || previous.getSourceHash() == 0
+                    || previous.getSourceHash() != classNode.getSourceHash()
+                    || ! Objects.equals(previous.getFilename(), classNode.getFilename())) {
+                continue;
+            }
+            boolean reusable;
+            if (analyzed.dependencies.containsKey(classNode.getName())) {
+                reusable = dependenciesUnchanged(classNode.getName(), classes, unchanged);
+            }
+            else {
+                // the classes it looked up are not known
+                if (allUnchanged == null) {
+                    allUnchanged = allClassesUnchanged(classes, unchanged);
+                }
+                reusable = allUnchanged;
+            }
+            if (reusable) {
+                int offset = classNode.getLineNum() - previous.getLineNum();
+                if (offset != 0) {
+                    // lines were added or removed above the class
+                    previous.accept(new LineShifter(offset));
+                }
+                classList.set(i, previous);
+                reused.add(previous);
+            }
+        }
+        Set<String> names = new HashSet<>();
+        for (Class_ classNode : reused) {
+            names.add(classNode.getName());
+        }
+        reusedClasses = Collections.unmodifiableSet(names);
+        return reused;
+    }
+
+    /**
+     * Returns whether the classes that a class of the last analysis looked up,
+     * and their superclasses, have the same signatures in the new program.
+     *
+     * @param className the name of the class
+     * @param classes   the classes of the new program by name
+     * @param unchanged the classes already compared, by name
+     */
+    private boolean dependenciesUnchanged(String className, Map<String, Class_> classes,
+                                          Map<String, Boolean> unchanged) {
+        Set<String> dependencies = analyzed.dependencies.get(className);
+        // the class itself is the same, but its superclasses may not be
+        if (! ancestorsUnchanged(className, classes, unchanged)) {
+            return false;
+        }
+        for (String name : dependencies) {
+            if (! ancestorsUnchanged(name, classes, unchanged)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether every class of the new program has the same signature
+     * as in the last analysis, and no class of the last analysis is gone.
+     *
+     * @param classes   the classes of the new program by name
+     * @param unchanged the classes already compared, by name
+     */
+    private boolean allClassesUnchanged(Map<String, Class_> classes,
+                                        Map<String, Boolean> unchanged) {
+        for (String name : classes.keySet()) {
+            if (! ancestorsUnchanged(name, classes, unchanged)) {
+                return false;
+            }
+        }
+        for (String name : analyzed.classes.keySet()) {
+            if (! classes.containsKey(name) && ! BuiltinClasses.isBuiltin(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether a class and its superclasses have the same signatures
+     * in the new program as in the last analysis, or do not exist in both.
+     */
+    private boolean ancestorsUnchanged(String className, Map<String, Class_> classes,
+                                       Map<String, Boolean> unchanged) {
+        List<String> walked = new ArrayList<>();
+        boolean same = true;
+        for (String name = className; name != null; ) {
+            Boolean known = unchanged.get(name);
+            if (known != null) {
+                // a class walked before, or the start of a cycle of
+                // inheritance, which is reported when the hierarchy is built
+                same = known;
+                break;
+            }
+            walked.add(name);
+            unchanged.put(name, true);
+            Class_ classNode = classes.get(name);
+            if (classNode == null && BuiltinClasses.isBuiltin(name)) {
+                classNode = analyzed.classes.get(name);
+            }
+            if (classNode == null) {
+                same = ! analyzed.classes.containsKey(name);
+                break;
+            }
+            Class_ previous = analyzed.classes.get(name);
+            if (previous == null || ! signature(classNode).equals(signature(previous))) {
+                same = false;
+                break;
+            }
+            name = classNode.getParent();
+        }
+        for (String name : walked) {
+            unchanged.put(name, same);
+        }
+        return same;
+    }
+
+    /**
+     * Returns what other classes can see of a class: the name of its
+     * superclass, its fields in order with their types, and its methods with
+     * their return types and the types of their parameters. It is only built
+     * the first time, and then kept on the Class_.
+     */
+    private static String signature(Class_ classNode) {
+        if (classNode.getSignature() == null) {
+            classNode.setSignature(buildSignature(classNode));
+        }
+        return classNode.getSignature();
+    }
+
+    /**
+     * Builds the signature of a class (see signature).
+     */
+    private static String buildSignature(Class_ classNode) {
+        StringBuilder signature = new StringBuilder();
+        signature.append(classNode.getParent()).append('{');
+        for (ASTNode member : classNode.getMemberList()) {
+            if (member instanceof Field) {
+                Field field = (Field) member;
+                signature.append(field.getType()).append(' ')
+                        .append(field.getName()).append(';');
+            }
+            else {
+                Method method = (Method) member;
+                signature.append(method.getReturnType()).append(' ')
+                        .append(method.getName()).append('(');
+                for (ASTNode formal : method.getFormalList()) {
+                    signature.append(((Formal) formal).getType()).append(',');
+                }
+                signature.append(");");
+            }
+        }
+        return signature.append('}').toString();
+    }
+
+    /**
+     * Returns the classes of the program that are not in the given set, in
+     * the order of the program.
+     */
+    private List<Class_> classesExcept(Set<Class_> reused) {
+        List<Class_> classes = new ArrayList<>();
+        for (ASTNode node : program.getClassList()) {
+            if (! reused.contains(node)) {
+                classes.add((Class_) node);
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Keeps the classes of the program, which was analyzed without errors,
+     * for the next analysis.
+     *
+     * @param reused       the classes taken from the last analysis
+     * @param dependencies the names of the classes each of the other classes
+     *                     looked up, by class name, or an empty map if they
+     *                     were checked without recording them
+     */
+    private void rememberAnalysis(Set<Class_> reused, Map<String, Set<String>> dependencies) {
+        AnalyzedProgram next = new AnalyzedProgram();
+        for (ClassTreeNode treeNode : classMap.values()) {
+            Class_ classNode = treeNode.getASTNode();
+            next.classes.put(classNode.getName(), classNode);
+        }
+        for (Class_ classNode : reused) {
+            Set<String> names = analyzed.dependencies.get(classNode.getName());
+            if (names != null) {
+                next.dependencies.put(classNode.getName(), names);
+            }
+        }
+        next.dependencies.putAll(dependencies);
+        analyzed = next;
+    }
+
     /**
      * Checks whether all types of expressions are legal.
      * This method also checks for:
@@ -165,10 +517,44 @@ public class SemanticAnalyzer
      * Any errors are registered with the ErrorHandler.
      */
     private void doTypeChecking() {
+        if (parallelism > 1) {
+            new ParallelTypeChecker(root, parallelism).check(program, errorHandler);
+            return;
+        }
         TypeCheckerVisitor visitor = new TypeCheckerVisitor(errorHandler, root);
         visitor.visit(program);
     }
 
+    /**
+     * Checks the types of the classes of the program that were not reused
+     * from the last analysis, like doTypeChecking, and records the names of
+     * the classes that the type checker looked up in each of them.
+     *
+     * @param reused       the classes not to check
+     * @param dependencies gets the names looked up in each class, by class name
+     */
+    private void doTypeChecking(Set<Class_> reused, Map<String, Set<String>> dependencies) {
+        List<Class_> classes = classesExcept(reused);
+        if (parallelism > 1) {
+            new ParallelTypeChecker(root, parallelism).check(classes, errorHandler,
+                    dependencies);
+            return;
+        }
+        for (Class_ classNode : classes) {
+            Set<String> names = new HashSet<>();
+            dependencies.put(classNode.getName(), names);
+            classNode.accept(new TypeCheckerVisitor(errorHandler, root, names));
+        }
+    }
+
+    /**
+     * Resolves every name of a variable to the local variable, parameter or
+     * field it refers to, and sets its Binding on the AST. See Resolver.
+     */
+    private void resolveNames() {
+        new Resolver(root).resolve(program);
+    }
+
     /**
      * checks that the program contains a Main class with a
      * main method that has void return type and no parameters.
@@ -193,6 +579,9 @@ public class SemanticAnalyzer
                   fix it.
         */
         for (ClassTreeNode treeNode : classMap.values()) {
+            if (treeNode.isBuiltIn()) {
+                continue; // its tables are built already
+            }
             SymbolTable fields = treeNode.getVarSymbolTable();
             SymbolTable methods = treeNode.getMethodSymbolTable();
             fields.enterScope();
@@ -212,6 +601,46 @@ public class SemanticAnalyzer
         }
     }
 
+    /**
+     * Sets the flattened method and field tables of every user-defined class
+     * (see ClassTreeNode.flattenMembers), from the roots of the class hierarchy
+     * down. The members of a class are the ones its symbol tables got, so a
+     * member with an illegal name or the second of two members with the same
+     * name is left out.
+     */
+    private void buildFlattenedMemberTables() {
+        Deque<ClassTreeNode> pending = new ArrayDeque<>();
+        for (ClassTreeNode treeNode : classMap.values()) {
+            if (treeNode.getParent() == null) {
+                pending.push(treeNode);
+            }
+        }
+        while (! pending.isEmpty()) {
+            ClassTreeNode treeNode = pending.pop();
+            for (Iterator<ClassTreeNode> it = treeNode.getChildrenList(); it.hasNext(); ) {
+                pending.push(it.next());
+            }
+            if (treeNode.isBuiltIn()) {
+                continue; // its tables are built already
+            }
+            SymbolTable methods = treeNode.getMethodSymbolTable();
+            List<Method> ownMethods = new ArrayList<>();
+            Map<String, Field> ownFields = new LinkedHashMap<>();
+            for (ASTNode member : treeNode.getASTNode().getMemberList()) {
+                if (member instanceof Method) {
+                    if (methods.peek(((Method) member).getName()) == member) {
+                        ownMethods.add((Method) member);
+                    }
+                }
+                else if (! isReservedIdentifier(((Field) member).getName())) {
+                    // the first of the fields with its name is in the table
+                    ownFields.putIfAbsent(((Field) member).getName(), (Field) member);
+                }
+            }
+            treeNode.flattenMembers(ownMethods, new ArrayList<>(ownFields.values()));
+        }
+    }
+
     /**
      * adds the ASTNode member to the treeNode's variable SymbolTable
      * @param treeNode The ClassTreeNode whose variable SymbolTable is being added to
@@ -219,7 +648,7 @@ public class SemanticAnalyzer
      */
     private void addMemberToFieldTable(ClassTreeNode treeNode, ASTNode member) {
         SymbolTable fields = treeNode.getVarSymbolTable();
-        if (SemanticAnalyzer.reservedIdentifiers.contains(((Field) member).getName())) {
+        if (SemanticAnalyzer.isReservedIdentifier(((Field) member).getName())) {
             errorHandler.register(Error.Kind.SEMANT_ERROR,
                     treeNode.getASTNode().getFilename(),
                     member.getLineNum(), "Class " + treeNode.getName() + " "
@@ -245,7 +674,7 @@ public class SemanticAnalyzer
      */
     private void addMemberToMethodTable(ClassTreeNode treeNode, ASTNode member) {
         SymbolTable methods = treeNode.getMethodSymbolTable();
-        if (SemanticAnalyzer.reservedIdentifiers.contains(((Method) member).getName())) {
+        if (SemanticAnalyzer.isReservedIdentifier(((Method) member).getName())) {
             errorHandler.register(Error.Kind.SEMANT_ERROR,
                     treeNode.getASTNode().getFilename(),
                     member.getLineNum(), "Class " + treeNode.getName() + " "
@@ -297,99 +726,40 @@ public class SemanticAnalyzer
             }
         }
 
-        //step 3: check for cycles in inheritance "tree"
+        //step 3: check for cycles in inheritance "tree".
+        // Each class is walked up its ancestors until a class that was already
+        // walked.  A class walked before this walk is known to lead to Object, so
+        // the walk stops there; a class walked during this walk is part of a cycle.
+        // Every class is on one walk only, so this takes linear time.
+        Map<ClassTreeNode, Boolean> leadsToRoot = new HashMap<>();
+        List<ClassTreeNode> walk = new ArrayList<>();
         for (ClassTreeNode treeNode : classMap.values()) {
-            // use a new HashSet for each node and its ancestors.
-            // A node is added to the HashSet when it is visited as
-            // we traverse up the ancestor path.
-            HashSet<ClassTreeNode> marked = new HashSet<>();
-            while (treeNode != null) {
-                if (marked.contains(treeNode)) {
-                    errorHandler.register(Error.Kind.SEMANT_ERROR,
-                            treeNode.getASTNode().getFilename(),
-                            treeNode.getASTNode().getLineNum(),
-                            "Class " + treeNode.getName() + " is part of a cycle " + " " +
-                                    "of inheritances.");
-                    // temporarily get rid of the cycle by setting treeNode's
-                    // parent to the Object class so that we can continue
-                    // checking the AST.
-                    treeNode.getParent().removeChild(treeNode);
-                    treeNode.setParent(classMap.get("Object"));
-                    classMap.get("Object").addChild(treeNode);
-                    break;
-                }
-                else {
-                    marked.add(treeNode);
-                    treeNode = treeNode.getParent();
-                }
+            walk.clear();
+            while (treeNode != null && !leadsToRoot.containsKey(treeNode)) {
+                leadsToRoot.put(treeNode, false);
+                walk.add(treeNode);
+                treeNode = treeNode.getParent();
+            }
+            if (treeNode != null && !leadsToRoot.get(treeNode)) {
+                errorHandler.register(Error.Kind.SEMANT_ERROR,
+                        treeNode.getASTNode().getFilename(),
+                        treeNode.getASTNode().getLineNum(),
+                        "Class " + treeNode.getName() + " is part of a cycle " + " " +
+                                "of inheritances.");
+                // temporarily get rid of the cycle by setting treeNode's
+                // parent to the Object class so that we can continue
+                // checking the AST.
+                treeNode.getParent().removeChild(treeNode);
+                treeNode.setParent(classMap.get("Object"));
+                classMap.get("Object").addChild(treeNode);
+            }
+            for (ClassTreeNode walked : walk) {
+                leadsToRoot.put(walked, true);
             }
         }
-    }
 
-    /**
-     * Add built-in classes to the classMap and create ASTNodes for each of them.
-     * There is no need to add these new ASTNodes to the AST generated by the parser.
-     * You can access them, if necessary, through the classMap.
-     */
-    private void addBuiltins() {
-        // create AST node for the Object class
-        Class_ astNode = new Class_(-1, "<built-in class>", "Object", null,
-                (MemberList) (new MemberList(-1)).addElement(new Method(-1, "Object",
-                        "clone", new FormalList(-1),
-                        (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1,
-                                new VarExpr(-1, null, "null"))))).addElement(new Method(-1, "boolean", "equals", (FormalList) (new FormalList(-1)).addElement(new Formal(-1, "Object", "o")), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new ConstBooleanExpr(-1, "false"))))).addElement(new Method(-1, "String", "toString", new FormalList(-1), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new VarExpr(-1, null, "null"))))));
-        // create a class tree node for object, save in variable root
-        root = new ClassTreeNode(astNode, /*built-in?*/true, /*extendable?*/true,
-                classMap);
-        // add object class tree node to the mapping
-        classMap.put("Object", root);
-
-        // note: String, TextIO, and Sys all have fields that are not shown below.
-        // Because these classes cannot be extended and fields are protected, these
-        // fields cannot be accessed by other classes, so these fields do not have to be
-        // included in the AST.
-
-        // create AST node for String
-        astNode = new Class_(-1, "<built-in class>", "String", "Object",
-                (MemberList) (new MemberList(-1)).addElement(new Field(-1, "int",
-                        "length", /*0 by default*/null))
-                /* note: str is the character sequence -- no applicable type for a
-               character sequence so it is just made an int.  it's OK to
-               do this since this field is only accessed (directly) within
-               the runtime system */.addElement(new Method(-1, "int", "length",
-                                new FormalList(-1),
-                                (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new ConstIntExpr(-1, "0"))))).addElement(new Method(-1, "boolean", "equals", (FormalList) (new FormalList(-1)).addElement(new Formal(-1, "Object", "str")), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new ConstBooleanExpr(-1, "false"))))).addElement(new Method(-1, "String", "toString", new FormalList(-1), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new VarExpr(-1, null, "null"))))).addElement(new Method(-1, "String", "substring", (FormalList) (new FormalList(-1)).addElement(new Formal(-1, "int", "beginIndex")).addElement(new Formal(-1, "int", "endIndex")), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new VarExpr(-1, null, "null"))))).addElement(new Method(-1, "String", "concat", (FormalList) (new FormalList(-1)).addElement(new Formal(-1, "String", "str")), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new VarExpr(-1, null, "null"))))));
-        // create class tree node for String, add it to the mapping
-        classMap.put("String", new ClassTreeNode(astNode, /*built-in?*/true,
-                /*extendable?*/false, classMap));
-
-        // create AST node for TextIO
-        astNode = new Class_(-1, "<built-in class>", "TextIO", "Object",
-                (MemberList) (new MemberList(-1)).addElement(new Field(-1, "int",
-                        "readFD", /*0 by default*/null)).addElement(new Field(-1, "int"
-                        , "writeFD", new ConstIntExpr(-1, "1"))).addElement(new Method(-1, "void", "readStdin", new FormalList(-1), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, null)))).addElement(new Method(-1, "void", "readFile", (FormalList) (new FormalList(-1)).addElement(new Formal(-1, "String", "readFile")), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, null)))).addElement(new Method(-1, "void", "writeStdout", new FormalList(-1), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, null)))).addElement(new Method(-1, "void", "writeStderr", new FormalList(-1), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, null)))).addElement(new Method(-1, "void", "writeFile", (FormalList) (new FormalList(-1)).addElement(new Formal(-1, "String", "writeFile")), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, null)))).addElement(new Method(-1, "String", "getString", new FormalList(-1), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new VarExpr(-1, null, "null"))))).addElement(new Method(-1, "int", "getInt", new FormalList(-1), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new ConstIntExpr(-1, "0"))))).addElement(new Method(-1, "TextIO", "putString", (FormalList) (new FormalList(-1)).addElement(new Formal(-1, "String", "str")), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new VarExpr(-1, null, "null"))))).addElement(new Method(-1, "TextIO", "putInt", (FormalList) (new FormalList(-1)).addElement(new Formal(-1, "int", "n")), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new VarExpr(-1, null, "null"))))));
-        // create class tree node for TextIO, add it to the mapping
-        classMap.put("TextIO", new ClassTreeNode(astNode, /*built-in?*/true,
-                /*extendable?*/false, classMap));
-
-        // create AST node for Sys
-        astNode = new Class_(-1, "<built-in class>", "Sys", "Object",
-                (MemberList) (new MemberList(-1)).addElement(new Method(-1, "void",
-                        "exit",
-                        (FormalList) (new FormalList(-1)).addElement(new Formal(-1,
-                                "int", "status")),
-                        (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1,
-                                null))))
-                /* MC: time() and random() requires modifying SPIM to add a time system
-                 call
-               (note: random() does not need its own system call although it uses the time
-               system call).  We have a version of SPIM with this system call available,
-               otherwise, just comment out. (For x86 and jvm there are no issues.)
-               */.addElement(new Method(-1, "int", "time", new FormalList(-1),
-                                (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new ConstIntExpr(-1, "0"))))).addElement(new Method(-1, "int", "random", new FormalList(-1), (StmtList) (new StmtList(-1)).addElement(new ReturnStmt(-1, new ConstIntExpr(-1, "0"))))));
-        // create class tree node for Sys, add it to the mapping
-        classMap.put("Sys", new ClassTreeNode(astNode, /*built-in?*/true, /*extendable
-        ?*/false, classMap));
+        //step 4: number the classes in the tree, for the subtype checks
+        root.numberHierarchy();
     }
 
 
@@ -0,0 +1,105 @@
+/*
+ * File: TypeCheckerBenchmark.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.semant;
+
+import proj10PengXuYu.bantam.ast.Program;
+import proj10PengXuYu.bantam.parser.Parser;
+import proj10PengXuYu.bantam.util.Benchmarks;
+import proj10PengXuYu.bantam.util.CompilationException;
+import proj10PengXuYu.bantam.util.Error;
+import proj10PengXuYu.bantam.util.ErrorHandler;
+import proj10PengXuYu.bantam.util.ProgramGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A timing harness for semantic analysis with the classes type checked by
+ * 1, 2, 4, ... threads, up to the number of processors (or a given number).
+ * The program (see ProgramGenerator) has many classes in short inheritance
+ * chains, whose methods have loops, field accesses and calls, and some of
+ * which have type errors.
+ * For each number of threads it prints the time of an analysis and the
+ * speedup over one thread, and checks that the list of errors is the same.
+ *
+ * Usage: java proj10PengXuYu.bantam.semant.TypeCheckerBenchmark [maxThreads]
+ */
+public class TypeCheckerBenchmark
+{
+    /** number of classes of the program, besides Main */
+    private static final int NUM_CLASSES = 800;
+    /** number of classes in each inheritance chain */
+    private static final int CHAIN_LENGTH = 8;
+    /** number of methods of each class */
+    private static final int METHODS_PER_CLASS = 6;
+    /** every class with a number that is a multiple of this has type errors */
+    private static final int ERROR_INTERVAL = 97;
+
+    /**
+     * Analyzes the program once and returns the errors found.
+     */
+    private static List<String> analyze(Program program, int parallelism) {
+        ErrorHandler errorHandler = new ErrorHandler();
+        SemanticAnalyzer analyzer = new SemanticAnalyzer(errorHandler);
+        analyzer.setParallelism(parallelism);
+        try {
+            analyzer.analyze(program);
+        } catch (CompilationException e) {
+            // the program has errors on purpose
+        }
+        List<String> errors = new ArrayList<>();
+        for (Error error : errorHandler.getErrorList()) {
+            errors.add(error.toString());
+        }
+        return errors;
+    }
+
+    /**
+     * runs the benchmark
+     *
+     * @param args the largest number of threads (optional, the number of
+     *             processors by default)
+     */
+    public static void main(String[] args) {
+        int maxThreads = (args.length > 0) ? Integer.parseInt(args[0])
+                : Runtime.getRuntime().availableProcessors();
+        ProgramGenerator generator = new ProgramGenerator(NUM_CLASSES);
+        generator.setChainLength(CHAIN_LENGTH);
+        generator.setMethodsPerClass(METHODS_PER_CLASS);
+        generator.setErrorInterval(ERROR_INTERVAL);
+        Program program = new Parser(new ErrorHandler()).parse(generator.generate(),
+                "Benchmark.btm");
+
+        List<String> expected = analyze(program, 1);
+        System.out.println(String.format("%d classes of %d methods, %d errors, %d processors",
+                NUM_CLASSES, METHODS_PER_CLASS, expected.size(),
+                Runtime.getRuntime().availableProcessors()));
+        double sequential = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreads(threads, maxThreads)) {
+            if (! expected.equals(analyze(program, threads))) {
+                System.out.println("  the errors differ with " + threads + " threads!");
+            }
+            int parallelism = threads;
+            double millis = Benchmarks.time(() -> analyze(program, parallelism));
+            if (threads == 1) {
+                sequential = millis;
+            }
+            System.out.println(String.format("  %2d thread%s %10.1f ms  speedup %.2f", threads,
+                    (threads == 1) ? " " : "s", millis, sequential / millis));
+        }
+    }
+
+    /**
+     * Returns the number of threads to measure after the given one: the next
+     * power of two, or maxThreads if that is smaller.
+     */
+    private static int nextThreads(int threads, int maxThreads) {
+        return (threads < maxThreads && threads * 2 > maxThreads) ? maxThreads : threads * 2;
+    }
+}
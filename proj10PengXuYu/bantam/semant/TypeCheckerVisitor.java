@@ -20,6 +20,7 @@ import proj10PengXuYu.bantam.visitor.Visitor;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.Stack;
 
 /**
@@ -36,16 +37,39 @@ public class TypeCheckerVisitor extends Visitor
     private final ErrorHandler errorHandler;
     /** the current symbolTable to use for checking types */
     private SymbolTable currentSymbolTable;
+    /**
+     * the scopes of the method being checked, on top of the fields of the
+     * current class. The symbol tables of the classes are only read, so
+     * several visitors can check different classes at the same time.
+     */
+    private final SymbolTable localSymbolTable = new SymbolTable();
     /** a stack of the current nested for or while statements
        for checking whether a break statement is inside a loop. */
     private final Stack<Stmt> currentNestedLoops;
+    /** the names of the classes looked up, if they are recorded, or null */
+    private final Set<String> dependencies;
 
     public TypeCheckerVisitor(ErrorHandler errorHandler, ClassTreeNode root) {
+        this(errorHandler, root, null);
+    }
+
+    /**
+     * Creates a visitor that also records the name of every class it looks
+     * up, whether or not the class exists. The types it finds in a class only
+     * depend on the class itself and on those classes and their superclasses.
+     *
+     * @param errorHandler the ErrorHandler that records the errors
+     * @param root         the root of the class hierarchy
+     * @param dependencies the set the names are added to, or null
+     */
+    public TypeCheckerVisitor(ErrorHandler errorHandler, ClassTreeNode root,
+                              Set<String> dependencies) {
         this.errorHandler = errorHandler;
         this.currentClass = root; // the Object class
         this.currentMethod = null;
         this.currentSymbolTable = null;
         this.currentNestedLoops = new Stack<>();
+        this.dependencies = dependencies;
     }
 
     /*
@@ -76,17 +100,21 @@ public class TypeCheckerVisitor extends Visitor
         if (t1.equals("boolean") || t2.equals("boolean")) {
             return t2.equals(t1);
         }
-        // go up the inheritance tree of t1 to see if you
-        // encounter t2
-        ClassTreeNode t1Node = currentClass.lookupClass(t1);
-        ClassTreeNode t2Node = currentClass.lookupClass(t2);
-        while (t1Node != null) {
-            if (t1Node == t2Node) {
-                return true;
-            }
-            t1Node = t1Node.getParent();
+        // compare the positions of t1 and t2 in the inheritance tree
+        ClassTreeNode t1Node = lookupClass(t1);
+        ClassTreeNode t2Node = lookupClass(t2);
+        return t1Node != null && t2Node != null && t1Node.isSubclassOf(t2Node);
+    }
+
+    /**
+     * returns the class with the given name, or null if there is none, and
+     * records the name if the dependencies are recorded
+     */
+    private ClassTreeNode lookupClass(String name) {
+        if (dependencies != null) {
+            dependencies.add(name);
         }
-        return false;
+        return currentClass.lookupClass(name);
     }
 
     /**
@@ -100,7 +128,7 @@ public class TypeCheckerVisitor extends Visitor
      * returns true if the given type is a primitive type or a declared class
      */
     private boolean typeHasBeenDeclared(String type) {
-        return isPrimitiveType(type) || currentClass.lookupClass(type) != null;
+        return isPrimitiveType(type) || lookupClass(type) != null;
     }
 
 
@@ -122,8 +150,9 @@ public class TypeCheckerVisitor extends Visitor
      */
     public Object visit(Class_ node) {
         // set the currentClass to this class
-        currentClass = currentClass.lookupClass(node.getName());
+        currentClass = lookupClass(node.getName());
         currentSymbolTable = currentClass.getVarSymbolTable();
+        localSymbolTable.setParent(currentSymbolTable);
         node.getMemberList().accept(this);
         return null;
     }
@@ -170,6 +199,7 @@ public class TypeCheckerVisitor extends Visitor
         }
 
         //create a new scope for the method
+        currentSymbolTable = localSymbolTable;
         currentSymbolTable.enterScope();
         currentMethod = node;
         node.getFormalList().accept(this);
@@ -186,6 +216,7 @@ public class TypeCheckerVisitor extends Visitor
         }
         currentMethod = null;
         currentSymbolTable.exitScope();
+        currentSymbolTable = currentClass.getVarSymbolTable();
         return null;
     }
 
@@ -225,7 +256,7 @@ public class TypeCheckerVisitor extends Visitor
 
         String varName = node.getName();
         // Check if name is a reserved word
-        if (SemanticAnalyzer.reservedIdentifiers.contains(varName)) {
+        if (SemanticAnalyzer.isReservedIdentifier(varName)) {
             registerError(node, "The variable name " + varName
                     + " is a reserved word");
         }
@@ -389,23 +420,23 @@ public class TypeCheckerVisitor extends Visitor
         }
         refExpr.accept(this);
         // check the reference object
-        ClassTreeNode refClass = currentClass.lookupClass(refExpr.getExprType());
+        ClassTreeNode refClass = lookupClass(refExpr.getExprType());
         // check the method call
         String methodName = node.getMethodName();
-        SymbolTable st = refClass.getMethodSymbolTable();
-        if (st.lookup(methodName) == null) {
+        Method method = refClass.lookupMethod(methodName);
+        if (method == null) {
             registerError(node, "The called method " + methodName
                     + " was not declared in class " + refClass.getName());
             node.setExprType("Object");  // let checker continue
         } else {
-            node.setExprType(((Method) st.lookup(methodName)).getReturnType());
+            node.setExprType(method.getReturnType());
         }
         // check the actual parameters list
         ExprList actualList = node.getActualList();
         List<String> actualTypes = (List<String>) actualList.accept(this);
         List<String> formalTypes;
-        if ((Method) st.lookup(methodName) != null) {
-            formalTypes= getFormalTypesList((Method) st.lookup(methodName));
+        if (method != null) {
+            formalTypes = getFormalTypesList(method);
         } else {
             formalTypes = new ArrayList<String>();
         }
@@ -460,7 +491,7 @@ public class TypeCheckerVisitor extends Visitor
      * @return the type of the expression
      */
     public Object visit(NewExpr node) {
-        if (currentClass.lookupClass(node.getType()) == null) {
+        if (lookupClass(node.getType()) == null) {
             registerError(node,"The type " + node.getType() + " does not exist.");
             node.setExprType("Object"); // to allow analysis to continue
         }
@@ -477,7 +508,7 @@ public class TypeCheckerVisitor extends Visitor
      * @return the type of the expression
      */
     public Object visit(InstanceofExpr node) {
-        if (currentClass.lookupClass(node.getType()) == null) {
+        if (lookupClass(node.getType()) == null) {
             registerError(node,"The reference type " + node.getType()
                     + " does not exist.");
         }
@@ -530,7 +561,7 @@ public class TypeCheckerVisitor extends Visitor
             node.setExprType(sourceType);  // stores runtime type
         }
         else {
-            if (currentClass.lookupClass(targetType) == null) {
+            if (lookupClass(targetType) == null) {
                 registerError(node, "The target type "
                         + targetType + " does not exist.");
             } else {
@@ -551,13 +582,17 @@ public class TypeCheckerVisitor extends Visitor
      */
     public Object visit(AssignExpr node) {
         /* ... for you to implement ... */
-        SymbolTable st = currentSymbolTable;
-        // check refName
-        if (node.getRefName() != null) {
+        // check name on the left hand side: a variable or field in scope, or
+        // a field of the reference object
+        String leftType;
+        if (node.getRefName() == null) {
+            leftType = (String) currentSymbolTable.lookup(node.getName());
+        } else {
+            ClassTreeNode refClass;
             if (node.getRefName().equals("this")) {
-                st = currentSymbolTable;
+                refClass = currentClass;
             } else if (node.getRefName().equals("super")) {
-                st = currentClass.getParent().getVarSymbolTable();
+                refClass = currentClass.getParent();
             } else {
                 String refType = (String) currentSymbolTable.lookup(node.getRefName());
                 if (refType == null) {
@@ -565,11 +600,11 @@ public class TypeCheckerVisitor extends Visitor
                             + node.getRefName() + " does not exist.");
                     refType = "Object";
                 }
-                st = currentClass.lookupClass(refType).getVarSymbolTable();
+                refClass = lookupClass(refType);
             }
+            Field field = refClass.lookupField(node.getName());
+            leftType = (field == null) ? null : field.getType();
         }
-        // check name on the left hand side
-        String leftType = (String) st.lookup(node.getName());
         if (leftType == null) {
             registerError(node, "Variable/field name "
                     + node.getName() + " has not been declared.");
@@ -619,16 +654,15 @@ public class TypeCheckerVisitor extends Visitor
             }
         } else {
             node.getRef().accept(this);
-            // get the symbol table of the reference object
-            SymbolTable st = currentClass.lookupClass(
-                    node.getRef().getExprType()).getVarSymbolTable();
-            String varType = (String) st.lookup(node.getName());
-            if (varType == null) {
+            // look the field up in the class of the reference object
+            Field field = lookupClass(
+                    node.getRef().getExprType()).lookupField(node.getName());
+            if (field == null) {
                 registerError(node, "Class field " + node.getName()
                         + " has not been declared.");
                 node.setExprType("Object");
             } else {
-                node.setExprType(varType);
+                node.setExprType(field.getType());
             }
         }
         return null;
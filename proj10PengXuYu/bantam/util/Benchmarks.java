@@ -0,0 +1,89 @@
+/*
+ * File: Benchmarks.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The timing loop shared by the benchmarks of the compiler and the IDE. The
+ * code timed is first run untimed, to let the JIT warm up, at least
+ * WARMUP_RUNS times and for at least WARMUP_NANOS, and then timed at least
+ * MEASURED_RUNS times and for at least MEASURED_NANOS, so that short code is
+ * run often enough to give a steady average and long code is not run more
+ * than it needs.
+ */
+public class Benchmarks
+{
+    /** least number of untimed runs before measuring */
+    private static final int WARMUP_RUNS = 3;
+    /** least time of the untimed runs, in ns */
+    private static final long WARMUP_NANOS = 1_000_000_000L;
+    /** least number of timed runs */
+    private static final int MEASURED_RUNS = 5;
+    /** least time of the timed runs, in ns */
+    private static final long MEASURED_NANOS = 1_000_000_000L;
+
+    /** reports the bytes allocated by the current thread, if the JVM supports it */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Times some code.
+     *
+     * @param body the code to time
+     * @return the average time of a run in ms
+     */
+    public static double time(Runnable body) {
+        return time(() -> null, ignored -> body.run());
+    }
+
+    /**
+     * Times some code that needs a new input for each run, such as an AST
+     * that the code changes, without timing the making of the inputs.
+     *
+     * @param setup makes the input of a run, untimed
+     * @param body  the code to time, which is given the input
+     * @return the average time of a run in ms
+     */
+    public static <T> double time(Supplier<T> setup, Consumer<T> body) {
+        long start = System.nanoTime();
+        for (int i = 0; i < WARMUP_RUNS || System.nanoTime() - start < WARMUP_NANOS; i++) {
+            body.accept(setup.get());
+        }
+        long total = 0;
+        int runs = 0;
+        while (runs < MEASURED_RUNS || total < MEASURED_NANOS) {
+            T input = setup.get();
+            long runStart = System.nanoTime();
+            body.accept(input);
+            total += System.nanoTime() - runStart;
+            runs++;
+        }
+        return total / 1e6 / runs;
+    }
+
+    /**
+     * Returns the number of bytes allocated by one run of some code, which
+     * should have been timed (and so warmed up) first.
+     *
+     * @param body the code to run
+     * @return the bytes allocated by the current thread while running it
+     */
+    public static long allocatedBytes(Runnable body) {
+        long threadId = Thread.currentThread().getId();
+        long startBytes = THREADS.getThreadAllocatedBytes(threadId);
+        body.run();
+        return THREADS.getThreadAllocatedBytes(threadId) - startBytes;
+    }
+}
@@ -27,10 +27,22 @@
 package proj10PengXuYu.bantam.util;
 
 import proj10PengXuYu.bantam.ast.Class_;
+import proj10PengXuYu.bantam.ast.Field;
+import proj10PengXuYu.bantam.ast.Method;
 import proj10PengXuYu.bantam.semant.SemanticAnalyzer;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Vector;
 
 /**
@@ -79,15 +91,55 @@ public class ClassTreeNode {
      */
     private int numDescendants;
 
+    /**
+     * The positions of this class in a preorder and a postorder traversal of the
+     * class hierarchy tree, set by numberHierarchy (-1 until then).  A class is
+     * a subclass of another if its interval [preorder, postorder] is nested in
+     * the interval of the other one.
+     */
+    private int preorder = -1;
+    private int postorder = -1;
+
     /**
      * The (scoped) variable symbol table for this class used for type checking this class
      */
-    private SymbolTable varSymbolTable = new SymbolTable();
+    private SymbolTable varSymbolTable;
 
     /**
      * The (scoped) method symbol table for this class used for type checking this class
      */
-    private SymbolTable methodSymbolTable = new SymbolTable();
+    private SymbolTable methodSymbolTable;
+
+    /**
+     * The vtable of this class: its methods and the inherited ones, where an
+     * inherited method keeps the index it has in the vtable of the parent (or
+     * the method overriding it takes that index) and the methods new in this
+     * class follow.  Set by flattenMembers, like the maps below (all empty
+     * until then).
+     */
+    private List<Method> vtable = Collections.emptyList();
+
+    /**
+     * Maps the name of each method of the vtable to its index
+     */
+    private Map<String, Integer> methodIndexes = Collections.emptyMap();
+
+    /**
+     * Maps the name of each method of the vtable to the method, in vtable order
+     */
+    private Map<String, Method> methods = Collections.emptyMap();
+
+    /**
+     * Maps the name of each field of this class and of its superclasses to the
+     * field, where a field hides the fields of the superclasses with its name
+     */
+    private Map<String, Field> fields = Collections.emptyMap();
+
+    /**
+     * True if the symbol tables and member tables above are the ones of a
+     * node of another tree that is shared, and so must not be changed
+     */
+    private boolean shared;
 
     /**
      * ClassTreeNode constructor
@@ -103,9 +155,38 @@ public class ClassTreeNode {
         this.builtin = builtin;
         this.extendable = extendable;
         this.classMap = classMap;
+        this.varSymbolTable = new SymbolTable();
+        this.methodSymbolTable = new SymbolTable();
         numDescendants = 0;
     }
 
+    /**
+     * Creates a node in a new class hierarchy tree for a class of a shared
+     * tree, such as the one of the built-in classes.  The new node has the AST
+     * node, the symbol tables and the member tables of the shared one, whose
+     * symbol tables must be frozen, and its own parent, subclasses and class
+     * map, so the classes of a program can be added to the new tree without
+     * changing the shared one.  Its symbol tables already have the ones of
+     * the parent of the shared node as parents, so its parent must be the
+     * node for that class.
+     *
+     * @param sharedNode the node of the shared tree
+     * @param classMap   class map for accessing class tree nodes
+     */
+    public ClassTreeNode(ClassTreeNode sharedNode, Hashtable<String, ClassTreeNode> classMap) {
+        this.astNode = sharedNode.astNode;
+        this.builtin = sharedNode.builtin;
+        this.extendable = sharedNode.extendable;
+        this.classMap = classMap;
+        this.varSymbolTable = sharedNode.varSymbolTable;
+        this.methodSymbolTable = sharedNode.methodSymbolTable;
+        this.vtable = sharedNode.vtable;
+        this.methodIndexes = sharedNode.methodIndexes;
+        this.methods = sharedNode.methods;
+        this.fields = sharedNode.fields;
+        this.shared = true;
+    }
+
     /**
      * Get the name of the class
      *
@@ -167,9 +248,12 @@ public class ClassTreeNode {
             // set parent of this class
             this.parent = parent;
 
-            // set parent symbol table
-            varSymbolTable.setParent(parent.getVarSymbolTable());
-            methodSymbolTable.setParent(parent.getMethodSymbolTable());
+            // set parent symbol table, unless the tables are shared and
+            // already have the ones of the parent as parents
+            if (!shared) {
+                varSymbolTable.setParent(parent.getVarSymbolTable());
+                methodSymbolTable.setParent(parent.getMethodSymbolTable());
+            }
 
             // also add this as a child of parent (if not already done)
             parent.addChild(this);
@@ -177,7 +261,7 @@ public class ClassTreeNode {
             // must update numDescendants the parent and for all ancestors of this parent
             // WARNING: must be careful -- class hierarchy tree may not be well formed
             // must avoid cycles
-            Vector<ClassTreeNode> v = new Vector<ClassTreeNode>();
+            Set<ClassTreeNode> v = new HashSet<ClassTreeNode>();
             for (ClassTreeNode ctn = parent; ctn != null; ctn = ctn.getParent()) {
                 // check for a cycle -- break if we find one (program is wrong and
                 // error should be detected by semantic analyzer)
@@ -263,6 +347,58 @@ public class ClassTreeNode {
         return numDescendants;
     }
 
+    /**
+     * Numbers this class and all its descendants in preorder and postorder,
+     * so that isSubclassOf takes constant time for any two of them.  It should
+     * be called on the root of the class hierarchy tree (the Object class)
+     * once the tree is built and has no cycles, and again if it changes.
+     * The tree is walked without recursion, so deep hierarchies are fine.
+     */
+    public void numberHierarchy() {
+        int nextPreorder = 0;
+        int nextPostorder = 0;
+        // the classes being numbered, with the iterators of their children
+        Deque<ClassTreeNode> path = new ArrayDeque<ClassTreeNode>();
+        Deque<Iterator<ClassTreeNode>> childIterators =
+                new ArrayDeque<Iterator<ClassTreeNode>>();
+        preorder = nextPreorder++;
+        path.push(this);
+        childIterators.push(children.iterator());
+        while (!path.isEmpty()) {
+            Iterator<ClassTreeNode> it = childIterators.peek();
+            if (it.hasNext()) {
+                ClassTreeNode child = it.next();
+                child.preorder = nextPreorder++;
+                path.push(child);
+                childIterators.push(child.children.iterator());
+            }
+            else {
+                path.pop().postorder = nextPostorder++;
+                childIterators.pop();
+            }
+        }
+    }
+
+    /**
+     * Is this class the given class or one of its descendants?
+     * Takes constant time once numberHierarchy has been called on the root of
+     * the tree, and walks up the ancestors of this class otherwise.
+     *
+     * @param other the class tree node of the other class
+     * @return true if this class is the other class or a subclass of it
+     */
+    public boolean isSubclassOf(ClassTreeNode other) {
+        if (preorder >= 0 && other.preorder >= 0) {
+            return other.preorder <= preorder && postorder <= other.postorder;
+        }
+        for (ClassTreeNode ctn = this; ctn != null; ctn = ctn.getParent()) {
+            if (ctn == other) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Get the variable symbol table of the class
      *
@@ -281,6 +417,92 @@ public class ClassTreeNode {
         return methodSymbolTable;
     }
 
+    /**
+     * Sets the methods and fields of this class, including the inherited ones,
+     * so that each can be found with a single lookup.  The parent must have
+     * been flattened already, so this should be called on the classes of the
+     * tree from the root down, once the tree is built.  The tables are
+     * immutable, and the ones of the parent are not changed.  The tables of a
+     * node sharing them with another tree cannot be set again.
+     *
+     * @param ownMethods the methods declared in this class, in order
+     * @param ownFields  the fields declared in this class
+     */
+    public void flattenMembers(List<Method> ownMethods, List<Field> ownFields) {
+        if (shared) {
+            throw new UnsupportedOperationException(
+                    "The members of class " + getName() + " are shared and read-only");
+        }
+        List<Method> newVtable = new ArrayList<Method>(
+                parent == null ? Collections.<Method>emptyList() : parent.vtable);
+        Map<String, Integer> newIndexes = new HashMap<String, Integer>(
+                parent == null ? Collections.<String, Integer>emptyMap() : parent.methodIndexes);
+        for (Method method : ownMethods) {
+            Integer index = newIndexes.get(method.getName());
+            if (index == null) {
+                newIndexes.put(method.getName(), newVtable.size());
+                newVtable.add(method);
+            }
+            else {
+                newVtable.set(index, method);
+            }
+        }
+        Map<String, Method> newMethods = new LinkedHashMap<String, Method>();
+        for (Method method : newVtable) {
+            newMethods.put(method.getName(), method);
+        }
+        Map<String, Field> newFields = new HashMap<String, Field>(
+                parent == null ? Collections.<String, Field>emptyMap() : parent.fields);
+        for (Field field : ownFields) {
+            newFields.put(field.getName(), field);
+        }
+        vtable = Collections.unmodifiableList(newVtable);
+        methodIndexes = Collections.unmodifiableMap(newIndexes);
+        methods = Collections.unmodifiableMap(newMethods);
+        fields = Collections.unmodifiableMap(newFields);
+    }
+
+    /**
+     * Lookup a method of this class or of a superclass, after flattenMembers
+     *
+     * @param name the name of the method
+     * @return the method (the one overriding the others), or null if not found
+     */
+    public Method lookupMethod(String name) {
+        return methods.get(name);
+    }
+
+    /**
+     * Lookup a field of this class or of a superclass, after flattenMembers
+     *
+     * @param name the name of the field
+     * @return the field (the one hiding the others), or null if not found
+     */
+    public Field lookupField(String name) {
+        return fields.get(name);
+    }
+
+    /**
+     * Get the index of a method in the vtable, which is the same in the vtables
+     * of all the subclasses
+     *
+     * @param name the name of the method
+     * @return its index, or -1 if the class has no such method
+     */
+    public int getMethodIndex(String name) {
+        Integer index = methodIndexes.get(name);
+        return (index == null) ? -1 : index;
+    }
+
+    /**
+     * Get the vtable of the class (see flattenMembers)
+     *
+     * @return an unmodifiable list of the methods, by index
+     */
+    public List<Method> getVtable() {
+        return vtable;
+    }
+
     /**
      * Lookup a class tree node
      *
@@ -30,17 +30,163 @@ package proj10PengXuYu.bantam.util;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The ErrorHandler class performs error handling. It keeps track
  * of a list of errors that the compiler finds.
+ *
+ * Errors can be registered from several threads at the same time without
+ * locking: each thread appends to a buffer of its own, and the errors are
+ * numbered in the order they are registered.  Only the first maxErrors of
+ * them are kept (100 by default); the others are counted.  The list returned
+ * by getErrorList is sorted, when it is read, according to the Order of the
+ * handler.
  */
 public class ErrorHandler {
     /**
-     * The list of errors
+     * The default maximum number of errors kept
      */
-    private List<Error> errorList = new ArrayList<>();
+    public static final int DEFAULT_MAX_ERRORS = 100;
+
+    /**
+     * The orders of the list of errors
+     */
+    public enum Order {
+        /**
+         * The errors without a filename first, the last registered first, and
+         * then the errors of each file, in the order an error of the file was
+         * first registered, sorted by line number (the errors of the same line
+         * in the order they were registered).
+         */
+        BY_FILE_AND_LINE,
+        /**
+         * The order in which the errors were registered
+         */
+        BY_REGISTRATION
+    }
+
+    /**
+     * An error and its number in the order of registration
+     */
+    private static final class Entry {
+        final Error error;
+        final long number;
+
+        Entry(Error error, long number) {
+            this.error = error;
+            this.number = number;
+        }
+    }
+
+    /**
+     * The errors registered by one thread.  Only that thread appends to it,
+     * and it publishes each entry through the volatile size, so the buffer
+     * can be read by any thread at any time.
+     */
+    private static final class Buffer {
+        private volatile Entry[] entries = new Entry[8];
+        private volatile int size;
+
+        void add(Entry entry) {
+            Entry[] array = entries;
+            if (size == array.length) {
+                Entry[] bigger = new Entry[array.length * 2];
+                System.arraycopy(array, 0, bigger, 0, array.length);
+                entries = array = bigger;
+            }
+            array[size] = entry;
+            size = size + 1;
+        }
+
+        void copyTo(List<Entry> list) {
+            // read the size first, so that the entries before it are visible
+            int n = size;
+            Entry[] array = entries;
+            for (int i = 0; i < n; i++) {
+                list.add(array[i]);
+            }
+        }
+    }
+
+    /**
+     * The errors registered since the handler was created or cleared
+     */
+    private static final class State {
+        /** the number of errors registered, including the ones not kept */
+        final AtomicLong numRegistered = new AtomicLong();
+        /** the buffers of the threads that registered errors */
+        final ConcurrentLinkedQueue<Buffer> buffers = new ConcurrentLinkedQueue<>();
+        final ThreadLocal<Buffer> buffer = ThreadLocal.withInitial(() -> {
+            Buffer created = new Buffer();
+            buffers.add(created);
+            return created;
+        });
+    }
+
+    /**
+     * A sorted list of the errors of a State, when a number of errors had
+     * been registered
+     */
+    private static final class Snapshot {
+        final State state;
+        final long numRegistered;
+        final List<Error> errors;
+
+        Snapshot(State state, long numRegistered, List<Error> errors) {
+            this.state = state;
+            this.numRegistered = numRegistered;
+            this.errors = errors;
+        }
+    }
+
+    /**
+     * The maximum number of errors kept
+     */
+    private final int maxErrors;
+
+    /**
+     * The order of the list of errors
+     */
+    private final Order order;
+
+    /**
+     * The errors registered
+     */
+    private volatile State state = new State();
+
+    /**
+     * The list of errors last returned by getErrorList
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * ErrorHandler constructor
+     * keeps the first 100 errors, ordered by filename and line number
+     */
+    public ErrorHandler() {
+        this(DEFAULT_MAX_ERRORS, Order.BY_FILE_AND_LINE);
+    }
+
+    /**
+     * ErrorHandler constructor
+     *
+     * @param maxErrors the maximum number of errors kept (the first ones
+     *                  registered), or Integer.MAX_VALUE to keep them all
+     * @param order     the order of the list of errors
+     */
+    public ErrorHandler(int maxErrors, Order order) {
+        if (maxErrors < 0) {
+            throw new IllegalArgumentException("maxErrors must not be negative");
+        }
+        this.maxErrors = maxErrors;
+        this.order = order;
+    }
 
     /**
      * Register an error - auxiliarly method used by the other (public) register methods
@@ -48,10 +194,11 @@ public class ErrorHandler {
      * @param error the Error object to be registered
      */
     private void register(Error error) {
-        // insert a new error into the error list
-        // but keep at most 100 errors.
-        if (errorList.size() < 100) {
-            insert(error);
+        State current = state;
+        long number = current.numRegistered.getAndIncrement();
+        // keep only the first maxErrors errors
+        if (number < maxErrors) {
+            current.buffer.get().add(new Entry(error, number));
         }
     }
 
@@ -85,55 +232,87 @@ public class ErrorHandler {
      * return true if any errors were reported.
      */
     public boolean errorsFound() {
-        return errorList.size() > 0;
+        return state.numRegistered.get() > 0;
     }
 
     /**
-     * Insert an error onto the error list
+     * @return the number of errors registered but not kept, because
+     * maxErrors errors were registered before them
+     */
+    public long getNumDropped() {
+        return Math.max(0, state.numRegistered.get() - maxErrors);
+    }
+
+    /**
+     * Sorts the errors kept, as they are ordered in the list of errors.
      *
-     * @param e error object to insert
-     */
-    private void insert(Error e) {
-        // the algorithm below will insert errors in order by filename first and
-        // then line number.  filenames are kept in the order that they are seen
-        // (i.e., an error is registered with that filename).  Line numbers are
-        // ordered numerically.
-
-        int i = 0;
-
-        if (e.getFilename() != null) {
-            // find the section of the list with the same filename (goes to the end
-            // if a section is not found)
-            for (i = 0; i < errorList.size(); i++) {
-                if (errorList.get(i).getFilename() != null) {
-                    if (e.getFilename().equals(errorList.get(i).getFilename())) {
-                        break;
-                    }
-                }
+     * @param entries the errors, in any order
+     */
+    private void sort(List<Entry> entries) {
+        entries.sort(Comparator.comparingLong(entry -> entry.number));
+        if (order == Order.BY_REGISTRATION) {
+            return;
+        }
+        // the files, in the order an error of each was first registered
+        Map<String, Integer> fileRanks = new HashMap<>();
+        for (Entry entry : entries) {
+            String filename = entry.error.getFilename();
+            if (filename != null && ! fileRanks.containsKey(filename)) {
+                fileRanks.put(filename, fileRanks.size());
             }
-
-            // find the correct spot in the section for this error's line number
-            for (; i < errorList.size(); i++) {
-                if (!e.getFilename().equals(errorList.get(i).getFilename()) ||
-                        e.getLineNum() < (errorList.get(i)).getLineNum()) {
-                    break;
+        }
+        entries.sort((e1, e2) -> {
+            String file1 = e1.error.getFilename();
+            String file2 = e2.error.getFilename();
+            if (file1 == null || file2 == null) {
+                if (file1 != null || file2 != null) {
+                    return (file1 == null) ? -1 : 1;
                 }
+                return Long.compare(e2.number, e1.number);
             }
-        }
-
-        // add the error to the list
-        errorList.add(i, e);
+            int result = Integer.compare(fileRanks.get(file1), fileRanks.get(file2));
+            if (result == 0) {
+                result = Integer.compare(e1.error.getLineNum(), e2.error.getLineNum());
+            }
+            return (result != 0) ? result : Long.compare(e1.number, e2.number);
+        });
     }
 
     /**
      * @return an unmodifiable copy of the list of registered errors
      */
     public List<Error> getErrorList() {
-        return Collections.unmodifiableList(errorList);
+        State current = state;
+        long numRegistered = current.numRegistered.get();
+        Snapshot last = snapshot;
+        if (last != null && last.state == current && last.numRegistered == numRegistered) {
+            return last.errors;
+        }
+        List<Entry> entries = new ArrayList<>();
+        for (Buffer buffer : current.buffers) {
+            buffer.copyTo(entries);
+        }
+        sort(entries);
+        List<Error> errors = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            errors.add(entry.error);
+        }
+        List<Error> result = Collections.unmodifiableList(errors);
+        // errors being registered by other threads may not be in the buffers
+        // yet, and then the list is made again the next time
+        if (entries.size() == Math.min(numRegistered, maxErrors)) {
+            snapshot = new Snapshot(current, numRegistered, result);
+        }
+        return result;
     }
 
+    /**
+     * Removes all the errors.  It should not be called while other threads
+     * register errors.
+     */
     public void clear() {
-        errorList.clear();
+        state = new State();
+        snapshot = null;
     }
 
 }
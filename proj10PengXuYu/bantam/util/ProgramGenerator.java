@@ -0,0 +1,180 @@
+/*
+ * File: ProgramGenerator.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.util;
+
+/**
+ * Generates legal Bantam Java programs of any size for the benchmarks of the
+ * compiler. Unlike ScannerBenchmark.generateSource, the programs pass semantic
+ * analysis: every class has fields and methods with loops, conditionals,
+ * local variables and calls, and an overridden method, the classes are in
+ * inheritance chains of a few classes, and Main calls every class and prints
+ * a checksum. The setters change the shape of the programs, such as the number
+ * of methods of each class, or add type errors on purpose.
+ */
+public class ProgramGenerator
+{
+    /** the number of classes besides Main */
+    private final int numClasses;
+    /** the number of classes in each inheritance chain */
+    private int chainLength = 4;
+    /** the number of methods of each class, besides value() */
+    private int methodsPerClass = 1;
+    /** every class whose number is a multiple of this has type errors, if not 0 */
+    private int errorInterval = 0;
+    /** the return type of the helper method of C0, int or boolean */
+    private String helperType = "int";
+    /** the class whose first method gets the statement edit, or -1 */
+    private int editedClass = -1;
+    /** a statement added to the first method of editedClass */
+    private String edit;
+
+    /**
+     * Creates a generator of programs with the given number of classes
+     * besides Main.
+     *
+     * @param numClasses the number of classes
+     */
+    public ProgramGenerator(int numClasses) {
+        this.numClasses = numClasses;
+    }
+
+    /**
+     * Generates a program with the given number of classes besides Main, and
+     * the default shape.
+     * @param numClasses the number of classes
+     * @return the source code of the program
+     */
+    public static String generateProgram(int numClasses) {
+        return new ProgramGenerator(numClasses).generate();
+    }
+
+    /**
+     * Sets the number of classes in each inheritance chain: the first class of
+     * a chain extends Object, and each of the others extends the one before.
+     * It is 4 by default.
+     *
+     * @param chainLength the number of classes, at least 1
+     */
+    public void setChainLength(int chainLength) {
+        this.chainLength = chainLength;
+    }
+
+    /**
+     * Sets the number of methods like step0_0 of each class. It is 1 by default.
+     *
+     * @param methodsPerClass the number of methods, at least 1
+     */
+    public void setMethodsPerClass(int methodsPerClass) {
+        this.methodsPerClass = methodsPerClass;
+    }
+
+    /**
+     * Makes every class whose number is a multiple of the given interval have
+     * two type errors in its last method, so the program no longer passes
+     * semantic analysis. There are none by default.
+     *
+     * @param errorInterval the interval, or 0 for no errors
+     */
+    public void setErrorInterval(int errorInterval) {
+        this.errorInterval = errorInterval;
+    }
+
+    /**
+     * Sets the return type of the method helper(int x) of C0, which every
+     * method of every class calls. It is int by default.
+     *
+     * @param helperType int or boolean
+     */
+    public void setHelperType(String helperType) {
+        this.helperType = helperType;
+    }
+
+    /**
+     * Adds a statement to the first method of a class, after the declaration
+     * of its local variable sum, such as to time the analysis of a program
+     * after an edit.
+     *
+     * @param classNumber the number of the class
+     * @param statement   the statement, without indentation or line break
+     */
+    public void setEdit(int classNumber, String statement) {
+        this.editedClass = classNumber;
+        this.edit = statement;
+    }
+
+    /**
+     * Generates the program.
+     *
+     * @return the source code of the program
+     */
+    public String generate() {
+        StringBuilder text = new StringBuilder();
+        for (int n = 0; n < numClasses; n++) {
+            String parent = (n % chainLength == 0) ? "Object" : "C" + (n - 1);
+            text.append("class C").append(n).append(" extends ").append(parent)
+                    .append(" {\n")
+                    .append("    int f").append(n).append(" = ").append(n).append(";\n")
+                    .append("    boolean flag").append(n).append(" = ")
+                    .append(n % 3 == 0).append(";\n");
+            for (int m = 0; m < methodsPerClass; m++) {
+                appendMethod(text, n, m);
+            }
+            if (n == 0) {
+                text.append("    ").append(helperType).append(" helper(int x) { return ")
+                        .append(helperType.equals("int") ? "x" : "x > 0").append("; }\n");
+            }
+            text.append("    int value() { return step").append(n).append("_0(5, flag")
+                    .append(n).append(") + f").append(n).append("; }\n")
+                    .append("}\n");
+        }
+        text.append("class Main {\n")
+                .append("    void main() {\n")
+                .append("        var io = new TextIO();\n")
+                .append("        var total = 0;\n");
+        for (int n = 0; n < numClasses; n++) {
+            text.append("        var c").append(n).append(" = new C").append(n)
+                    .append("();\n")
+                    .append("        total = total + c").append(n).append(".value();\n");
+        }
+        text.append("        io.putInt(total);\n")
+                .append("        io.putString(\"\\n\");\n")
+                .append("    }\n")
+                .append("}\n");
+        return text.toString();
+    }
+
+    /**
+     * Appends the method stepN_M of class CN.
+     */
+    private void appendMethod(StringBuilder text, int n, int m) {
+        text.append("    int step").append(n).append('_').append(m)
+                .append("(int x, boolean b) {\n")
+                .append("        var sum = f").append(n).append(";\n");
+        if (n == editedClass && m == 0) {
+            text.append("        ").append(edit).append('\n');
+        }
+        text.append("        var i = 0;\n")
+                .append("        for (i = 0; i < x; i++) {\n")
+                .append("            if (b && i % 2 == 0 || !b) { sum = sum + i * 3 - 1; }\n")
+                .append("            else { sum = sum - 1; }\n")
+                .append("        }\n")
+                .append("        var s = \"text\";\n")
+                .append("        while (sum > 1000 && s.length() > 0) { sum = sum - 1000; }\n")
+                // never true when run, since Main passes 5
+                .append("        if (x < 0) { sum = sum + value(); }\n")
+                .append("        var h = new C0();\n")
+                .append("        h.helper(sum);\n");
+        if (errorInterval > 0 && n % errorInterval == 0 && m == methodsPerClass - 1) {
+            text.append("        sum = flag").append(n).append(";\n")
+                    .append("        undeclared = sum;\n");
+        }
+        text.append("        return sum;\n")
+                .append("    }\n");
+    }
+}
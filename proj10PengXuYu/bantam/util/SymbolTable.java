@@ -26,24 +26,65 @@
 
 package proj10PengXuYu.bantam.util;
 
-import java.util.Enumeration;
-import java.util.Hashtable;
-import java.util.Vector;
+import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * Class for representing a class symbol table
+ * <p/>
+ * The symbols of all the scopes are kept in one list of entries, in the order
+ * they were added, and in one hash table with open addressing (linear
+ * probing) from each name to its entry in the innermost scope. An entry
+ * remembers the entry of the same name in an outer scope that it shadows, so
+ * exiting a scope undoes the entries added in it, from the last one, and
+ * restores the ones they shadowed. Entering and exiting scopes allocates
+ * nothing once the arrays are big enough, and nothing is synchronized, so a
+ * symbol table must only be used by one thread at a time.
  */
 public class SymbolTable {
     /**
-     * Hash table that maps strings to Objects.  The object value corresponds to
-     * the type of the variable or method.  For variables it will be a String and
-     * for methods it will be an AST node.
+     * Number of slots of the hash table and number of entries a new symbol
+     * table has room for (the hash table is kept at most half full)
      */
-    private Hashtable<String, Object> hash;
+    private static final int INITIAL_SLOTS = 16;
+    private static final int INITIAL_ENTRIES = 8;
+
+    /**
+     * Hash table with open addressing. Each slot holds the index plus one of
+     * the innermost entry of a name, or 0 if the slot is empty.
+     */
+    private int[] table;
+    /**
+     * Number of names in the hash table (the number of non-empty slots)
+     */
+    private int numNames;
+    /**
+     * The entries, in the order they were added. For each one: the name of
+     * the symbol, its hash code, its value (i.e., type), the index of its scope
+     * (0 for the outermost scope of this table) and the index of the entry of
+     * the same name that it shadows (-1 if none).
+     */
+    private String[] names;
+    private int[] hashes;
+    private Object[] values;
+    private int[] levels;
+    private int[] shadowed;
+    /**
+     * Number of entries
+     */
+    private int numEntries;
+    /**
+     * Index of the first entry of each scope
+     */
+    private int[] scopeStarts;
+    /**
+     * Number of scopes
+     */
+    private int numScopes;
     /**
-     * List that holds each scope
+     * True once the table is read-only (see freeze)
      */
-    private Vector<Hashtable<String, Object>> scopes;
+    private boolean frozen;
     /**
      * Parent class symbol table (may be null)
      * If lookup fails in this symbol table should lookup in parent
@@ -55,28 +96,35 @@ public class SymbolTable {
      * create an empty symbol table
      */
     public SymbolTable() {
-        hash = null;
-        scopes = new Vector<Hashtable<String, Object>>();
+        table = new int[INITIAL_SLOTS];
+        names = new String[INITIAL_ENTRIES];
+        hashes = new int[INITIAL_ENTRIES];
+        values = new Object[INITIAL_ENTRIES];
+        levels = new int[INITIAL_ENTRIES];
+        shadowed = new int[INITIAL_ENTRIES];
+        scopeStarts = new int[4];
         parent = null;
     }
 
     /**
      * SymbolTable constructor
      * create a symbol table from an existing one
-     * (used internally for cloning symbol tables
+     * (used internally for cloning symbol tables)
      *
-     * @param scopes the scopes of symbols
-     * @param parent parent symbol table
+     * @param original the symbol table to copy
+     * @param parent   parent symbol table
      */
-    private SymbolTable(Vector<Hashtable<String, Object>> scopes,
-                        SymbolTable parent) {
-        this.scopes = scopes;
-        if (scopes.size() > 0) {
-            this.hash = scopes.elementAt(scopes.size() - 1);
-        }
-        else {
-            this.hash = null;
-        }
+    private SymbolTable(SymbolTable original, SymbolTable parent) {
+        this.table = original.table.clone();
+        this.numNames = original.numNames;
+        this.names = original.names.clone();
+        this.hashes = original.hashes.clone();
+        this.values = original.values.clone();
+        this.levels = original.levels.clone();
+        this.shadowed = original.shadowed.clone();
+        this.numEntries = original.numEntries;
+        this.scopeStarts = original.scopeStarts.clone();
+        this.numScopes = original.numScopes;
         this.parent = parent;
     }
 
@@ -86,30 +134,181 @@ public class SymbolTable {
      * @param parent symbol table of the parent class
      */
     public void setParent(SymbolTable parent) {
+        checkWritable();
         this.parent = parent;
     }
 
+    /**
+     * Makes the table read-only: from now on, entering or exiting a scope,
+     * adding or setting a symbol, or setting the parent throws an
+     * UnsupportedOperationException. Since lookups change nothing, a frozen
+     * table can be shared, such as by the classes of several programs
+     * analyzed at the same time.
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Throws an UnsupportedOperationException if the table is frozen
+     */
+    private void checkWritable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("The symbol table is read-only");
+        }
+    }
+
+    //-----------------------------------------
+    // The hash table
+
+    /**
+     * Returns the hash code of a name, with the high bits mixed into the low
+     * bits that choose the slot.
+     */
+    private static int hash(String s) {
+        int h = s.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Finds the slot of a name in the hash table
+     *
+     * @param s    the name
+     * @param hash its hash code
+     * @return the slot of the name, or the empty slot where it would go
+     */
+    private int findSlot(String s, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int entry = table[slot] - 1;
+            if (entry < 0 || (hashes[entry] == hash && names[entry].equals(s))) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Finds the innermost entry of a name in this table
+     *
+     * @param s the name
+     * @return the index of the entry, or -1 if the name is not in this table
+     */
+    private int findEntry(String s) {
+        return table[findSlot(s, hash(s))] - 1;
+    }
+
+    /**
+     * Finds the innermost entry of a name in the given scope of this table or
+     * an outer one
+     *
+     * @param s     the name
+     * @param level the index of the scope in this table
+     * @return the index of the entry, or -1 if there is none
+     */
+    private int findEntry(String s, int level) {
+        int entry = findEntry(s);
+        while (entry >= 0 && levels[entry] > level) {
+            entry = shadowed[entry];
+        }
+        return entry;
+    }
+
+    /**
+     * Empties a slot of the hash table, moving back the names after it in its
+     * cluster that would otherwise no longer be found (backward shift deletion)
+     *
+     * @param slot the slot to empty
+     */
+    private void removeSlot(int slot) {
+        int mask = table.length - 1;
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (table[next] == 0) {
+                break;
+            }
+            int home = hashes[table[next] - 1] & mask;
+            // the name at next can fill the hole unless its home slot is
+            // cyclically in (hole, next]
+            boolean between = (hole <= next) ? (hole < home && home <= next)
+                    : (hole < home || home <= next);
+            if (!between) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+        table[hole] = 0;
+        numNames--;
+    }
+
+    /**
+     * Doubles the size of the hash table
+     */
+    private void growTable() {
+        int[] old = table;
+        table = new int[old.length * 2];
+        int mask = table.length - 1;
+        for (int slotValue : old) {
+            if (slotValue != 0) {
+                int slot = hashes[slotValue - 1] & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = slotValue;
+            }
+        }
+    }
+
+    /**
+     * Makes room for one more entry
+     */
+    private void growEntries() {
+        int capacity = names.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        values = Arrays.copyOf(values, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        shadowed = Arrays.copyOf(shadowed, capacity);
+    }
+
+    //-----------------------------------------
+    // Scopes
+
     /**
      * Enter a new scope
      */
     public void enterScope() {
-        hash = new Hashtable<String, Object>();
-        scopes.add(hash);
+        checkWritable();
+        if (numScopes == scopeStarts.length) {
+            scopeStarts = Arrays.copyOf(scopeStarts, numScopes * 2);
+        }
+        scopeStarts[numScopes++] = numEntries;
     }
 
     /**
      * Exit a scope
      */
     public void exitScope() {
-        if (scopes.size() == 0) {
+        checkWritable();
+        if (numScopes == 0) {
             throw new RuntimeException("No scope to exit");
         }
-        scopes.removeElementAt(scopes.size() - 1);
-        if (scopes.size() > 0) {
-            hash = scopes.elementAt(scopes.size() - 1);
-        }
-        else {
-            hash = null;
+        int first = scopeStarts[--numScopes];
+        // undo the entries of the scope, the last one first
+        while (numEntries > first) {
+            int entry = --numEntries;
+            int slot = findSlot(names[entry], hashes[entry]);
+            if (shadowed[entry] >= 0) {
+                table[slot] = shadowed[entry] + 1;
+            }
+            else {
+                removeSlot(slot);
+            }
+            names[entry] = null;
+            values[entry] = null;
         }
     }
 
@@ -121,12 +320,38 @@ public class SymbolTable {
      * @param value value of symbol (i.e., type)
      */
     public void add(String s, Object value) {
-        if (scopes.size() == 0) {
+        checkWritable();
+        if (numScopes == 0) {
             throw new RuntimeException("Must enter a scope before adding to table");
         }
-        hash.put(s, value);
+        Objects.requireNonNull(value);
+        int hash = hash(s);
+        int slot = findSlot(s, hash);
+        int previous = table[slot] - 1;
+        int level = numScopes - 1;
+        if (previous >= 0 && levels[previous] == level) {
+            // already in the current scope
+            values[previous] = value;
+            return;
+        }
+        if (numEntries == names.length) {
+            growEntries();
+        }
+        int entry = numEntries++;
+        names[entry] = s;
+        hashes[entry] = hash;
+        values[entry] = value;
+        levels[entry] = level;
+        shadowed[entry] = previous;
+        table[slot] = entry + 1;
+        if (previous < 0 && ++numNames * 2 > table.length) {
+            growTable();
+        }
     }
 
+    //-----------------------------------------
+    // Lookups
+
     /**
      * Looks up a symbol in any scope in the symbol table
      *
@@ -134,16 +359,13 @@ public class SymbolTable {
      * @return value of symbol (i.e., type), null if not found
      */
     public Object lookup(String s) {
-        if (scopes.size() == 0) {
+        if (numScopes == 0) {
             throw new RuntimeException("Must enter a scope before looking up in table");
         }
 
-        for (int i = scopes.size() - 1; i >= 0; i--) {
-            Hashtable<String, Object> h = scopes.elementAt(i);
-            Object value = h.get(s);
-            if (value != null) {
-                return value;
-            }
+        int entry = findEntry(s);
+        if (entry >= 0) {
+            return values[entry];
         }
 
         if (parent != null) {
@@ -166,7 +388,7 @@ public class SymbolTable {
         int lastLevel = getCurrScopeLevel();
 
         // some error checking
-        if (scopes.size() == 0) {
+        if (numScopes == 0) {
             throw new RuntimeException("Must enter a scope before looking up in table");
         }
         else if (level < 0 || level >= lastLevel) {
@@ -176,40 +398,21 @@ public class SymbolTable {
                     lastLevel + ") minus one");
         }
 
-        // get an ordered list of ancestor symbol tables
-        // (starts from Object's table and ends with current class's table)
-        Vector<SymbolTable> tableList = new Vector<SymbolTable>();
-        for (SymbolTable st = this; st != null; st = st.parent)
-            tableList.add(0, st);
-
-        // find the right scope
-        for (int i = 0; i < tableList.size(); i++) {
-            SymbolTable st = tableList.elementAt(i);
-
-            // if level within the next table then do lookup
-            if (level < st.scopes.size()) {
-                // lookup in this scope and earlier scopes until we find
-                // symbol or run out of scopes
-                for (int l = level; l >= 0; l--) {
-                    Hashtable<String, Object> h = st.scopes.elementAt(l);
-                    if (h.get(s) != null) {
-                        return h.get(s);
-                    }
-                }
-                // if we make it here then we try looking up in parent table
-                // (if one exists)
-                if (st.parent != null) {
-                    return st.parent.lookup(s);
-                }
-                // otherwise we return null (not found)
-                return null;
-            }
-
-            // otherwise decrement level and proceed to next table
-            level = level - st.scopes.size();
+        // find the table with the scope, starting from Object's table
+        SymbolTable st = tableAtLevel(level);
+        if (st == null) {
+            return null;
+        }
+        // lookup in this scope and earlier scopes until we find
+        // symbol or run out of scopes
+        int entry = st.findEntry(s, level - st.getFirstScopeLevel());
+        if (entry >= 0) {
+            return st.values[entry];
+        }
+        // otherwise try looking up in parent table (if one exists)
+        if (st.parent != null) {
+            return st.parent.lookup(s);
         }
-
-        // we should never get here
         return null;
     }
 
@@ -220,10 +423,11 @@ public class SymbolTable {
      * @return value of symbol (i.e., type), null if not found
      */
     public Object peek(String s) {
-        if (scopes.size() == 0) {
+        if (numScopes == 0) {
             throw new RuntimeException("Must enter a scope before peeking in table");
         }
-        return hash.get(s);
+        int entry = findEntry(s);
+        return (entry >= 0 && levels[entry] == numScopes - 1) ? values[entry] : null;
     }
 
     /**
@@ -239,7 +443,7 @@ public class SymbolTable {
         int lastLevel = getCurrScopeLevel();
 
         // some error checking
-        if (scopes.size() == 0) {
+        if (numScopes == 0) {
             throw new RuntimeException("Must enter a scope before peeking in table");
         }
         else if (level < 0 || level >= lastLevel) {
@@ -249,28 +453,13 @@ public class SymbolTable {
                     lastLevel + ") minus one");
         }
 
-        // get an ordered list of ancestor symbol tables
-        // (starts from Object's table and ends with current class's table)
-        Vector<SymbolTable> tableList = new Vector<SymbolTable>();
-        for (SymbolTable st = this; st != null; st = st.parent)
-            tableList.add(0, st);
-
-        // find the right scope
-        for (int i = 0; i < tableList.size(); i++) {
-            SymbolTable st = tableList.elementAt(i);
-
-            // if level within the next table then do lookup
-            if (level < st.scopes.size()) {
-                Hashtable<String, Object> h = st.scopes.elementAt(level);
-                return h.get(s);
-            }
-
-            // otherwise decrement level and proceed to next table
-            level = level - st.scopes.size();
+        SymbolTable st = tableAtLevel(level);
+        if (st == null) {
+            return null;
         }
-
-        // we should never get here
-        return null;
+        int scope = level - st.getFirstScopeLevel();
+        int entry = st.findEntry(s, scope);
+        return (entry >= 0 && st.levels[entry] == scope) ? st.values[entry] : null;
     }
 
     /**
@@ -280,18 +469,17 @@ public class SymbolTable {
      * @param val value to set the symbol to
      */
     public void set(String s, Object val) {
-        if (scopes.size() == 0) {
+        if (numScopes == 0) {
             throw new RuntimeException("Must enter a scope before setting in table");
         }
+        Objects.requireNonNull(val);
 
         for (SymbolTable st = this; st != null; st = st.parent) {
-            for (int i = st.scopes.size() - 1; i >= 0; i--) {
-                Hashtable<String, Object> h = st.scopes.elementAt(i);
-                if (h.get(s) != null) {
-                    h.remove(s);
-                    h.put(s, val);
-                    return;
-                }
+            int entry = st.findEntry(s);
+            if (entry >= 0) {
+                st.checkWritable();
+                st.values[entry] = val;
+                return;
             }
         }
 
@@ -310,7 +498,7 @@ public class SymbolTable {
     public void set(String s, Object val, int level) {
         int lastLevel = getCurrScopeLevel();
 
-        if (scopes.size() == 0) {
+        if (numScopes == 0) {
             throw new RuntimeException("Must enter a scope before setting in table");
         }
         else if (level < 0 || level >= lastLevel) {
@@ -319,40 +507,49 @@ public class SymbolTable {
                     " between 0 and current level (" +
                     lastLevel + ") minus one");
         }
+        Objects.requireNonNull(val);
 
-        // get an ordered list of ancestor symbol tables
-        // (starts from Object's table and ends with current class's table)
-        Vector<SymbolTable> tableList = new Vector<SymbolTable>();
-        for (SymbolTable st = this; st != null; st = st.parent)
-            tableList.add(0, st);
-
-        // find the right scope
-        for (int i = 0; i < tableList.size(); i++) {
-            SymbolTable st = tableList.elementAt(i);
-
-            // if level within the next table then do lookup
-            if (level < st.scopes.size()) {
-                // look in this scope and earlier scopes until we find
-                // symbol or run out of scopes
-                for (int l = level; l >= 0; l--) {
-                    Hashtable<String, Object> h = st.scopes.elementAt(l);
-                    if (h.get(s) != null) {
-                        h.remove(s);
-                        h.put(s, val);
-                        return;
-                    }
-                }
-                // if we make it here then we try setting in parent table
-                // (if one exists)
-                if (st.parent != null) {
-                    st.parent.set(s, val);
-                }
-                return;
-            }
+        SymbolTable st = tableAtLevel(level);
+        if (st == null) {
+            return;
+        }
+        // look in this scope and earlier scopes until we find
+        // symbol or run out of scopes
+        int entry = st.findEntry(s, level - st.getFirstScopeLevel());
+        if (entry >= 0) {
+            st.checkWritable();
+            st.values[entry] = val;
+        }
+        // if we make it here then we try setting in parent table
+        // (if one exists)
+        else if (st.parent != null) {
+            st.parent.set(s, val);
+        }
+    }
 
-            // otherwise decrement level and proceed to next table
-            level = level - st.scopes.size();
+    /**
+     * Returns the table of this one or its ancestors that holds the scope at
+     * the given level, counting the scopes of the ancestors first
+     *
+     * @param level scope level (outermost scope is at level 0)
+     * @return the table, or null if the level is beyond the last scope
+     */
+    private SymbolTable tableAtLevel(int level) {
+        for (SymbolTable st = this; st != null; st = st.parent) {
+            int first = st.getFirstScopeLevel();
+            if (level >= first) {
+                return (level < first + st.numScopes) ? st : null;
+            }
         }
+        return null;
+    }
+
+    /**
+     * Returns the level of the outermost scope of this table, which comes
+     * after the scopes of the ancestors
+     */
+    private int getFirstScopeLevel() {
+        return (parent != null) ? parent.getCurrScopeLevel() : 0;
     }
 
     /**
@@ -363,20 +560,13 @@ public class SymbolTable {
      * @return scope level
      */
     public int getScopeLevel(String s) {
-        if (scopes.size() == 0) {
+        if (numScopes == 0) {
             throw new RuntimeException("Must enter a scope before looking up in table");
         }
 
-        for (int i = scopes.size() - 1; i >= 0; i--) {
-            Hashtable<String, Object> h = scopes.elementAt(i);
-            if (h.get(s) != null) {
-                if (parent == null) {
-                    return (i + 1);
-                }
-                else {
-                    return (i + 1) + parent.getCurrScopeLevel();
-                }
-            }
+        int entry = findEntry(s);
+        if (entry >= 0) {
+            return (levels[entry] + 1) + getFirstScopeLevel();
         }
 
         if (parent != null) {
@@ -386,6 +576,9 @@ public class SymbolTable {
         return -1;
     }
 
+    //-----------------------------------------
+    // Sizes
+
     /**
      * Gets the number of entries in all scopes of the symbol table
      * Note: includes inherited scopes
@@ -393,15 +586,10 @@ public class SymbolTable {
      * @return size of current scope
      */
     public int getSize() {
-        int size = 0;
-
-        for (int i = 0; i < scopes.size(); i++)
-            size += scopes.elementAt(i).size();
-
         if (parent != null) {
-            return parent.getSize() + size;
+            return parent.getSize() + numEntries;
         }
-        return size;
+        return numEntries;
     }
 
     /**
@@ -410,8 +598,8 @@ public class SymbolTable {
      * @return size of current scope
      */
     public int getCurrScopeSize() {
-        if (hash != null) {
-            return hash.size();
+        if (numScopes > 0) {
+            return numEntries - scopeStarts[numScopes - 1];
         }
         else {
             return 0;
@@ -426,15 +614,14 @@ public class SymbolTable {
      */
     public int getCurrScopeLevel() {
         if (parent != null) {
-            return scopes.size() + parent.getCurrScopeLevel();
+            return numScopes + parent.getCurrScopeLevel();
         }
-        return scopes.size();
+        return numScopes;
     }
 
     /**
      * clone this symbol table as well as all parent symbol tables
      * Note: does a shallow clone, does not copy keys or values
-     * Note also: this is an expensive operation
      *
      * @return cloned symbol table
      */
@@ -444,18 +631,7 @@ public class SymbolTable {
         if (parent != null) {
             newParent = parent.clone();
         }
-
-        // create new set of clone scopes
-        Vector<Hashtable<String, Object>> newScopes
-                = new Vector<Hashtable<String, Object>>();
-        for (int i = 0; i < scopes.size(); i++)
-            newScopes.add((Hashtable<String, Object>) scopes.elementAt(i).clone());
-
-        // use these to create a new symbol table
-        SymbolTable st = new SymbolTable(newScopes, newParent);
-
-        // return cloned symbol table
-        return st;
+        return new SymbolTable(this, newParent);
     }
 
     /**
@@ -468,8 +644,16 @@ public class SymbolTable {
             parent.dump();
         }
 
-        Enumeration e = scopes.elements();
-        while (e.hasMoreElements())
-            System.out.println(e.nextElement());
+        for (int scope = 0; scope < numScopes; scope++) {
+            int end = (scope + 1 < numScopes) ? scopeStarts[scope + 1] : numEntries;
+            StringBuilder line = new StringBuilder("{");
+            for (int entry = scopeStarts[scope]; entry < end; entry++) {
+                if (entry > scopeStarts[scope]) {
+                    line.append(", ");
+                }
+                line.append(names[entry]).append('=').append(values[entry]);
+            }
+            System.out.println(line.append('}'));
+        }
     }
 }
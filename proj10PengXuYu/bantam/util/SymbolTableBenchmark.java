@@ -0,0 +1,274 @@
+/*
+ * File: SymbolTableBenchmark.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.util;
+
+import java.util.Hashtable;
+import java.util.Random;
+import java.util.Vector;
+
+/**
+ * A microbenchmark of SymbolTable on the two ways the TypeCheckerVisitor
+ * stresses it: deeply nested scopes in one method, each declaring a variable
+ * and looking names up through all the scopes below it, and a wide class
+ * hierarchy, whose methods look up fields declared in the class and in its
+ * superclasses. It runs each workload once with SymbolTable and once with
+ * the Hashtable-per-scope table that SymbolTable used to be, and prints the
+ * time and the number of bytes allocated per operation of each.
+ *
+ * Usage: java proj10PengXuYu.bantam.util.SymbolTableBenchmark
+ */
+public class SymbolTableBenchmark
+{
+    /** number of nested scopes of the deep-nesting workload */
+    private static final int DEPTH = 200;
+    /** number of times the nested scopes are entered and exited */
+    private static final int NESTING_REPEATS = 200;
+    /** number of classes in the chain of superclasses of the wide-class workload */
+    private static final int NUM_CLASSES = 8;
+    /** number of fields declared by each of these classes */
+    private static final int FIELDS_PER_CLASS = 250;
+    /** number of methods checked in the last class */
+    private static final int NUM_METHODS = 20_000;
+    /** number of names each method looks up */
+    private static final int LOOKUPS_PER_METHOD = 20;
+
+    /**
+     * The operations of a symbol table that the workloads use, so that they
+     * can run on both implementations.
+     */
+    private interface Table
+    {
+        void enterScope();
+
+        void exitScope();
+
+        void add(String s, Object value);
+
+        Object lookup(String s);
+    }
+
+    /**
+     * Creates an empty table of one of the implementations.
+     */
+    private interface TableFactory
+    {
+        Table create(Table parent);
+    }
+
+    /**
+     * SymbolTable behind the Table interface
+     */
+    private static final class FlatTable implements Table
+    {
+        final SymbolTable table = new SymbolTable();
+
+        FlatTable(Table parent) {
+            if (parent != null) {
+                table.setParent(((FlatTable) parent).table);
+            }
+        }
+
+        public void enterScope() { table.enterScope(); }
+
+        public void exitScope() { table.exitScope(); }
+
+        public void add(String s, Object value) { table.add(s, value); }
+
+        public Object lookup(String s) { return table.lookup(s); }
+    }
+
+    /**
+     * The symbol table as it was before: a new Hashtable for every scope, in a
+     * Vector, searched from the innermost scope out and then in the parent.
+     */
+    private static final class HashtableTable implements Table
+    {
+        private Hashtable<String, Object> hash;
+        private final Vector<Hashtable<String, Object>> scopes = new Vector<>();
+        private final HashtableTable parent;
+
+        HashtableTable(Table parent) {
+            this.parent = (HashtableTable) parent;
+        }
+
+        public void enterScope() {
+            hash = new Hashtable<>();
+            scopes.add(hash);
+        }
+
+        public void exitScope() {
+            scopes.removeElementAt(scopes.size() - 1);
+            hash = scopes.isEmpty() ? null : scopes.elementAt(scopes.size() - 1);
+        }
+
+        public void add(String s, Object value) {
+            hash.put(s, value);
+        }
+
+        public Object lookup(String s) {
+            for (int i = scopes.size() - 1; i >= 0; i--) {
+                Object value = scopes.elementAt(i).get(s);
+                if (value != null) {
+                    return value;
+                }
+            }
+            return (parent != null) ? parent.lookup(s) : null;
+        }
+    }
+
+    /**
+     * A workload, which runs a number of operations on tables made by a factory.
+     */
+    private interface Workload
+    {
+        /**
+         * @return a number depending on the results, so the work isn't optimized away
+         */
+        int run(TableFactory factory);
+    }
+
+    /**
+     * The deep-nesting workload: a method whose body is DEPTH nested blocks,
+     * each declaring a variable and then looking up the variable of every
+     * fourth scope below it, a field and an undeclared name.
+     */
+    private static final class DeepNesting implements Workload
+    {
+        final String[] locals = new String[DEPTH];
+        /** number of operations of a run */
+        long operations;
+
+        DeepNesting() {
+            for (int i = 0; i < DEPTH; i++) {
+                locals[i] = "local" + i;
+            }
+            for (int depth = 0; depth < DEPTH; depth++) {
+                operations += 3 + (depth / 4 + 1) + 2;
+            }
+            operations *= NESTING_REPEATS;
+        }
+
+        public int run(TableFactory factory) {
+            Table fields = factory.create(null);
+            fields.enterScope();
+            fields.add("this", "Main");
+            fields.add("count", "int");
+            Table table = factory.create(fields);
+            int sum = 0;
+            for (int repeat = 0; repeat < NESTING_REPEATS; repeat++) {
+                for (int depth = 0; depth < DEPTH; depth++) {
+                    table.enterScope();
+                    table.add(locals[depth], "int");
+                    for (int i = depth; i >= 0; i -= 4) {
+                        sum += (table.lookup(locals[i]) != null) ? 1 : 0;
+                    }
+                    sum += (table.lookup("count") != null) ? 1 : 0;
+                    sum += (table.lookup("undeclared") == null) ? 1 : 0;
+                }
+                for (int depth = 0; depth < DEPTH; depth++) {
+                    table.exitScope();
+                }
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * The wide-class workload: a chain of NUM_CLASSES classes, each declaring
+     * FIELDS_PER_CLASS fields, and NUM_METHODS methods of the last class, each
+     * with a scope of three parameters, looking up random fields of the chain
+     * and its parameters.
+     */
+    private static final class WideClass implements Workload
+    {
+        final String[] fields = new String[NUM_CLASSES * FIELDS_PER_CLASS];
+        final String[] formals = {"a", "b", "c"};
+        final int[] lookups = new int[NUM_METHODS * LOOKUPS_PER_METHOD];
+        /** number of operations of a run */
+        final long operations = (long) NUM_METHODS * (2 + formals.length + LOOKUPS_PER_METHOD);
+
+        WideClass(Random random) {
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = "field" + i;
+            }
+            for (int i = 0; i < lookups.length; i++) {
+                // mostly fields, and sometimes a parameter
+                lookups[i] = random.nextInt(fields.length + fields.length / 10);
+            }
+        }
+
+        public int run(TableFactory factory) {
+            Table table = null;
+            for (int c = 0; c < NUM_CLASSES; c++) {
+                table = factory.create(table);
+                table.enterScope();
+                for (int f = 0; f < FIELDS_PER_CLASS; f++) {
+                    table.add(fields[c * FIELDS_PER_CLASS + f], "int");
+                }
+            }
+            int sum = 0;
+            int next = 0;
+            for (int m = 0; m < NUM_METHODS; m++) {
+                table.enterScope();
+                for (String formal : formals) {
+                    table.add(formal, "int");
+                }
+                for (int i = 0; i < LOOKUPS_PER_METHOD; i++) {
+                    int name = lookups[next++];
+                    String s = (name < fields.length) ? fields[name]
+                            : formals[name % formals.length];
+                    sum += (table.lookup(s) != null) ? 1 : 0;
+                }
+                table.exitScope();
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Times a workload on one implementation and prints the result.
+     * @param label the name of the implementation
+     * @param workload the workload
+     * @param operations the number of operations of a run of the workload
+     * @param factory creates the tables of the implementation
+     * @return the checksum of the workload
+     */
+    private static int measure(String label, Workload workload, long operations,
+                               TableFactory factory) {
+        Runnable run = () -> workload.run(factory);
+        double millis = Benchmarks.time(run);
+        long allocated = Benchmarks.allocatedBytes(run);
+        System.out.println(String.format("  %-22s %8.2f ns/op %8.2f B/op", label,
+                millis * 1e6 / operations, (double) allocated / operations));
+        return workload.run(factory);
+    }
+
+    /**
+     * runs the benchmark
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        DeepNesting deepNesting = new DeepNesting();
+        WideClass wideClass = new WideClass(new Random(361));
+        String[] labels = {"deep nesting (" + DEPTH + " scopes)",
+                "wide class (" + NUM_CLASSES + " classes of " + FIELDS_PER_CLASS + " fields)"};
+        Workload[] workloads = {deepNesting, wideClass};
+        long[] operations = {deepNesting.operations, wideClass.operations};
+        for (int i = 0; i < workloads.length; i++) {
+            System.out.println(labels[i]);
+            int expected = measure("Hashtable per scope", workloads[i], operations[i],
+                    HashtableTable::new);
+            int actual = measure("open addressing", workloads[i], operations[i],
+                    FlatTable::new);
+            if (expected != actual) {
+                System.out.println("  the symbol tables disagree!");
+            }
+        }
+    }
+}
@@ -14,21 +14,35 @@ import proj10PengXuYu.bantam.util.CompilationException;
 import proj10PengXuYu.bantam.util.Error;
 import proj10PengXuYu.bantam.util.ErrorHandler;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 
 /**
  * PrettyPrinterVisitor class creates a visitor that traverses the AST to
  * pretty print the input Bantam Java program. It assumes that the current
  * program is well-formed so that it would be meaningful to pretty print.
- * When visiting each node in the tree, it adds the pretty formatted
- * Bantam Java code to the outString field.
+ * When visiting each node in the tree, it appends the pretty formatted
+ * Bantam Java code to an Appendable, which can be a StringBuilder or a
+ * Writer. The code is only ever appended, never edited, so the time taken
+ * is linear in the size of the output, and it can be written to a Writer or
+ * a channel in chunks while the tree is visited, without the whole output
+ * ever being in memory.
  *
  * Note: Comments are ignored because they are thrown away by the scanner.
  */
 public class PrettyPrinterVisitor extends Visitor {
 
-    // stores the pretty printed content in a StringBuilder
-    private StringBuilder outString;
+    // the number of characters written at a time to a Writer or channel
+    public static final int CHUNK_SIZE = 8192;
+
+    // receives the pretty printed content
+    private Appendable out;
     // records the current level of indentation
     private int indentationLevel;
 
@@ -36,81 +50,142 @@ public class PrettyPrinterVisitor extends Visitor {
      * Method for usage of PrettyPrinterVisitor.
      *
      * @param rootNode the root node of the AST to traverse
-     * @return String the outString field that stores the output
+     * @return String the pretty printed code
      */
     public String generateOutputString(ASTNode rootNode) {
-        outString = new StringBuilder("");
+        StringBuilder builder = new StringBuilder();
+        try {
+            print(rootNode, builder);
+        } catch (IOException e) {
+            // a StringBuilder does not throw IOExceptions
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Appends the pretty printed code of an AST to an Appendable, as the
+     * tree is visited.
+     *
+     * @param rootNode the root node of the AST to traverse
+     * @param out where the code goes
+     * @throws IOException if the Appendable throws one
+     */
+    public void print(ASTNode rootNode, Appendable out) throws IOException {
+        this.out = out;
         indentationLevel = 0;
-        rootNode.accept(this);
-        return outString.toString();
+        try {
+            rootNode.accept(this);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            this.out = null;
+        }
     }
 
-    /** Get method for outString field */
-    public String getOutString() {
-        return outString.toString();
+    /**
+     * Writes the pretty printed code of an AST to a Writer, in chunks of
+     * CHUNK_SIZE characters, as the tree is visited. The Writer is flushed
+     * but not closed.
+     *
+     * @param rootNode the root node of the AST to traverse
+     * @param writer where the code goes
+     * @throws IOException if the Writer throws one
+     */
+    public void print(ASTNode rootNode, Writer writer) throws IOException {
+        BufferedWriter chunks = new BufferedWriter(writer, CHUNK_SIZE);
+        print(rootNode, (Appendable) chunks);
+        chunks.flush();
     }
 
-    /** Set method for outString field */
-    public void setOutString(String newCode) {
-        int strLength = outString.length();
-        this.outString.replace(0, strLength, newCode);
+    /**
+     * Writes the pretty printed code of an AST to a channel, such as a
+     * FileChannel, encoded in UTF-8, in chunks as the tree is visited.
+     * The channel is not closed.
+     *
+     * @param rootNode the root node of the AST to traverse
+     * @param channel where the code goes
+     * @throws IOException if writing to the channel fails
+     */
+    public void print(ASTNode rootNode, WritableByteChannel channel) throws IOException {
+        print(rootNode, Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(),
+                CHUNK_SIZE));
+    }
+
+    /**
+     * Appends code to the output.
+     *
+     * @param code the code
+     */
+    protected void addCode(CharSequence code) {
+        try {
+            out.append(code);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @Override
     public String visit(Class_ node) {
-        outString.append("class " + node.getName() + " ");
+        addCode("class " + node.getName() + " ");
         if (! node.getParent().equals("Object")) {
-            outString.append("extends " + node.getParent() + " ");
+            addCode("extends " + node.getParent() + " ");
         }
         startBlock();
         node.getMemberList().accept(this);
         endBlock();
-        outString.append("\n");
+        addCode("\n");
         return null;
     }
 
     @Override
     public Object visit(Field node) {
         addIndentation();
-        outString.append(node.getType() + " " + node.getName());
+        addCode(node.getType() + " " + node.getName());
         if (node.getInit() != null) {
-            outString.append(" = ");
+            addCode(" = ");
             node.getInit().accept(this);
         }
-        outString.append("; \n");
+        addCode("; \n");
         return null;
     }
 
     @Override
     public Object visit(Method node) {
-        outString.append("\n");
+        addCode("\n");
         addIndentation();
-        outString.append(node.getReturnType() + " " + node.getName() + "(");
+        addCode(node.getReturnType() + " " + node.getName() + "(");
         node.getFormalList().accept(this);
-        // remove the last two chars, ie. "," and " ", if formal list is not empty
-        int strLength = outString.length();
-        if (outString.charAt(strLength-1) != '(') {
-            outString.delete(strLength-2, strLength);
-        }
-        outString.append(") ");
+        addCode(") ");
         startBlock();
         node.getStmtList().accept(this);
         endBlock();
         return null;
     }
 
+    @Override
+    public Object visit(FormalList node) {
+        for (Iterator<ASTNode> it = node.iterator(); it.hasNext(); ) {
+            ((Formal) it.next()).accept(this);
+            if (it.hasNext()) {
+                addCode(", ");
+            }
+        }
+        return null;
+    }
+
     @Override
     public Object visit(Formal node) {
-        outString.append(node.getType() + " " + node.getName() + ", ");
+        addCode(node.getType() + " " + node.getName());
         return null;
     }
 
     @Override
     public Object visit(DeclStmt node) {
         addIndentation();
-        outString.append("var " + node.getName() + " = ");
+        addCode("var " + node.getName() + " = ");
         node.getInit().accept(this);
-        outString.append("; \n");
+        addCode("; \n");
         return null;
     }
 
@@ -118,22 +193,22 @@ public class PrettyPrinterVisitor extends Visitor {
     public Object visit(ExprStmt node) {
         addIndentation();
         node.getExpr().accept(this);
-        outString.append("; \n");
+        addCode("; \n");
         return null;
     }
 
     @Override
     public Object visit(IfStmt node) {
         addIndentation();
-        outString.append("if (");
+        addCode("if (");
         node.getPredExpr().accept(this);
-        outString.append(") ");
+        addCode(") ");
         startBlock();
         node.getThenStmt().accept(this);
         endBlock();
         if (node.getElseStmt() != null) {
             addIndentation();
-            outString.append("else ");
+            addCode("else ");
             startBlock();
             node.getElseStmt().accept(this);
             endBlock();
@@ -144,9 +219,9 @@ public class PrettyPrinterVisitor extends Visitor {
     @Override
     public Object visit(WhileStmt node) {
         addIndentation();
-        outString.append("while (");
+        addCode("while (");
         node.getPredExpr().accept(this);
-        outString.append(") ");
+        addCode(") ");
         startBlock();
         node.getBodyStmt().accept(this);
         endBlock();
@@ -156,19 +231,19 @@ public class PrettyPrinterVisitor extends Visitor {
     @Override
     public Object visit(ForStmt node) {
         addIndentation();
-        outString.append("for (");
+        addCode("for (");
         if (node.getInitExpr() != null) {
             node.getInitExpr().accept(this);
         }
-        outString.append("; ");
+        addCode("; ");
         if (node.getPredExpr() != null) {
             node.getPredExpr().accept(this);
         }
-        outString.append("; ");
+        addCode("; ");
         if (node.getUpdateExpr() != null) {
             node.getUpdateExpr().accept(this);
         }
-        outString.append(") ");
+        addCode(") ");
         startBlock();
         node.getBodyStmt().accept(this);
         endBlock();
@@ -178,19 +253,19 @@ public class PrettyPrinterVisitor extends Visitor {
     @Override
     public Object visit(BreakStmt node) {
         addIndentation();
-        outString.append("break; \n");
+        addCode("break; \n");
         return null;
     }
 
     @Override
     public Object visit(ReturnStmt node) {
         addIndentation();
-        outString.append("return");
+        addCode("return");
         if (node.getExpr() != null) {
-            outString.append(" ");
+            addCode(" ");
             node.getExpr().accept(this);
         }
-        outString.append("; \n");
+        addCode("; \n");
         return null;
     }
 
@@ -198,55 +273,52 @@ public class PrettyPrinterVisitor extends Visitor {
     public Object visit(DispatchExpr node) {
         if (node.getRefExpr() != null) {
             node.getRefExpr().accept(this);
-            outString.append(".");
+            addCode(".");
         }
-        outString.append(node.getMethodName() + "(");
+        addCode(node.getMethodName() + "(");
         node.getActualList().accept(this);
-        // remove the ending ", " if the actual list is not empty
-        if (outString.charAt(outString.length()-1) != '(') {
-            int strLength = outString.length();
-            outString.delete(strLength-2, strLength);
-        }
-        outString.append(")");
+        addCode(")");
         return null;
     }
 
     @Override
     public Object visit(ExprList node) {
-        for (Iterator it = node.iterator(); it.hasNext(); ) {
+        for (Iterator<ASTNode> it = node.iterator(); it.hasNext(); ) {
             ((Expr) it.next()).accept(this);
-            outString.append(", ");
+            if (it.hasNext()) {
+                addCode(", ");
+            }
         }
         return null;
     }
 
     @Override
     public Object visit(NewExpr node) {
-        outString.append("new " + node.getType() + "()");
+        addCode("new " + node.getType() + "()");
         return null;
     }
 
     @Override
     public Object visit(InstanceofExpr node) {
         node.getExpr().accept(this);
-        outString.append(" instanceof " + node.getType());
+        addCode(" instanceof " + node.getType());
         return null;
     }
 
     @Override
     public Object visit(CastExpr node) {
-        outString.append("cast(" + node.getType() + ", ");
+        addCode("cast(" + node.getType() + ", ");
         node.getExpr().accept(this);
-        outString.append(")");
+        addCode(")");
         return null;
     }
 
     @Override
     public Object visit(AssignExpr node) {
         if (node.getRefName() != null) {
-            outString.append(node.getRefName() + ".");
+            addCode(node.getRefName() + ".");
         }
-        outString.append(node.getName() + " = ");
+        addCode(node.getName() + " = ");
         node.getExpr().accept(this);
         return null;
     }
@@ -254,7 +326,7 @@ public class PrettyPrinterVisitor extends Visitor {
     @Override
     public Object visit(BinaryCompEqExpr node) {
         node.getLeftExpr().accept(this);
-        outString.append(" " + node.getOpName() + " ");
+        addCode(" " + node.getOpName() + " ");
         node.getRightExpr().accept(this);
         return null;
     }
@@ -262,7 +334,7 @@ public class PrettyPrinterVisitor extends Visitor {
     @Override
     public Object visit(BinaryCompNeExpr node) {
         node.getLeftExpr().accept(this);
-        outString.append(" " + node.getOpName() + " ");
+        addCode(" " + node.getOpName() + " ");
         node.getRightExpr().accept(this);
         return null;
     }
@@ -270,7 +342,7 @@ public class PrettyPrinterVisitor extends Visitor {
     @Override
     public Object visit(BinaryCompLtExpr node) {
         node.getLeftExpr().accept(this);
-        outString.append(" " + node.getOpName() + " ");
+        addCode(" " + node.getOpName() + " ");
         node.getRightExpr().accept(this);
         return null;
     }
@@ -278,7 +350,7 @@ public class PrettyPrinterVisitor extends Visitor {
     @Override
     public Object visit(BinaryCompLeqExpr node) {
         node.getLeftExpr().accept(this);
-        outString.append(" " + node.getOpName() + " ");
+        addCode(" " + node.getOpName() + " ");
         node.getRightExpr().accept(this);
         return null;
     }
@@ -286,7 +358,7 @@ public class PrettyPrinterVisitor extends Visitor {
     @Override
     public Object visit(BinaryCompGtExpr node) {
         node.getLeftExpr().accept(this);
-        outString.append(" " + node.getOpName() + " ");
+        addCode(" " + node.getOpName() + " ");
         node.getRightExpr().accept(this);
         return null;
     }
@@ -294,7 +366,7 @@ public class PrettyPrinterVisitor extends Visitor {
     @Override
     public Object visit(BinaryCompGeqExpr node) {
         node.getLeftExpr().accept(this);
-        outString.append(" " + node.getOpName() + " ");
+        addCode(" " + node.getOpName() + " ");
         node.getRightExpr().accept(this);
         return null;
     }
@@ -302,7 +374,7 @@ public class PrettyPrinterVisitor extends Visitor {
     @Override
     public Object visit(BinaryArithPlusExpr node) {
         node.getLeftExpr().accept(this);
-        outString.append(" " + node.getOpName() + " ");
+        addCode(" " + node.getOpName() + " ");
         node.getRightExpr().accept(this);
         return null;
     }
@@ -310,7 +382,7 @@ public class PrettyPrinterVisitor extends Visitor {
     @Override
     public Object visit(BinaryArithMinusExpr node) {
         node.getLeftExpr().accept(this);
-        outString.append(" " + node.getOpName() + " ");
+        addCode(" " + node.getOpName() + " ");
         node.getRightExpr().accept(this);
         return null;
     }
@@ -318,7 +390,7 @@ public class PrettyPrinterVisitor extends Visitor {
     @Override
     public Object visit(BinaryArithTimesExpr node) {
         node.getLeftExpr().accept(this);
-        outString.append(" " + node.getOpName() + " ");
+        addCode(" " + node.getOpName() + " ");
         node.getRightExpr().accept(this);
         return null;
     }
@@ -326,7 +398,7 @@ public class PrettyPrinterVisitor extends Visitor {
     @Override
     public Object visit(BinaryArithDivideExpr node) {
         node.getLeftExpr().accept(this);
-        outString.append(" " + node.getOpName() + " ");
+        addCode(" " + node.getOpName() + " ");
         node.getRightExpr().accept(this);
         return null;
     }
@@ -334,7 +406,7 @@ public class PrettyPrinterVisitor extends Visitor {
     @Override
     public Object visit(BinaryArithModulusExpr node) {
         node.getLeftExpr().accept(this);
-        outString.append(" " + node.getOpName() + " ");
+        addCode(" " + node.getOpName() + " ");
         node.getRightExpr().accept(this);
         return null;
     }
@@ -342,7 +414,7 @@ public class PrettyPrinterVisitor extends Visitor {
     @Override
     public Object visit(BinaryLogicAndExpr node) {
         node.getLeftExpr().accept(this);
-        outString.append(" " + node.getOpName() + " ");
+        addCode(" " + node.getOpName() + " ");
         node.getRightExpr().accept(this);
         return null;
     }
@@ -350,21 +422,21 @@ public class PrettyPrinterVisitor extends Visitor {
     @Override
     public Object visit(BinaryLogicOrExpr node) {
         node.getLeftExpr().accept(this);
-        outString.append(" " + node.getOpName() + " ");
+        addCode(" " + node.getOpName() + " ");
         node.getRightExpr().accept(this);
         return null;
     }
 
     @Override
     public Object visit(UnaryNegExpr node) {
-        outString.append(node.getOpName());
+        addCode(node.getOpName());
         node.getExpr().accept(this);
         return null;
     }
 
     @Override
     public Object visit(UnaryNotExpr node) {
-        outString.append(node.getOpName());
+        addCode(node.getOpName());
         node.getExpr().accept(this);
         return null;
     }
@@ -373,9 +445,9 @@ public class PrettyPrinterVisitor extends Visitor {
     public Object visit(UnaryIncrExpr node) {
         if (node.isPostfix()) {
             node.getExpr().accept(this);
-            outString.append(node.getOpName());
+            addCode(node.getOpName());
         } else {
-            outString.append(node.getOpName());
+            addCode(node.getOpName());
             node.getExpr().accept(this);
         }
         return null;
@@ -385,9 +457,9 @@ public class PrettyPrinterVisitor extends Visitor {
     public Object visit(UnaryDecrExpr node) {
         if (node.isPostfix()) {
             node.getExpr().accept(this);
-            outString.append(node.getOpName());
+            addCode(node.getOpName());
         } else {
-            outString.append(node.getOpName());
+            addCode(node.getOpName());
             node.getExpr().accept(this);
         }
         return null;
@@ -397,40 +469,42 @@ public class PrettyPrinterVisitor extends Visitor {
     public Object visit(VarExpr node) {
         if (node.getRef() != null) {
             node.getRef().accept(this);
-            outString.append(".");
+            addCode(".");
         }
-        outString.append(node.getName());
+        addCode(node.getName());
         return null;
     }
 
 
     @Override
     public Object visit(ConstIntExpr node) {
-        outString.append(node.getIntConstant());
+        addCode(Integer.toString(node.getIntConstant()));
         return null;
     }
 
     @Override
     public Object visit(ConstBooleanExpr node) {
-        outString.append(node.getConstant());
+        addCode(node.getConstant());
         return null;
     }
 
     @Override
     public Object visit(ConstStringExpr node) {
-        outString.append(node.getConstant());
+        addCode(node.getConstant());
         return null;
     }
 
 
     /** Add the right level of indentation at the start of a new line. */
     public void addIndentation() {
-        outString.append(new String(new char[indentationLevel]).replace("\0", "\t"));
+        for (int i = 0; i < indentationLevel; i++) {
+            addCode("\t");
+        }
     }
 
     /** Start a new block by print out a left curly brace and switch to a new line. */
     public void startBlock() {
-        outString.append("{ \n");
+        addCode("{ \n");
         indentationLevel++;
     }
 
@@ -438,7 +512,7 @@ public class PrettyPrinterVisitor extends Visitor {
     public void endBlock() {
         indentationLevel--;
         addIndentation();
-        outString.append("} \n");
+        addCode("} \n");
     }
 
 
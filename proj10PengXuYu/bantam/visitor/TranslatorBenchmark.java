@@ -0,0 +1,115 @@
+/*
+ * File: TranslatorBenchmark.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.bantam.visitor;
+
+import proj10PengXuYu.bantam.ast.Program;
+import proj10PengXuYu.bantam.parser.Parser;
+import proj10PengXuYu.bantam.util.Benchmarks;
+import proj10PengXuYu.bantam.util.ErrorHandler;
+import proj10PengXuYu.bantam.util.ProgramGenerator;
+
+/**
+ * A timing harness for the TranslatorVisitor on generated programs of 250 to
+ * 16000 methods, doubling the size each time. For each size it prints the
+ * time of a translation and the time per character of output, which stays
+ * about the same as the programs grow since the translation is linear. For
+ * the smaller sizes, it also times the translator the way it was, which
+ * rebuilt the whole output string on every append, and so took quadratic
+ * time, and checks that both produce the same code.
+ *
+ * Usage: java proj10PengXuYu.bantam.visitor.TranslatorBenchmark
+ */
+public class TranslatorBenchmark
+{
+    /** number of methods of the smallest and the largest programs */
+    private static final int MIN_METHODS = 250;
+    private static final int MAX_METHODS = 16000;
+    /** largest number of methods of a program given to the old translator */
+    private static final int MAX_REBUILDING_METHODS = 1000;
+    /** number of methods of each class */
+    private static final int METHODS_PER_CLASS = 10;
+
+    /**
+     * The translator as it was: every append makes a new string of all the
+     * output so far.
+     */
+    private static final class RebuildingTranslator extends TranslatorVisitor
+    {
+        private String output;
+
+        @Override
+        protected void addCode(CharSequence code) {
+            output = output + code;
+        }
+
+        String translate(Program program) {
+            output = "";
+            program.accept(this);
+            return output;
+        }
+    }
+
+    /**
+     * Translates a program once.
+     */
+    private interface Translation
+    {
+        String run(Program program);
+    }
+
+    /**
+     * Generates a program with the given number of methods.
+     */
+    private static String generate(int numMethods) {
+        ProgramGenerator generator = new ProgramGenerator(numMethods / METHODS_PER_CLASS);
+        generator.setMethodsPerClass(METHODS_PER_CLASS);
+        return generator.generate();
+    }
+
+    /**
+     * Times a translation of a program and prints the result.
+     *
+     * @return the code produced
+     */
+    private static String measure(String label, Program program, Translation translation) {
+        String code = translation.run(program);
+        double millis = Benchmarks.time(() -> translation.run(program));
+        System.out.println(String.format("  %-22s %10.2f ms %8.2f ns/char", label,
+                millis, millis * 1e6 / code.length()));
+        return code;
+    }
+
+    /**
+     * runs the benchmark
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        // warm up on a large program first, so the small ones are not
+        // measured while the JIT is still compiling the visitor
+        Program large = new Parser(new ErrorHandler()).parse(generate(MAX_METHODS / 4),
+                "Benchmark.btm");
+        Benchmarks.time(() -> new TranslatorVisitor().generateOutputString(large));
+        for (int numMethods = MIN_METHODS; numMethods <= MAX_METHODS; numMethods *= 2) {
+            Program program = new Parser(new ErrorHandler()).parse(generate(numMethods),
+                    "Benchmark.btm");
+            String code = new TranslatorVisitor().generateOutputString(program);
+            System.out.println(String.format("%d methods, %d chars of Java", numMethods,
+                    code.length()));
+            measure("appending", program, p -> new TranslatorVisitor().generateOutputString(p));
+            if (numMethods <= MAX_REBUILDING_METHODS) {
+                String rebuilt = measure("rebuilding the string", program,
+                        p -> new RebuildingTranslator().translate(p));
+                if (! rebuilt.equals(code)) {
+                    System.out.println("  the translators produce different code!");
+                }
+            }
+        }
+    }
+}
@@ -17,8 +17,8 @@ import proj10PengXuYu.bantam.util.Error;
 /**
  * TranslatorVisitor class creates a visitor that traverses the AST to
  * translate a legal Bantam Java program to an equivalent Java program.
- * When visiting each node in the tree, it adds the pretty formatted
- * Java code to the outString field.
+ * When visiting each node in the tree, it appends the pretty formatted
+ * Java code to the output of the PrettyPrinterVisitor.
  *
  * Note: Comments are ignored because they are thrown away by the scanner.
  */
@@ -44,11 +44,6 @@ public class TranslatorVisitor extends PrettyPrinterVisitor {
         addIndentation();
         addCode("public " + node.getReturnType() + " " + node.getName() + "(");
         node.getFormalList().accept(this);
-        // remove the last two chars, ie. "," and " ", if formal list is not empty
-        int strLength = getOutString().length();
-        if (getOutString().charAt(strLength-1) != '(') {
-            addCode(getOutString().substring(0, strLength - 2));
-        }
         addCode(") ");
         startBlock();
         node.getStmtList().accept(this);
@@ -124,11 +119,6 @@ public class TranslatorVisitor extends PrettyPrinterVisitor {
         return null;
     }
 
-    private void addCode(String newCode) {
-        setOutString(getOutString() + newCode);
-    }
-
-
     // * for testing purpose
     public static void main(String[] args) {
         TranslatorVisitor translator = new TranslatorVisitor();
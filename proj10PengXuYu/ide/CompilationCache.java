@@ -0,0 +1,415 @@
+/*
+ * File: CompilationCache.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.ide;
+
+import proj10PengXuYu.bantam.ast.Program;
+import proj10PengXuYu.bantam.codegenjvm.CodeGenerator;
+import proj10PengXuYu.bantam.parser.Parser;
+import proj10PengXuYu.bantam.semant.SemanticAnalyzer;
+import proj10PengXuYu.bantam.util.ClassTreeNode;
+import proj10PengXuYu.bantam.util.CompilationException;
+import proj10PengXuYu.bantam.util.Error;
+import proj10PengXuYu.bantam.util.ErrorHandler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers what the compiler made of the programs it was given, so that
+ * checking, compiling or interpreting a program that has not changed since
+ * the last time skips straight to the result. Each program is looked up by
+ * a SHA-256 hash of its source, the name it is compiled under (which is part
+ * of the error messages), and COMPILER_VERSION. What is kept for a program
+ * is its errors, or else its AST with the class hierarchy, and the classes
+ * generated from it once it is compiled.
+ *
+ * The cache holds the programs used most recently, up to a number of them.
+ * If it is given a directory, the errors and the classes of each program are
+ * also saved there, one file per program named by its hash, so they are
+ * found again after the IDE is restarted. The AST is only kept in memory,
+ * and is made again from the source when it is needed for a program whose
+ * entry was read from the directory. The programs of a file are checked
+ * by an incremental SemanticAnalyzer, so after an edit only the classes that
+ * changed, and the ones depending on them, are checked again.
+ */
+public class CompilationCache {
+
+    /**
+     * the version of the compiler, which is part of the hash of a program;
+     * it must change whenever the compiler changes what it reports or
+     * generates, so that the entries saved by an older one are not used
+     */
+    public static final String COMPILER_VERSION = "bantam-proj10-1";
+    /** the system property with the directory to save the entries in */
+    public static final String DIRECTORY_PROPERTY = "bantam.cacheDir";
+
+    // the first bytes of a file of the directory
+    private static final int MAGIC = 0x42544d43;
+    // the extension of the files of the directory
+    private static final String EXTENSION = ".bin";
+
+    // the largest number of programs in memory
+    private final int maxEntries;
+    // the directory the entries are saved in, or null
+    private final Path directory;
+    // the entries by hash, least recently used first
+    private final Map<String, Entry> entries;
+    // an analyzer in incremental mode for each file name, least recently
+    // used first, so that the classes that did not change since the last
+    // time a file was analyzed are not checked again
+    private final Map<String, SemanticAnalyzer> analyzers;
+
+    /**
+     * What the compiler made of a program: its errors, or else its AST and
+     * class hierarchy (unless the entry was read from the directory), and
+     * its classes once it is compiled.
+     */
+    public static final class Entry {
+        // the hash of the program
+        private final String key;
+        // the errors, in the order of the ErrorHandler
+        private final List<Error> errors;
+        // the number of errors beyond the limit of the ErrorHandler
+        private final long numDropped;
+        // the AST and the class hierarchy, or null
+        private final Program program;
+        private final ClassTreeNode root;
+        // the bytes of each class by class name, or null until compiled
+        private Map<String, byte[]> classes;
+
+        private Entry(String key, List<Error> errors, long numDropped,
+                      Program program, ClassTreeNode root, Map<String, byte[]> classes) {
+            this.key = key;
+            this.errors = errors;
+            this.numDropped = numDropped;
+            this.program = program;
+            this.root = root;
+            this.classes = classes;
+        }
+
+        /* Getter for the errors of the program, empty if it is legal */
+        public List<Error> getErrors() {
+            return errors;
+        }
+
+        /* Getter for the number of errors that were not reported */
+        public long getNumDropped() {
+            return numDropped;
+        }
+
+        /* Returns whether the program has errors */
+        public boolean hasErrors() {
+            return ! errors.isEmpty();
+        }
+
+        /* Getter for the AST, or null if the program has errors */
+        public Program getProgram() {
+            return program;
+        }
+
+        /* Getter for the root of the class hierarchy, or null if the program has errors */
+        public ClassTreeNode getRoot() {
+            return root;
+        }
+
+        /* Getter for the classes, or null if the program has not been compiled */
+        public Map<String, byte[]> getClasses() {
+            return classes;
+        }
+    }
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maxEntries the largest number of programs kept in memory
+     * @param directory  the directory to save the entries in, which is created
+     *                   if it does not exist, or null to keep them in memory only
+     */
+    public CompilationCache(int maxEntries, Path directory) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.maxEntries = maxEntries;
+        this.directory = directory;
+        this.entries = newLruMap(maxEntries);
+        this.analyzers = newLruMap(maxEntries);
+    }
+
+    /**
+     * Returns a map that keeps the entries used most recently, up to a number.
+     */
+    private static <V> Map<String, V> newLruMap(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Finds the errors of a program, checking it if it is not in the cache.
+     *
+     * @param filename the name the program is compiled under
+     * @param source   the source of the program
+     * @return the entry of the program, whose errors are known
+     */
+    public synchronized Entry check(String filename, String source) {
+        return lookup(filename, source, false);
+    }
+
+    /**
+     * Finds the AST of a program, checking it if it is not in the cache,
+     * such as to interpret it. The AST is only read by the callers.
+     *
+     * @param filename the name the program is compiled under
+     * @param source   the source of the program
+     * @return the entry of the program, with its AST and class hierarchy
+     *         unless it has errors
+     */
+    public synchronized Entry analyze(String filename, String source) {
+        return lookup(filename, source, true);
+    }
+
+    /**
+     * Finds the classes of a program, compiling it if it is not in the cache.
+     *
+     * @param filename the name the program is compiled under
+     * @param source   the source of the program
+     * @return the entry of the program, with its classes unless it has errors
+     * @throws IllegalStateException if the program is too large for the
+     *                               limits of a class file
+     */
+    public synchronized Entry compile(String filename, String source) {
+        Entry entry = lookup(filename, source, false);
+        if (entry.hasErrors() || entry.classes != null) {
+            return entry;
+        }
+        if (entry.program == null) {
+            entry = lookup(filename, source, true);
+        }
+        entry.classes = Collections.unmodifiableMap(
+                new CodeGenerator().generate(entry.program, entry.root));
+        save(entry);
+        return entry;
+    }
+
+    /**
+     * Removes all the programs from the cache, and from its directory.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        analyzers.clear();
+        if (directory == null) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException ex) {
+            // the directory does not exist or cannot be read, so it is empty
+        }
+    }
+
+    /**
+     * Finds the entry of a program in memory, then in the directory, and
+     * checks the program if it is not found or its AST is needed but was
+     * not kept.
+     */
+    private Entry lookup(String filename, String source, boolean needProgram) {
+        String key = hash(filename, source);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = load(key);
+            if (entry != null) {
+                entries.put(key, entry);
+            }
+        }
+        if (entry == null || (needProgram && ! entry.hasErrors() && entry.program == null)) {
+            Map<String, byte[]> classes = (entry != null) ? entry.classes : null;
+            entry = analyzeSource(key, filename, source);
+            entry.classes = classes;
+            entries.put(key, entry);
+            save(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Parses and checks a program, with the analyzer of its file.
+     */
+    private Entry analyzeSource(String key, String filename, String source) {
+        SemanticAnalyzer analyzer = analyzers.computeIfAbsent(filename, name -> {
+            SemanticAnalyzer incremental = new SemanticAnalyzer(new ErrorHandler());
+            incremental.setIncremental(true);
+            return incremental;
+        });
+        ErrorHandler errorHandler = analyzer.getErrorHandler();
+        errorHandler.clear();
+        Parser parser = new Parser(errorHandler);
+        // report all the syntax errors at once
+        parser.setRecoverFromErrors(true);
+        try {
+            Program program = parser.parse(source, filename);
+            // the AST of a program with syntax errors is incomplete
+            if (errorHandler.errorsFound()) {
+                throw new CompilationException(errorHandler);
+            }
+            ClassTreeNode root = analyzer.analyze(program);
+            return new Entry(key, List.of(), 0, program, root, null);
+        } catch (CompilationException ex) {
+            return new Entry(key, List.copyOf(errorHandler.getErrorList()),
+                    errorHandler.getNumDropped(), null, null, null);
+        }
+    }
+
+    /**
+     * Returns the hash of a program, in hexadecimal.
+     */
+    private static String hash(String filename, String source) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            // every Java platform has SHA-256
+            throw new IllegalStateException(ex);
+        }
+        for (String part : new String[]{COMPILER_VERSION, filename, source}) {
+            byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+            // the length keeps the parts apart
+            digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.US_ASCII));
+            digest.update((byte) ':');
+            digest.update(bytes);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16))
+                    .append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Saves the errors and the classes of an entry in the directory. The
+     * file is written under another name and then renamed, so that a file
+     * is never read half written. An entry that cannot be saved is only
+     * kept in memory.
+     */
+    private void save(Entry entry) {
+        if (directory == null) {
+            return;
+        }
+        Path file = directory.resolve(entry.key + EXTENSION);
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, entry.key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(COMPILER_VERSION);
+                out.writeLong(entry.numDropped);
+                out.writeInt(entry.errors.size());
+                for (Error error : entry.errors) {
+                    out.writeUTF(error.getKind().name());
+                    out.writeBoolean(error.getFilename() != null);
+                    if (error.getFilename() != null) {
+                        out.writeUTF(error.getFilename());
+                    }
+                    out.writeInt(error.getLineNum());
+                    out.writeUTF(error.getMessage());
+                }
+                out.writeInt((entry.classes == null) ? -1 : entry.classes.size());
+                if (entry.classes != null) {
+                    for (Map.Entry<String, byte[]> c : entry.classes.entrySet()) {
+                        out.writeUTF(c.getKey());
+                        out.writeInt(c.getValue().length);
+                        out.write(c.getValue());
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            try {
+                if (temp != null) {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException ignored) {
+                // the next clear removes it
+            }
+        }
+    }
+
+    /**
+     * Reads the entry of a program from the directory, or returns null if
+     * it is not there. A file that was written by another version of the
+     * compiler, or cannot be read, is deleted.
+     */
+    private Entry load(String key) {
+        if (directory == null) {
+            return null;
+        }
+        Path file = directory.resolve(key + EXTENSION);
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || ! in.readUTF().equals(COMPILER_VERSION)) {
+                throw new IOException("not an entry of this version");
+            }
+            long numDropped = in.readLong();
+            int numErrors = in.readInt();
+            List<Error> errors = new ArrayList<>();
+            for (int i = 0; i < numErrors; i++) {
+                Error.Kind kind = Error.Kind.valueOf(in.readUTF());
+                String filename = in.readBoolean() ? in.readUTF() : null;
+                errors.add(new Error(kind, filename, in.readInt(), in.readUTF()));
+            }
+            int numClasses = in.readInt();
+            Map<String, byte[]> classes = null;
+            if (numClasses >= 0) {
+                classes = new LinkedHashMap<>();
+                for (int i = 0; i < numClasses; i++) {
+                    String name = in.readUTF();
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    classes.put(name, bytes);
+                }
+                classes = Collections.unmodifiableMap(classes);
+            }
+            return new Entry(key, Collections.unmodifiableList(errors), numDropped,
+                    null, null, classes);
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException | RuntimeException ex) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // it is written again when the program is compiled
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * File: ConsoleInput.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.ide;
+
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The standard input of a program run in the IDE: what the user types in the
+ * console, which the program reads as it is entered. It is the System.in of
+ * the programs run by the Interpreter, which are sent the lines typed, and of
+ * the programs run in the runner JVM (see ProgramRunner), which are fed the
+ * bytes of the INPUT frames. Sending never blocks the JavaFX thread, a read
+ * waits for more input like the stdin of a console, and a read waiting ends
+ * with an InterruptedIOException when its thread is interrupted.
+ */
+public class ConsoleInput extends InputStream {
+
+    // the chunks of input sent but not read yet
+    private final BlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+    // the chunk being read
+    private byte[] chunk = new byte[0];
+    private int position;
+
+    /**
+     * Sends a line that the user typed to the program.
+     *
+     * @param input the line, with or without its line terminator
+     */
+    public void send(String input) {
+        String text = input.replaceAll("[\r\n]+$", "") + "\n";
+        feed(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends some bytes of input to the program.
+     *
+     * @param bytes the bytes, which must not be changed afterwards
+     */
+    public void feed(byte[] bytes) {
+        if (bytes.length > 0) {
+            chunks.add(bytes);
+        }
+    }
+
+    /**
+     * Throws away the input that was not read, such as what the last program
+     * run left. It must be called by the thread that reads.
+     */
+    public void clear() {
+        chunks.clear();
+        chunk = new byte[0];
+        position = 0;
+    }
+
+    /**
+     * Reads the next byte, waiting for the user to enter more input if needed.
+     *
+     * @return the byte
+     * @throws InterruptedIOException if the thread was interrupted while waiting
+     */
+    @Override
+    public int read() throws InterruptedIOException {
+        waitForInput();
+        return chunk[position++] & 0xFF;
+    }
+
+    /**
+     * Reads the bytes that are available, waiting for the user to enter more
+     * input if there are none.
+     *
+     * @return the number of bytes read
+     * @throws InterruptedIOException if the thread was interrupted while waiting
+     */
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws InterruptedIOException {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (length == 0) {
+            return 0;
+        }
+        waitForInput();
+        int count = Math.min(length, chunk.length - position);
+        System.arraycopy(chunk, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return chunk.length - position;
+    }
+
+    private void waitForInput() throws InterruptedIOException {
+        while (position == chunk.length) {
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("The program was stopped.");
+            }
+            position = 0;
+        }
+    }
+}
@@ -36,7 +36,7 @@ public class Controller {
     private ToolBarHelper toolBarHelper;
 
     // the GUI nodes given by the FXML file
-    @FXML private Button checkButton, compileRunButton, stopButton;
+    @FXML private Button checkButton, compileRunButton, interpretButton, stopButton;
     @FXML private TabPane tabPane;
     @FXML private MenuItem undoMI, redoMI;
     @FXML private MenuItem selectAllMI, cutMI, copyMI, pasteMI;
@@ -83,11 +83,13 @@ public class Controller {
         }
 
         // Bind compile buttons so that they are disabled when a process is running
-        Button[] buttons = {checkButton, compileRunButton, stopButton};
+        Button[] buttons = {checkButton, compileRunButton, interpretButton};
         for (Button button: buttons) {
             button.disableProperty().bind(
                     Bindings.or(toolBarHelper.getThreadActive(), Util.noTabs(tabPane)));
         }
+        // and the stop button so that it is only enabled when one is running
+        stopButton.disableProperty().bind(toolBarHelper.getThreadActive().not());
 
         // sets the default handler for the console
         terminalHelper.setTerminalHandler();
@@ -281,6 +283,14 @@ public class Controller {
         toolBarHelper.handleCompileRun(event);
     }
 
+    /**
+     * Handler method for Interpret button.
+     */
+    @FXML
+    private void handleInterpret() {
+        toolBarHelper.handleInterpret();
+    }
+
     /**
      * Handles the stop button.
      * @deprecated
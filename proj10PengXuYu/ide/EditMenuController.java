@@ -26,12 +26,6 @@ import proj10PengXuYu.bantam.util.Error;
 import proj10PengXuYu.bantam.util.ErrorHandler;
 import proj10PengXuYu.bantam.visitor.PrettyPrinterVisitor;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -216,25 +210,14 @@ public class EditMenuController {
      */
     public void handlePrettyPrint() {
         CodeArea codeArea = Util.getSelectedTextBox(tabPane);
-        // put the content in code area to a local copy
-        String localFilePath = "./temp/prettyPrint.txt";
-        File newFile = new File(localFilePath);
-        try {
-            Files.createDirectories(Paths.get("./temp"));
-            newFile.createNewFile();
-            BufferedWriter writer = new BufferedWriter(new FileWriter(newFile));
-            writer.write(codeArea.getText());
-            writer.close();
-        } catch (IOException e) {
-            dialogHelper.getAlert("Pretty Print Failed",
-                    "Unable to copy the content to a local copy.").show();
-        }
         // use prettyPrinterVisitor to generate the pretty printed content
         PrettyPrinterVisitor prettyPrinterVisitor = new PrettyPrinterVisitor();
         ErrorHandler errorHandler = new ErrorHandler();
         Parser parser = new Parser(errorHandler);
         try {
-            Program root = parser.parse(localFilePath);
+            // parse the content of the code area without saving it
+            Program root = parser.parse(codeArea.getText(),
+                    Util.getSelectedTab(tabPane).getText());
             String result = prettyPrinterVisitor.generateOutputString(root);
             codeArea.clear();
             codeArea.append(result, "utf-8");
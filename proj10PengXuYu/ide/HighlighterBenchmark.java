@@ -0,0 +1,172 @@
+/*
+ * File: HighlighterBenchmark.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.ide;
+
+import proj10PengXuYu.bantam.lexer.ScannerBenchmark;
+import proj10PengXuYu.bantam.util.Benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A timing harness for the syntax highlighting of the code area. For each input
+ * it compares the regex highlighting the IDE used to do with the LexerHighlighter,
+ * both over the whole document at once, and then times the IncrementalLexer
+ * loading the whole document and relexing one edited line in its middle.
+ * None of it needs JavaFX, since only the style spans are computed.
+ *
+ * Usage: java proj10PengXuYu.ide.HighlighterBenchmark [file ...]
+ * If no files are given, synthetic Bantam Java programs of 1 MB and 10 MB and
+ * a program with long block comments are generated and highlighted instead.
+ */
+public class HighlighterBenchmark {
+
+    // the regex the IDE used for highlighting before LexerHighlighter
+    private static final String[] KEYWORDS = new String[] {
+            "boolean", "break", "catch", "class",
+            "continue", "else", "extends", "finally",
+            "for", "if", "instanceof", "int", "new",
+            "return", "super", "this", "throw", "throws",
+            "try", "void", "while", "var"
+    };
+    private static final Pattern PATTERN = Pattern.compile(
+            "(?<KEYWORD>\\b(" + String.join("|", KEYWORDS) + ")\\b)"
+                    + "|(?<PAREN>[()])"
+                    + "|(?<BRACE>[{}])"
+                    + "|(?<BRACKET>\\[|\\])"
+                    + "|(?<SEMICOLON>;)"
+                    + "|(?<STRING>\"([^\"\\\\]|\\\\.)*\")"
+                    + "|(?<COMMENT>//[^\n]*|/\\*(.|\\R)*?\\*/)"
+                    + "|(?<INTEGER>(?<![\\w\\.])[+-]?\\d+(?![\\w\\.]))"
+    );
+
+    /**
+     * Highlights the text with the regex, like the IDE used to.
+     *
+     * @return the number of spans
+     */
+    private static int highlightWithRegex(String text) {
+        Matcher matcher = PATTERN.matcher(text);
+        int count = 0;
+        while (matcher.find()) {
+            String styleClass =
+                    matcher.group("KEYWORD") != null ? "keyword" :
+                    matcher.group("PAREN") != null ? "paren" :
+                    matcher.group("BRACE") != null ? "brace" :
+                    matcher.group("BRACKET") != null ? "bracket" :
+                    matcher.group("SEMICOLON") != null ? "semicolon" :
+                    matcher.group("STRING") != null ? "string" :
+                    matcher.group("COMMENT") != null ? "comment" : "integer";
+            count += (styleClass != null) ? 2 : 0;
+        }
+        return count + 1;
+    }
+
+    /**
+     * Highlights the text with the LexerHighlighter in one pass.
+     *
+     * @return the number of spans
+     */
+    private static int highlightWithLexer(String text) {
+        int[] count = {0};
+        new LexerHighlighter().highlight(text, LexerHighlighter.NORMAL,
+                (styleClass, length) -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Times one way of highlighting and prints the result.
+     *
+     * @param label the name of the highlighter
+     * @param run   highlights the document once and returns the number of spans
+     */
+    private static void measure(String label, IntSupplier run) {
+        try {
+            int spans = run.getAsInt();
+            double millis = Benchmarks.time(run::getAsInt);
+            System.out.println(String.format("  %-22s %12.3f ms %10d spans",
+                    label, millis, spans));
+        } catch (StackOverflowError e) {
+            System.out.println(String.format("  %-22s failed with a StackOverflowError",
+                    label));
+        }
+    }
+
+    /**
+     * Writes a program whose classes are documented with long block comments.
+     *
+     * @return the generated file, which is deleted when the JVM exits
+     */
+    private static File generateCommentedSource() throws IOException {
+        File file = File.createTempFile("comments", ".btm");
+        file.deleteOnExit();
+        StringBuilder text = new StringBuilder();
+        for (int n = 0; n < 200; n++) {
+            text.append("/*\n");
+            for (int line = 0; line < 200; line++) {
+                text.append(" * line ").append(line).append(" of the comment of class C")
+                        .append(n).append(", with (parens) and \"quotes\" in it\n");
+            }
+            text.append(" */\nclass C").append(n).append(" { int x = ").append(n)
+                    .append("; }\n");
+        }
+        Files.writeString(file.toPath(), text);
+        return file;
+    }
+
+    /**
+     * runs the benchmark
+     *
+     * @param args the pathnames of the files to be highlighted (optional)
+     */
+    public static void main(String[] args) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (String filename : args) {
+            files.add(new File(filename));
+        }
+        if (files.isEmpty()) {
+            files.add(ScannerBenchmark.generateSource(1L << 20));
+            files.add(ScannerBenchmark.generateSource(10L << 20));
+            files.add(generateCommentedSource());
+        }
+
+        for (File file : files) {
+            String text = Files.readString(file.toPath());
+            String[] lines = text.split("\n", -1);
+            System.out.println(String.format("%s (%.1f MB, %d lines)", file.getName(),
+                    file.length() / (1024.0 * 1024.0), lines.length));
+
+            measure("regex", () -> highlightWithRegex(text));
+            measure("lexer, one pass", () -> highlightWithLexer(text));
+            IncrementalLexer lexer = new IncrementalLexer();
+            int[] count = {0};
+            measure("incremental, load", () -> {
+                count[0] = 0;
+                new IncrementalLexer().relex(0, 0, lines.length - 1, i -> lines[i],
+                        lines.length, (styleClass, length) -> count[0]++);
+                return count[0];
+            });
+            lexer.relex(0, 0, lines.length - 1, i -> lines[i], lines.length,
+                    (styleClass, length) -> { });
+            measure("incremental, one edit", () -> {
+                count[0] = 0;
+                // retyping a character in the middle of the document
+                lexer.relex(lines.length / 2, 0, 0, i -> lines[i], lines.length,
+                        (styleClass, length) -> count[0]++);
+                return count[0];
+            });
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * File: IncrementalLexer.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.ide;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Splits the lines of a document into highlighted spans, one line at a time,
+ * with a LexerHighlighter.
+ * The only thing a line needs to know about the lines before it is whether it
+ * starts inside a block comment, so the lexer remembers that start state for
+ * every line. After an edit, lexing starts again at the first changed line and
+ * stops as soon as a line after the edit ends in the state the next line was
+ * already known to start in, because the rest of the document is unchanged.
+ */
+public class IncrementalLexer {
+
+    /** start state of a line that hasn't been lexed since it was inserted */
+    private static final int UNKNOWN = -1;
+
+    /** the start state of each line of the document */
+    private final ArrayList<Integer> startStates = new ArrayList<>();
+
+    /** highlights the lines */
+    private final LexerHighlighter highlighter = new LexerHighlighter();
+
+    /**
+     * Constructor for the lexer of an empty document.
+     */
+    public IncrementalLexer() {
+        startStates.add(LexerHighlighter.NORMAL);
+    }
+
+    /**
+     * Updates the start states after an edit and relexes the lines that may
+     * have changed. The spans of all the relexed lines, including the line
+     * breaks between them, are given to the consumer in order.
+     *
+     * @param firstLine     the line of the document where the edit starts
+     * @param removedBreaks the number of line breaks in the removed text
+     * @param insertedBreaks the number of line breaks in the inserted text
+     * @param lines         gives the text of a line of the edited document
+     * @param lineCount     the number of lines of the edited document
+     * @param spans         receives the style class (null for none) and the
+     *                      length of each span
+     * @return the first line that was relexed, which is firstLine unless
+     *         the start states no longer matched the document
+     */
+    public int relex(int firstLine, int removedBreaks, int insertedBreaks,
+                     IntFunction<String> lines, int lineCount,
+                     ObjIntConsumer<String> spans) {
+        if (firstLine + 1 + removedBreaks <= startStates.size()) {
+            startStates.subList(firstLine + 1, firstLine + 1 + removedBreaks).clear();
+            startStates.addAll(firstLine + 1, Collections.nCopies(insertedBreaks, UNKNOWN));
+        }
+        if (startStates.size() != lineCount) {
+            // lost track of the document, so relex all of it
+            startStates.clear();
+            startStates.addAll(Collections.nCopies(lineCount, UNKNOWN));
+            startStates.set(0, LexerHighlighter.NORMAL);
+            firstLine = 0;
+            insertedBreaks = lineCount - 1;
+        }
+
+        int lastEditedLine = firstLine + insertedBreaks;
+        int line = firstLine;
+        int state = highlighter.highlight(lines.apply(line), startStates.get(line), spans);
+        while (line + 1 < lineCount
+                && (line < lastEditedLine || startStates.get(line + 1) != state)) {
+            spans.accept(null, 1);
+            line++;
+            startStates.set(line, state);
+            state = highlighter.highlight(lines.apply(line), state, spans);
+        }
+        if (line + 1 < lineCount) {
+            // the line break after the last relexed line
+            spans.accept(null, 1);
+        }
+        return firstLine;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * File: JavaCompilerBenchmark.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.ide;
+
+import proj10PengXuYu.bantam.ast.Program;
+import proj10PengXuYu.bantam.codegenjvm.ByteArrayClassLoader;
+import proj10PengXuYu.bantam.codegenjvm.CodeGenerator;
+import proj10PengXuYu.bantam.parser.Parser;
+import proj10PengXuYu.bantam.semant.SemanticAnalyzer;
+import proj10PengXuYu.bantam.util.Benchmarks;
+import proj10PengXuYu.bantam.util.ClassTreeNode;
+import proj10PengXuYu.bantam.util.ErrorHandler;
+import proj10PengXuYu.bantam.util.ProgramGenerator;
+import proj10PengXuYu.bantam.visitor.TranslatorVisitor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * A timing harness for the compilation of translated programs on Compile & Run.
+ * For each program it compares writing Main.java and starting a javac process,
+ * as the IDE used to, with the CodeGenerator, which Compile & Run now uses to
+ * generate the class files directly from the AST, and prints the time the
+ * CodeGenerator saves per run.
+ *
+ * Usage: java proj10PengXuYu.ide.JavaCompilerBenchmark [file ...]
+ * If no files are given, Hello World and two generated programs of 20 and
+ * 200 classes are compiled instead.
+ */
+public class JavaCompilerBenchmark {
+
+    private static final String HELLO_WORLD = "class Main {\n"
+            + "    void main() {\n"
+            + "        var io = new TextIO();\n"
+            + "        io.putString(\"Hello World!\\n\");\n"
+            + "    }\n"
+            + "}\n";
+
+    /**
+     * Generates the class files of a program and loads Main, like Compile & Run
+     * does.
+     *
+     * @return the number of classes generated
+     */
+    private static long generateClasses(Program program, ClassTreeNode root) {
+        Map<String, byte[]> classes = new CodeGenerator().generate(program, root);
+        try {
+            new ByteArrayClassLoader(classes).loadClass("Main");
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+        return classes.size();
+    }
+
+    /**
+     * Compiles Main.java with a javac process, the way the IDE used to.
+     *
+     * @return the number of class files javac wrote
+     */
+    private static long compileWithProcess(String javaCode) {
+        try {
+            Path directory = Files.createTempDirectory("bench");
+            Path javaFile = directory.resolve("Main.java");
+            Files.writeString(javaFile, javaCode);
+            Process process = new ProcessBuilder("javac", javaFile.toString())
+                    .inheritIO().start();
+            if (process.waitFor() != 0) {
+                throw new IllegalStateException("javac failed");
+            }
+            long classFiles;
+            try (Stream<Path> files = Files.list(directory)) {
+                classFiles = files.filter(file -> file.toString().endsWith(".class"))
+                        .count();
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+            return classFiles;
+        } catch (IOException | InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Times one way of compiling and prints the result.
+     *
+     * @param label the name of the way of compiling
+     * @param run   compiles the program once and returns the number of classes
+     * @return the average time of a run in ms
+     */
+    private static double measure(String label, LongSupplier run) {
+        long classes = run.getAsLong();
+        double millis = Benchmarks.time(run::getAsLong);
+        System.out.println(String.format("  %-24s %10.1f ms %6d classes",
+                label, millis, classes));
+        return millis;
+    }
+
+    /**
+     * runs the benchmark
+     *
+     * @param args the pathnames of the Bantam Java programs to compile (optional)
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> programs = new LinkedHashMap<>();
+        for (String filename : args) {
+            programs.put(filename, Files.readString(Path.of(filename)));
+        }
+        if (programs.isEmpty()) {
+            programs.put("Hello World", HELLO_WORLD);
+            programs.put("20 classes", ProgramGenerator.generateProgram(20));
+            programs.put("200 classes", ProgramGenerator.generateProgram(200));
+        }
+
+        for (Map.Entry<String, String> source : programs.entrySet()) {
+            ErrorHandler errorHandler = new ErrorHandler();
+            Program program = new Parser(errorHandler).parse(source.getValue(),
+                    source.getKey());
+            ClassTreeNode root = new SemanticAnalyzer(errorHandler).analyze(program);
+            String javaCode = new TranslatorVisitor().generateOutputString(program);
+            System.out.println(String.format("%s (%d lines of Java)", source.getKey(),
+                    javaCode.split("\n").length));
+            double process = measure("javac process",
+                    () -> compileWithProcess(javaCode));
+            double generator = measure("bytecode generator",
+                    () -> generateClasses(program, root));
+            System.out.println(String.format("  the generator saved %.1f ms per run",
+                    process - generator));
+        }
+    }
+}
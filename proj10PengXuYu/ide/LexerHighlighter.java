@@ -0,0 +1,141 @@
+/*
+ * File: LexerHighlighter.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.ide;
+
+import proj10PengXuYu.bantam.lexer.Keywords;
+import proj10PengXuYu.bantam.lexer.Scanner;
+import proj10PengXuYu.bantam.lexer.Token;
+import proj10PengXuYu.bantam.lexer.TokenBuffer;
+import proj10PengXuYu.bantam.util.ErrorHandler;
+
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Computes the highlighting of Bantam Java code with the Bantam Scanner itself,
+ * so the editor shows the same keywords, constants, comments and errors the
+ * compiler sees. The scanner keeps the comments, and the offsets of the tokens
+ * tell where the white space between them is, so the text is highlighted in a
+ * single pass over the tokens. Since the text is usually one line, a highlighter
+ * keeps one Scanner and one TokenBuffer, and scans each text into the buffer,
+ * so that no Token objects are created.
+ */
+public class LexerHighlighter {
+
+    /** state of text that doesn't start inside a comment */
+    static final int NORMAL = 0;
+    /** state of text that starts inside a block comment */
+    static final int IN_BLOCK_COMMENT = 1;
+
+    /** scans the texts; the errors are shown by the highlighting, so none are kept */
+    private final Scanner scanner = new Scanner("", null,
+            new ErrorHandler(0, ErrorHandler.Order.BY_REGISTRATION));
+    /** holds the tokens of the text being highlighted */
+    private final TokenBuffer tokens = new TokenBuffer(scanner);
+
+    /**
+     * Constructor for a highlighter.
+     */
+    public LexerHighlighter() {
+        scanner.setKeepComments(true);
+    }
+
+    /**
+     * Splits text into highlighted spans.
+     *
+     * @param text  the text to highlight, such as one line or a whole document
+     * @param state NORMAL, or IN_BLOCK_COMMENT if the text starts inside a comment
+     * @param spans receives the style class (null for none) and the length of each
+     *              span, in order; together the spans cover all of the text
+     * @return the state at the end of the text
+     */
+    public int highlight(String text, int state, ObjIntConsumer<String> spans) {
+        int offset = 0;
+        if (state == IN_BLOCK_COMMENT) {
+            int close = text.indexOf("*/");
+            if (close < 0) {
+                emit(spans, "comment", 0, text.length());
+                return IN_BLOCK_COMMENT;
+            }
+            offset = close + 2;
+            emit(spans, "comment", 0, offset);
+        }
+
+        scanner.reset(text, offset, text.length());
+        tokens.clear();
+        int plainStart = offset;
+        state = NORMAL;
+        for (int i = 0; tokens.getKind(i) != Token.Kind.EOF; i++) {
+            String styleClass = getStyleClass(tokens, i);
+            if (styleClass != null) {
+                int start = offset + tokens.getStart(i);
+                int end = offset + tokens.getEnd(i);
+                emit(spans, null, plainStart, start);
+                emit(spans, styleClass, start, end);
+                plainStart = end;
+                state = isUnterminatedComment(text, start, end) ? IN_BLOCK_COMMENT : NORMAL;
+            }
+        }
+        emit(spans, null, plainStart, text.length());
+        return state;
+    }
+
+    /**
+     * Returns the style class used for a token.
+     *
+     * @param tokens the tokens of the text
+     * @param index  the index of the token
+     * @return the name of the style class, or null if the token isn't highlighted
+     */
+    static String getStyleClass(TokenBuffer tokens, int index) {
+        switch (tokens.getKind(index)) {
+            case BREAK: case CAST: case CLASS: case VAR: case ELSE: case EXTENDS:
+            case FOR: case IF: case INSTANCEOF: case NEW: case RETURN: case WHILE:
+            case BOOLEAN:
+                return "keyword";
+            case IDENTIFIER:
+                // int, boolean, void, this, super and null
+                return Keywords.isReservedIdentifier(tokens.getSpelling(index)) ? "keyword" : null;
+            case INTCONST:
+                return "integer";
+            case STRCONST:
+                return "string";
+            case COMMENT:
+                return "comment";
+            case LPAREN: case RPAREN:
+                return "paren";
+            case LCURLY: case RCURLY:
+                return "brace";
+            case SEMICOLON:
+                return "semicolon";
+            case ERROR:
+                return "error";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns true if text[start..end-1] is a block comment without its closing
+     * asterisk and slash, which means the comment goes on after the text.
+     */
+    private static boolean isUnterminatedComment(String text, int start, int end) {
+        return end == text.length() && text.startsWith("/*", start)
+                && (end - start < 4 || !text.startsWith("*/", end - 2));
+    }
+
+    /**
+     * Gives a span to the consumer unless it is empty.
+     */
+    private static void emit(ObjIntConsumer<String> spans, String styleClass,
+                             int start, int end) {
+        if (end > start) {
+            spans.accept(styleClass, end - start);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * File: ProgramRunner.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.ide;
+
+import proj10PengXuYu.bantam.codegenjvm.ByteArrayClassLoader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The main class of the runner JVM that Compile & Run uses (see RunnerProcess).
+ * The runner stays alive between runs, so the programs don't pay for the
+ * startup of a JVM, and the JDK classes they use are already loaded and
+ * compiled by the JIT. For every run it receives the compiled classes from
+ * the IDE and runs the main method of the main class in a new class loader,
+ * so every run starts with fresh static fields.
+ *
+ * The runner talks to the IDE through its stdin and stdout, in frames made of
+ * a type byte and its data. The IDE sends RUN frames with the classes to run
+ * and INPUT frames with what the user types in the console, which the program
+ * reads from System.in. The runner sends OUTPUT frames with what the program
+ * writes to System.out and System.err, and an EXIT frame with the exit code
+ * when the main method returns. A program that calls System.exit ends the
+ * runner itself, and the IDE starts a new one.
+ */
+public class ProgramRunner {
+
+    /** frame with the classes to run: the number of classes, the name, length
+     *  and bytes of each class, and the name of the main class */
+    static final byte RUN = 'R';
+    /** frame with console input: its length and bytes */
+    static final byte INPUT = 'I';
+    /** frame with program output: its length and bytes */
+    static final byte OUTPUT = 'O';
+    /** frame sent when the main method returns: the exit code */
+    static final byte EXIT = 'X';
+
+    // the stdout of the runner, which only carries frames
+    private static DataOutputStream toIde;
+
+    /**
+     * A program to be run.
+     */
+    private static class Run {
+        private final Map<String, byte[]> classes;
+        private final String mainClass;
+
+        Run(Map<String, byte[]> classes, String mainClass) {
+            this.classes = classes;
+            this.mainClass = mainClass;
+        }
+    }
+
+    /**
+     * Sends a frame of output to the IDE.
+     */
+    private static synchronized void sendOutput(byte[] bytes, int offset, int length)
+            throws IOException {
+        toIde.writeByte(OUTPUT);
+        toIde.writeInt(length);
+        toIde.write(bytes, offset, length);
+        toIde.flush();
+    }
+
+    /**
+     * Sends the exit code of a run to the IDE.
+     */
+    private static synchronized void sendExit(int exitCode) throws IOException {
+        toIde.writeByte(EXIT);
+        toIde.writeInt(exitCode);
+        toIde.flush();
+    }
+
+    /**
+     * The System.out and System.err of the programs. Every write is sent to
+     * the IDE right away, so prompts show up before the program reads input.
+     */
+    private static class OutputFrames extends OutputStream {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length > 0) {
+                sendOutput(bytes, offset, length);
+            }
+        }
+    }
+
+    /**
+     * Reads the frames the IDE sends, on a thread of its own so that input
+     * arrives while a program runs. When the IDE closes the pipe, the runner
+     * exits.
+     */
+    private static void readFrames(DataInputStream fromIde, BlockingQueue<Run> runs,
+                                   ConsoleInput input) {
+        try {
+            while (true) {
+                byte type = fromIde.readByte();
+                if (type == RUN) {
+                    int numClasses = fromIde.readInt();
+                    Map<String, byte[]> classes = new HashMap<>();
+                    for (int i = 0; i < numClasses; i++) {
+                        String name = fromIde.readUTF();
+                        byte[] bytes = new byte[fromIde.readInt()];
+                        fromIde.readFully(bytes);
+                        classes.put(name, bytes);
+                    }
+                    runs.add(new Run(classes, fromIde.readUTF()));
+                }
+                else if (type == INPUT) {
+                    byte[] bytes = new byte[fromIde.readInt()];
+                    fromIde.readFully(bytes);
+                    input.feed(bytes);
+                }
+                else {
+                    throw new IOException("Unknown frame type " + type);
+                }
+            }
+        } catch (EOFException e) {
+            // the IDE is gone
+            System.exit(0);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the main method of the main class of a program.
+     *
+     * @return the exit code: 0, or 1 if the program threw an exception
+     */
+    private static int runProgram(Run run, PrintStream output) {
+        try {
+            ClassLoader loader = new ByteArrayClassLoader(run.classes);
+            Class<?> mainClass = Class.forName(run.mainClass, true, loader);
+            Method main = mainClass.getMethod("main", String[].class);
+            // the compiled classes are not public, but the launcher runs them anyway
+            main.setAccessible(true);
+            main.invoke(null, (Object) new String[0]);
+            return 0;
+        } catch (InvocationTargetException e) {
+            // like the java launcher, report the exception the program threw,
+            // without the frames of the runner
+            Throwable exception = e.getCause();
+            StackTraceElement[] trace = exception.getStackTrace();
+            int length = 0;
+            while (length < trace.length
+                    && !trace[length].getClassName().startsWith("jdk.internal.reflect.")) {
+                length++;
+            }
+            exception.setStackTrace(Arrays.copyOf(trace, length));
+            output.print("Exception in thread \"main\" ");
+            exception.printStackTrace(output);
+            return 1;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            output.println("Error: could not run " + run.mainClass + ": " + e);
+            return 1;
+        }
+    }
+
+    /**
+     * runs the programs the IDE sends, one at a time, until the IDE closes
+     * the pipe
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) throws Exception {
+        toIde = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(FileDescriptor.out)));
+        DataInputStream fromIde = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(FileDescriptor.in)));
+        PrintStream output = new PrintStream(new OutputFrames(), true,
+                StandardCharsets.UTF_8);
+        ConsoleInput input = new ConsoleInput();
+        BlockingQueue<Run> runs = new LinkedBlockingQueue<>();
+
+        Thread reader = new Thread(() -> readFrames(fromIde, runs, input), "frames");
+        reader.setDaemon(true);
+        reader.start();
+
+        while (true) {
+            Run run = runs.take();
+            // programs may have redirected them, e.g. with TextIO.writeFile
+            System.setOut(output);
+            System.setErr(output);
+            System.setIn(input);
+            int exitCode = runProgram(run, output);
+            output.flush();
+            input.clear();
+            sendExit(exitCode);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * File: RunnerProcess.java
+ * Names: Ricky Peng, Andy Xu, Alex Yu
+ * Class: CS 361
+ * Project 10
+ * Date: May 2022
+ */
+
+package proj10PengXuYu.ide;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The IDE's side of the runner JVM that Compile & Run uses (see ProgramRunner).
+ * The runner is started ahead of time and reused for every run. Whenever it
+ * exits, because a program called System.exit or because it was killed by
+ * the Stop button, a new runner is started right away, so the next run
+ * finds a runner ready. The runner exits by itself when the IDE exits and
+ * its stdin is closed.
+ */
+public class RunnerProcess {
+
+    // the runner JVM, or null before the first start
+    private Process process;
+    // the stdin of the runner
+    private DataOutputStream toRunner;
+    // the stdout of the runner
+    private DataInputStream fromRunner;
+
+    /**
+     * Starts the runner JVM if it is not running. The JVM starts up in the
+     * background, so this returns right away.
+     *
+     * @throws IOException if the java launcher cannot be started
+     */
+    public synchronized void start() throws IOException {
+        if (process != null && process.isAlive()) {
+            return;
+        }
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                ProgramRunner.class.getName())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        toRunner = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        fromRunner = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+    }
+
+    /**
+     * Runs a program in the runner and waits for it to finish.
+     *
+     * @param classes   the bytes of each class of the program by class name
+     * @param mainClass the name of the class whose main method is run
+     * @param output    receives the text the program writes to System.out and
+     *                  System.err, in pieces as it is written
+     * @return the exit code of the program: 0 if its main method returned,
+     *         1 if it threw an exception, its status if it called System.exit,
+     *         or the exit code of the runner if it was killed
+     * @throws IOException if the runner cannot be started
+     */
+    public int run(Map<String, byte[]> classes, String mainClass,
+                   Consumer<String> output) throws IOException {
+        Process runner;
+        DataInputStream in;
+        synchronized (this) {
+            start();
+            runner = process;
+            in = fromRunner;
+            try {
+                toRunner.writeByte(ProgramRunner.RUN);
+                toRunner.writeInt(classes.size());
+                for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                    toRunner.writeUTF(entry.getKey());
+                    toRunner.writeInt(entry.getValue().length);
+                    toRunner.write(entry.getValue());
+                }
+                toRunner.writeUTF(mainClass);
+                toRunner.flush();
+            } catch (IOException e) {
+                // the runner died while idle, so the frames are read below
+                // until its end
+            }
+        }
+
+        // a character can be split between two frames
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer undecoded = ByteBuffer.allocate(0);
+        try {
+            while (true) {
+                byte type = in.readByte();
+                if (type == ProgramRunner.OUTPUT) {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    ByteBuffer buffer = ByteBuffer.allocate(
+                            undecoded.remaining() + bytes.length);
+                    buffer.put(undecoded).put(bytes).flip();
+                    CharBuffer chars = CharBuffer.allocate(buffer.remaining());
+                    decoder.decode(buffer, chars, false);
+                    undecoded = buffer;
+                    output.accept(chars.flip().toString());
+                }
+                else if (type == ProgramRunner.EXIT) {
+                    return in.readInt();
+                }
+                else {
+                    throw new IOException("Unknown frame type " + type);
+                }
+            }
+        } catch (IOException e) {
+            // the runner exited, or it was killed
+            runner.destroyForcibly();
+            int exitCode = waitFor(runner);
+            start();
+            return exitCode;
+        }
+    }
+
+    /**
+     * Gives what the user typed in the console to the running program.
+     *
+     * @param input the text the user typed
+     * @throws IOException if the runner is gone
+     */
+    public synchronized void sendInput(String input) throws IOException {
+        if (process == null) {
+            return;
+        }
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        toRunner.writeByte(ProgramRunner.INPUT);
+        toRunner.writeInt(bytes.length);
+        toRunner.write(bytes);
+        toRunner.flush();
+    }
+
+    /**
+     * Kills the runner, and with it the program it is running, and starts a
+     * new runner for the next run.
+     *
+     * @throws IOException if the new runner cannot be started
+     */
+    public synchronized void kill() throws IOException {
+        if (process != null) {
+            process.destroyForcibly();
+            waitFor(process);
+        }
+        start();
+    }
+
+    /**
+     * Waits for a process that was killed or has exited to end.
+     */
+    private static int waitFor(Process process) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return process.waitFor();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -19,18 +19,18 @@ import javafx.scene.control.TabPane;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import org.fxmisc.richtext.StyleClassedTextArea;
-import proj10PengXuYu.bantam.ast.Program;
-import proj10PengXuYu.bantam.parser.Parser;
-import proj10PengXuYu.bantam.semant.SemanticAnalyzer;
-import proj10PengXuYu.bantam.util.CompilationException;
+import proj10PengXuYu.bantam.codegenjvm.ByteArrayClassLoader;
+import proj10PengXuYu.bantam.interp.Interpreter;
 import proj10PengXuYu.bantam.util.Error;
-import proj10PengXuYu.bantam.util.ErrorHandler;
-import proj10PengXuYu.bantam.visitor.TranslatorVisitor;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 
 /**
  * Helper class that contains implementation for handlers of
@@ -40,6 +40,9 @@ import java.util.Optional;
  */
 public class ToolBarHelper {
 
+    // the number of programs in the cache
+    private static final int CACHE_SIZE = 16;
+
     // get the fileMenuHandlers field of the Controller
     private FileMenuController fileMenuController;
     private TerminalHelper terminalHelper;
@@ -50,11 +53,20 @@ public class ToolBarHelper {
     // the i/o console of the code editor
     private StyleClassedTextArea console;
     // thread used when clicking "Compile&Run" (useful for handleStop method)
-    private Thread processThread;
-    // Process created when running java
-    private Process javaProcess;
+    private volatile Thread processThread;
+    // the warm JVM that runs the compiled programs
+    private final RunnerProcess runner = new RunnerProcess();
+    // the interpreter running the program when "Interpret" was clicked, or null
+    private volatile Interpreter interpreter;
     // bind with buttons to disable them when appropriate
     private SimpleBooleanProperty isThreadActive;
+    // the classes of the program compiled last, by class name
+    private Map<String, byte[]> compiledClasses;
+    // what the compiler made of the programs checked, compiled or interpreted
+    // most recently, saved in the directory named by a system property if set
+    private final CompilationCache cache = new CompilationCache(CACHE_SIZE,
+            Optional.ofNullable(System.getProperty(CompilationCache.DIRECTORY_PROPERTY))
+                    .map(Paths::get).orElse(null));
 
     /**
      * Constructor for a ToolBarHelper object.
@@ -77,8 +89,13 @@ public class ToolBarHelper {
         this.tabPane = tabPane;
         this.console = ioConsole;
         this.processThread = null;
-        this.javaProcess = null;
         this.isThreadActive = new SimpleBooleanProperty(false);
+        // start the runner now, so it is ready by the first run
+        try {
+            this.runner.start();
+        } catch (IOException ex) {
+            // the first run tries again and reports the error
+        }
     }
 
     /* Getter for isThreadActive field */
@@ -88,7 +105,7 @@ public class ToolBarHelper {
 
 
     /**
-     * Convert the Bantam Java program to a Java program and compile it.
+     * Compile the Bantam Java program to class files in memory.
      * If the tab is dirty, asks user to save. If user chooses to save, the changes are
      * saved and the tab is compiled. If user chooses not to save, the currently saved
      * version of the file is compiled (the unsaved changes are ignored). If the user
@@ -100,6 +117,9 @@ public class ToolBarHelper {
      * @return a boolean that indicates whether the compilation was successful.
      */
     public boolean compileTab(ActionEvent event) {
+        // the code in the code area, which is the same as the saved file
+        // unless the user chooses not to save the changes
+        String bantamCode = Util.getSelectedTextBox(tabPane).getText();
         // try save the file before compiling it
         if (fileMenuController.selectedTabIsDirty()) {
             // Creates new dialog
@@ -124,6 +144,8 @@ public class ToolBarHelper {
                 return false;
             }
             else if (result.isPresent() && result.get() == ButtonType.NO) {
+                // compile the saved file instead
+                bantamCode = null;
                 // if user chooses NO and the current tab is not saved before
                 if (! fileMenuController.getSavedPaths().containsKey(
                         Util.getSelectedTab(tabPane))) {
@@ -137,54 +159,30 @@ public class ToolBarHelper {
             }
         }
 
-        // convert the Bantam Java program to Java program
-        String filepath = fileMenuController.getSavedPaths().get(Util.getSelectedTab(tabPane));
+        // compile the Bantam Java program to class files
         // legal bantam java has to have a Main class with a void main() method
-        String filename = filepath.split(
-                File.separator)[filepath.split(File.separator).length - 1];
-        String newJavaFile = filepath.replace(filename, "Main.java");
-        try {
-            if (! translateBantamJavaToJava(event, filepath, newJavaFile)) {
-                return false;
-            }
-        } catch (IOException ex) {
-            dialogHelper.getAlert("Converting Failed", ex.getMessage()).show();
+        String filepath = fileMenuController.getSavedPaths().get(Util.getSelectedTab(tabPane));
+        long start = System.nanoTime();
+        Map<String, byte[]> classes = compileBantamJava(event, bantamCode, filepath);
+        long millis = (System.nanoTime() - start) / 1000000;
+        if (classes == null) {
+            return false;
         }
-        // new process builder for compilation
-        ProcessBuilder processBuilder = new ProcessBuilder();
-        processBuilder.command("javac", newJavaFile);
-
-        // compile the Java program
-        try {
-            Process process = processBuilder.start();
-            // if an error occurs
-            if ( process.getErrorStream().read() != -1 ) {
-                BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(process.getErrorStream()));
-                String line = reader.readLine();
-                console.appendText("\n");
-                while (line != null) {
-                    console.appendText(line + "\n");
-                    line = reader.readLine();
-                }
-                terminalHelper.displayTerminalPrompt();
-            }
-            int exitValue = 0;
+        // make sure that Main can be loaded and run, without running it,
+        // unless the same classes came from the cache and were checked before
+        if (classes != compiledClasses) {
             try {
-                exitValue = process.waitFor();
-            } catch (InterruptedException e) {
-                dialogHelper.getAlert("Compilation Failed", e.getMessage()).show();
-            }
-            // if compilation process exits successfully
-            if ( exitValue == 0 ) {
-                console.appendText("\nCompilation was successful.\n");
-                return true;
+                new ByteArrayClassLoader(classes).loadClass("Main")
+                        .getMethod("main", String[].class);
+            } catch (ReflectiveOperationException | LinkageError ex) {
+                dialogHelper.getAlert("Compilation Failed",
+                        "The compiled program cannot be run: " + ex).show();
+                return false;
             }
         }
-        catch (IOException ex) {
-            dialogHelper.getAlert("Compilation Failed", ex.getMessage()).show();
-        }
-        return false;
+        compiledClasses = classes;
+        console.appendText(String.format("\nCompilation was successful (%d ms).\n", millis));
+        return true;
     }
 
     /**
@@ -197,78 +195,30 @@ public class ToolBarHelper {
         // run the program if compilation was successful
         if (this.compileTab(event)) {
 
-            String fullpath = fileMenuController.getSavedPaths().get(
-                    Util.getSelectedTab(tabPane)).replace(".btm", "");
-            String classname = fullpath.split(
-                    File.separator)[fullpath.split(File.separator).length - 1];
-            String classpath = fullpath.replace(File.separator + classname, "");
-
-            // new process builder for running with java interpreter
-            ProcessBuilder processBuilder = new ProcessBuilder();
-            processBuilder.command("java", "-cp", classpath, "Main");
-            processBuilder.redirectErrorStream(true);
+            Map<String, byte[]> classes = compiledClasses;
+            // send the lines the user types to the program
+            forwardConsoleInput(runner::sendInput);
 
             // prepare running in a new thread
             processThread = new Thread(() -> {
                 try {
-                    javaProcess = processBuilder.start();
-
-                    // get outStream and inStream
-                    InputStream inStream = javaProcess.getInputStream();
-                    OutputStream outStream = javaProcess.getOutputStream();
-
-                    // handles process input
-                    console.setOnKeyReleased(new EventHandler<>() {
-                        String userInput = "";
-
-                        public void handle(KeyEvent event) {
-                            // get the key that is pressed and add it
-                            userInput += event.getText();
-                            KeyCode keyCode = event.getCode();
-                            // if user presses enter
-                            if (keyCode == KeyCode.ENTER) {
-                                try {
-                                    outStream.write(
-                                            userInput.getBytes(StandardCharsets.UTF_8));
-                                    outStream.flush();
-                                } catch (IOException e) {
-                                    e.printStackTrace();
-                                }
-                                userInput = "";         // start user input over
-                            }
-                            // if user hits backspace
-                            // ! note that it does not correctly handle the case
-                            // ! where user holds backspace key to delete multiple characters
-                            if (keyCode == KeyCode.BACK_SPACE) {
-                                try {
-                                    userInput = userInput.substring(0, userInput.length() - 1);
-                                } catch (StringIndexOutOfBoundsException ex) {
-                                    userInput = "";
-                                }
-                            }
+                    // run Main in the runner, which sends back the process output
+                    int exitCode = runner.run(classes, "Main", output -> {
+                        try {
+                            Util.putOnConsole(output, console);
+                        } catch (IOException e) {
+                            e.printStackTrace();
                         }
                     });
 
-                    // handles process output
-                    int bufferSize = 1024;
-                    char[] buffer = new char[bufferSize];
-
-                    Reader reader = new InputStreamReader(
-                            inStream, StandardCharsets.UTF_8);
-                    for (int numRead;
-                         (numRead = reader.read(buffer, 0, buffer.length)) > 0; ) {
-                        StringBuilder sb = new StringBuilder();
-                        sb.append(buffer, 0, numRead);
-                        Util.putOnConsole(sb.toString(), console);
+                    // if process finished, and was not stopped with the stop button
+                    if (processThread == Thread.currentThread()) {
+                        Platform.runLater(() -> {
+                            console.appendText(String.format(
+                                    "\nProcess finished with exit code %d.\n", exitCode));
+                            terminalHelper.displayTerminalPrompt();
+                        });
                     }
-
-                    // if process finished successfully
-                    Platform.runLater(() -> {
-                        console.appendText(String.format(
-                                "\nProcess finished with exit code %d.\n",
-                                javaProcess.exitValue()));
-                        terminalHelper.displayTerminalPrompt();
-                    });
                 }
                 catch (IOException ex) {
                     Platform.runLater(() -> {
@@ -278,11 +228,13 @@ public class ToolBarHelper {
                 }
                 // after the thread is done running, it should set the internal
                 // field back to null so that the bindings can recognize that
-                // there is no process running
-                this.processThread = null;
-                this.isThreadActive.set(false);
-                // set back to the default handler for terminal input
-                terminalHelper.setTerminalHandler();
+                // there is no process running, unless handleStop already did
+                if (processThread == Thread.currentThread()) {
+                    this.processThread = null;
+                    this.isThreadActive.set(false);
+                    // set back to the default handler for terminal input
+                    terminalHelper.setTerminalHandler();
+                }
             });
             // set the boolean property field and start the thread
             this.isThreadActive.set(true);
@@ -291,17 +243,138 @@ public class ToolBarHelper {
     }
 
     /**
-     * Handles the stop button. Forcefully stops the thread and resets the processThread
-     * to null.
-     * @deprecated
+     * Handler method for the Interpret button. Checks the program in the
+     * selected code area, which doesn't need to be saved first, and runs it
+     * with the Interpreter in a new thread, without generating any code.
+     * The lines typed in the console are the input of the program, and the
+     * Stop button cancels it.
+     */
+    public void handleInterpret() {
+        // filepath, or the name of the tab if it has never been saved
+        String inFile = fileMenuController.getSavedPaths().getOrDefault(
+                Util.getSelectedTab(tabPane), Util.getSelectedTab(tabPane).getText());
+        // the AST is only read, so the one in the cache can be run again
+        CompilationCache.Entry entry = cache.analyze(inFile,
+                Util.getSelectedTextBox(tabPane).getText());
+        if (entry.hasErrors()) {
+            dialogHelper.getAlert("Illegal Bantam Java Program",
+                    "Use Check button to see the errors in the program.").show();
+            return;
+        }
+        Interpreter program = new Interpreter(entry.getProgram(), entry.getRoot());
+
+        ConsoleInput input = new ConsoleInput();
+        PrintStream output = consoleStream();
+        // send the lines the user types to the program
+        forwardConsoleInput(input::send);
+        interpreter = program;
+        // deep recursion in the program needs a large stack
+        processThread = new Thread(null, () -> {
+            try {
+                int exitCode = program.run(input, output, output);
+                // if the program was not stopped with the stop button
+                if (processThread == Thread.currentThread()) {
+                    Platform.runLater(() -> {
+                        console.appendText(String.format(
+                                "\nProcess finished with exit code %d.\n", exitCode));
+                        terminalHelper.displayTerminalPrompt();
+                    });
+                }
+            } catch (CancellationException ex) {
+                // handleStop already reported it
+            }
+            if (processThread == Thread.currentThread()) {
+                this.processThread = null;
+                this.interpreter = null;
+                this.isThreadActive.set(false);
+                terminalHelper.setTerminalHandler();
+            }
+        }, "Bantam interpreter", Interpreter.STACK_SIZE);
+        this.isThreadActive.set(true);
+        processThread.start();
+    }
+
+    /**
+     * Returns a stream that prints to the console. It prints at the end of
+     * every line, when a PrintStream with automatic flushing flushes it.
+     */
+    private PrintStream consoleStream() {
+        OutputStream toConsole = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void flush() throws IOException {
+                if (size() > 0) {
+                    Util.putOnConsole(toString(StandardCharsets.UTF_8), console);
+                    reset();
+                }
+            }
+        };
+        return new PrintStream(toConsole, true, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Receives the lines the user types in the console while a program runs.
+     */
+    private interface InputSink {
+        void send(String input) throws IOException;
+    }
+
+    /**
+     * Sets the handler of the console that sends each line the user types,
+     * when the user presses enter, to the running program.
+     *
+     * @param sink  where to send the lines
+     */
+    private void forwardConsoleInput(InputSink sink) {
+        console.setOnKeyReleased(new EventHandler<>() {
+            String userInput = "";
+
+            public void handle(KeyEvent event) {
+                // get the key that is pressed and add it
+                userInput += event.getText();
+                KeyCode keyCode = event.getCode();
+                // if user presses enter
+                if (keyCode == KeyCode.ENTER) {
+                    try {
+                        sink.send(userInput);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                    userInput = "";         // start user input over
+                }
+                // if user hits backspace
+                // ! note that it does not correctly handle the case
+                // ! where user holds backspace key to delete multiple characters
+                if (keyCode == KeyCode.BACK_SPACE) {
+                    try {
+                        userInput = userInput.substring(0, userInput.length() - 1);
+                    } catch (StringIndexOutOfBoundsException ex) {
+                        userInput = "";
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Handles the stop button. Cancels the program run by the Interpreter, or
+     * kills the runner, which is restarted for the next run, so the thread
+     * waiting for the program ends, and resets the processThread to null.
      */
     public void handleStop() throws IOException {
-        // TODO stop the process as well
         if (processThread != null) {
-            javaProcess.destroyForcibly();
-            processThread.stop(); // ! deprecated
-            this.isThreadActive.set(false);
+            Thread thread = processThread;
             processThread = null;
+            if (interpreter != null) {
+                // the interpreter stops at the next call or loop iteration,
+                // or when the program is waiting for input
+                interpreter.cancel();
+                thread.interrupt();
+                interpreter = null;
+            }
+            else {
+                runner.kill();
+            }
+            this.isThreadActive.set(false);
             Util.putOnConsole("\n\n   Process manually stopped.\n", console);
             terminalHelper.displayTerminalPrompt();
             terminalHelper.setTerminalHandler();
@@ -310,43 +383,37 @@ public class ToolBarHelper {
 
 
     /**
-     * Handles the Check button in the toolbar. Saves the selected code area first.
-     * Then Scanner, Parser, and SemanticAnalyzer are called to check whether
+     * Handles the Check button in the toolbar. The Scanner, Parser, and
+     * SemanticAnalyzer are called on the content of the selected code area,
+     * which doesn't need to be saved first, to check whether
      * the program contains any errors. If so, those errors are printed
      * in the console area. If there are no errors, then a message to that
      * effect is printed in the console.
      */
     public void handleCheck() {
-        // save the selected code area first
-        if (! fileMenuController.handleSave()) {
-            dialogHelper.getAlert("Checking Stopped",
-                    "You canceled file saving.", Alert.AlertType.WARNING).show();
-            return;
-        }
-        // new error handler, parser, and semantic analyzer
-        ErrorHandler errorHandler = new ErrorHandler();
-        Parser parser = new Parser(errorHandler);
-        SemanticAnalyzer analyzer = new SemanticAnalyzer(errorHandler);
-
-        // filepath
-        String inFile = fileMenuController.getSavedPaths().get(
-                Util.getSelectedTab(tabPane));
+        // filepath, or the name of the tab if it has never been saved
+        String inFile = fileMenuController.getSavedPaths().getOrDefault(
+                Util.getSelectedTab(tabPane), Util.getSelectedTab(tabPane).getText());
         try {
             Util.putOnConsole("\n========== Results for checking "
                     + inFile + " =============\n", console);
-            try {
-                Program program = parser.parse(inFile);
-                analyzer.analyze(program);
+            // the scanner, parser, and semantic analyzer only run if the
+            // program is not in the cache
+            CompilationCache.Entry entry = cache.check(inFile,
+                    Util.getSelectedTextBox(tabPane).getText());
+            if (! entry.hasErrors()) {
                 Util.putOnConsole("  Checking was successful.\n", console);
-            } catch (CompilationException ex) {
-                if (ex.getMessage() != null) {
-                    Util.putOnConsole(ex.getMessage() + "\n", console);
-                }
+            }
+            else {
                 Util.putOnConsole("  There were errors:\n", console);
-                List<Error> errors = errorHandler.getErrorList();
+                List<Error> errors = entry.getErrors();
                 for (Error error : errors) {
                     Util.putOnConsole("\t" + error.toString() + "\n", console);
                 }
+                if (entry.getNumDropped() > 0) {
+                    Util.putOnConsole("\t... and " + entry.getNumDropped()
+                            + " more errors\n", console);
+                }
             }
         }
         catch (IOException ex) {
@@ -358,42 +425,43 @@ public class ToolBarHelper {
 
 
     /**
-     * Convert the Bantam Java program to a Java program and store the converted
-     * Java program in a new file.
+     * Compile the Bantam Java program to class files, or find them in the
+     * cache if the program has not changed since it was compiled last.
      *
      * @param event  An ActionEvent object that gives information about the event
      *              and its source.
+     * @param bantamCode  the bantam java program, or null to read it from bantamFile
      * @param bantamFile  the file path of the existing bantam java program
-     * @param newFilePath  the file path of the newly created java program
      *
-     * @return boolean  whether the translation was successful
+     * @return the bytes of each class by class name, or null if the program
+     *         is not legal
      */
-    private boolean translateBantamJavaToJava(ActionEvent event,
-                                              String bantamFile,
-                                              String newFilePath) throws IOException {
-        // check if the Bantam Java program is legal
-        ErrorHandler errorHandler = new ErrorHandler();
-        Parser parser = new Parser(errorHandler);
-        SemanticAnalyzer analyzer = new SemanticAnalyzer(errorHandler);
-        TranslatorVisitor translator = new TranslatorVisitor();
+    private Map<String, byte[]> compileBantamJava(ActionEvent event,
+                                                  String bantamCode,
+                                                  String bantamFile) {
         try {
-            Program program = parser.parse(bantamFile);
-            analyzer.analyze(program);
-            // get the translated code
-            String javaCode = translator.generateOutputString(program);
-
-            // create new file to store the translated code
-            File newFile = new File(newFilePath);
-            newFile.createNewFile();
-            BufferedWriter writer = new BufferedWriter(new FileWriter(newFile));
-            writer.write(javaCode);
-            writer.close();
-            return true;
-        } catch (CompilationException ex) {
-            dialogHelper.getAlert("Illegal Bantam Java Program",
-                    "Use Check button to see the errors in the program.").show();
+            if (bantamCode == null) {
+                bantamCode = Files.readString(Paths.get(bantamFile));
+            }
+            // check if the Bantam Java program is legal and generate the class files
+            CompilationCache.Entry entry = cache.compile(bantamFile, bantamCode);
+            if (entry.hasErrors()) {
+                dialogHelper.getAlert("Illegal Bantam Java Program",
+                        "Use Check button to see the errors in the program.").show();
+                event.consume();
+                return null;
+            }
+            return entry.getClasses();
+        } catch (IOException ex) {
+            dialogHelper.getAlert("Compilation Failed",
+                    "File " + bantamFile + " could not be read.").show();
             event.consume();
-            return false;
+            return null;
+        } catch (IllegalStateException ex) {
+            // the program is too large for the limits of a class file
+            dialogHelper.getAlert("Compilation Failed", ex.getMessage()).show();
+            event.consume();
+            return null;
         }
     }
 